@@ -38,6 +38,11 @@ public class AdhocIdentity implements IDecomposition {
 		return Collections.singletonMap(Map.of(), value);
 	}
 
+	@Override
+	public void decompose(IAdhocSliceWithStep slice, Object value, IDecompositionSink sink) {
+		sink.onObject(Map.of(), value);
+	}
+
 	@Override
 	public List<IWhereGroupbyAdhocQuery> getUnderlyingSteps(AdhocQueryStep step) {
 		return Collections.singletonList(step);
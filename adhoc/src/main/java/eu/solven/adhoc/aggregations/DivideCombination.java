@@ -24,8 +24,10 @@ package eu.solven.adhoc.aggregations;
 
 import java.util.List;
 
+import eu.solven.adhoc.storage.PrimitiveColumn;
+
 // https://learn.microsoft.com/en-us/dax/divide-function-dax
-public class DivideCombination implements ICombination {
+public class DivideCombination implements ICombination, IColumnarCombination {
 
 	public static final String KEY = "DIVIDE";
 
@@ -46,4 +48,24 @@ public class DivideCombination implements ICombination {
 		}
 	}
 
+	@Override
+	public PrimitiveColumn combineColumns(int size, List<PrimitiveColumn> underlyingColumns) {
+		if (underlyingColumns.size() != 2) {
+			throw new IllegalArgumentException("Expected 2 underlyings. Got %s".formatted(underlyingColumns.size()));
+		}
+
+		PrimitiveColumn numerators = underlyingColumns.get(0);
+		PrimitiveColumn denominators = underlyingColumns.get(1);
+
+		PrimitiveColumn output = PrimitiveColumn.ofDoubles(size);
+		for (int row = 0; row < size; row++) {
+			if (numerators.isPresent(row) && denominators.isPresent(row)) {
+				output.setDouble(row, numerators.getDouble(row) / denominators.getDouble(row));
+			} else {
+				output.setDouble(row, Double.NaN);
+			}
+		}
+		return output;
+	}
+
 }
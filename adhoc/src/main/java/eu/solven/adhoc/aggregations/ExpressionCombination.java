@@ -22,7 +22,6 @@
  */
 package eu.solven.adhoc.aggregations;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -33,7 +32,6 @@ import com.ezylang.evalex.parser.ParseException;
 
 import eu.solven.pepper.mappath.MapPathGet;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 
 /**
  * Enable expression-based {@link ICombination}
@@ -41,7 +39,6 @@ import lombok.RequiredArgsConstructor;
  * @author Benoit Lacelle
  * @see https://github.com/ezylang/EvalEx
  */
-@RequiredArgsConstructor
 public class ExpressionCombination implements ICombination {
 
 	public static final String KEY = "EXPRESSION";
@@ -51,20 +48,41 @@ public class ExpressionCombination implements ICombination {
 	@NonNull
 	final List<String> underlyingNames;
 
+	// Parsed once: each evaluation relies on its own copy, sharing the abstract syntax tree, as an Expression holds the
+	// variable values.
+	final Expression parsed;
+
+	public ExpressionCombination(@NonNull String expression, @NonNull List<String> underlyingNames) {
+		this.expression = expression;
+		this.underlyingNames = underlyingNames;
+
+		this.parsed = new Expression(expression);
+		try {
+			parsed.validate();
+		} catch (ParseException e) {
+			throw new IllegalArgumentException("Invalid expression: %s".formatted(expression), e);
+		}
+	}
+
 	@Override
 	public Object combine(List<?> underlyingValues) {
-		Expression exp = new Expression(expression);
-
 		EvaluationValue result;
 		try {
-			Map<String, Object> nameToValue = new HashMap<>();
+			// A copy does not re-parse the expression, and holds no value from another evaluation
+			Expression exp = parsed.copy();
 
-			for (int i = 0; i < Math.min(underlyingNames.size(), underlyingValues.size()); i++) {
-				nameToValue.put(underlyingNames.get(i), underlyingValues.get(i));
+			// Each variable is bound, even if no value is provided for it
+			for (int i = 0; i < underlyingNames.size(); i++) {
+				Object underlyingValue;
+				if (i < underlyingValues.size()) {
+					underlyingValue = underlyingValues.get(i);
+				} else {
+					underlyingValue = null;
+				}
+				exp.with(underlyingNames.get(i), underlyingValue);
 			}
 
-			result = exp.withValues(nameToValue).evaluate();
-
+			result = exp.evaluate();
 		} catch (EvaluationException | ParseException e) {
 			throw new IllegalArgumentException(e);
 		}
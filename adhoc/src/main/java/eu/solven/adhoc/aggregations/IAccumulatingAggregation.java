@@ -0,0 +1,79 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations;
+
+/**
+ * An optional extension of {@link IAggregation}, aggregating into a mutable accumulator instead of building a new
+ * aggregate on each {@link IAggregation#aggregate(Object, Object)}. This is relevant when the aggregate is a large
+ * object (e.g. a Set or a String), which would be copied on each merge.
+ * 
+ * The lifecycle of an accumulator is: {@link #createAccumulator()}, then {@link #accumulate(Object, Object)} for
+ * each value, possibly {@link #mergeAccumulators(Object, Object)}, and {@link #finish(Object)} once the aggregation
+ * is done. `finish(accumulate(accumulate(createAccumulator(), a), b))` has to be equal to `aggregate(a, b)`.
+ * 
+ * @author Benoit Lacelle
+ *
+ */
+public interface IAccumulatingAggregation extends IAggregation {
+	/**
+	 * 
+	 * @param value
+	 * @return true if aggregating this value should switch to an accumulator. Else, the value is aggregated with
+	 *         {@link IAggregation#aggregate(Object, Object)}, which is typically cheaper for primitive values.
+	 */
+	default boolean isAccumulated(Object value) {
+		return true;
+	}
+
+	/**
+	 * 
+	 * @return a new empty, mutable, accumulator
+	 */
+	Object createAccumulator();
+
+	/**
+	 * 
+	 * @param accumulator
+	 * @param value
+	 *            a raw value or a previous aggregate, possibly null.
+	 * @return the accumulator, which may be the input accumulator (once mutated) or a new one.
+	 */
+	Object accumulate(Object accumulator, Object value);
+
+	/**
+	 * 
+	 * @param left
+	 * @param right
+	 *            this accumulator must not be used anymore after this call
+	 * @return the accumulator, which may be left (once mutated) or a new one.
+	 */
+	Object mergeAccumulators(Object left, Object right);
+
+	/**
+	 * 
+	 * @param accumulator
+	 *            this accumulator must not be mutated during this call
+	 * @return the aggregate, as would be returned by {@link IAggregation#aggregate(Object, Object)}.
+	 */
+	Object finish(Object accumulator);
+}
@@ -0,0 +1,40 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations;
+
+/**
+ * A partial aggregate which differs from its final value. e.g. a partial `COUNT` has to be summed with other partial
+ * counts, while a raw value counts as 1; a partial `AVG` holds a sum and a count.
+ * 
+ * Carriers are merged while aggregating the database results, and turned into their final value once the storage is
+ * closed (see {@link eu.solven.adhoc.storage.MultiTypeStorage#closeAccumulators()}).
+ * 
+ * @author Benoit Lacelle
+ */
+public interface IAggregationCarrier {
+	/**
+	 * 
+	 * @return the final value of this partial aggregate, possibly null.
+	 */
+	Object getFinalValue();
+}
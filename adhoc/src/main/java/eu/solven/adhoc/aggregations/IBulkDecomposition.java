@@ -0,0 +1,62 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations;
+
+import java.util.Map;
+import java.util.function.Function;
+
+import eu.solven.adhoc.dag.AdhocQueryStep;
+import eu.solven.adhoc.slice.IAdhocSliceWithStep;
+import eu.solven.adhoc.storage.ValueConsumer;
+
+/**
+ * An {@link IDecomposition} able to decompose all the slices of a step at once. The contributions are grouped by
+ * output coordinate, so that each output coordinate is materialized once, instead of once per input slice.
+ * 
+ * @author Benoit Lacelle
+ */
+public interface IBulkDecomposition extends IDecomposition {
+	/**
+	 * 
+	 * @param step
+	 * @return true if the slices of given step can be decomposed by
+	 *         {@link #decomposeAll(AdhocQueryStep, Iterable, Function, Function)}.
+	 */
+	boolean isBulk(AdhocQueryStep step);
+
+	/**
+	 * 
+	 * @param step
+	 * @param slices
+	 *            the input slices
+	 * @param sliceToValue
+	 *            the value of each input slice. It may be null, if the slice has no value.
+	 * @param outputToConsumer
+	 *            provides the {@link ValueConsumer} of an output coordinate (holding all the groupBy columns of the
+	 *            step). An input slice must contribute at most once into a given output coordinate.
+	 */
+	void decomposeAll(AdhocQueryStep step,
+			Iterable<? extends IAdhocSliceWithStep> slices,
+			Function<? super IAdhocSliceWithStep, ?> sliceToValue,
+			Function<Map<String, ?>, ValueConsumer> outputToConsumer);
+}
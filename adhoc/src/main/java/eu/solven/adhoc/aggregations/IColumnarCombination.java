@@ -0,0 +1,49 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations;
+
+import java.util.List;
+
+import eu.solven.adhoc.storage.PrimitiveColumn;
+
+/**
+ * An optional interface for {@link ICombination}, combining a batch of slices at once. It is used by
+ * {@link eu.solven.adhoc.transformers.CombinatorQueryStep} when each underlying holds only longs or only doubles.
+ * 
+ * It must be consistent with {@link ICombination#combine(List)} on each row, including the type of the output values.
+ * 
+ * @author Benoit Lacelle
+ *
+ */
+public interface IColumnarCombination {
+	/**
+	 * 
+	 * @param size
+	 *            the number of rows (i.e. slices)
+	 * @param underlyingColumns
+	 *            one column per underlying measure, aligned on the same rows
+	 * @return the combined column, or null if these columns are not managed (e.g. due to their types), in which case
+	 *         the slices are combined one by one.
+	 */
+	PrimitiveColumn combineColumns(int size, List<PrimitiveColumn> underlyingColumns);
+}
@@ -55,4 +55,13 @@ public interface ICombination {
 		throw new UnsupportedOperationException(
 				"%s requires the slice to be provided".formatted(this.getClass().getName()));
 	}
+
+	/**
+	 * 
+	 * @return the behavior of this {@link ICombination} given null underlying values. It has to be consistent with
+	 *         {@link #combine(IAdhocSliceWithStep, List)}, as it may lead to some slices not being combined at all.
+	 */
+	default CombinationNullSemantics getNullSemantics() {
+		return CombinationNullSemantics.CUSTOM;
+	}
 }
@@ -37,6 +37,19 @@ import eu.solven.adhoc.slice.IAdhocSliceWithStep;
 public interface IDecomposition {
 	Map<Map<String, ?>, Object> decompose(IAdhocSliceWithStep slice, Object value);
 
+	/**
+	 * Similar to {@link #decompose(IAdhocSliceWithStep, Object)}, but the fragments are written into a sink. It should
+	 * be overridden by decompositions called on many slices, not to allocate a {@link Map} per slice.
+	 * 
+	 * @param slice
+	 * @param value
+	 * @param sink
+	 *            receives each (fragmentCoordinate, fragmentValue)
+	 */
+	default void decompose(IAdhocSliceWithStep slice, Object value, IDecompositionSink sink) {
+		decompose(slice, value).forEach(sink::onObject);
+	}
+
 	/**
 	 * @param step
 	 * @return the columns which MAY be written by decompositions.
@@ -0,0 +1,51 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations;
+
+import java.util.Map;
+
+/**
+ * Receives the fragments produced by an {@link IDecomposition}, without requiring the decomposition to materialize a
+ * {@link Map} per input slice. The primitive overloads enable decompositions producing numbers not to box them.
+ * 
+ * @author Benoit Lacelle
+ *
+ */
+public interface IDecompositionSink {
+	/**
+	 * 
+	 * @param fragmentCoordinate
+	 *            the coordinates written by the decomposition. It typically holds only the decomposition output
+	 *            columns, the other coordinates being those of the input slice.
+	 * @param value
+	 */
+	void onObject(Map<String, ?> fragmentCoordinate, Object value);
+
+	default void onLong(Map<String, ?> fragmentCoordinate, long value) {
+		onObject(fragmentCoordinate, value);
+	}
+
+	default void onDouble(Map<String, ?> fragmentCoordinate, double value) {
+		onObject(fragmentCoordinate, value);
+	}
+}
@@ -64,11 +64,21 @@ public class LinearDecomposition implements IDecomposition {
 
 	@Override
 	public Map<Map<String, ?>, Object> decompose(IAdhocSliceWithStep slice, Object value) {
+		Map<Map<String, ?>, Object> output = new HashMap<>();
+
+		decompose(slice, value, output::put);
+
+		return output;
+	}
+
+	@Override
+	public void decompose(IAdhocSliceWithStep slice, Object value, IDecompositionSink sink) {
 		String inputColumn = MapPathGet.getRequiredString(options, K_INPUT);
 
 		Optional<?> optInput = slice.optFilter(inputColumn);
 		if (optInput.isEmpty()) {
-			return Map.of(Map.of(), value);
+			sink.onObject(Map.of(), value);
+			return;
 		}
 
 		Object input = optInput.get();
@@ -77,16 +87,22 @@ public class LinearDecomposition implements IDecomposition {
 
 		String outputColumn = MapPathGet.getRequiredString(options, K_OUTPUT);
 		if (min.equals(input)) {
-			return Collections.singletonMap(Map.of(outputColumn, min), value);
+			sink.onObject(Map.of(outputColumn, min), value);
 		} else if (max.equals(input)) {
-			return Collections.singletonMap(Map.of(outputColumn, max), value);
+			sink.onObject(Map.of(outputColumn, max), value);
+		} else if (input instanceof Number inputAsNumber && value instanceof Number valueAsNumber
+				&& inputAsNumber.doubleValue() > min.doubleValue()
+				&& inputAsNumber.doubleValue() < max.doubleValue()) {
+			// Same computations as `scale` and `scaleComplement`, without boxing
+			double fraction = inputAsNumber.doubleValue() - min.doubleValue();
+			double denominator = max.doubleValue() - min.doubleValue();
+			double scaled = valueAsNumber.doubleValue() * fraction / denominator;
+
+			sink.onDouble(Map.of(outputColumn, min), scaled);
+			sink.onDouble(Map.of(outputColumn, max), valueAsNumber.doubleValue() - scaled);
 		} else {
-			Map<Map<String, ?>, Object> output = new HashMap<>();
-
-			output.put(Map.of(outputColumn, min), scale(min, max, input, value));
-			output.put(Map.of(outputColumn, max), scaleComplement(min, max, input, value));
-
-			return output;
+			sink.onObject(Map.of(outputColumn, min), scale(min, max, input, value));
+			sink.onObject(Map.of(outputColumn, max), scaleComplement(min, max, input, value));
 		}
 	}
 
@@ -26,8 +26,18 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Map;
 
+import eu.solven.adhoc.aggregations.collection.CardinalityCombination;
+import eu.solven.adhoc.aggregations.collection.CountDistinctAggregator;
 import eu.solven.adhoc.aggregations.max.MaxAggregator;
 import eu.solven.adhoc.aggregations.max.MaxCombination;
+import eu.solven.adhoc.aggregations.max.MinAggregator;
+import eu.solven.adhoc.aggregations.sketch.HllCountDistinctAggregator;
+import eu.solven.adhoc.aggregations.sketch.KllQuantileAggregator;
+import eu.solven.adhoc.aggregations.sketch.SketchEstimateCombination;
+import eu.solven.adhoc.aggregations.sum.AvgAggregator;
+import eu.solven.adhoc.aggregations.sum.CountAggregator;
+import eu.solven.adhoc.aggregations.sum.ProductAggregator;
+import eu.solven.adhoc.aggregations.sum.ProductCombination;
 import eu.solven.adhoc.aggregations.sum.SumAggregator;
 import eu.solven.adhoc.aggregations.sum.SumCombination;
 import lombok.extern.slf4j.Slf4j;
@@ -47,9 +57,18 @@ public class StandardOperatorsFactory implements IOperatorsFactory {
             case DivideCombination.KEY: {
                 yield new DivideCombination();
             }
+            case ProductCombination.KEY: {
+                yield new ProductCombination();
+            }
             case ExpressionCombination.KEY: {
                 yield ExpressionCombination.parse(options);
             }
+            case SketchEstimateCombination.KEY: {
+                yield new SketchEstimateCombination(options);
+            }
+            case CardinalityCombination.KEY: {
+                yield new CardinalityCombination();
+            }
             default:
                 yield defaultCombination(key, options);
         };
@@ -82,6 +101,27 @@ public class StandardOperatorsFactory implements IOperatorsFactory {
             case MaxAggregator.KEY: {
                 yield new MaxAggregator();
             }
+            case MinAggregator.KEY: {
+                yield new MinAggregator();
+            }
+            case CountAggregator.KEY: {
+                yield new CountAggregator();
+            }
+            case AvgAggregator.KEY: {
+                yield new AvgAggregator();
+            }
+            case ProductAggregator.KEY: {
+                yield new ProductAggregator();
+            }
+            case CountDistinctAggregator.KEY: {
+                yield new CountDistinctAggregator();
+            }
+            case HllCountDistinctAggregator.KEY: {
+                yield new HllCountDistinctAggregator(options);
+            }
+            case KllQuantileAggregator.KEY: {
+                yield new KllQuantileAggregator(options);
+            }
             default:
                 yield defaultAggregation(key, options);
         };
@@ -0,0 +1,66 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations.collection;
+
+import java.util.Collection;
+import java.util.List;
+
+import eu.solven.adhoc.aggregations.CombinationNullSemantics;
+import eu.solven.adhoc.aggregations.ICombination;
+import eu.solven.pepper.core.PepperLogHelper;
+
+/**
+ * The number of elements in the underlying value, typically the count of distinct values aggregated by
+ * {@link CountDistinctAggregator} or {@link UnionSetAggregator}.
+ * 
+ * @author Benoit Lacelle
+ */
+public class CardinalityCombination implements ICombination {
+
+	public static final String KEY = "CARDINALITY";
+
+	@Override
+	public Object combine(List<?> underlyingValues) {
+		if (underlyingValues.size() != 1) {
+			throw new IllegalArgumentException(
+					"%s expects a single underlying. Was: %s".formatted(KEY, underlyingValues.size()));
+		}
+
+		Object underlyingValue = underlyingValues.getFirst();
+		if (underlyingValue == null) {
+			return null;
+		} else if (underlyingValue instanceof DistinctIds distinctIds) {
+			return distinctIds.getCardinality();
+		} else if (underlyingValue instanceof Collection<?> collection) {
+			return (long) collection.size();
+		} else {
+			throw new IllegalArgumentException(
+					"Not a collection: %s".formatted(PepperLogHelper.getObjectAndClass(underlyingValue)));
+		}
+	}
+
+	@Override
+	public CombinationNullSemantics getNullSemantics() {
+		return CombinationNullSemantics.NULL_IF_ANY_NULL;
+	}
+}
@@ -0,0 +1,161 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations.collection;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import eu.solven.adhoc.aggregations.IAccumulatingAggregation;
+
+/**
+ * Count the exact number of distinct values. Raw values are mapped to int ids through a {@link ValueDictionary}, and
+ * the aggregate is a {@link DistinctIds}: a {@link RoaringBitmap} of ids. Unlike {@link UnionSetAggregator}, which
+ * holds boxed values in {@link java.util.Set}s, bitmaps stay compact and merge by OR through
+ * {@link eu.solven.adhoc.transformers.Bucketor} roll-ups. The count is read with {@link CardinalityCombination}.
+ * 
+ * An instance holds at most one {@link ValueDictionary}: it is created on the first raw value, or adopted from the
+ * first {@link DistinctIds} aggregated. As a storage relies on a single instance, all its aggregates share the same
+ * dictionary. Aggregates from another dictionary (e.g. from a concurrent partition) are merged by re-mapping their ids.
+ * 
+ * As a {@link ValueDictionary} is not thread-safe, an instance must not be shared by concurrent storages: each partial
+ * storage (e.g. given {@link eu.solven.adhoc.query.StandardQueryOptions#CONCURRENT}) has its own instance.
+ * 
+ * @author Benoit Lacelle
+ */
+public class CountDistinctAggregator implements IAccumulatingAggregation {
+
+	public static final String KEY = "COUNT_DISTINCT";
+
+	ValueDictionary dictionary;
+
+	/**
+	 * The mutable accumulator. Its dictionary is resolved on the first accumulated value.
+	 */
+	static class DistinctIdsAccumulator {
+		ValueDictionary dictionary;
+		final RoaringBitmap ids = new RoaringBitmap();
+	}
+
+	@Override
+	public Object aggregate(Object l, Object r) {
+		if (l == null && r == null) {
+			return null;
+		}
+
+		return finish(accumulate(accumulate(createAccumulator(), l), r));
+	}
+
+	@Override
+	public boolean isAccumulated(Object value) {
+		return value != null;
+	}
+
+	@Override
+	public Object createAccumulator() {
+		DistinctIdsAccumulator accumulator = new DistinctIdsAccumulator();
+		accumulator.dictionary = dictionary;
+		return accumulator;
+	}
+
+	@Override
+	public Object accumulate(Object accumulator, Object value) {
+		DistinctIdsAccumulator distinctIds = (DistinctIdsAccumulator) accumulator;
+
+		if (value == null) {
+			return distinctIds;
+		} else if (value instanceof DistinctIds aggregate) {
+			if (distinctIds.dictionary == null) {
+				distinctIds.dictionary = adoptDictionary(aggregate.getDictionary());
+			}
+			orInto(distinctIds, aggregate.getDictionary(), aggregate.getIds());
+		} else {
+			if (distinctIds.dictionary == null) {
+				distinctIds.dictionary = adoptDictionary(new ValueDictionary());
+			}
+			distinctIds.ids.add(distinctIds.dictionary.toId(value));
+		}
+
+		return distinctIds;
+	}
+
+	/**
+	 * 
+	 * @param candidate
+	 * @return the dictionary of this instance, which is the candidate if this instance has no dictionary yet.
+	 */
+	protected ValueDictionary adoptDictionary(ValueDictionary candidate) {
+		if (dictionary == null) {
+			dictionary = candidate;
+		}
+		return dictionary;
+	}
+
+	protected void orInto(DistinctIdsAccumulator accumulator, ValueDictionary otherDictionary, RoaringBitmap otherIds) {
+		if (accumulator.dictionary == otherDictionary) {
+			accumulator.ids.or(otherIds);
+		} else {
+			// Different dictionaries: ids are re-mapped through their value
+			otherIds.forEach(
+					(int id) -> accumulator.ids.add(accumulator.dictionary.toId(otherDictionary.fromId(id))));
+		}
+	}
+
+	@Override
+	public Object mergeAccumulators(Object left, Object right) {
+		DistinctIdsAccumulator leftIds = (DistinctIdsAccumulator) left;
+		DistinctIdsAccumulator rightIds = (DistinctIdsAccumulator) right;
+
+		if (rightIds.dictionary == null) {
+			return leftIds;
+		} else if (leftIds.dictionary == null) {
+			return rightIds;
+		}
+
+		orInto(leftIds, rightIds.dictionary, rightIds.ids);
+		return leftIds;
+	}
+
+	@Override
+	public Object finish(Object accumulator) {
+		DistinctIdsAccumulator distinctIds = (DistinctIdsAccumulator) accumulator;
+
+		ValueDictionary finishedDictionary = distinctIds.dictionary;
+		if (finishedDictionary == null) {
+			// Nothing has been accumulated
+			finishedDictionary = adoptDictionary(new ValueDictionary());
+		}
+
+		RoaringBitmap ids = distinctIds.ids.clone();
+		ids.runOptimize();
+		return new DistinctIds(finishedDictionary, ids);
+	}
+
+	@Override
+	public double aggregateDoubles(double left, double right) {
+		throw new UnsupportedOperationException("Can not %s on doubles".formatted(KEY));
+	}
+
+	@Override
+	public long aggregateLongs(long left, long right) {
+		throw new UnsupportedOperationException("Can not %s on longs".formatted(KEY));
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations.collection;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * The aggregate of {@link CountDistinctAggregator}: the distinct values, as a {@link RoaringBitmap} of ids in a
+ * {@link ValueDictionary}. The dictionary is typically shared by all the aggregates of a given query step.
+ * 
+ * The bitmap must not be mutated.
+ * 
+ * @author Benoit Lacelle
+ */
+@AllArgsConstructor
+@Getter
+public class DistinctIds {
+	@NonNull
+	final ValueDictionary dictionary;
+
+	@NonNull
+	final RoaringBitmap ids;
+
+	public long getCardinality() {
+		return ids.getLongCardinality();
+	}
+
+	/**
+	 * 
+	 * @return the distinct values. This is costly, as it materializes the values.
+	 */
+	public Set<Object> toValues() {
+		Set<Object> values = new LinkedHashSet<>();
+		ids.forEach((int id) -> values.add(dictionary.fromId(id)));
+		return values;
+	}
+
+	@Override
+	public String toString() {
+		return "DistinctIds(cardinality=%s)".formatted(getCardinality());
+	}
+}
@@ -22,13 +22,14 @@
  */
 package eu.solven.adhoc.aggregations.collection;
 
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 import com.google.common.collect.ImmutableSet;
 
-import eu.solven.adhoc.aggregations.IAggregation;
+import eu.solven.adhoc.aggregations.IAccumulatingAggregation;
 
-public class UnionSetAggregator<K> implements IAggregation {
+public class UnionSetAggregator<K> implements IAccumulatingAggregation {
 
 	public static final String KEY = "UNION_SET";
 
@@ -54,6 +55,39 @@ public class UnionSetAggregator<K> implements IAggregation {
 		}
 	}
 
+	/**
+	 * Sets are collected into a mutable Set, instead of a new {@link ImmutableSet} on each aggregation.
+	 */
+	@Override
+	public boolean isAccumulated(Object value) {
+		return value != null;
+	}
+
+	@Override
+	public Object createAccumulator() {
+		// Linked, to keep the same order as an ImmutableSet
+		return new LinkedHashSet<>();
+	}
+
+	@Override
+	public Object accumulate(Object accumulator, Object value) {
+		if (value != null) {
+			((Set<Object>) accumulator).addAll((Set<?>) value);
+		}
+		return accumulator;
+	}
+
+	@Override
+	public Object mergeAccumulators(Object left, Object right) {
+		((Set<Object>) left).addAll((Set<?>) right);
+		return left;
+	}
+
+	@Override
+	public Object finish(Object accumulator) {
+		return ImmutableSet.copyOf((Set<?>) accumulator);
+	}
+
 	@Override
 	public double aggregateDoubles(double left, double right) {
 		throw new UnsupportedOperationException("Can not %s on doubles".formatted(KEY));
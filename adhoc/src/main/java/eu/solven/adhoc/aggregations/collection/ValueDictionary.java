@@ -0,0 +1,86 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations.collection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import eu.solven.adhoc.aggregations.sum.SumAggregator;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+/**
+ * Maps values to dense int ids, from 0 and in order of appearance. It is append-only: an id never changes once
+ * assigned, so bitmaps of ids remain valid while the dictionary grows.
+ * 
+ * Integer-like values are normalized into {@link Long}, so that `3` and `3L` share the same id.
+ * 
+ * This is not thread-safe: a dictionary has to be appended by a single thread at a time.
+ * 
+ * @author Benoit Lacelle
+ */
+public class ValueDictionary {
+	final Object2IntMap<Object> valueToId = new Object2IntOpenHashMap<>();
+	final List<Object> idToValue = new ArrayList<>();
+
+	public ValueDictionary() {
+		valueToId.defaultReturnValue(-1);
+	}
+
+	/**
+	 * 
+	 * @param value
+	 *            a not-null value
+	 * @return the id of given value, assigning a new id if this value is unknown.
+	 */
+	public int toId(Object value) {
+		Object normalized = normalize(value);
+
+		int id = valueToId.getInt(normalized);
+		if (id < 0) {
+			id = idToValue.size();
+			valueToId.put(normalized, id);
+			idToValue.add(normalized);
+		}
+		return id;
+	}
+
+	public Object fromId(int id) {
+		return idToValue.get(id);
+	}
+
+	public int size() {
+		return idToValue.size();
+	}
+
+	protected Object normalize(Object value) {
+		if (SumAggregator.isLongLike(value)) {
+			return SumAggregator.asLong(value);
+		} else if (value instanceof CharSequence charSequence) {
+			// e.g. a StringBuilder does not implement `.equals`
+			return charSequence.toString();
+		} else {
+			return value;
+		}
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations.many_to_many;
+
+import java.util.function.IntConsumer;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import eu.solven.adhoc.api.v1.pojo.value.IValueMatcher;
+
+/**
+ * An {@link IManyToManyDefinition} where elements and groups are dictionary-encoded into int indexes. It enables
+ * {@link ManyToManyDecomposition} to work on bitmaps of group indexes, instead of {@link java.util.Set} of groups.
+ * 
+ * @author Benoit Lacelle
+ *
+ */
+public interface IManyToManyIndexedDefinition extends IManyToManyDefinition {
+	/**
+	 * 
+	 * @param element
+	 * @return the index of given element, or -1 if this element is unknown.
+	 */
+	int getElementIndex(Object element);
+
+	/**
+	 * 
+	 * @param elementIndex
+	 * @param groupIndexConsumer
+	 *            receives the index of each group including given element
+	 */
+	void forEachGroupIndex(int elementIndex, IntConsumer groupIndexConsumer);
+
+	/**
+	 * 
+	 * @param elementIndex
+	 * @return the indexes of the groups including given element. It must not be mutated.
+	 */
+	default RoaringBitmap getGroupIndexes(int elementIndex) {
+		RoaringBitmap groupIndexes = new RoaringBitmap();
+		forEachGroupIndex(elementIndex, groupIndexes::add);
+		return groupIndexes;
+	}
+
+	/**
+	 * 
+	 * @param groupIndex
+	 * @return the group associated to given index
+	 */
+	Object getGroup(int groupIndex);
+
+	/**
+	 * 
+	 * @param groupMatcher
+	 * @return the indexes of the groups matched by the groupMatcher
+	 */
+	RoaringBitmap getMatchingGroupIndexes(IValueMatcher groupMatcher);
+}
@@ -26,14 +26,21 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
 
 import com.google.common.collect.Sets;
 
+import eu.solven.adhoc.aggregations.IBulkDecomposition;
 import eu.solven.adhoc.aggregations.IDecomposition;
+import eu.solven.adhoc.aggregations.IDecompositionSink;
 import eu.solven.adhoc.api.v1.IAdhocFilter;
 import eu.solven.adhoc.api.v1.IWhereGroupbyAdhocQuery;
 import eu.solven.adhoc.api.v1.filters.IAndFilter;
@@ -49,7 +56,10 @@ import eu.solven.adhoc.query.groupby.GroupByColumns;
 import eu.solven.adhoc.query.groupby.IAdhocColumn;
 import eu.solven.adhoc.query.groupby.ReferencedColumn;
 import eu.solven.adhoc.slice.IAdhocSliceWithStep;
+import eu.solven.adhoc.storage.ValueConsumer;
 import eu.solven.pepper.mappath.MapPathGet;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -57,9 +67,12 @@ import lombok.extern.slf4j.Slf4j;
  * value.
  * <p>
  * For instance, given v=200 on element=FR, we write v=200 into group=G8 and group=G20
+ * <p>
+ * Given an {@link IManyToManyIndexedDefinition}, the slices of a step grouping by the group column are decomposed in
+ * bulk: each element is OR-ed into the bitmap of each of its matching groups, and each group is then written once.
  */
 @Slf4j
-public class ManyToManyDecomposition implements IDecomposition {
+public class ManyToManyDecomposition implements IBulkDecomposition {
 	public static final String KEY = "many_to_many";
 	/**
 	 * The column used as elements: the underlying measure is expressed on this column
@@ -94,12 +107,22 @@ public class ManyToManyDecomposition implements IDecomposition {
 
 	@Override
 	public Map<Map<String, ?>, Object> decompose(IAdhocSliceWithStep slice, Object value) {
+		Map<Map<String, ?>, Object> output = new HashMap<>();
+
+		decompose(slice, value, output::put);
+
+		return output;
+	}
+
+	@Override
+	public void decompose(IAdhocSliceWithStep slice, Object value, IDecompositionSink sink) {
 		String elementColumn = MapPathGet.getRequiredString(options, K_INPUT);
 
 		Optional<?> optInput = slice.optFilter(elementColumn);
 		if (optInput.isEmpty()) {
 			// There is no expressed element
-			return Map.of(Map.of(), value);
+			sink.onObject(Map.of(), value);
+			return;
 		}
 
 		Object element = optInput.get();
@@ -108,24 +131,150 @@ public class ManyToManyDecomposition implements IDecomposition {
 			throw new UnsupportedOperationException("TODO Handle element being a Collection");
 		}
 
-		Set<Object> groups = getGroups(slice, element);
-
 		String groupColumn = MapPathGet.getRequiredString(options, K_OUTPUT);
 
-		return makeDecomposition(element, value, groupColumn, groups);
+		if (manyToManyDefinition instanceof IManyToManyIndexedDefinition indexedDefinition) {
+			decomposeIndexed(slice, indexedDefinition, element, value, groupColumn, sink);
+		} else {
+			Set<Object> groups = getGroups(slice, element);
+
+			groups.forEach(group -> sink.onObject(Map.of(groupColumn, group), scale(element, value)));
+		}
 	}
 
-	private Map<Map<String, ?>, Object> makeDecomposition(Object element,
+	/**
+	 * Relies on bitmaps of group indexes: the groups of the element are intersected with the groups matching the
+	 * filter through a bitmap AND.
+	 */
+	protected void decomposeIndexed(IAdhocSliceWithStep slice,
+			IManyToManyIndexedDefinition indexedDefinition,
+			Object element,
 			Object value,
 			String groupColumn,
-			Set<Object> groups) {
-		Map<Map<String, ?>, Object> output = new HashMap<>();
+			IDecompositionSink sink) {
+		int elementIndex = indexedDefinition.getElementIndex(element);
+		if (elementIndex < 0) {
+			// An element without group does not contribute
+			return;
+		}
+
+		RoaringBitmap elementGroupIndexes = indexedDefinition.getGroupIndexes(elementIndex);
+		RoaringBitmap queryMatchingGroupIndexes = getQueryMatchingGroupIndexes(slice.getQueryStep(), indexedDefinition);
+
+		if (!slice.getQueryStep().getGroupBy().getGroupedByColumns().contains(groupColumn)) {
+			// The groups are not expressed in the output: all groups would contribute into the same output coordinate.
+			// We only need to know if at least one group is matched
+			if (RoaringBitmap.intersects(elementGroupIndexes, queryMatchingGroupIndexes)) {
+				sink.onObject(Map.of(), scale(element, value));
+			}
+			return;
+		}
+
+		RoaringBitmap matchingGroupIndexes = RoaringBitmap.and(elementGroupIndexes, queryMatchingGroupIndexes);
+
+		log.debug("Element={} led to accepted #groups={}", element, matchingGroupIndexes.getCardinality());
+
+		IntIterator groupIndexes = matchingGroupIndexes.getIntIterator();
+		while (groupIndexes.hasNext()) {
+			Object group = indexedDefinition.getGroup(groupIndexes.next());
+			sink.onObject(Map.of(groupColumn, group), scale(element, value));
+		}
+	}
+
+	@Override
+	public boolean isBulk(AdhocQueryStep step) {
+		String groupColumn = MapPathGet.getRequiredString(options, K_OUTPUT);
+
+		// If the group column is not grouped-by, each element contributes at most once per slice: there is nothing to
+		// group by output coordinate
+		return manyToManyDefinition instanceof IManyToManyIndexedDefinition
+				&& step.getGroupBy().getGroupedByColumns().contains(groupColumn);
+	}
+
+	/**
+	 * The accumulators of the elements sharing the same coordinates on the other columns.
+	 */
+	protected static class GroupsAccumulator {
+		// The scaled value of each element
+		final Int2ObjectMap<Object> elementToValue = new Int2ObjectOpenHashMap<>();
+		// The elements contributing into each group
+		final Int2ObjectMap<RoaringBitmap> groupToElements = new Int2ObjectOpenHashMap<>();
+	}
+
+	@Override
+	public void decomposeAll(AdhocQueryStep step,
+			Iterable<? extends IAdhocSliceWithStep> slices,
+			Function<? super IAdhocSliceWithStep, ?> sliceToValue,
+			Function<Map<String, ?>, ValueConsumer> outputToConsumer) {
+		IManyToManyIndexedDefinition indexedDefinition = (IManyToManyIndexedDefinition) manyToManyDefinition;
+
+		String elementColumn = MapPathGet.getRequiredString(options, K_INPUT);
+		String groupColumn = MapPathGet.getRequiredString(options, K_OUTPUT);
+
+		List<String> otherColumns =
+				step.getGroupBy().getGroupedByColumns().stream().filter(c -> !c.equals(groupColumn)).toList();
+
+		RoaringBitmap queryMatchingGroupIndexes = getQueryMatchingGroupIndexes(step, indexedDefinition);
 
-		groups.forEach(group -> {
-			output.put(Map.of(groupColumn, group), scale(element, value));
+		Map<Map<String, Object>, GroupsAccumulator> otherToAccumulator = new LinkedHashMap<>();
+
+		for (IAdhocSliceWithStep slice : slices) {
+			Object value = sliceToValue.apply(slice);
+			if (value == null) {
+				continue;
+			}
+
+			Object element = slice.optFilter(elementColumn)
+					.orElseThrow(() -> new IllegalStateException(
+							"The element column `%s` is not expressed by %s".formatted(elementColumn, slice)));
+			int elementIndex = indexedDefinition.getElementIndex(element);
+			if (elementIndex < 0) {
+				// An element without group does not contribute
+				continue;
+			}
+
+			Map<String, Object> otherCoordinates = new LinkedHashMap<>();
+			otherColumns.forEach(column -> otherCoordinates.put(column, slice.getRawFilter(column)));
+
+			GroupsAccumulator accumulator =
+					otherToAccumulator.computeIfAbsent(otherCoordinates, k -> new GroupsAccumulator());
+			accumulator.elementToValue.put(elementIndex, scale(element, value));
+
+			// OR the element into the accumulator of each of its matching groups
+			RoaringBitmap matchingGroupIndexes =
+					RoaringBitmap.and(indexedDefinition.getGroupIndexes(elementIndex), queryMatchingGroupIndexes);
+			IntIterator groupIndexes = matchingGroupIndexes.getIntIterator();
+			while (groupIndexes.hasNext()) {
+				accumulator.groupToElements.computeIfAbsent(groupIndexes.next(), k -> new RoaringBitmap())
+						.add(elementIndex);
+			}
+		}
+
+		// Each output coordinate is materialized once, whatever its number of contributing elements
+		otherToAccumulator.forEach((otherCoordinates, accumulator) -> {
+			accumulator.groupToElements.int2ObjectEntrySet().forEach(groupToElements -> {
+				Map<String, Object> outputCoordinates = new LinkedHashMap<>(otherCoordinates);
+				outputCoordinates.put(groupColumn, indexedDefinition.getGroup(groupToElements.getIntKey()));
+
+				ValueConsumer consumer = outputToConsumer.apply(outputCoordinates);
+				IntIterator elementIndexes = groupToElements.getValue().getIntIterator();
+				while (elementIndexes.hasNext()) {
+					consumer.onObject(accumulator.elementToValue.get(elementIndexes.next()));
+				}
+			});
 		});
+	}
 
-		return output;
+	protected RoaringBitmap getQueryMatchingGroupIndexes(AdhocQueryStep step,
+			IManyToManyIndexedDefinition indexedDefinition) {
+		Map<Object, Object> queryStepCache = step.getCache();
+		IAdhocFilter filter = step.getFilter();
+
+		// The bitmap is computed once per queryStep, and shared by all elements
+		return (RoaringBitmap) queryStepCache.computeIfAbsent("matchingGroupIndexes", cacheKey -> {
+			String groupColumn = MapPathGet.getRequiredString(options, K_OUTPUT);
+			return indexedDefinition.getMatchingGroupIndexes(group -> doFilter(groupColumn, group, filter));
+		});
 	}
 
 	protected Set<Object> getGroups(IAdhocSliceWithStep slice, Object element) {
@@ -0,0 +1,172 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations.many_to_many;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import eu.solven.adhoc.api.v1.pojo.value.IValueMatcher;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An {@link IManyToManyIndexedDefinition} in the heap. Elements and groups are dictionary-encoded, and memberships are
+ * stored as {@link RoaringBitmap} (element to groups, and group to elements).
+ * 
+ * @author Benoit Lacelle
+ *
+ */
+@Slf4j
+public class ManyToManyIndexedInMemoryDefinition implements IManyToManyIndexedDefinition {
+	final Object2IntMap<Object> elementToIndex = new Object2IntOpenHashMap<>();
+	final List<Object> indexToElement = new ArrayList<>();
+
+	final Object2IntMap<Object> groupToIndex = new Object2IntOpenHashMap<>();
+	final List<Object> indexToGroup = new ArrayList<>();
+
+	final List<RoaringBitmap> elementToGroups = new ArrayList<>();
+	final List<RoaringBitmap> groupToElements = new ArrayList<>();
+
+	{
+		elementToIndex.defaultReturnValue(-1);
+		groupToIndex.defaultReturnValue(-1);
+	}
+
+	public void putElementToGroup(Object element, Object group) {
+		int elementIndex = elementToIndex.computeIntIfAbsent(element, k -> {
+			indexToElement.add(element);
+			elementToGroups.add(new RoaringBitmap());
+			return indexToElement.size() - 1;
+		});
+		int groupIndex = groupToIndex.computeIntIfAbsent(group, k -> {
+			indexToGroup.add(group);
+			groupToElements.add(new RoaringBitmap());
+			return indexToGroup.size() - 1;
+		});
+
+		elementToGroups.get(elementIndex).add(groupIndex);
+		groupToElements.get(groupIndex).add(elementIndex);
+	}
+
+	/**
+	 * Compress the bitmaps. To be called once all memberships have been registered.
+	 */
+	public void optimize() {
+		elementToGroups.forEach(RoaringBitmap::runOptimize);
+		groupToElements.forEach(RoaringBitmap::runOptimize);
+	}
+
+	@Override
+	public int getElementIndex(Object element) {
+		return elementToIndex.getInt(element);
+	}
+
+	@Override
+	public void forEachGroupIndex(int elementIndex, IntConsumer groupIndexConsumer) {
+		IntIterator groupIndexes = elementToGroups.get(elementIndex).getIntIterator();
+		while (groupIndexes.hasNext()) {
+			groupIndexConsumer.accept(groupIndexes.next());
+		}
+	}
+
+	/**
+	 * BEWARE The returned bitmap is the inner data-structure: it must not be mutated.
+	 */
+	@Override
+	public RoaringBitmap getGroupIndexes(int elementIndex) {
+		return elementToGroups.get(elementIndex);
+	}
+
+	@Override
+	public Object getGroup(int groupIndex) {
+		return indexToGroup.get(groupIndex);
+	}
+
+	@Override
+	public RoaringBitmap getMatchingGroupIndexes(IValueMatcher groupMatcher) {
+		RoaringBitmap matchingGroupIndexes = new RoaringBitmap();
+
+		for (int groupIndex = 0; groupIndex < indexToGroup.size(); groupIndex++) {
+			if (groupMatcher.match(indexToGroup.get(groupIndex))) {
+				matchingGroupIndexes.add(groupIndex);
+			}
+		}
+
+		return matchingGroupIndexes;
+	}
+
+	@Override
+	public Set<Object> getGroups(Object element) {
+		int elementIndex = getElementIndex(element);
+		if (elementIndex < 0) {
+			return Set.of();
+		}
+
+		Set<Object> groups = new LinkedHashSet<>();
+		forEachGroupIndex(elementIndex, groupIndex -> groups.add(getGroup(groupIndex)));
+		return groups;
+	}
+
+	@Override
+	public Set<?> getElementsMatchingGroups(IValueMatcher groupMatcher) {
+		RoaringBitmap matchingGroupIndexes = getMatchingGroupIndexes(groupMatcher);
+
+		// Bulk OR of the elements of each matching group
+		List<RoaringBitmap> groupsElements = new ArrayList<>(matchingGroupIndexes.getCardinality());
+		IntIterator groupIndexes = matchingGroupIndexes.getIntIterator();
+		while (groupIndexes.hasNext()) {
+			groupsElements.add(groupToElements.get(groupIndexes.next()));
+		}
+		RoaringBitmap elementIndexes = FastAggregation.or(groupsElements.iterator());
+
+		Set<Object> elementsMatchingGroups = new LinkedHashSet<>();
+		IntIterator elementIndexesIterator = elementIndexes.getIntIterator();
+		while (elementIndexesIterator.hasNext()) {
+			elementsMatchingGroups.add(indexToElement.get(elementIndexesIterator.next()));
+		}
+
+		log.debug("Mapped groupMatcher={} to #elements={}", groupMatcher, elementsMatchingGroups.size());
+
+		return elementsMatchingGroups;
+	}
+
+	@Override
+	public Set<?> getMatchingGroups(IValueMatcher groupMatcher) {
+		Set<Object> matchingGroups = new LinkedHashSet<>();
+
+		IntIterator groupIndexes = getMatchingGroupIndexes(groupMatcher).getIntIterator();
+		while (groupIndexes.hasNext()) {
+			matchingGroups.add(getGroup(groupIndexes.next()));
+		}
+
+		return matchingGroups;
+	}
+}
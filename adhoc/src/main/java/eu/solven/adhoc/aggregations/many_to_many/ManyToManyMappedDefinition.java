@@ -0,0 +1,232 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations.many_to_many;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntConsumer;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import eu.solven.adhoc.api.v1.pojo.value.IValueMatcher;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An {@link IManyToManyIndexedDefinition} memory-mapped from a file written by {@link ManyToManyMappedWriter}. The
+ * memberships live off-heap (in the OS page-cache): opening a definition does not read them, and a definition can be
+ * shared read-only across threads and engines.
+ * 
+ * Elements and groups are {@link String}: any other element is considered unknown.
+ * 
+ * @author Benoit Lacelle
+ *
+ */
+@Slf4j
+public class ManyToManyMappedDefinition implements IManyToManyIndexedDefinition {
+	final Path path;
+
+	final MappedUtf8Dictionary elements;
+	final MappedUtf8Dictionary groups;
+
+	final ByteBuffer elementToGroupsOffsets;
+	final ByteBuffer elementToGroupsIds;
+	final ByteBuffer groupToElementsOffsets;
+	final ByteBuffer groupToElementsIds;
+
+	// Groups are decoded lazily, as they are typically much fewer than elements, and decoded for each matching group
+	final AtomicReferenceArray<String> decodedGroups;
+
+	protected ManyToManyMappedDefinition(Path path, ByteBuffer[] regions) {
+		this.path = path;
+
+		this.elements = new MappedUtf8Dictionary(regions[ManyToManyMappedWriter.REGION_ELEMENT_DICTIONARY]);
+		this.groups = new MappedUtf8Dictionary(regions[ManyToManyMappedWriter.REGION_GROUP_DICTIONARY]);
+
+		this.elementToGroupsOffsets = regions[ManyToManyMappedWriter.REGION_ELEMENT_TO_GROUPS_OFFSETS];
+		this.elementToGroupsIds = regions[ManyToManyMappedWriter.REGION_ELEMENT_TO_GROUPS_IDS];
+		this.groupToElementsOffsets = regions[ManyToManyMappedWriter.REGION_GROUP_TO_ELEMENTS_OFFSETS];
+		this.groupToElementsIds = regions[ManyToManyMappedWriter.REGION_GROUP_TO_ELEMENTS_IDS];
+
+		this.decodedGroups = new AtomicReferenceArray<>(groups.size());
+	}
+
+	public static ManyToManyMappedDefinition open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = map(channel, 0L, ManyToManyMappedWriter.HEADER_LENGTH);
+
+			int magic = header.getInt();
+			if (magic != ManyToManyMappedWriter.MAGIC) {
+				throw new IllegalArgumentException("%s is not a many-to-many (magic=%s)".formatted(path, magic));
+			}
+			int version = header.getInt();
+			if (version != ManyToManyMappedWriter.VERSION) {
+				throw new IllegalArgumentException("%s has an unsupported version=%s".formatted(path, version));
+			}
+			int elementCount = header.getInt();
+			int groupCount = header.getInt();
+			int membershipCount = header.getInt();
+			// padding
+			header.getInt();
+
+			ByteBuffer[] regions = new ByteBuffer[ManyToManyMappedWriter.REGION_COUNT];
+			for (int i = 0; i < ManyToManyMappedWriter.REGION_COUNT; i++) {
+				long offset = header.getLong();
+				long length = header.getLong();
+				regions[i] = map(channel, offset, length);
+			}
+
+			log.debug("Opened many-to-many {} with {} elements, {} groups and {} memberships",
+					path,
+					elementCount,
+					groupCount,
+					membershipCount);
+
+			// The mapped regions remain valid after the channel is closed
+			return new ManyToManyMappedDefinition(path, regions);
+		}
+	}
+
+	protected static ByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+		MappedByteBuffer mapped = channel.map(MapMode.READ_ONLY, offset, length);
+		mapped.order(ByteOrder.LITTLE_ENDIAN);
+		return mapped;
+	}
+
+	@Override
+	public int getElementIndex(Object element) {
+		if (element instanceof String elementAsString) {
+			return elements.indexOf(elementAsString);
+		} else {
+			return -1;
+		}
+	}
+
+	@Override
+	public void forEachGroupIndex(int elementIndex, IntConsumer groupIndexConsumer) {
+		forEachId(elementToGroupsOffsets, elementToGroupsIds, elementIndex, groupIndexConsumer);
+	}
+
+	protected void forEachElementIndex(int groupIndex, IntConsumer elementIndexConsumer) {
+		forEachId(groupToElementsOffsets, groupToElementsIds, groupIndex, elementIndexConsumer);
+	}
+
+	// Absolute reads: the shared buffers are never repositioned, which makes them safe to read concurrently
+	protected static void forEachId(ByteBuffer offsets, ByteBuffer ids, int index, IntConsumer idConsumer) {
+		int from = offsets.getInt(Integer.BYTES * index);
+		int to = offsets.getInt(Integer.BYTES * (index + 1));
+		for (int i = from; i < to; i++) {
+			idConsumer.accept(ids.getInt(Integer.BYTES * i));
+		}
+	}
+
+	@Override
+	public RoaringBitmap getGroupIndexes(int elementIndex) {
+		RoaringBitmap groupIndexes = new RoaringBitmap();
+		// Ids are sorted: each add is an append
+		forEachGroupIndex(elementIndex, groupIndexes::add);
+		return groupIndexes;
+	}
+
+	@Override
+	public Object getGroup(int groupIndex) {
+		String group = decodedGroups.get(groupIndex);
+		if (group == null) {
+			group = groups.get(groupIndex);
+			decodedGroups.lazySet(groupIndex, group);
+		}
+		return group;
+	}
+
+	@Override
+	public RoaringBitmap getMatchingGroupIndexes(IValueMatcher groupMatcher) {
+		RoaringBitmap matchingGroupIndexes = new RoaringBitmap();
+
+		for (int groupIndex = 0; groupIndex < groups.size(); groupIndex++) {
+			if (groupMatcher.match(getGroup(groupIndex))) {
+				matchingGroupIndexes.add(groupIndex);
+			}
+		}
+
+		return matchingGroupIndexes;
+	}
+
+	@Override
+	public Set<Object> getGroups(Object element) {
+		int elementIndex = getElementIndex(element);
+		if (elementIndex < 0) {
+			return Set.of();
+		}
+
+		Set<Object> elementGroups = new LinkedHashSet<>();
+		forEachGroupIndex(elementIndex, groupIndex -> elementGroups.add(getGroup(groupIndex)));
+		return elementGroups;
+	}
+
+	@Override
+	public Set<?> getElementsMatchingGroups(IValueMatcher groupMatcher) {
+		RoaringBitmap elementIndexes = new RoaringBitmap();
+
+		IntIterator groupIndexes = getMatchingGroupIndexes(groupMatcher).getIntIterator();
+		while (groupIndexes.hasNext()) {
+			forEachElementIndex(groupIndexes.next(), elementIndexes::add);
+		}
+
+		Set<Object> elementsMatchingGroups = new LinkedHashSet<>();
+		IntIterator elementIndexesIterator = elementIndexes.getIntIterator();
+		while (elementIndexesIterator.hasNext()) {
+			elementsMatchingGroups.add(elements.get(elementIndexesIterator.next()));
+		}
+
+		log.debug("Mapped groupMatcher={} to #elements={}", groupMatcher, elementsMatchingGroups.size());
+
+		return elementsMatchingGroups;
+	}
+
+	@Override
+	public Set<?> getMatchingGroups(IValueMatcher groupMatcher) {
+		Set<Object> matchingGroups = new LinkedHashSet<>();
+
+		IntIterator groupIndexes = getMatchingGroupIndexes(groupMatcher).getIntIterator();
+		while (groupIndexes.hasNext()) {
+			matchingGroups.add(getGroup(groupIndexes.next()));
+		}
+
+		return matchingGroups;
+	}
+
+	@Override
+	public String toString() {
+		return "ManyToManyMappedDefinition(path=%s, #elements=%s, #groups=%s)"
+				.formatted(path, elements.size(), groups.size());
+	}
+}
@@ -0,0 +1,237 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations.many_to_many;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.Multimap;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes a many-to-many definition, to be opened by {@link ManyToManyMappedDefinition} without deserializing the
+ * memberships in the heap.
+ * 
+ * The layout is (all numbers being little-endian):
+ * <ul>
+ * <li>a header: magic, version, elementCount, groupCount, membershipCount, and the offset and length of each region</li>
+ * <li>8-bytes aligned regions: the element dictionary, the group dictionary, then the element-to-groups and the
+ * group-to-elements memberships in CSR layout (elementCount + 1 offsets, then the sorted ids)</li>
+ * </ul>
+ * 
+ * Elements and groups are {@link String}, dictionary-encoded by the order of their UTF-8 bytes.
+ * 
+ * @author Benoit Lacelle
+ *
+ */
+@Slf4j
+public class ManyToManyMappedWriter {
+	public static final int MAGIC = 0x4144484D;
+	public static final int VERSION = 1;
+
+	// The regions, in the order of the header
+	static final int REGION_ELEMENT_DICTIONARY = 0;
+	static final int REGION_GROUP_DICTIONARY = 1;
+	static final int REGION_ELEMENT_TO_GROUPS_OFFSETS = 2;
+	static final int REGION_ELEMENT_TO_GROUPS_IDS = 3;
+	static final int REGION_GROUP_TO_ELEMENTS_OFFSETS = 4;
+	static final int REGION_GROUP_TO_ELEMENTS_IDS = 5;
+	static final int REGION_COUNT = 6;
+
+	// magic, version, elementCount, groupCount, membershipCount, padding, then (offset, length) for each region
+	static final int HEADER_LENGTH = 6 * Integer.BYTES + REGION_COUNT * 2 * Long.BYTES;
+
+	// Each region is mapped as a single ByteBuffer
+	static final int MAX_MEMBERSHIPS = Integer.MAX_VALUE / Integer.BYTES;
+
+	protected ManyToManyMappedWriter() {
+		// hidden
+	}
+
+	/**
+	 * 
+	 * @param path
+	 *            the file to write. It is overwritten if it already exists.
+	 * @param elementToGroups
+	 *            the groups of each element.
+	 * @throws IOException
+	 */
+	public static void write(Path path, Multimap<String, String> elementToGroups) throws IOException {
+		int membershipCount = elementToGroups.size();
+		if (membershipCount > MAX_MEMBERSHIPS) {
+			throw new IllegalArgumentException(
+					"Too many memberships: %s > %s".formatted(membershipCount, MAX_MEMBERSHIPS));
+		}
+
+		// Dictionary-encode the elements and the groups
+		Object2IntMap<String> elementToIndex = new Object2IntOpenHashMap<>();
+		List<byte[]> elements = encodeDictionary(elementToGroups.keySet(), elementToIndex);
+		Object2IntMap<String> groupToIndex = new Object2IntOpenHashMap<>();
+		List<byte[]> groups = encodeDictionary(new HashSet<>(elementToGroups.values()), groupToIndex);
+
+		int elementCount = elements.size();
+		int groupCount = groups.size();
+
+		// The sorted groups of each element
+		int[][] elementGroupIndexes = new int[elementCount][];
+		elementToGroups.asMap().forEach((element, elementGroups) -> {
+			elementGroupIndexes[elementToIndex.getInt(element)] =
+					elementGroups.stream().mapToInt(groupToIndex::getInt).sorted().toArray();
+		});
+
+		// Offsets of the CSR layouts
+		int[] elementOffsets = new int[elementCount + 1];
+		int[] groupOffsets = new int[groupCount + 1];
+		for (int elementIndex = 0; elementIndex < elementCount; elementIndex++) {
+			int[] groupIndexes = elementGroupIndexes[elementIndex];
+			elementOffsets[elementIndex + 1] = elementOffsets[elementIndex] + groupIndexes.length;
+			for (int groupIndex : groupIndexes) {
+				groupOffsets[groupIndex + 1]++;
+			}
+		}
+		Arrays.parallelPrefix(groupOffsets, Integer::sum);
+
+		// Ids of the CSR layouts. Elements are iterated by index, so that the elements of each group are sorted
+		int[] elementGroups = new int[membershipCount];
+		int[] groupElements = new int[membershipCount];
+		int[] groupCursors = Arrays.copyOf(groupOffsets, groupCount);
+		for (int elementIndex = 0; elementIndex < elementCount; elementIndex++) {
+			int[] groupIndexes = elementGroupIndexes[elementIndex];
+			System.arraycopy(groupIndexes, 0, elementGroups, elementOffsets[elementIndex], groupIndexes.length);
+
+			for (int groupIndex : groupIndexes) {
+				groupElements[groupCursors[groupIndex]++] = elementIndex;
+			}
+		}
+
+		ByteBuffer[] regions = new ByteBuffer[REGION_COUNT];
+		regions[REGION_ELEMENT_DICTIONARY] = toDictionaryBuffer(elements);
+		regions[REGION_GROUP_DICTIONARY] = toDictionaryBuffer(groups);
+		regions[REGION_ELEMENT_TO_GROUPS_OFFSETS] = toBuffer(elementOffsets);
+		regions[REGION_ELEMENT_TO_GROUPS_IDS] = toBuffer(elementGroups);
+		regions[REGION_GROUP_TO_ELEMENTS_OFFSETS] = toBuffer(groupOffsets);
+		regions[REGION_GROUP_TO_ELEMENTS_IDS] = toBuffer(groupElements);
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).putInt(VERSION).putInt(elementCount).putInt(groupCount).putInt(membershipCount).putInt(0);
+
+		long[] regionOffsets = new long[REGION_COUNT];
+		long offset = align(HEADER_LENGTH);
+		for (int i = 0; i < REGION_COUNT; i++) {
+			regionOffsets[i] = offset;
+			header.putLong(offset).putLong(regions[i].capacity());
+			offset = align(offset + regions[i].capacity());
+		}
+		header.flip();
+
+		try (FileChannel channel = FileChannel.open(path,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeFully(channel, header, 0L);
+			for (int i = 0; i < REGION_COUNT; i++) {
+				writeFully(channel, regions[i], regionOffsets[i]);
+			}
+		}
+
+		log.debug("Many-to-many with {} elements, {} groups and {} memberships written into {}",
+				elementCount,
+				groupCount,
+				membershipCount,
+				path);
+	}
+
+	/**
+	 * 
+	 * @param values
+	 * @param valueToIndex
+	 *            receives the index of each value
+	 * @return the UTF-8 encoded values, sorted by unsigned bytes
+	 */
+	protected static List<byte[]> encodeDictionary(Set<String> values, Object2IntMap<String> valueToIndex) {
+		List<String> sorted = new ArrayList<>(values);
+		List<byte[]> encoded = new ArrayList<>(sorted.size());
+		sorted.forEach(value -> encoded.add(value.getBytes(StandardCharsets.UTF_8)));
+
+		// Sort by UTF-8 bytes, as the order of String.compareTo may differ for supplementary characters
+		Integer[] order = new Integer[sorted.size()];
+		Arrays.setAll(order, i -> i);
+		Arrays.sort(order, (left, right) -> Arrays.compareUnsigned(encoded.get(left), encoded.get(right)));
+
+		List<byte[]> sortedEncoded = new ArrayList<>(order.length);
+		for (int index = 0; index < order.length; index++) {
+			sortedEncoded.add(encoded.get(order[index]));
+			valueToIndex.put(sorted.get(order[index]), index);
+		}
+		return sortedEncoded;
+	}
+
+	protected static ByteBuffer toDictionaryBuffer(List<byte[]> entries) {
+		int nbEntries = entries.size();
+		int nbBytes = entries.stream().mapToInt(b -> b.length).sum();
+
+		// entryCount, then (entryCount + 1) offsets, then the UTF-8 bytes
+		ByteBuffer buffer =
+				ByteBuffer.allocate(Integer.BYTES * (nbEntries + 2) + nbBytes).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(nbEntries);
+		int bytesOffset = 0;
+		for (byte[] entry : entries) {
+			buffer.putInt(bytesOffset);
+			bytesOffset += entry.length;
+		}
+		buffer.putInt(bytesOffset);
+		entries.forEach(buffer::put);
+
+		return buffer;
+	}
+
+	protected static ByteBuffer toBuffer(int[] ints) {
+		ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * ints.length).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.asIntBuffer().put(ints);
+		return buffer;
+	}
+
+	protected static long align(long offset) {
+		return (offset + Long.BYTES - 1) & -Long.BYTES;
+	}
+
+	protected static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		buffer.rewind();
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+}
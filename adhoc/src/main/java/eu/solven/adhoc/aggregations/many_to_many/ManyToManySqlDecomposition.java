@@ -0,0 +1,85 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations.many_to_many;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import eu.solven.adhoc.aggregations.IDecomposition;
+import eu.solven.adhoc.aggregations.IDecompositionSink;
+import eu.solven.adhoc.api.v1.IWhereGroupbyAdhocQuery;
+import eu.solven.adhoc.dag.AdhocQueryStep;
+import eu.solven.adhoc.database.sql.ManyToManySqlMapping;
+import eu.solven.adhoc.query.MeasurelessQuery;
+import eu.solven.adhoc.slice.IAdhocSliceWithStep;
+import eu.solven.pepper.mappath.MapPathGet;
+
+/**
+ * A many-to-many {@link IDecomposition} where the fan-out is done by the database: the group column is given as-is to
+ * the underlying measure, and the database resolves it by joining a {@link ManyToManySqlMapping}. Each underlying
+ * slice is then already expressed at the group level, and the decomposition is an identity.
+ * 
+ * It requires the database to be configured with a {@link ManyToManySqlMapping} for the group column, e.g.
+ * {@link eu.solven.adhoc.database.sql.AdhocJooqSqlDatabaseWrapper}.
+ * 
+ * @author Benoit Lacelle
+ * @see ManyToManyDecomposition for the in-memory equivalent
+ */
+public class ManyToManySqlDecomposition implements IDecomposition {
+	public static final String KEY = "many_to_many_sql";
+
+	final Map<String, ?> options;
+
+	public ManyToManySqlDecomposition(Map<String, ?> options) {
+		this.options = options;
+
+		String elementColumn = MapPathGet.getRequiredString(options, ManyToManyDecomposition.K_INPUT);
+		String groupColumn = MapPathGet.getRequiredString(options, ManyToManyDecomposition.K_OUTPUT);
+
+		if (elementColumn.equals(groupColumn)) {
+			throw new UnsupportedOperationException("TODO This case requires specific behaviors and unitTests");
+		}
+	}
+
+	@Override
+	public Map<Map<String, ?>, Object> decompose(IAdhocSliceWithStep slice, Object value) {
+		// The database already expressed the value on the requested groups
+		return Map.of(Map.of(), value);
+	}
+
+	@Override
+	public void decompose(IAdhocSliceWithStep slice, Object value, IDecompositionSink sink) {
+		sink.onObject(Map.of(), value);
+	}
+
+	@Override
+	public List<IWhereGroupbyAdhocQuery> getUnderlyingSteps(AdhocQueryStep step) {
+		// Both the filter and the groupBy on the group column are resolved by the database
+		return Collections.singletonList(MeasurelessQuery.builder()
+				.filter(step.getFilter())
+				.groupBy(step.getGroupBy())
+				.customMarker(step.getCustomMarker())
+				.build());
+	}
+}
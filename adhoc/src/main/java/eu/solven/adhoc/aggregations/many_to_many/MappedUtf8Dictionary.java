@@ -0,0 +1,100 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations.many_to_many;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A sorted dictionary of {@link String}, read from a (typically memory-mapped) {@link ByteBuffer} written by
+ * {@link ManyToManyMappedWriter}. The layout is: entryCount, (entryCount + 1) offsets, then the UTF-8 bytes. Entries are
+ * sorted by their UTF-8 bytes (unsigned), which enables a binary-search without decoding the entries.
+ * 
+ * @author Benoit Lacelle
+ *
+ */
+class MappedUtf8Dictionary {
+	final ByteBuffer buffer;
+	final int size;
+	final int bytesStart;
+
+	MappedUtf8Dictionary(ByteBuffer buffer) {
+		this.buffer = buffer;
+		this.size = buffer.getInt(0);
+		this.bytesStart = Integer.BYTES * (size + 2);
+	}
+
+	int size() {
+		return size;
+	}
+
+	/**
+	 * 
+	 * @param value
+	 * @return the index of given value, or -1 if it is not in this dictionary.
+	 */
+	int indexOf(String value) {
+		byte[] key = value.getBytes(StandardCharsets.UTF_8);
+
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int compare = compareEntry(middle, key);
+			if (compare < 0) {
+				low = middle + 1;
+			} else if (compare > 0) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	protected int compareEntry(int index, byte[] key) {
+		int start = bytesStart + entryOffset(index);
+		int length = entryOffset(index + 1) - entryOffset(index);
+
+		int commonLength = Math.min(length, key.length);
+		for (int i = 0; i < commonLength; i++) {
+			int compare = Byte.compareUnsigned(buffer.get(start + i), key[i]);
+			if (compare != 0) {
+				return compare;
+			}
+		}
+		return Integer.compare(length, key.length);
+	}
+
+	protected int entryOffset(int index) {
+		return buffer.getInt(Integer.BYTES * (1 + index));
+	}
+
+	String get(int index) {
+		int start = bytesStart + entryOffset(index);
+		byte[] bytes = new byte[entryOffset(index + 1) - entryOffset(index)];
+		// Absolute bulk get: the shared buffer position is not modified
+		buffer.get(start, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -25,13 +25,17 @@ package eu.solven.adhoc.aggregations.max;
 import java.util.List;
 import java.util.Objects;
 
+import eu.solven.adhoc.aggregations.CombinationNullSemantics;
 import eu.solven.adhoc.aggregations.IAggregation;
+import eu.solven.adhoc.aggregations.IColumnarCombination;
 import eu.solven.adhoc.aggregations.ICombination;
+import eu.solven.adhoc.storage.PrimitiveColumn;
+import eu.solven.adhoc.storage.PrimitiveColumn.PrimitiveColumnType;
 
 /**
  * Return the maximum amongst the underlying values.
  */
-public class MaxCombination implements ICombination {
+public class MaxCombination implements ICombination, IColumnarCombination {
 
 	public static final String KEY = "MAX";
 
@@ -42,4 +46,49 @@ public class MaxCombination implements ICombination {
 		return underlyingValues.stream().filter(Objects::nonNull).<Object>map(o -> o).reduce(null, agg::aggregate);
 	}
 
+	@Override
+	public CombinationNullSemantics getNullSemantics() {
+		return CombinationNullSemantics.NULL_IF_ALL_NULL;
+	}
+
+	@Override
+	public PrimitiveColumn combineColumns(int size, List<PrimitiveColumn> underlyingColumns) {
+		if (underlyingColumns.stream().allMatch(c -> c.getType() == PrimitiveColumnType.LONG)) {
+			PrimitiveColumn output = PrimitiveColumn.ofLongs(size);
+			for (int row = 0; row < size; row++) {
+				boolean present = false;
+				long max = 0;
+				for (PrimitiveColumn column : underlyingColumns) {
+					if (column.isPresent(row)) {
+						max = present ? agg.aggregateLongs(max, column.getLong(row)) : column.getLong(row);
+						present = true;
+					}
+				}
+				if (present) {
+					output.setLong(row, max);
+				}
+			}
+			return output;
+		} else if (underlyingColumns.stream().allMatch(c -> c.getType() == PrimitiveColumnType.DOUBLE)) {
+			PrimitiveColumn output = PrimitiveColumn.ofDoubles(size);
+			for (int row = 0; row < size; row++) {
+				boolean present = false;
+				double max = 0;
+				for (PrimitiveColumn column : underlyingColumns) {
+					if (column.isPresent(row)) {
+						max = present ? agg.aggregateDoubles(max, column.getDouble(row)) : column.getDouble(row);
+						present = true;
+					}
+				}
+				if (present) {
+					output.setDouble(row, max);
+				}
+			}
+			return output;
+		} else {
+			// Mixed types: the output type would depend on the present values of each row
+			return null;
+		}
+	}
+
 }
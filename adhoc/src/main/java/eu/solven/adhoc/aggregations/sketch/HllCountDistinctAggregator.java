@@ -0,0 +1,133 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations.sketch;
+
+import java.util.Map;
+
+import org.apache.datasketches.hll.HllSketch;
+import org.apache.datasketches.hll.Union;
+
+import eu.solven.adhoc.aggregations.IAccumulatingAggregation;
+
+/**
+ * Approximate the number of distinct values with a HyperLogLog sketch. The aggregate is an {@link HllSketch}, whose
+ * size is bounded by `lgK` whatever the number of aggregated values: it can be merged by a
+ * {@link eu.solven.adhoc.transformers.Bucketor} or a {@link eu.solven.adhoc.transformers.Dispatchor}. The estimate is
+ * read with {@link SketchEstimateCombination}.
+ * 
+ * Raw values are hashed into the sketch, while {@link HllSketch} values are merged.
+ * 
+ * @author Benoit Lacelle
+ */
+// https://datasketches.apache.org/docs/HLL/HLL.html
+public class HllCountDistinctAggregator implements IAccumulatingAggregation {
+
+	public static final String KEY = "APPROX_COUNT_DISTINCT";
+
+	// 2^12 buckets: ~1.6% relative standard error, ~2.6KB per sketch
+	public static final int DEFAULT_LG_K = 12;
+
+	final int lgK;
+
+	public HllCountDistinctAggregator() {
+		this(DEFAULT_LG_K);
+	}
+
+	public HllCountDistinctAggregator(int lgK) {
+		this.lgK = lgK;
+	}
+
+	public HllCountDistinctAggregator(Map<String, ?> options) {
+		this(((Number) options.getOrDefault("lgK", DEFAULT_LG_K)).intValue());
+	}
+
+	@Override
+	public Object aggregate(Object l, Object r) {
+		if (l instanceof PushedDownEstimate || r instanceof PushedDownEstimate) {
+			return PushedDownEstimate.aggregate(KEY, l, r);
+		} else if (l == null && r == null) {
+			return null;
+		}
+
+		return finish(accumulate(accumulate(createAccumulator(), l), r));
+	}
+
+	/**
+	 * {@link PushedDownEstimate} are not accumulated, as they can not be merged into a sketch.
+	 */
+	@Override
+	public boolean isAccumulated(Object value) {
+		return value != null && !(value instanceof PushedDownEstimate);
+	}
+
+	@Override
+	public Object createAccumulator() {
+		return new Union(lgK);
+	}
+
+	@Override
+	public Object accumulate(Object accumulator, Object value) {
+		Union union = (Union) accumulator;
+
+		if (value == null) {
+			return union;
+		} else if (value instanceof HllSketch sketch) {
+			union.update(sketch);
+		} else if (value instanceof Long || value instanceof Integer || value instanceof Short
+				|| value instanceof Byte) {
+			union.update(((Number) value).longValue());
+		} else if (value instanceof Double || value instanceof Float) {
+			union.update(((Number) value).doubleValue());
+		} else if (value instanceof PushedDownEstimate) {
+			throw new UnsupportedOperationException(
+					"%s can not merge a sketch with a database estimate: %s".formatted(KEY, value));
+		} else {
+			// e.g. a String, or any other Object given its String representation
+			union.update(value.toString());
+		}
+
+		return union;
+	}
+
+	@Override
+	public Object mergeAccumulators(Object left, Object right) {
+		((Union) left).update(((Union) right).getResult());
+		return left;
+	}
+
+	@Override
+	public Object finish(Object accumulator) {
+		// getResult returns a copy: the accumulator is not shared with the aggregate
+		return ((Union) accumulator).getResult();
+	}
+
+	@Override
+	public double aggregateDoubles(double left, double right) {
+		throw new UnsupportedOperationException("Can not %s on doubles".formatted(KEY));
+	}
+
+	@Override
+	public long aggregateLongs(long left, long right) {
+		throw new UnsupportedOperationException("Can not %s on longs".formatted(KEY));
+	}
+}
@@ -0,0 +1,124 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations.sketch;
+
+import java.util.Map;
+
+import org.apache.datasketches.kll.KllDoublesSketch;
+
+import eu.solven.adhoc.aggregations.IAccumulatingAggregation;
+
+/**
+ * Summarize the distribution of numeric values with a KLL sketch, from which any quantile can be approximated. The
+ * aggregate is a {@link KllDoublesSketch}, whose size grows only logarithmically with the number of aggregated values:
+ * it can be merged by a {@link eu.solven.adhoc.transformers.Bucketor} or a
+ * {@link eu.solven.adhoc.transformers.Dispatchor}. The quantiles are read with {@link SketchEstimateCombination}.
+ * 
+ * Raw values have to be {@link Number}s, while {@link KllDoublesSketch} values are merged.
+ * 
+ * @author Benoit Lacelle
+ */
+// https://datasketches.apache.org/docs/KLL/KLLSketch.html
+public class KllQuantileAggregator implements IAccumulatingAggregation {
+
+	public static final String KEY = "APPROX_QUANTILES";
+
+	// ~1.65% normalized rank error
+	public static final int DEFAULT_K = 200;
+
+	final int k;
+
+	public KllQuantileAggregator() {
+		this(DEFAULT_K);
+	}
+
+	public KllQuantileAggregator(int k) {
+		this.k = k;
+	}
+
+	public KllQuantileAggregator(Map<String, ?> options) {
+		this(((Number) options.getOrDefault("k", DEFAULT_K)).intValue());
+	}
+
+	@Override
+	public Object aggregate(Object l, Object r) {
+		if (l == null && r == null) {
+			return null;
+		}
+
+		return finish(accumulate(accumulate(createAccumulator(), l), r));
+	}
+
+	@Override
+	public boolean isAccumulated(Object value) {
+		return value != null;
+	}
+
+	@Override
+	public Object createAccumulator() {
+		return KllDoublesSketch.newHeapInstance(k);
+	}
+
+	@Override
+	public Object accumulate(Object accumulator, Object value) {
+		KllDoublesSketch kll = (KllDoublesSketch) accumulator;
+
+		if (value == null) {
+			return kll;
+		} else if (value instanceof KllDoublesSketch sketch) {
+			kll.merge(sketch);
+		} else if (value instanceof Number number) {
+			kll.update(number.doubleValue());
+		} else {
+			throw new IllegalArgumentException("%s expects Numbers. Was: %s (%s)".formatted(KEY,
+					value,
+					value.getClass().getName()));
+		}
+
+		return kll;
+	}
+
+	@Override
+	public Object mergeAccumulators(Object left, Object right) {
+		((KllDoublesSketch) left).merge((KllDoublesSketch) right);
+		return left;
+	}
+
+	@Override
+	public Object finish(Object accumulator) {
+		// Copy the accumulator, so that the aggregate is not impacted by later accumulations
+		KllDoublesSketch copy = KllDoublesSketch.newHeapInstance(k);
+		copy.merge((KllDoublesSketch) accumulator);
+		return copy;
+	}
+
+	@Override
+	public double aggregateDoubles(double left, double right) {
+		throw new UnsupportedOperationException("Can not %s on doubles".formatted(KEY));
+	}
+
+	@Override
+	public long aggregateLongs(long left, long right) {
+		throw new UnsupportedOperationException("Can not %s on longs".formatted(KEY));
+	}
+}
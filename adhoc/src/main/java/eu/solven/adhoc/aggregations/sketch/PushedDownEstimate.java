@@ -0,0 +1,66 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations.sketch;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * An approximate aggregate computed by the database (e.g. DuckDB `approx_count_distinct`). Unlike a sketch, such an
+ * estimate can not be merged with other estimates: it is valid only for the slice it has been computed for. Hence, it
+ * is opt-in (see `AdhocJooqSqlDatabaseWrapper.pushDownEstimates`), and restricted to the aggregates which are not
+ * merged by the engine.
+ * 
+ * @author Benoit Lacelle
+ */
+@Value
+@Builder
+public class PushedDownEstimate {
+	@NonNull
+	Number estimate;
+
+	public static PushedDownEstimate of(Number estimate) {
+		return PushedDownEstimate.builder().estimate(estimate).build();
+	}
+
+	/**
+	 * 
+	 * @param key
+	 *            the aggregation key, for the error message
+	 * @param left
+	 * @param right
+	 * @return the non-null operand, as two {@link PushedDownEstimate} can not be merged.
+	 */
+	static Object aggregate(String key, Object left, Object right) {
+		if (left == null) {
+			return right;
+		} else if (right == null) {
+			return left;
+		} else {
+			throw new UnsupportedOperationException(
+					("%s estimates computed by the database can not be merged (%s and %s)."
+							+ " Do not push down the estimates of merged aggregates").formatted(key, left, right));
+		}
+	}
+}
@@ -0,0 +1,95 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations.sketch;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.datasketches.hll.HllSketch;
+import org.apache.datasketches.kll.KllDoublesSketch;
+
+import eu.solven.adhoc.aggregations.CombinationNullSemantics;
+import eu.solven.adhoc.aggregations.ICombination;
+import eu.solven.pepper.core.PepperLogHelper;
+
+/**
+ * Read the estimate of a sketch, as aggregated by {@link HllCountDistinctAggregator} or {@link KllQuantileAggregator}.
+ * 
+ * For a {@link KllDoublesSketch}, the estimate is the value at the rank given by the `quantile` option (by default,
+ * the median).
+ * 
+ * @author Benoit Lacelle
+ */
+public class SketchEstimateCombination implements ICombination {
+
+	public static final String KEY = "SKETCH_ESTIMATE";
+
+	public static final String K_QUANTILE = "quantile";
+
+	final double quantile;
+
+	public SketchEstimateCombination() {
+		this(0.5D);
+	}
+
+	public SketchEstimateCombination(double quantile) {
+		if (quantile < 0D || quantile > 1D) {
+			throw new IllegalArgumentException("%s=%s must be in [0, 1]".formatted(K_QUANTILE, quantile));
+		}
+		this.quantile = quantile;
+	}
+
+	public SketchEstimateCombination(Map<String, ?> options) {
+		this(((Number) options.getOrDefault(K_QUANTILE, 0.5D)).doubleValue());
+	}
+
+	@Override
+	public Object combine(List<?> underlyingValues) {
+		if (underlyingValues.size() != 1) {
+			throw new IllegalArgumentException(
+					"%s expects a single underlying. Was: %s".formatted(KEY, underlyingValues.size()));
+		}
+
+		Object sketch = underlyingValues.getFirst();
+		if (sketch == null) {
+			return null;
+		} else if (sketch instanceof HllSketch hll) {
+			return Math.round(hll.getEstimate());
+		} else if (sketch instanceof KllDoublesSketch kll) {
+			if (kll.isEmpty()) {
+				return null;
+			}
+			return kll.getQuantile(quantile);
+		} else if (sketch instanceof PushedDownEstimate pushedDown) {
+			return pushedDown.getEstimate();
+		} else {
+			throw new IllegalArgumentException(
+					"Not a sketch: %s".formatted(PepperLogHelper.getObjectAndClass(sketch)));
+		}
+	}
+
+	@Override
+	public CombinationNullSemantics getNullSemantics() {
+		return CombinationNullSemantics.NULL_IF_ANY_NULL;
+	}
+}
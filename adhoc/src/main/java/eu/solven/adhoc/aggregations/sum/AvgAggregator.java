@@ -0,0 +1,110 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations.sum;
+
+import eu.solven.adhoc.aggregations.IAccumulatingAggregation;
+import eu.solven.pepper.core.PepperLogHelper;
+
+/**
+ * Average the numeric values. The aggregate is an {@link AvgCarrier}, holding a sum and a count, so that partial
+ * averages (e.g. from the database, or from concurrent partitions) are merged correctly. It is turned into a double
+ * once the storage is closed.
+ * 
+ * @author Benoit Lacelle
+ */
+public class AvgAggregator implements IAccumulatingAggregation {
+
+	public static final String KEY = "AVG";
+
+	/**
+	 * The mutable accumulator
+	 */
+	static class AvgAccumulator {
+		double sum;
+		long count;
+	}
+
+	@Override
+	public Object aggregate(Object l, Object r) {
+		if (l == null && r == null) {
+			return null;
+		}
+		return finish(accumulate(accumulate(createAccumulator(), l), r));
+	}
+
+	@Override
+	public boolean isAccumulated(Object value) {
+		return value != null;
+	}
+
+	@Override
+	public Object createAccumulator() {
+		return new AvgAccumulator();
+	}
+
+	@Override
+	public Object accumulate(Object accumulator, Object value) {
+		AvgAccumulator avg = (AvgAccumulator) accumulator;
+
+		if (value == null) {
+			return avg;
+		} else if (value instanceof AvgCarrier avgCarrier) {
+			avg.sum += avgCarrier.getSum();
+			avg.count += avgCarrier.getCount();
+		} else if (value instanceof Number number) {
+			avg.sum += number.doubleValue();
+			avg.count++;
+		} else {
+			throw new IllegalArgumentException(
+					"Can not %s on %s".formatted(KEY, PepperLogHelper.getObjectAndClass(value)));
+		}
+
+		return avg;
+	}
+
+	@Override
+	public Object mergeAccumulators(Object left, Object right) {
+		AvgAccumulator leftAvg = (AvgAccumulator) left;
+		AvgAccumulator rightAvg = (AvgAccumulator) right;
+
+		leftAvg.sum += rightAvg.sum;
+		leftAvg.count += rightAvg.count;
+		return leftAvg;
+	}
+
+	@Override
+	public Object finish(Object accumulator) {
+		AvgAccumulator avg = (AvgAccumulator) accumulator;
+		return AvgCarrier.of(avg.sum, avg.count);
+	}
+
+	@Override
+	public double aggregateDoubles(double left, double right) {
+		throw new UnsupportedOperationException("Can not %s on doubles".formatted(KEY));
+	}
+
+	@Override
+	public long aggregateLongs(long left, long right) {
+		throw new UnsupportedOperationException("Can not %s on longs".formatted(KEY));
+	}
+}
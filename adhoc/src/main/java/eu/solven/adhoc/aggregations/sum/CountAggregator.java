@@ -0,0 +1,109 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.aggregations.sum;
+
+import eu.solven.adhoc.aggregations.IAccumulatingAggregation;
+
+/**
+ * Count the non-null values. A raw value counts as 1, while a {@link CountCarrier} (e.g. a `COUNT` computed by the
+ * database) adds its count. The aggregate is a {@link CountCarrier}, turned into a long once the storage is closed.
+ * 
+ * An aggregator over the {@link #ASTERISK} column counts the rows, like `COUNT(*)` in SQL.
+ * 
+ * @author Benoit Lacelle
+ */
+public class CountAggregator implements IAccumulatingAggregation {
+
+	public static final String KEY = "COUNT";
+
+	/**
+	 * The column present in each row, to count rows.
+	 */
+	public static final String ASTERISK = "*";
+
+	/**
+	 * The mutable accumulator
+	 */
+	static class CountAccumulator {
+		long count;
+	}
+
+	public static boolean isAsterisk(String column) {
+		return ASTERISK.equals(column);
+	}
+
+	@Override
+	public Object aggregate(Object l, Object r) {
+		if (l == null && r == null) {
+			return null;
+		}
+		return CountCarrier.of(asCount(l) + asCount(r));
+	}
+
+	protected long asCount(Object o) {
+		if (o == null) {
+			return 0;
+		} else if (o instanceof CountCarrier countCarrier) {
+			return countCarrier.getCount();
+		} else {
+			return 1;
+		}
+	}
+
+	@Override
+	public boolean isAccumulated(Object value) {
+		return value != null;
+	}
+
+	@Override
+	public Object createAccumulator() {
+		return new CountAccumulator();
+	}
+
+	@Override
+	public Object accumulate(Object accumulator, Object value) {
+		((CountAccumulator) accumulator).count += asCount(value);
+		return accumulator;
+	}
+
+	@Override
+	public Object mergeAccumulators(Object left, Object right) {
+		((CountAccumulator) left).count += ((CountAccumulator) right).count;
+		return left;
+	}
+
+	@Override
+	public Object finish(Object accumulator) {
+		return CountCarrier.of(((CountAccumulator) accumulator).count);
+	}
+
+	@Override
+	public double aggregateDoubles(double left, double right) {
+		throw new UnsupportedOperationException("Can not %s on doubles".formatted(KEY));
+	}
+
+	@Override
+	public long aggregateLongs(long left, long right) {
+		throw new UnsupportedOperationException("Can not %s on longs".formatted(KEY));
+	}
+}
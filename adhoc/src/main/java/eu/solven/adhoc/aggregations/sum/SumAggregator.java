@@ -27,6 +27,7 @@ import java.util.Collection;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
+import eu.solven.adhoc.aggregations.IAccumulatingAggregation;
 import eu.solven.adhoc.aggregations.IAggregation;
 import lombok.extern.slf4j.Slf4j;
 
@@ -35,7 +36,7 @@ import lombok.extern.slf4j.Slf4j;
  */
 // https://learn.microsoft.com/en-us/dax/sum-function-dax
 @Slf4j
-public class SumAggregator implements IAggregation {
+public class SumAggregator implements IAccumulatingAggregation {
 
 	public static final String KEY = "SUM";
 
@@ -71,6 +72,12 @@ public class SumAggregator implements IAggregation {
 		// Fallback by concatenating Strings
 		String concatenated = l.toString() + r.toString();
 
+		checkLength(concatenated);
+
+		return concatenated;
+	}
+
+	protected void checkLength(CharSequence concatenated) {
 		if (concatenated.length() >= 16 * 1024) {
 			// If this were a real use-case, we should probably rely on a dedicated optimized IAggregation
 			throw new IllegalStateException("Aggregation led to a too-large (length=%s) String: %s"
@@ -78,8 +85,56 @@ public class SumAggregator implements IAggregation {
 		} else if (concatenated.length() >= 1024) {
 			log.warn("Aggregation led to a large String: {}", concatenated);
 		}
+	}
 
-		return concatenated;
+	/**
+	 * Strings are concatenated into a {@link StringBuilder}, instead of a new String on each aggregation.
+	 */
+	@Override
+	public boolean isAccumulated(Object value) {
+		// Exact class, as sub-classes may aggregate Strings differently
+		return value instanceof CharSequence && getClass() == SumAggregator.class;
+	}
+
+	@Override
+	public Object createAccumulator() {
+		return new StringBuilder();
+	}
+
+	@Override
+	public Object accumulate(Object accumulator, Object value) {
+		if (value == null) {
+			return accumulator;
+		}
+
+		StringBuilder sb = (StringBuilder) accumulator;
+		int previousLength = sb.length();
+		sb.append(value);
+		checkAccumulatedLength(previousLength, sb);
+
+		return sb;
+	}
+
+	@Override
+	public Object mergeAccumulators(Object left, Object right) {
+		StringBuilder sb = (StringBuilder) left;
+		int previousLength = sb.length();
+		sb.append((StringBuilder) right);
+		checkAccumulatedLength(previousLength, sb);
+
+		return sb;
+	}
+
+	protected void checkAccumulatedLength(int previousLength, StringBuilder sb) {
+		if (sb.length() >= 16 * 1024 || previousLength < 1024 && sb.length() >= 1024) {
+			// Warn only once, when the String becomes large
+			checkLength(sb);
+		}
+	}
+
+	@Override
+	public Object finish(Object accumulator) {
+		return accumulator.toString();
 	}
 
 	@Override
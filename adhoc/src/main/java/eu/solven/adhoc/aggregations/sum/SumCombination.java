@@ -24,10 +24,14 @@ package eu.solven.adhoc.aggregations.sum;
 
 import java.util.List;
 
+import eu.solven.adhoc.aggregations.CombinationNullSemantics;
 import eu.solven.adhoc.aggregations.IAggregation;
+import eu.solven.adhoc.aggregations.IColumnarCombination;
 import eu.solven.adhoc.aggregations.ICombination;
+import eu.solven.adhoc.storage.PrimitiveColumn;
+import eu.solven.adhoc.storage.PrimitiveColumn.PrimitiveColumnType;
 
-public class SumCombination implements ICombination {
+public class SumCombination implements ICombination, IColumnarCombination {
 
 	public static final String KEY = "SUM";
 
@@ -38,4 +42,49 @@ public class SumCombination implements ICombination {
 		return underlyingValues.stream().filter(o -> o != null).<Object>map(o -> o).reduce(null, agg::aggregate);
 	}
 
+	@Override
+	public CombinationNullSemantics getNullSemantics() {
+		return CombinationNullSemantics.NULL_IF_ALL_NULL;
+	}
+
+	@Override
+	public PrimitiveColumn combineColumns(int size, List<PrimitiveColumn> underlyingColumns) {
+		if (underlyingColumns.stream().allMatch(c -> c.getType() == PrimitiveColumnType.LONG)) {
+			PrimitiveColumn output = PrimitiveColumn.ofLongs(size);
+			for (int row = 0; row < size; row++) {
+				boolean present = false;
+				long sum = 0;
+				for (PrimitiveColumn column : underlyingColumns) {
+					if (column.isPresent(row)) {
+						sum = present ? agg.aggregateLongs(sum, column.getLong(row)) : column.getLong(row);
+						present = true;
+					}
+				}
+				if (present) {
+					output.setLong(row, sum);
+				}
+			}
+			return output;
+		} else if (underlyingColumns.stream().allMatch(c -> c.getType() == PrimitiveColumnType.DOUBLE)) {
+			PrimitiveColumn output = PrimitiveColumn.ofDoubles(size);
+			for (int row = 0; row < size; row++) {
+				boolean present = false;
+				double sum = 0;
+				for (PrimitiveColumn column : underlyingColumns) {
+					if (column.isPresent(row)) {
+						sum = present ? agg.aggregateDoubles(sum, column.getDouble(row)) : column.getDouble(row);
+						present = true;
+					}
+				}
+				if (present) {
+					output.setDouble(row, sum);
+				}
+			}
+			return output;
+		} else {
+			// Mixed types: the output type would depend on the present values of each row
+			return null;
+		}
+	}
+
 }
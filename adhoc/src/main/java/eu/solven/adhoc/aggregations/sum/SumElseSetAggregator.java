@@ -71,6 +71,41 @@ public class SumElseSetAggregator extends SumAggregator {
 		}
 	}
 
+	/**
+	 * Errors are collected into a mutable Set, instead of a new Set on each aggregation. As in
+	 * {@link #aggregateObjects(Object, Object)}, numbers are dropped once an error is encountered.
+	 */
+	@Override
+	public boolean isAccumulated(Object value) {
+		return value != null && !isDoubleLike(value);
+	}
+
+	@Override
+	public Object createAccumulator() {
+		return new HashSet<>();
+	}
+
+	@Override
+	public Object accumulate(Object accumulator, Object value) {
+		addErrorsToSet(value, (Set<Object>) accumulator);
+		return accumulator;
+	}
+
+	@Override
+	public Object mergeAccumulators(Object left, Object right) {
+		((Set<Object>) left).addAll((Set<?>) right);
+		return left;
+	}
+
+	@Override
+	public Object finish(Object accumulator) {
+		Set<?> errors = (Set<?>) accumulator;
+		if (errors.isEmpty()) {
+			return null;
+		}
+		return errors;
+	}
+
 	private static void addErrorsToSet(Object l, Set<Object> errors) {
 		if (l != null && !isDoubleLike(l)) {
 			if (l instanceof Collection<?> lAsSet) {
@@ -0,0 +1,50 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.dag;
+
+import eu.solven.adhoc.slice.AdhocSliceAsMap;
+
+/**
+ * A read-only {@link ICoordinatesToValues}, typically sharing the storage of an underlying {@link ICoordinatesToValues}
+ * instead of copying it.
+ * 
+ * @author Benoit Lacelle
+ *
+ */
+public abstract class ACoordinatesToValuesView implements ICoordinatesToValues {
+
+	@Override
+	public void put(AdhocSliceAsMap coordinate, Object value) {
+		throw new UnsupportedOperationException("%s is read-only".formatted(getClass().getSimpleName()));
+	}
+
+	@Override
+	public void putLong(AdhocSliceAsMap coordinate, long value) {
+		throw new UnsupportedOperationException("%s is read-only".formatted(getClass().getSimpleName()));
+	}
+
+	@Override
+	public void putDouble(AdhocSliceAsMap coordinate, double value) {
+		throw new UnsupportedOperationException("%s is read-only".formatted(getClass().getSimpleName()));
+	}
+}
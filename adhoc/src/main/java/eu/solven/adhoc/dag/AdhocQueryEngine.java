@@ -27,14 +27,17 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -46,6 +49,8 @@ import org.jgrapht.graph.EdgeReversedGraph;
 import org.jgrapht.traverse.BreadthFirstIterator;
 import org.jgrapht.traverse.TopologicalOrderIterator;
 
+import com.google.common.collect.ImmutableList;
+
 import eu.solven.adhoc.ITabularView;
 import eu.solven.adhoc.MapBasedTabularView;
 import eu.solven.adhoc.RowScanner;
@@ -54,7 +59,9 @@ import eu.solven.adhoc.aggregations.StandardOperatorsFactory;
 import eu.solven.adhoc.aggregations.collection.UnionSetAggregator;
 import eu.solven.adhoc.api.v1.IAdhocQuery;
 import eu.solven.adhoc.api.v1.IWhereGroupbyAdhocQuery;
+import eu.solven.adhoc.database.AggregatedColumnType;
 import eu.solven.adhoc.database.IAdhocDatabaseWrapper;
+import eu.solven.adhoc.database.IAggregatesSink;
 import eu.solven.adhoc.eventbus.AdhocQueryPhaseIsCompleted;
 import eu.solven.adhoc.eventbus.QueryStepIsCompleted;
 import eu.solven.adhoc.eventbus.QueryStepIsEvaluating;
@@ -69,10 +76,16 @@ import eu.solven.adhoc.storage.MultiTypeStorage;
 import eu.solven.adhoc.storage.ValueConsumer;
 import eu.solven.adhoc.transformers.Aggregator;
 import eu.solven.adhoc.transformers.Columnator;
+import eu.solven.adhoc.transformers.CombinatorQueryStep;
 import eu.solven.adhoc.transformers.EmptyMeasure;
+import eu.solven.adhoc.transformers.Filtrator;
+import eu.solven.adhoc.transformers.ICombinator;
 import eu.solven.adhoc.transformers.IHasUnderlyingMeasures;
+import eu.solven.adhoc.transformers.IHasUnderlyingQuerySteps;
 import eu.solven.adhoc.transformers.IMeasure;
 import eu.solven.adhoc.transformers.ReferencedMeasure;
+import eu.solven.adhoc.transformers.UnderlyingQueryStepHelpers;
+import eu.solven.adhoc.transformers.Unfiltrator;
 import eu.solven.pepper.core.PepperLogHelper;
 import lombok.Builder;
 import lombok.Builder.Default;
@@ -97,6 +110,19 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 	@NonNull
 	final EventBus eventBus;
 
+	/**
+	 * The pool evaluating the steps given {@link StandardQueryOptions#CONCURRENT}.
+	 */
+	@NonNull
+	@Default
+	final ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
+	/**
+	 * The number of slices processed by a single task given {@link StandardQueryOptions#CONCURRENT}.
+	 */
+	@Default
+	final int chunkSize = UnderlyingQueryStepHelpers.DEFAULT_CHUNK_SIZE;
+
 	public ITabularView execute(IAdhocQuery adhocQuery, IAdhocDatabaseWrapper db) {
 		return execute(adhocQuery, Set.of(), db);
 	}
@@ -106,30 +132,75 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 			IAdhocDatabaseWrapper db) {
 		Set<DatabaseQuery> prepared = prepare(queryOptions, adhocQuery);
 
-		Map<DatabaseQuery, Stream<Map<String, ?>>> dbQueryToStream = new HashMap<>();
+		Map<DatabaseQuery, Map<String, AggregatedColumnType>> dbQueryToColumnTypes = new HashMap<>();
 		for (DatabaseQuery dbQuery : prepared) {
-			dbQueryToStream.put(dbQuery, db.openDbStream(dbQuery));
+			dbQueryToColumnTypes.put(dbQuery, db.getAggregatedColumnTypes(dbQuery));
 		}
 
-		return execute(adhocQuery, queryOptions, dbQueryToStream);
+		// The DB may process the queries together (e.g. SQL GROUPING SETS), routing each row to its DatabaseQuery
+		return execute(adhocQuery, queryOptions, prepared, db::sinkDbStreams, dbQueryToColumnTypes);
 	}
 
 	protected ITabularView execute(IAdhocQuery adhocQuery,
 			Set<? extends IQueryOption> queryOptions,
 			Map<DatabaseQuery, Stream<Map<String, ?>>> dbQueryToSteam) {
+		return execute(adhocQuery, queryOptions, dbQueryToSteam, Map.of());
+	}
+
+	protected ITabularView execute(IAdhocQuery adhocQuery,
+			Set<? extends IQueryOption> queryOptions,
+			Map<DatabaseQuery, Stream<Map<String, ?>>> dbQueryToSteam,
+			Map<DatabaseQuery, Map<String, AggregatedColumnType>> dbQueryToColumnTypes) {
+		return execute(adhocQuery, queryOptions, dbQueryToSteam.keySet(), dbQueryToSink -> {
+			dbQueryToSteam.forEach((dbQuery, stream) -> {
+				// Closing the stream enables the DB to release its resources (e.g. temporary tables)
+				try (stream) {
+					stream.forEach(dbQueryToSink.get(dbQuery));
+				}
+			});
+		}, dbQueryToColumnTypes);
+	}
+
+	/**
+	 * 
+	 * @param adhocQuery
+	 * @param queryOptions
+	 * @param dbQueries
+	 * @param dbSinker
+	 *            sinks the rows of each {@link DatabaseQuery} into the given sink of this {@link DatabaseQuery}
+	 * @param dbQueryToColumnTypes
+	 * @return the {@link ITabularView} of given {@link IAdhocQuery}
+	 */
+	protected ITabularView execute(IAdhocQuery adhocQuery,
+			Set<? extends IQueryOption> queryOptions,
+			Set<DatabaseQuery> dbQueries,
+			Consumer<Map<DatabaseQuery, Consumer<Map<String, ?>>>> dbSinker,
+			Map<DatabaseQuery, Map<String, AggregatedColumnType>> dbQueryToColumnTypes) {
 		DirectedAcyclicGraph<AdhocQueryStep, DefaultEdge> fromQueriedToAggregates =
 				makeQueryStepsDag(queryOptions, adhocQuery);
+		// A queried step may also be an underlying of another queried step: it is not necessarily a root of the DAG
+		Set<AdhocQueryStep> queriedSteps = makeQueriedSteps(queryOptions, adhocQuery);
 
 		Map<String, Set<Aggregator>> inputColumnToAggregators = columnToAggregators(fromQueriedToAggregates);
 
-		Map<AdhocQueryStep, ICoordinatesToValues> queryStepToValues = new LinkedHashMap<>();
+		Map<DatabaseQuery, AggregatingMeasurators<AdhocSliceAsMap>> dbQueryToAggregates = new LinkedHashMap<>();
+		Map<DatabaseQuery, Consumer<Map<String, ?>>> dbQueryToSink = new LinkedHashMap<>();
+		dbQueries.forEach(dbQuery -> {
+			AggregatingMeasurators<AdhocSliceAsMap> coordinatesToAgg = new AggregatingMeasurators<>(operatorsFactory);
+			dbQueryToAggregates.put(dbQuery, coordinatesToAgg);
+			dbQueryToSink.put(dbQuery,
+					makeRowSink(dbQuery,
+							inputColumnToAggregators,
+							dbQueryToColumnTypes.getOrDefault(dbQuery, Map.of()),
+							coordinatesToAgg));
+		});
 
-		// This is the only step consuming the input stream
-		dbQueryToSteam.forEach((dbQuery, stream) -> {
-			Map<AdhocQueryStep, CoordinatesToValues> oneQueryStepToValues =
-					aggregateStreamToAggregates(dbQuery, stream, inputColumnToAggregators);
+		// This is the only step consuming the input streams
+		dbSinker.accept(dbQueryToSink);
 
-			queryStepToValues.putAll(oneQueryStepToValues);
+		Map<AdhocQueryStep, ICoordinatesToValues> queryStepToValues = new LinkedHashMap<>();
+		dbQueryToAggregates.forEach((dbQuery, coordinatesToAgg) -> {
+			queryStepToValues.putAll(toImmutableChunks(dbQuery, coordinatesToAgg));
 		});
 
 		if (adhocQuery.isDebug()) {
@@ -146,12 +217,12 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 		// We're done with the input stream: the DB can be shutdown, we could answer the query
 		eventBus.post(AdhocQueryPhaseIsCompleted.builder().phase("aggregates").source(this).build());
 
-		walkDagUpToQueriedMeasures(fromQueriedToAggregates, queryStepToValues);
+		walkDagUpToQueriedMeasures(queryOptions, fromQueriedToAggregates, queriedSteps, queryStepToValues);
 
 		eventBus.post(AdhocQueryPhaseIsCompleted.builder().phase("transformations").source(this).build());
 
 		MapBasedTabularView mapBasedTabularView =
-				toTabularView(queryOptions, fromQueriedToAggregates, queryStepToValues);
+				toTabularView(queryOptions, fromQueriedToAggregates, queriedSteps, queryStepToValues);
 
 		return mapBasedTabularView;
 	}
@@ -184,6 +255,7 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 
 	protected MapBasedTabularView toTabularView(Set<? extends IQueryOption> queryOptions,
 			DirectedAcyclicGraph<AdhocQueryStep, DefaultEdge> fromQueriedToAggregates,
+			Set<AdhocQueryStep> queriedSteps,
 			Map<AdhocQueryStep, ICoordinatesToValues> queryStepToValues) {
 		MapBasedTabularView mapBasedTabularView = MapBasedTabularView.builder().build();
 
@@ -193,10 +265,7 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 			// What about measures appearing multiple times in the DAG?
 			stepsToReturn = new BreadthFirstIterator<>(fromQueriedToAggregates);
 		} else {
-			stepsToReturn = fromQueriedToAggregates.vertexSet()
-					.stream()
-					.filter(step -> fromQueriedToAggregates.inDegreeOf(step) == 0)
-					.iterator();
+			stepsToReturn = queriedSteps.iterator();
 		}
 
 		stepsToReturn.forEachRemaining(step -> {
@@ -222,16 +291,6 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 		return mapBasedTabularView;
 	}
 
-	protected Map<AdhocQueryStep, CoordinatesToValues> aggregateStreamToAggregates(DatabaseQuery dbQuery,
-			Stream<Map<String, ?>> stream,
-			Map<String, Set<Aggregator>> columnToAggregators) {
-
-		AggregatingMeasurators<AdhocSliceAsMap> coordinatesToAggregates =
-				sinkToAggregates(dbQuery, stream, columnToAggregators);
-
-		return toImmutableChunks(dbQuery, coordinatesToAggregates);
-	}
-
 	protected Map<AdhocQueryStep, CoordinatesToValues> toImmutableChunks(DatabaseQuery dbQuery,
 			AggregatingMeasurators<AdhocSliceAsMap> coordinatesToAggregates) {
 		Map<AdhocQueryStep, CoordinatesToValues> queryStepToValues = new HashMap<>();
@@ -244,6 +303,8 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 			if (storage == null) {
 				// Typically happens when a filter reject completely one of the underlying measure
 				storage = MultiTypeStorage.empty();
+			} else {
+				storage.closeAccumulators();
 			}
 
 			eventBus.post(
@@ -257,7 +318,9 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 		return queryStepToValues;
 	}
 
-	protected void walkDagUpToQueriedMeasures(DirectedAcyclicGraph<AdhocQueryStep, DefaultEdge> fromQueriedToAggregates,
+	protected void walkDagUpToQueriedMeasures(Set<? extends IQueryOption> queryOptions,
+			DirectedAcyclicGraph<AdhocQueryStep, DefaultEdge> fromQueriedToAggregates,
+			Set<AdhocQueryStep> queriedSteps,
 			Map<AdhocQueryStep, ICoordinatesToValues> queryStepToValues) {
 		// https://stackoverflow.com/questions/69183360/traversal-of-edgereversedgraph
 		EdgeReversedGraph<AdhocQueryStep, DefaultEdge> fromAggregatesToQueried =
@@ -312,22 +375,140 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 							return values;
 						}).collect(Collectors.toList());
 
-				ICoordinatesToValues coordinatesToValues =
-						hasUnderlyingMeasures.wrapNode(operatorsFactory, queryStep).produceOutputColumn(underlyings);
+				IHasUnderlyingQuerySteps node = hasUnderlyingMeasures.wrapNode(operatorsFactory, queryStep);
 
-				eventBus.post(QueryStepIsCompleted.builder()
-						.querystep(queryStep)
-						.nbCells(coordinatesToValues.keySet().size())
-						.source(this)
-						.build());
+				if (isLazy(queryOptions, fromQueriedToAggregates, queriedSteps, queryStep, node)) {
+					// The single consumer will read each slice once: no need to materialize this step
+					onStepCompleted(queryStepToValues,
+							queryStep,
+							((CombinatorQueryStep) node).produceLazyOutputColumn(underlyings),
+							true);
+					return;
+				}
 
-				queryStepToValues.put(queryStep, coordinatesToValues);
+				Map<AdhocQueryStep, CombinatorQueryStep> siblings =
+						fusableSiblings(fromQueriedToAggregates, queryStepToValues, queryStep, node);
+				if (siblings.size() >= 2) {
+					siblings.keySet()
+							.stream()
+							.filter(sibling -> sibling != queryStep)
+							.forEach(sibling -> eventBus.post(
+									QueryStepIsEvaluating.builder().queryStep(sibling).source(this).build()));
+
+					List<ICoordinatesToValues> siblingsValues = CombinatorQueryStep
+							.produceFusedOutputColumns(ImmutableList.copyOf(siblings.values()), underlyings);
+
+					Iterator<ICoordinatesToValues> valuesIterator = siblingsValues.iterator();
+					siblings.keySet()
+							.forEach(sibling -> onStepCompleted(queryStepToValues, sibling, valuesIterator.next()));
+				} else {
+					onStepCompleted(queryStepToValues, queryStep, node.produceOutputColumn(underlyings));
+				}
 			} else {
 				throw new UnsupportedOperationException("%s".formatted(PepperLogHelper.getObjectAndClass(measure)));
 			}
 		});
 	}
 
+	protected void onStepCompleted(Map<AdhocQueryStep, ICoordinatesToValues> queryStepToValues,
+			AdhocQueryStep queryStep,
+			ICoordinatesToValues coordinatesToValues) {
+		onStepCompleted(queryStepToValues, queryStep, coordinatesToValues, false);
+	}
+
+	protected void onStepCompleted(Map<AdhocQueryStep, ICoordinatesToValues> queryStepToValues,
+			AdhocQueryStep queryStep,
+			ICoordinatesToValues coordinatesToValues,
+			boolean lazy) {
+		eventBus.post(QueryStepIsCompleted.builder()
+				.querystep(queryStep)
+				.nbCells(coordinatesToValues.keySet().size())
+				.lazy(lazy)
+				.source(this)
+				.build());
+
+		queryStepToValues.put(queryStep, coordinatesToValues);
+	}
+
+	/**
+	 * A single-underlying {@link CombinatorQueryStep}, which is not returned and has a single consumer, is evaluated
+	 * lazily: a chain of such steps is evaluated slice per slice by the first materializing consumer.
+	 * 
+	 * @return true if given queryStep can be evaluated lazily.
+	 */
+	protected boolean isLazy(Set<? extends IQueryOption> queryOptions,
+			DirectedAcyclicGraph<AdhocQueryStep, DefaultEdge> fromQueriedToAggregates,
+			Set<AdhocQueryStep> queriedSteps,
+			AdhocQueryStep queryStep,
+			IHasUnderlyingQuerySteps node) {
+		if (queryOptions.contains(StandardQueryOptions.RETURN_UNDERLYING_MEASURES)) {
+			// Each step is returned: it is read at least twice
+			return false;
+		} else if (queriedSteps.contains(queryStep)) {
+			// A queried step is returned, even if it is also consumed by another step
+			return false;
+		} else if (fromQueriedToAggregates.inDegreeOf(queryStep) != 1) {
+			// Either a queried step, or a step with multiple consumers
+			return false;
+		} else if (node.getClass() != CombinatorQueryStep.class) {
+			return false;
+		}
+
+		CombinatorQueryStep combinatorNode = (CombinatorQueryStep) node;
+		return !combinatorNode.isDebug() && combinatorNode.getUnderlyingNames().size() == 1;
+	}
+
+	/**
+	 * Sibling {@link CombinatorQueryStep} share the same underlying steps (hence the same filter and groupBy): they can
+	 * be evaluated in a single pass over the underlying slices.
+	 * 
+	 * @return the not-yet-evaluated steps which can be evaluated together with given queryStep, including queryStep
+	 *         itself. Empty if queryStep can not be fused.
+	 */
+	protected Map<AdhocQueryStep, CombinatorQueryStep> fusableSiblings(
+			DirectedAcyclicGraph<AdhocQueryStep, DefaultEdge> fromQueriedToAggregates,
+			Map<AdhocQueryStep, ICoordinatesToValues> queryStepToValues,
+			AdhocQueryStep queryStep,
+			IHasUnderlyingQuerySteps node) {
+		// Subclasses may customize the evaluation of each slice
+		if (node.getClass() != CombinatorQueryStep.class) {
+			return Map.of();
+		}
+		CombinatorQueryStep combinatorNode = (CombinatorQueryStep) node;
+		if (combinatorNode.isDebug()) {
+			return Map.of();
+		}
+
+		List<AdhocQueryStep> underlyingSteps = combinatorNode.getUnderlyingSteps();
+		if (underlyingSteps.isEmpty()) {
+			return Map.of();
+		}
+
+		Map<AdhocQueryStep, CombinatorQueryStep> siblings = new LinkedHashMap<>();
+		siblings.put(queryStep, combinatorNode);
+
+		// Siblings are the other steps consuming the first underlying step
+		fromQueriedToAggregates.incomingEdgesOf(underlyingSteps.getFirst()).forEach(edge -> {
+			AdhocQueryStep candidate = fromQueriedToAggregates.getEdgeSource(edge);
+			if (siblings.containsKey(candidate) || queryStepToValues.containsKey(candidate)) {
+				return;
+			}
+
+			if (resolveIfRef(candidate.getMeasure()) instanceof IHasUnderlyingMeasures candidateMeasure) {
+				IHasUnderlyingQuerySteps candidateNode = candidateMeasure.wrapNode(operatorsFactory, candidate);
+
+				if (candidateNode.getClass() == CombinatorQueryStep.class
+						&& candidateNode instanceof CombinatorQueryStep candidateCombinator
+						&& !candidateCombinator.isDebug()
+						&& underlyingSteps.equals(candidateCombinator.getUnderlyingSteps())) {
+					siblings.put(candidate, candidateCombinator);
+				}
+			}
+		});
+
+		return siblings;
+	}
+
 	protected IMeasure resolveIfRef(IMeasure measure) {
 		return resolveIfRef(Set.of(), measure);
 	}
@@ -348,12 +529,19 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 		}
 	}
 
-	protected AggregatingMeasurators<AdhocSliceAsMap> sinkToAggregates(DatabaseQuery adhocQuery,
-			Stream<Map<String, ?>> stream,
-			Map<String, Set<Aggregator>> columnToAggregators) {
-
-		AggregatingMeasurators<AdhocSliceAsMap> coordinatesToAgg = new AggregatingMeasurators<>(operatorsFactory);
-
+	/**
+	 * 
+	 * @param adhocQuery
+	 * @param columnToAggregators
+	 * @param columnTypes
+	 * @param coordinatesToAgg
+	 * @return a sink aggregating each row of given {@link DatabaseQuery} into given {@link AggregatingMeasurators}. It
+	 *         does not retain the rows, which may be re-used by the database.
+	 */
+	protected IAggregatesSink makeRowSink(DatabaseQuery adhocQuery,
+			Map<String, Set<Aggregator>> columnToAggregators,
+			Map<String, AggregatedColumnType> columnTypes,
+			AggregatingMeasurators<AdhocSliceAsMap> coordinatesToAgg) {
 		Set<String> relevantColumns = new HashSet<>();
 		// We may receive raw columns,to be aggregated by ourselves
 		relevantColumns.addAll(columnToAggregators.keySet());
@@ -367,18 +555,24 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 		// TODO We'd like to log on the last row, to have the number if row actually streamed
 		BiConsumer<Map<String, ?>, Optional<AdhocSliceAsMap>> peekOnCoordinate = prepareStreamLogger(adhocQuery);
 
-		// Process the underlying stream of data to execute aggregations
-		stream.forEach(input -> {
-			forEachStreamedRow(adhocQuery,
-					columnToAggregators,
-					input,
-					peekOnCoordinate,
-					relevantColumns,
-					coordinatesToAgg);
-		});
-
-		return coordinatesToAgg;
+		return new IAggregatesSink() {
+			@Override
+			public void accept(Map<String, ?> input) {
+				// Process the underlying rows of data to execute aggregations
+				forEachStreamedRow(adhocQuery,
+						columnToAggregators,
+						input,
+						peekOnCoordinate,
+						relevantColumns,
+						columnTypes,
+						coordinatesToAgg);
+			}
 
+			@Override
+			public AggregatingMeasurators<AdhocSliceAsMap> getAggregates() {
+				return coordinatesToAgg;
+			}
+		};
 	}
 
 	protected BiConsumer<Map<String, ?>, Optional<AdhocSliceAsMap>> prepareStreamLogger(DatabaseQuery adhocQuery) {
@@ -410,6 +604,7 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 			Map<String, ?> input,
 			BiConsumer<Map<String, ?>, Optional<AdhocSliceAsMap>> peekOnCoordinate,
 			Set<String> relevantColumns,
+			Map<String, AggregatedColumnType> columnTypes,
 			AggregatingMeasurators<AdhocSliceAsMap> coordinatesToAgg) {
 		Optional<AdhocSliceAsMap> optCoordinates = makeCoordinate(adhocQuery, input);
 
@@ -433,18 +628,20 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 				Set<Aggregator> aggs = columnToAggregators.get(aggregatedColumn);
 
 				Object v = input.get(aggregatedColumn);
+				// The type is resolved by the DB, to skip sniffing the type of each value
+				AggregatedColumnType columnType = columnTypes.get(aggregatedColumn);
 
 				if (aggs == null) {
 					// DB has done the aggregation for us
 					Optional<Aggregator> optAgg = isAggregator(columnToAggregators, aggregatedColumn);
 
 					optAgg.ifPresent(agg -> {
-						coordinatesToAgg.contribute(agg, coordinates, v);
+						coordinatesToAgg.contribute(agg, coordinates, v, columnType);
 					});
 				} else {
 					// The DB provides the column raw value, and not an aggregated value
 					// So we aggregate row values ourselves
-					aggs.forEach(agg -> coordinatesToAgg.contribute(agg, coordinates, v));
+					aggs.forEach(agg -> coordinatesToAgg.contribute(agg, coordinates, v, columnType));
 				}
 			}
 		}
@@ -504,6 +701,8 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 			boolean explain,
 			boolean debug) {
 		Map<MeasurelessQuery, Set<Aggregator>> measurelessToAggregators = new HashMap<>();
+		// The aggregates of an aggregator step may be merged by a parent step (e.g. by a Bucketor)
+		Map<MeasurelessQuery, Boolean> measurelessToMerged = new HashMap<>();
 
 		// https://stackoverflow.com/questions/57134161/how-to-find-roots-and-leaves-set-in-jgrapht-directedacyclicgraph
 		directedGraph.vertexSet()
@@ -519,6 +718,11 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 						measurelessToAggregators.merge(measureless,
 								Collections.singleton(leafAggregator),
 								UnionSetAggregator::unionSet);
+						boolean merged = directedGraph.incomingEdgesOf(step)
+								.stream()
+								.map(edge -> resolveIfRef(directedGraph.getEdgeSource(edge).getMeasure()))
+								.anyMatch(this::isMergingUnderlyings);
+						measurelessToMerged.merge(measureless, merged, Boolean::logicalOr);
 					} else if (leafMeasure instanceof EmptyMeasure) {
 						// ???
 					} else if (leafMeasure instanceof Columnator) {
@@ -545,11 +749,51 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 					.aggregators(leafAggregators)
 					.explain(explain)
 					.debug(debug)
+					.mergedAggregates(measurelessToMerged.get(adhocLeafQuery))
 					.customMarker(adhocLeafQuery.getCustomMarker())
 					.build();
 		}).collect(Collectors.toSet());
 	}
 
+	/**
+	 * 
+	 * @param measure
+	 *            a measure with underlying measures
+	 * @return true if given measure may merge the aggregates of different underlying slices (e.g. a Bucketor or a
+	 *         Dispatchor). Unknown measures are considered merging.
+	 */
+	protected boolean isMergingUnderlyings(IMeasure measure) {
+		// These measures map each underlying slice to at most one slice
+		return !(measure instanceof ICombinator || measure instanceof Filtrator || measure instanceof Unfiltrator);
+	}
+
+	/**
+	 * 
+	 * @param queryOptions
+	 * @param adhocQuery
+	 * @return the steps of the queried measures, in the order of the query.
+	 */
+	protected Set<AdhocQueryStep> makeQueriedSteps(Set<? extends IQueryOption> queryOptions, IAdhocQuery adhocQuery) {
+		Set<AdhocQueryStep> queriedSteps = new LinkedHashSet<>();
+
+		adhocQuery.getMeasureRefs().stream().map(ref -> resolveIfRef(queryOptions, ref)).forEach(queriedMeasure -> {
+			AdhocQueryStep rootStep = AdhocQueryStep.builder()
+					.filter(adhocQuery.getFilter())
+					.groupBy(adhocQuery.getGroupBy())
+					.measure(queriedMeasure)
+					.customMarker(adhocQuery.getCustomMarker())
+					.debug(adhocQuery.isDebug())
+					.concurrent(queryOptions.contains(StandardQueryOptions.CONCURRENT))
+					.forkJoinPool(forkJoinPool)
+					.chunkSize(chunkSize)
+					.build();
+
+			queriedSteps.add(rootStep);
+		});
+
+		return queriedSteps;
+	}
+
 	protected DirectedAcyclicGraph<AdhocQueryStep, DefaultEdge> makeQueryStepsDag(
 			Set<? extends IQueryOption> queryOptions,
 			IAdhocQuery adhocQuery) {
@@ -557,22 +801,10 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 
 		LinkedList<AdhocQueryStep> collectors = new LinkedList<>();
 
-		{
-
-			adhocQuery.getMeasureRefs().stream().map(ref -> resolveIfRef(queryOptions, ref)).forEach(queriedMeasure -> {
-				AdhocQueryStep rootStep = AdhocQueryStep.builder()
-						.filter(adhocQuery.getFilter())
-						.groupBy(adhocQuery.getGroupBy())
-						.measure(queriedMeasure)
-						.customMarker(adhocQuery.getCustomMarker())
-						.debug(adhocQuery.isDebug())
-						.build();
-
-				queryDag.addVertex(rootStep);
-				collectors.add(rootStep);
-			});
-
-		}
+		makeQueriedSteps(queryOptions, adhocQuery).forEach(rootStep -> {
+			queryDag.addVertex(rootStep);
+			collectors.add(rootStep);
+		});
 
 		while (!collectors.isEmpty()) {
 			AdhocQueryStep adhocSubQuery = collectors.poll();
@@ -586,7 +818,12 @@ public class AdhocQueryEngine implements IAdhocQueryEngine {
 						.getUnderlyingSteps()) {
 					// Make sure the DAG has actual measure nodes, and not references
 					IMeasure notRefMeasure = resolveIfRef(underlyingStep.getMeasure());
-					underlyingStep = AdhocQueryStep.edit(underlyingStep).measure(notRefMeasure).build();
+					underlyingStep = AdhocQueryStep.edit(underlyingStep)
+							.measure(notRefMeasure)
+							.concurrent(adhocSubQuery.isConcurrent())
+							.forkJoinPool(adhocSubQuery.getForkJoinPool())
+							.chunkSize(adhocSubQuery.getChunkSize())
+							.build();
 
 					queryDag.addVertex(underlyingStep);
 					queryDag.addEdge(adhocSubQuery, underlyingStep);
@@ -25,6 +25,7 @@ package eu.solven.adhoc.dag;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 import eu.solven.adhoc.api.v1.IAdhocFilter;
 import eu.solven.adhoc.api.v1.IAdhocGroupBy;
@@ -33,6 +34,7 @@ import eu.solven.adhoc.api.v1.IHasCustomMarker;
 import eu.solven.adhoc.api.v1.IIsDebugable;
 import eu.solven.adhoc.api.v1.IWhereGroupbyAdhocQuery;
 import eu.solven.adhoc.transformers.IMeasure;
+import eu.solven.adhoc.transformers.UnderlyingQueryStepHelpers;
 import lombok.Builder;
 import lombok.Builder.Default;
 import lombok.EqualsAndHashCode;
@@ -53,11 +55,16 @@ import lombok.Value;
 		// being debug or not should not prevent 2 querySteps to be considered equals in some hashStructure
 		// This could lead to unexpected debug/notDebug
 		"debug",
+		// being concurrent or not does not change the result of a step
+		"concurrent",
+		"forkJoinPool",
+		"chunkSize",
 		// cache is typically used for performance improvments: it should not impact any hashStructure
 		"cache" })
 @ToString(exclude = {
 		// The cache is not relevant in logs. This may be tweaked based on `debug` flag
-		"cache" })
+		"cache",
+		"forkJoinPool" })
 public class AdhocQueryStep implements IWhereGroupbyAdhocQuery, IIsDebugable, IHasCustomMarker {
 	@NonNull
 	IMeasure measure;
@@ -69,6 +76,19 @@ public class AdhocQueryStep implements IWhereGroupbyAdhocQuery, IIsDebugable, IH
 	@Default
 	boolean debug = false;
 
+	// If true, this step may be evaluated concurrently
+	@Default
+	boolean concurrent = false;
+
+	// The pool evaluating the chunks of a concurrent step
+	@Default
+	@NonNull
+	ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
+	// The number of slices processed by a single task of a concurrent step
+	@Default
+	int chunkSize = UnderlyingQueryStepHelpers.DEFAULT_CHUNK_SIZE;
+
 	// This property is transported down to the DatabaseQuery
 	@Default
 	@NonNull
@@ -78,7 +98,10 @@ public class AdhocQueryStep implements IWhereGroupbyAdhocQuery, IIsDebugable, IH
 	Map<Object, Object> cache = new ConcurrentHashMap<>();
 
 	public static AdhocQueryStepBuilder edit(AdhocQueryStep step) {
-		return edit((IWhereGroupbyAdhocQuery) step).measure(step.getMeasure());
+		return edit((IWhereGroupbyAdhocQuery) step).measure(step.getMeasure())
+				.concurrent(step.isConcurrent())
+				.forkJoinPool(step.getForkJoinPool())
+				.chunkSize(step.getChunkSize());
 	}
 
 	public static AdhocQueryStepBuilder edit(IWhereGroupbyAdhocQuery step) {
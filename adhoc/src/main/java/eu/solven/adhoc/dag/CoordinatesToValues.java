@@ -58,11 +58,31 @@ public class CoordinatesToValues implements ICoordinatesToValues {
 		return getStorage().keySet();
 	}
 
+	@Override
+	public long size() {
+		return storage.size();
+	}
+
+	@Override
+	public boolean containsKey(AdhocSliceAsMap coordinate) {
+		return storage.containsKey(coordinate);
+	}
+
 	@Override
 	public void put(AdhocSliceAsMap coordinate, Object value) {
 		storage.put(coordinate, value);
 	}
 
+	@Override
+	public void putLong(AdhocSliceAsMap coordinate, long value) {
+		storage.putLong(coordinate, value);
+	}
+
+	@Override
+	public void putDouble(AdhocSliceAsMap coordinate, double value) {
+		storage.putDouble(coordinate, value);
+	}
+
 	@Override
 	public void scan(RowScanner<AdhocSliceAsMap> rowScanner) {
 		storage.scan(rowScanner);
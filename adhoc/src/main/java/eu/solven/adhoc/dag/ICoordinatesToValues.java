@@ -32,8 +32,39 @@ import eu.solven.adhoc.storage.ValueConsumer;
 public interface ICoordinatesToValues {
 	Set<AdhocSliceAsMap> keySet();
 
+	/**
+	 * 
+	 * @return the number of slices, which may be cheaper than `keySet().size()`.
+	 */
+	default long size() {
+		return keySet().size();
+	}
+
+	/**
+	 * 
+	 * @param coordinate
+	 * @return true if this holds a value (possibly null) for given coordinate.
+	 */
+	default boolean containsKey(AdhocSliceAsMap coordinate) {
+		return keySet().contains(coordinate);
+	}
+
 	void put(AdhocSliceAsMap coordinate, Object value);
 
+	/**
+	 * Equivalent to `put(coordinate, value)`, without boxing if the implementation stores primitives.
+	 */
+	default void putLong(AdhocSliceAsMap coordinate, long value) {
+		put(coordinate, value);
+	}
+
+	/**
+	 * Equivalent to `put(coordinate, value)`, without boxing if the implementation stores primitives.
+	 */
+	default void putDouble(AdhocSliceAsMap coordinate, double value) {
+		put(coordinate, value);
+	}
+
 	void onValue(IAdhocSlice slice, ValueConsumer consumer);
 
 	void scan(RowScanner<AdhocSliceAsMap> rowScanner);
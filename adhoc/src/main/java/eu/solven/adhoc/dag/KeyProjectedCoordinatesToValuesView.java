@@ -0,0 +1,106 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.dag;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.google.common.collect.Iterators;
+
+import eu.solven.adhoc.RowScanner;
+import eu.solven.adhoc.slice.AdhocSliceAsMap;
+import eu.solven.adhoc.slice.IAdhocSlice;
+import eu.solven.adhoc.storage.ValueConsumer;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * A read-only view over an underlying {@link ICoordinatesToValues}, exposing the same values on projected slices. The
+ * projection has to be a bijection: each underlying slice is exposed as a single slice of this view, and
+ * `toUnderlying` is the inverse of `fromUnderlying`.
+ * 
+ * @author Benoit Lacelle
+ *
+ */
+@Value
+@Builder
+@EqualsAndHashCode(callSuper = false)
+public class KeyProjectedCoordinatesToValuesView extends ACoordinatesToValuesView {
+	@NonNull
+	ICoordinatesToValues underlying;
+
+	// From an underlying slice to a slice of this view
+	@NonNull
+	Function<AdhocSliceAsMap, AdhocSliceAsMap> fromUnderlying;
+
+	// From a slice of this view to an underlying slice
+	@NonNull
+	Function<AdhocSliceAsMap, AdhocSliceAsMap> toUnderlying;
+
+	@Override
+	public Set<AdhocSliceAsMap> keySet() {
+		Set<AdhocSliceAsMap> underlyingKeySet = underlying.keySet();
+
+		// A lazy Set, not to copy the underlying keySet
+		return new AbstractSet<>() {
+			@Override
+			public Iterator<AdhocSliceAsMap> iterator() {
+				return Iterators.transform(underlyingKeySet.iterator(), fromUnderlying::apply);
+			}
+
+			@Override
+			public int size() {
+				return underlyingKeySet.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return o instanceof AdhocSliceAsMap slice && containsKey(slice);
+			}
+		};
+	}
+
+	@Override
+	public long size() {
+		return underlying.size();
+	}
+
+	@Override
+	public boolean containsKey(AdhocSliceAsMap coordinate) {
+		return underlying.containsKey(toUnderlying.apply(coordinate));
+	}
+
+	@Override
+	public void onValue(IAdhocSlice slice, ValueConsumer consumer) {
+		underlying.onValue(toUnderlying.apply(slice.getAdhocSliceAsMap()), consumer);
+	}
+
+	@Override
+	public void scan(RowScanner<AdhocSliceAsMap> rowScanner) {
+		underlying.scan(coordinates -> rowScanner.onKey(fromUnderlying.apply(coordinates)));
+	}
+}
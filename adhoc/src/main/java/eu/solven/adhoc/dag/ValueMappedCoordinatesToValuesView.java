@@ -0,0 +1,118 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.dag;
+
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import eu.solven.adhoc.RowScanner;
+import eu.solven.adhoc.aggregations.sum.SumAggregator;
+import eu.solven.adhoc.slice.AdhocSliceAsMap;
+import eu.solven.adhoc.slice.IAdhocSlice;
+import eu.solven.adhoc.storage.AsObjectValueConsumer;
+import eu.solven.adhoc.storage.ValueConsumer;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * A read-only view over an underlying {@link ICoordinatesToValues}, exposing the same slices. Each value is mapped
+ * lazily, on each read: the mapping function has to be cheap, or the view has to be read once per slice.
+ * 
+ * @author Benoit Lacelle
+ *
+ */
+@Value
+@Builder
+@EqualsAndHashCode(callSuper = false)
+public class ValueMappedCoordinatesToValuesView extends ACoordinatesToValuesView {
+	@NonNull
+	ICoordinatesToValues underlying;
+
+	// Called only on slices held by the underlying. The value may be null.
+	@NonNull
+	BiFunction<AdhocSliceAsMap, Object, Object> sliceValueMapper;
+
+	@Override
+	public Set<AdhocSliceAsMap> keySet() {
+		return underlying.keySet();
+	}
+
+	@Override
+	public long size() {
+		return underlying.size();
+	}
+
+	@Override
+	public boolean containsKey(AdhocSliceAsMap coordinate) {
+		return underlying.containsKey(coordinate);
+	}
+
+	@Override
+	public void onValue(IAdhocSlice slice, ValueConsumer consumer) {
+		AdhocSliceAsMap coordinates = slice.getAdhocSliceAsMap();
+		if (underlying.containsKey(coordinates)) {
+			underlying.onValue(coordinates, mapping(coordinates, consumer));
+		} else {
+			consumer.onObject(null);
+		}
+	}
+
+	@Override
+	public void scan(RowScanner<AdhocSliceAsMap> rowScanner) {
+		underlying.scan(coordinates -> mapping(coordinates, rowScanner.onKey(coordinates)));
+	}
+
+	protected ValueConsumer mapping(AdhocSliceAsMap coordinates, ValueConsumer consumer) {
+		return AsObjectValueConsumer.consumer(o -> onObject(sliceValueMapper.apply(coordinates, o), consumer));
+	}
+
+	/**
+	 * Push the value into the consumer, through its most specific method.
+	 */
+	protected static void onObject(Object v, ValueConsumer consumer) {
+		if (SumAggregator.isLongLike(v)) {
+			consumer.onLong(SumAggregator.asLong(v));
+		} else if (SumAggregator.isDoubleLike(v)) {
+			consumer.onDouble(SumAggregator.asDouble(v));
+		} else if (v instanceof CharSequence charSequence) {
+			consumer.onCharsequence(charSequence);
+		} else {
+			consumer.onObject(v);
+		}
+	}
+
+	public static class ValueMappedCoordinatesToValuesViewBuilder {
+		/**
+		 * 
+		 * @param valueMapper
+		 *            a mapper ignoring the slice
+		 * @return this builder
+		 */
+		public ValueMappedCoordinatesToValuesViewBuilder valueMapper(Function<Object, Object> valueMapper) {
+			return sliceValueMapper((slice, o) -> valueMapper.apply(o));
+		}
+	}
+}
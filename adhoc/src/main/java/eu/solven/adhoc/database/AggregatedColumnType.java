@@ -0,0 +1,64 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database;
+
+import java.math.BigDecimal;
+
+/**
+ * The type of the values of an aggregated column, as known by the database schema. It enables the engine to aggregate
+ * these values through a monomorphic primitive path, instead of sniffing the type of each value.
+ * 
+ * @author Benoit Lacelle
+ * @see IAdhocDatabaseWrapper#getAggregatedColumnTypes(eu.solven.adhoc.query.DatabaseQuery)
+ */
+public enum AggregatedColumnType {
+	/**
+	 * {@link Long} or {@link Integer} values.
+	 */
+	LONG,
+	/**
+	 * {@link Double} or {@link Float} values.
+	 */
+	DOUBLE,
+	/**
+	 * {@link BigDecimal} values, decoded into a long if they have no fractional part, else into a double.
+	 */
+	DECIMAL;
+
+	/**
+	 * 
+	 * @param javaType
+	 * @return the {@link AggregatedColumnType} for given Java type, or null if it is not a primitive numeric type.
+	 */
+	public static AggregatedColumnType fromJavaType(Class<?> javaType) {
+		if (javaType == Long.class || javaType == Integer.class) {
+			return LONG;
+		} else if (javaType == Double.class || javaType == Float.class) {
+			return DOUBLE;
+		} else if (javaType == BigDecimal.class) {
+			return DECIMAL;
+		} else {
+			return null;
+		}
+	}
+}
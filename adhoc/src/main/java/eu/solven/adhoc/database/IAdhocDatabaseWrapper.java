@@ -22,7 +22,10 @@
  */
 package eu.solven.adhoc.database;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import eu.solven.adhoc.api.v1.IAdhocQuery;
@@ -43,4 +46,60 @@ public interface IAdhocDatabaseWrapper {
 
 	Stream<Map<String, ?>> openDbStream(DatabaseQuery dbQuery);
 
+	/**
+	 * Opens the streams of multiple {@link DatabaseQuery}. A database may process them together, e.g. to scan its data
+	 * once for multiple groupBys.
+	 * 
+	 * @param dbQueries
+	 * @return a {@link Stream} for each {@link DatabaseQuery}, as by {@link #openDbStream(DatabaseQuery)}.
+	 */
+	default Map<DatabaseQuery, Stream<Map<String, ?>>> openDbStreams(Set<DatabaseQuery> dbQueries) {
+		Map<DatabaseQuery, Stream<Map<String, ?>>> dbQueryToStream = new LinkedHashMap<>();
+		dbQueries.forEach(dbQuery -> dbQueryToStream.put(dbQuery, openDbStream(dbQuery)));
+		return dbQueryToStream;
+	}
+
+	/**
+	 * Sinks the rows of multiple {@link DatabaseQuery}. A database may process them together, e.g. to scan its data
+	 * once for multiple groupBys, routing each row to the sink of its {@link DatabaseQuery} in the same pass.
+	 * 
+	 * @param dbQueryToSink
+	 *            the sink of each {@link DatabaseQuery}. A sink must not retain a row, as the database may re-use it
+	 *            for its next row.
+	 * @see IAggregatesSink
+	 */
+	default void sinkDbStreams(Map<DatabaseQuery, ? extends Consumer<Map<String, ?>>> dbQueryToSink) {
+		Map<DatabaseQuery, Stream<Map<String, ?>>> dbQueryToStream = openDbStreams(dbQueryToSink.keySet());
+
+		try {
+			dbQueryToStream.forEach((dbQuery, stream) -> {
+				// Closing the stream enables the DB to release its resources (e.g. temporary tables)
+				try (stream) {
+					stream.forEach(dbQueryToSink.get(dbQuery));
+				}
+			});
+		} catch (RuntimeException e) {
+			// The streams not consumed yet would never be closed
+			dbQueryToStream.values().forEach(stream -> {
+				try {
+					stream.close();
+				} catch (RuntimeException closeException) {
+					e.addSuppressed(closeException);
+				}
+			});
+			throw e;
+		}
+	}
+
+	/**
+	 * 
+	 * @param dbQuery
+	 * @return the type of the aggregated columns, keyed by their name in the stream returned by
+	 *         {@link #openDbStream(DatabaseQuery)}: the aggregator name for a column aggregated by the database, else the
+	 *         aggregated column name. Columns with an unknown or non-numeric type are not present.
+	 */
+	default Map<String, AggregatedColumnType> getAggregatedColumnTypes(DatabaseQuery dbQuery) {
+		return Map.of();
+	}
+
 }
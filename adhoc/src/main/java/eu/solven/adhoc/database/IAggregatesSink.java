@@ -0,0 +1,46 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+import eu.solven.adhoc.query.DatabaseQuery;
+import eu.solven.adhoc.slice.AdhocSliceAsMap;
+import eu.solven.adhoc.storage.AggregatingMeasurators;
+
+/**
+ * The sink of the rows of a {@link DatabaseQuery}, as given to {@link IAdhocDatabaseWrapper#sinkDbStreams(Map)}. A
+ * database may also contribute its aggregates directly into {@link #getAggregates()}, e.g. from columnar vectors,
+ * without materializing rows.
+ * 
+ * @author Benoit Lacelle
+ */
+public interface IAggregatesSink extends Consumer<Map<String, ?>> {
+	/**
+	 * 
+	 * @return the aggregates of the {@link DatabaseQuery}, keyed by the aggregators of the {@link DatabaseQuery}, and
+	 *         by the slices of its groupBy (slices lacking a coordinate must not be contributed).
+	 */
+	AggregatingMeasurators<AdhocSliceAsMap> getAggregates();
+}
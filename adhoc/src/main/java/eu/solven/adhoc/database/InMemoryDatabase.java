@@ -23,15 +23,30 @@
 package eu.solven.adhoc.database;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
-import eu.solven.adhoc.execute.FilterHelpers;
+import eu.solven.adhoc.aggregations.IOperatorsFactory;
+import eu.solven.adhoc.aggregations.StandardOperatorsFactory;
+import eu.solven.adhoc.aggregations.max.MaxAggregator;
+import eu.solven.adhoc.aggregations.max.MinAggregator;
+import eu.solven.adhoc.aggregations.sum.CountAggregator;
+import eu.solven.adhoc.aggregations.sum.SumAggregator;
+import eu.solven.adhoc.execute.FilterCompiler;
 import eu.solven.adhoc.query.DatabaseQuery;
+import eu.solven.adhoc.slice.AdhocSliceAsMap;
+import eu.solven.adhoc.storage.AggregatingMeasurators;
+import eu.solven.adhoc.storage.AsObjectValueConsumer;
+import eu.solven.adhoc.transformers.Aggregator;
 import lombok.Builder;
 import lombok.Builder.Default;
 import lombok.Getter;
@@ -41,6 +56,10 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * A simple {@link IAdhocDatabaseWrapper} over a {@link List} of {@link Map}. It has some specificities: it does not
  * execute groupBys, nor it handles calculated columns (over SQL expressions).
+ * 
+ * If `parallel` is enabled, large tables are scanned in fixed-size morsels over a {@link ForkJoinPool}: each morsel is
+ * filtered, projected and pre-aggregated on its own, and the partial aggregates are merged before being returned. The
+ * output rows are then pre-aggregated rows, keyed by {@link Aggregator} names, as a SQL database would return.
  */
 @Slf4j
 @Builder
@@ -55,6 +74,38 @@ public class InMemoryDatabase implements IAdhocDatabaseWrapper {
 	@Default
 	List<Map<String, ?>> rows = new ArrayList<>();
 
+	/**
+	 * If true, large tables are scanned and pre-aggregated in parallel. This is opt-in as it changes the output of
+	 * {@link #openDbStream(DatabaseQuery)} from raw rows to pre-aggregated rows.
+	 */
+	@Default
+	final boolean parallel = false;
+
+	/**
+	 * The number of rows processed by a single task when `parallel` is enabled.
+	 */
+	@Default
+	final int morselSize = DEFAULT_MORSEL_SIZE;
+
+	@NonNull
+	@Default
+	final ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+
+	/**
+	 * Used to pre-aggregate the morsels when `parallel` is enabled.
+	 */
+	@NonNull
+	@Default
+	final IOperatorsFactory operatorsFactory = new StandardOperatorsFactory();
+
+	public static final int DEFAULT_MORSEL_SIZE = 16 * 1024;
+
+	/**
+	 * The aggregations returning a single value as-is: a pre-aggregated value can be re-aggregated as a raw value.
+	 */
+	protected static final Set<String> IDEMPOTENT_AGGREGATIONS =
+			Set.of(SumAggregator.KEY, MaxAggregator.KEY, MinAggregator.KEY);
+
 	public void add(Map<String, ?> row) {
 		rows.add(row);
 	}
@@ -70,6 +121,10 @@ public class InMemoryDatabase implements IAdhocDatabaseWrapper {
 
 	@Override
 	public Stream<Map<String, ?>> openDbStream(DatabaseQuery dbQuery) {
+		if (parallel && rows.size() > morselSize && rows instanceof RandomAccess && isPreAggregable(dbQuery)) {
+			return openParallelDbStream(dbQuery);
+		}
+
 		TranscodingContext transcodingContext = TranscodingContext.builder().transcoder(transcoder).build();
 
 		Set<String> queriedColumns = new HashSet<>();
@@ -84,15 +139,181 @@ public class InMemoryDatabase implements IAdhocDatabaseWrapper {
 			underlyingColumns.add(underlying);
 		});
 
-		return this.stream().filter(row -> {
-			return FilterHelpers.match(transcodingContext, dbQuery.getFilter(), row);
-		}).map(row -> {
+		// Compiled once for all rows
+		Predicate<Map<String, ?>> filter = FilterCompiler.compile(transcodingContext, dbQuery.getFilter());
+
+		boolean countAsterisk = queriedColumns.contains(CountAggregator.ASTERISK);
+
+		return this.stream().filter(filter).map(row -> {
 			Map<String, Object> withSelectedColumns = new LinkedHashMap<>(row);
 
 			// Discard the column not expressed by the dbQuery
 			withSelectedColumns.keySet().retainAll(underlyingColumns);
 
+			if (countAsterisk) {
+				// Each row contributes to `COUNT(*)`
+				withSelectedColumns.put(CountAggregator.ASTERISK, 1L);
+			}
+
 			return withSelectedColumns;
 		}).map(row -> transcodeFromDb(transcodingContext, row));
 	}
+
+	/**
+	 * 
+	 * @param dbQuery
+	 * @return true if the rows can be pre-aggregated without introducing an ambiguity between a pre-aggregated column
+	 *         and a raw column.
+	 */
+	public static boolean isPreAggregable(DatabaseQuery dbQuery) {
+		Set<String> groupedByColumns = dbQuery.getGroupBy().getGroupedByColumns();
+
+		for (Aggregator aggregator : dbQuery.getAggregators()) {
+			if (groupedByColumns.contains(aggregator.getName())) {
+				log.debug("Can not pre-aggregate as {} is also a groupBy", aggregator);
+				return false;
+			}
+
+			if (aggregator.getColumnName().equals(aggregator.getName())
+					&& !IDEMPOTENT_AGGREGATIONS.contains(aggregator.getAggregationKey())) {
+				// The engine would re-aggregate the pre-aggregated value as a raw value (e.g. a COUNT would count 1)
+				log.debug("Can not pre-aggregate as {} is named like its column", aggregator);
+				return false;
+			}
+
+			boolean isOtherColumn = dbQuery.getAggregators()
+					.stream()
+					.anyMatch(other -> !other.equals(aggregator) && other.getColumnName().equals(aggregator.getName()));
+			if (isOtherColumn) {
+				// The engine would aggregate the pre-aggregated value into the other aggregator
+				log.debug("Can not pre-aggregate as {} is the column of another aggregator", aggregator);
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	protected Stream<Map<String, ?>> openParallelDbStream(DatabaseQuery dbQuery) {
+		TranscodingContext transcodingContext = TranscodingContext.builder().transcoder(transcoder).build();
+
+		// Transcoded once, as the morsels are processed concurrently while TranscodingContext is not thread-safe
+		List<String> groupedByColumns = List.copyOf(dbQuery.getGroupBy().getGroupedByColumns());
+		List<String> underlyingGroupBys = groupedByColumns.stream().map(transcodingContext::underlying).toList();
+
+		List<Aggregator> aggregators = List.copyOf(dbQuery.getAggregators());
+		List<String> underlyingAggregated =
+				aggregators.stream().map(a -> transcodingContext.underlying(a.getColumnName())).toList();
+
+		// The compiled filter is immutable: it can be shared by the morsels
+		Predicate<Map<String, ?>> filter = FilterCompiler.compile(transcoder, dbQuery.getFilter());
+
+		MorselScanContext scanContext = new MorselScanContext(filter,
+				groupedByColumns,
+				underlyingGroupBys,
+				aggregators,
+				underlyingAggregated);
+
+		AggregatingMeasurators<AdhocSliceAsMap> aggregated =
+				forkJoinPool.invoke(new MorselTask(scanContext, 0, rows.size()));
+
+		// Gather the aggregates of each slice in a single row
+		Map<AdhocSliceAsMap, Map<String, Object>> sliceToRow = new LinkedHashMap<>();
+		aggregated.getAggregatorToStorage().forEach((aggregator, storage) -> {
+			storage.scan(slice -> AsObjectValueConsumer.consumer(o -> {
+				sliceToRow.computeIfAbsent(slice, k -> new HashMap<>(k.getCoordinates())).put(aggregator.getName(), o);
+			}));
+		});
+
+		log.debug("dbQuery={} has been pre-aggregated into {} slices", dbQuery, sliceToRow.size());
+
+		List<Map<String, ?>> preAggregatedRows = new ArrayList<>(sliceToRow.values());
+		return preAggregatedRows.stream();
+	}
+
+	/**
+	 * The immutable state shared by the morsels of a given {@link DatabaseQuery}.
+	 */
+	protected record MorselScanContext(Predicate<Map<String, ?>> filter,
+			List<String> groupedByColumns,
+			List<String> underlyingGroupBys,
+			List<Aggregator> aggregators,
+			List<String> underlyingAggregated) {
+	}
+
+	/**
+	 * Pre-aggregates a range of rows, splitting it in morsels of `morselSize` rows. Idle workers steal the pending
+	 * morsels.
+	 */
+	protected class MorselTask extends RecursiveTask<AggregatingMeasurators<AdhocSliceAsMap>> {
+		private static final long serialVersionUID = 6405361264592587329L;
+
+		final MorselScanContext scanContext;
+		final int from;
+		final int to;
+
+		protected MorselTask(MorselScanContext scanContext, int from, int to) {
+			this.scanContext = scanContext;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected AggregatingMeasurators<AdhocSliceAsMap> compute() {
+			if (to - from <= morselSize) {
+				return aggregateMorsel(scanContext, from, to);
+			}
+
+			int middle = (from + to) >>> 1;
+			MorselTask left = new MorselTask(scanContext, from, middle);
+			MorselTask right = new MorselTask(scanContext, middle, to);
+
+			left.fork();
+			AggregatingMeasurators<AdhocSliceAsMap> rightAggregates = right.compute();
+			AggregatingMeasurators<AdhocSliceAsMap> leftAggregates = left.join();
+
+			leftAggregates.mergeAll(rightAggregates);
+			return leftAggregates;
+		}
+	}
+
+	protected AggregatingMeasurators<AdhocSliceAsMap> aggregateMorsel(MorselScanContext scanContext, int from, int to) {
+		AggregatingMeasurators<AdhocSliceAsMap> aggregates = new AggregatingMeasurators<>(operatorsFactory);
+
+		List<String> groupedByColumns = scanContext.groupedByColumns();
+		List<String> underlyingGroupBys = scanContext.underlyingGroupBys();
+		List<Aggregator> aggregators = scanContext.aggregators();
+		List<String> underlyingAggregated = scanContext.underlyingAggregated();
+
+		rowLoop: for (Map<String, ?> row : rows.subList(from, to)) {
+			if (!scanContext.filter().test(row)) {
+				continue;
+			}
+
+			Map<String, Object> coordinates = new LinkedHashMap<>(groupedByColumns.size());
+			for (int i = 0; i < groupedByColumns.size(); i++) {
+				Object value = row.get(underlyingGroupBys.get(i));
+
+				if (value == null) {
+					// Consistent with AdhocQueryEngine: the input lack a groupBy coordinate: we exclude it
+					continue rowLoop;
+				}
+
+				coordinates.put(groupedByColumns.get(i), value);
+			}
+			AdhocSliceAsMap slice = AdhocSliceAsMap.fromMap(coordinates);
+
+			for (int i = 0; i < aggregators.size(); i++) {
+				String underlyingColumn = underlyingAggregated.get(i);
+				if (CountAggregator.isAsterisk(aggregators.get(i).getColumnName())) {
+					// Each row contributes to `COUNT(*)`
+					aggregates.contribute(aggregators.get(i), slice, 1L);
+				} else if (row.containsKey(underlyingColumn)) {
+					aggregates.contribute(aggregators.get(i), slice, row.get(underlyingColumn));
+				}
+			}
+		}
+
+		return aggregates;
+	}
 }
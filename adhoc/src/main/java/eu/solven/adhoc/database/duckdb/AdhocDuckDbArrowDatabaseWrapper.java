@@ -0,0 +1,368 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database.duckdb;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.duckdb.DuckDBResultSet;
+import org.jooq.ConnectionProvider;
+import org.jooq.Record;
+import org.jooq.ResultQuery;
+import org.jooq.conf.ParamType;
+import org.jooq.exception.DataAccessException;
+
+import com.google.common.collect.AbstractIterator;
+
+import eu.solven.adhoc.aggregations.sketch.HllCountDistinctAggregator;
+import eu.solven.adhoc.aggregations.sum.AvgAggregator;
+import eu.solven.adhoc.aggregations.sum.CountAggregator;
+import eu.solven.adhoc.database.AggregatedColumnType;
+import eu.solven.adhoc.database.IAdhocDatabaseReverseTranscoder;
+import eu.solven.adhoc.database.IAggregatesSink;
+import eu.solven.adhoc.database.TranscodingContext;
+import eu.solven.adhoc.database.sql.AdhocJooqSqlDatabaseWrapper;
+import eu.solven.adhoc.query.DatabaseQuery;
+import eu.solven.adhoc.slice.AdhocSliceAsMap;
+import eu.solven.adhoc.storage.AggregatingMeasurators;
+import eu.solven.adhoc.transformers.Aggregator;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.experimental.SuperBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An {@link AdhocJooqSqlDatabaseWrapper} dedicated to DuckDB. The results are transferred as Arrow record batches
+ * (see {@link DuckDBResultSet#arrowExportStream(Object, long)}). This skips the JDBC row-by-row decoding, the jOOQ
+ * {@link Record} and its conversions.
+ * 
+ * When the engine provides an {@link IAggregatesSink}, the aggregates are contributed vector by vector into its
+ * {@link AggregatingMeasurators}, as primitives for `BIGINT`, `INTEGER` and `DOUBLE` vectors: no row is materialized,
+ * only the slice of each row.
+ * 
+ * @author Benoit Lacelle
+ */
+@SuperBuilder
+@Slf4j
+public class AdhocDuckDbArrowDatabaseWrapper extends AdhocJooqSqlDatabaseWrapper {
+	public static final long DEFAULT_BATCH_SIZE = 64 * 1024;
+
+	/**
+	 * The number of rows per Arrow record batch.
+	 */
+	@Builder.Default
+	final long batchSize = DEFAULT_BATCH_SIZE;
+
+	/**
+	 * Shared by the queries of this wrapper: each query exports its batches through its own child allocator.
+	 */
+	@Builder.Default
+	@NonNull
+	final BufferAllocator allocator = new RootAllocator();
+
+	@Override
+	protected Stream<Map<String, ?>> toMapStream(ResultQuery<Record> sqlQuery) {
+		// Closed in reverse order, once the stream is closed
+		Deque<AutoCloseable> toClose = new ArrayDeque<>();
+
+		ArrowReader reader = openArrowReader(sqlQuery, toClose);
+
+		ArrowRowIterator rows = new ArrowRowIterator(reader);
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED), false)
+				.onClose(() -> closeAll(toClose));
+	}
+
+	/**
+	 * 
+	 * @param sqlQuery
+	 * @param toClose
+	 *            the resources to close once the {@link ArrowReader} is consumed, in reverse order
+	 * @return an {@link ArrowReader} over the record batches of given query
+	 */
+	protected ArrowReader openArrowReader(ResultQuery<Record> sqlQuery, Deque<AutoCloseable> toClose) {
+		// The Arrow export is specific to DuckDBResultSet: the query is executed through plain JDBC
+		// Values are bound (not inlined) so that the statement can be re-used (e.g. by a StatementCachingConnection)
+		String sql = sqlQuery.getSQL(ParamType.INDEXED);
+		List<Object> bindValues = sqlQuery.getBindValues();
+
+		ConnectionProvider connectionProvider = sqlQuery.configuration().connectionProvider();
+
+		try {
+			Connection connection = connectionProvider.acquire();
+			toClose.push(() -> connectionProvider.release(connection));
+
+			PreparedStatement statement = connection.prepareStatement(sql);
+			toClose.push(statement);
+
+			for (int i = 0; i < bindValues.size(); i++) {
+				statement.setObject(i + 1, bindValues.get(i));
+			}
+
+			DuckDBResultSet resultSet = statement.executeQuery().unwrap(DuckDBResultSet.class);
+			toClose.push(resultSet);
+
+			// A child allocator is cheap, and reports the buffers not released by this query
+			BufferAllocator queryAllocator = allocator.newChildAllocator("arrowExport", 0, Long.MAX_VALUE);
+			toClose.push(queryAllocator);
+
+			ArrowReader reader = (ArrowReader) resultSet.arrowExportStream(queryAllocator, batchSize);
+			toClose.push(reader);
+
+			return reader;
+		} catch (SQLException | RuntimeException e) {
+			closeAll(toClose);
+			throw new DataAccessException("Issue executing `%s`".formatted(sql), e);
+		}
+	}
+
+	@Override
+	protected void sinkDbStream(DatabaseQuery dbQuery, Consumer<Map<String, ?>> sink) {
+		if (sink instanceof IAggregatesSink aggregatesSink && isColumnar(dbQuery)) {
+			sinkColumnar(dbQuery, aggregatesSink.getAggregates());
+		} else {
+			super.sinkDbStream(dbQuery, sink);
+		}
+	}
+
+	/**
+	 * 
+	 * @param dbQuery
+	 * @return true if the aggregates returned by the database are contributed as-is. e.g. an `AVG` is returned as a
+	 *         `SUM` and a `COUNT`, to be gathered by {@link #fromDbAggregate(Aggregator, Map)}. A debug query keeps
+	 *         the row path, as the engine logs its rows.
+	 */
+	protected boolean isColumnar(DatabaseQuery dbQuery) {
+		if (dbQuery.isDebug()) {
+			return false;
+		}
+
+		Set<String> notAsIs = Set.of(AvgAggregator.KEY, CountAggregator.KEY, HllCountDistinctAggregator.KEY);
+		return dbQuery.getAggregators().stream().map(Aggregator::getAggregationKey).noneMatch(notAsIs::contains);
+	}
+
+	protected void sinkColumnar(DatabaseQuery dbQuery, AggregatingMeasurators<AdhocSliceAsMap> aggregates) {
+		TranscodingContext transcodingContext = TranscodingContext.builder().transcoder(getTranscoder()).build();
+		Map<String, AggregatedColumnType> columnTypes = getAggregatedColumnTypes(dbQuery);
+
+		consumeResultQuery(dbQuery, transcodingContext, resultQuery -> {
+			// Closed in reverse order
+			Deque<AutoCloseable> toClose = new ArrayDeque<>();
+			try {
+				ArrowReader reader = openArrowReader(resultQuery, toClose);
+				while (reader.loadNextBatch()) {
+					contributeBatch(dbQuery,
+							transcodingContext,
+							columnTypes,
+							reader.getVectorSchemaRoot(),
+							aggregates);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} finally {
+				closeAll(toClose);
+			}
+		});
+	}
+
+	/**
+	 * 
+	 * @param dbQuery
+	 * @param transcodingContext
+	 * @param columnTypes
+	 * @param root
+	 *            the vectors of a record batch
+	 * @param aggregates
+	 */
+	protected void contributeBatch(DatabaseQuery dbQuery,
+			IAdhocDatabaseReverseTranscoder transcodingContext,
+			Map<String, AggregatedColumnType> columnTypes,
+			VectorSchemaRoot root,
+			AggregatingMeasurators<AdhocSliceAsMap> aggregates) {
+		List<FieldVector> groupByVectors =
+				dbQuery.getGroupBy().getGroupedByColumns().stream().map(root::getVector).toList();
+
+		// The slice of each row, or null if the row lacks a groupBy coordinate
+		int rowCount = root.getRowCount();
+		AdhocSliceAsMap[] slices = new AdhocSliceAsMap[rowCount];
+		rowLoop: for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+			Map<String, Object> coordinates = new LinkedHashMap<>(groupByVectors.size());
+			for (FieldVector groupByVector : groupByVectors) {
+				Object coordinate = getValue(groupByVector, rowIndex);
+				if (coordinate == null) {
+					// Consistent with AdhocQueryEngine: the input lack a groupBy coordinate: we exclude it
+					continue rowLoop;
+				}
+				coordinates.put(groupByVector.getName(), coordinate);
+			}
+			slices[rowIndex] = AdhocSliceAsMap.fromMap(transcodeFromDb(transcodingContext, coordinates));
+		}
+
+		for (Aggregator aggregator : dbQuery.getAggregators()) {
+			FieldVector vector = root.getVector(aggregator.getName());
+			contributeVector(aggregates, aggregator, vector, slices, columnTypes.get(aggregator.getName()));
+		}
+	}
+
+	/**
+	 * Contributes the values of given vector, read as primitives for the common numeric types.
+	 * 
+	 * @param aggregates
+	 * @param aggregator
+	 * @param vector
+	 * @param slices
+	 *            the slice of each row, or null if the row is excluded
+	 * @param columnType
+	 *            may be null if the type is unknown
+	 */
+	protected void contributeVector(AggregatingMeasurators<AdhocSliceAsMap> aggregates,
+			Aggregator aggregator,
+			FieldVector vector,
+			AdhocSliceAsMap[] slices,
+			AggregatedColumnType columnType) {
+		switch (vector) {
+		case BigIntVector bigIntVector -> {
+			for (int rowIndex = 0; rowIndex < slices.length; rowIndex++) {
+				if (slices[rowIndex] != null && !bigIntVector.isNull(rowIndex)) {
+					aggregates.contributeLong(aggregator, slices[rowIndex], bigIntVector.get(rowIndex));
+				}
+			}
+		}
+		case IntVector intVector -> {
+			for (int rowIndex = 0; rowIndex < slices.length; rowIndex++) {
+				if (slices[rowIndex] != null && !intVector.isNull(rowIndex)) {
+					aggregates.contributeLong(aggregator, slices[rowIndex], intVector.get(rowIndex));
+				}
+			}
+		}
+		case Float8Vector float8Vector -> {
+			for (int rowIndex = 0; rowIndex < slices.length; rowIndex++) {
+				if (slices[rowIndex] != null && !float8Vector.isNull(rowIndex)) {
+					aggregates.contributeDouble(aggregator, slices[rowIndex], float8Vector.get(rowIndex));
+				}
+			}
+		}
+		default -> {
+			// e.g. a `DECIMAL` or a `VARCHAR`
+			for (int rowIndex = 0; rowIndex < slices.length; rowIndex++) {
+				if (slices[rowIndex] != null && !vector.isNull(rowIndex)) {
+					aggregates.contribute(aggregator, slices[rowIndex], getValue(vector, rowIndex), columnType);
+				}
+			}
+		}
+		}
+	}
+
+	protected void closeAll(Deque<AutoCloseable> toClose) {
+		while (!toClose.isEmpty()) {
+			try {
+				toClose.pop().close();
+			} catch (Exception e) {
+				log.warn("Issue closing an Arrow export resource", e);
+			}
+		}
+	}
+
+	/**
+	 * Iterates the rows of the Arrow record batches. The vectors of a batch are resolved once for all its rows.
+	 */
+	protected static class ArrowRowIterator extends AbstractIterator<Map<String, ?>> {
+		final ArrowReader reader;
+
+		List<FieldVector> vectors = List.of();
+		int rowCount = 0;
+		int rowIndex = 0;
+
+		protected ArrowRowIterator(ArrowReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		protected Map<String, ?> computeNext() {
+			while (rowIndex >= rowCount) {
+				try {
+					if (!reader.loadNextBatch()) {
+						return endOfData();
+					}
+					vectors = reader.getVectorSchemaRoot().getFieldVectors();
+					rowCount = reader.getVectorSchemaRoot().getRowCount();
+					rowIndex = 0;
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+
+			Map<String, Object> row = new LinkedHashMap<>(vectors.size());
+			for (FieldVector vector : vectors) {
+				row.put(vector.getName(), getValue(vector, rowIndex));
+			}
+			rowIndex++;
+
+			return row;
+		}
+	}
+
+	/**
+	 * 
+	 * @param vector
+	 * @param index
+	 * @return the value at given index, read as a primitive for the common types.
+	 */
+	protected static Object getValue(FieldVector vector, int index) {
+		if (vector.isNull(index)) {
+			return null;
+		}
+
+		return switch (vector) {
+		case BigIntVector bigIntVector -> bigIntVector.get(index);
+		case IntVector intVector -> intVector.get(index);
+		case Float8Vector float8Vector -> float8Vector.get(index);
+		// `getObject` would return an Arrow `Text`
+		case VarCharVector varCharVector -> new String(varCharVector.get(index), StandardCharsets.UTF_8);
+		default -> vector.getObject(index);
+		};
+	}
+}
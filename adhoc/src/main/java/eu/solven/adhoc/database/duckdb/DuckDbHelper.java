@@ -0,0 +1,55 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database.duckdb;
+
+import org.duckdb.DuckDBConnection;
+import org.jooq.SQLDialect;
+
+import eu.solven.adhoc.database.sql.PooledDSLSupplier;
+
+/**
+ * Helps working with DuckDB. It is kept out of `eu.solven.adhoc.database.sql`, as DuckDB is an optional dependency.
+ * 
+ * @author Benoit Lacelle
+ */
+public class DuckDbHelper {
+	protected DuckDbHelper() {
+		// hidden
+	}
+
+	/**
+	 * DuckDB shares a database between the duplicates of a {@link DuckDBConnection}, each duplicate being able to run
+	 * its own query concurrently.
+	 * 
+	 * @param rootConnection
+	 *            the {@link DuckDBConnection} to duplicate. It is not closed by the pool.
+	 * @param poolSize
+	 * @return a {@link PooledDSLSupplier} over duplicates of given {@link DuckDBConnection}
+	 */
+	public static PooledDSLSupplier pooledDSLSupplier(DuckDBConnection rootConnection, int poolSize) {
+		return new PooledDSLSupplier(rootConnection::duplicate,
+				SQLDialect.DUCKDB,
+				poolSize,
+				PooledDSLSupplier.DEFAULT_CHECKOUT_TIMEOUT);
+	}
+}
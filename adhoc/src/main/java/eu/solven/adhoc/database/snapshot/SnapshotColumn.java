@@ -0,0 +1,172 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database.snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A column of a {@link SnapshotTable}. Values are read from memory-mapped regions: only the decoded dictionary entries
+ * are cached in the heap.
+ * 
+ * @author Benoit Lacelle
+ *
+ */
+public class SnapshotColumn {
+	final String name;
+	final SnapshotColumnType type;
+
+	final LongBuffer presence;
+
+	// Only one of these is not null, depending on the type
+	final IntBuffer intValues;
+	final LongBuffer longValues;
+	final DoubleBuffer doubleValues;
+
+	final IntBuffer dictionaryOffsets;
+	final ByteBuffer dictionaryBytes;
+	// Lazily decoded dictionary entries. Concurrent decoding is benign as Strings are immutable
+	final String[] decoded;
+
+	protected SnapshotColumn(String name,
+			SnapshotColumnType type,
+			ByteBuffer presence,
+			ByteBuffer values,
+			ByteBuffer dictionary) {
+		this.name = name;
+		this.type = type;
+		this.presence = presence.asLongBuffer();
+
+		this.intValues = type == SnapshotColumnType.INT || type == SnapshotColumnType.STRING ? values.asIntBuffer() : null;
+		this.longValues = type == SnapshotColumnType.LONG ? values.asLongBuffer() : null;
+		this.doubleValues = type == SnapshotColumnType.DOUBLE ? values.asDoubleBuffer() : null;
+
+		if (dictionary == null) {
+			this.dictionaryOffsets = null;
+			this.dictionaryBytes = null;
+			this.decoded = null;
+		} else {
+			int nbEntries = dictionary.getInt(0);
+			this.dictionaryOffsets = dictionary.slice(Integer.BYTES, Integer.BYTES * (nbEntries + 1))
+					.order(dictionary.order())
+					.asIntBuffer();
+			int bytesStart = Integer.BYTES * (nbEntries + 2);
+			this.dictionaryBytes = dictionary.slice(bytesStart, dictionary.capacity() - bytesStart);
+			this.decoded = new String[nbEntries];
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public SnapshotColumnType getType() {
+		return type;
+	}
+
+	public boolean isPresent(int rowIndex) {
+		return (presence.get(rowIndex >>> 6) & (1L << rowIndex)) != 0;
+	}
+
+	/**
+	 * 
+	 * @param rowIndex
+	 * @return the value as a long, for {@link SnapshotColumnType#INT} and {@link SnapshotColumnType#LONG} columns.
+	 */
+	public long getLong(int rowIndex) {
+		if (type == SnapshotColumnType.INT) {
+			return intValues.get(rowIndex);
+		} else if (type == SnapshotColumnType.LONG) {
+			return longValues.get(rowIndex);
+		} else {
+			throw new UnsupportedOperationException("column=%s is typed %s".formatted(name, type));
+		}
+	}
+
+	public double getDouble(int rowIndex) {
+		if (type == SnapshotColumnType.DOUBLE) {
+			return doubleValues.get(rowIndex);
+		} else {
+			return getLong(rowIndex);
+		}
+	}
+
+	/**
+	 * 
+	 * @param rowIndex
+	 * @return the dictionary index of the value, for {@link SnapshotColumnType#STRING} columns.
+	 */
+	public int getDictionaryIndex(int rowIndex) {
+		if (type != SnapshotColumnType.STRING) {
+			throw new UnsupportedOperationException("column=%s is typed %s".formatted(name, type));
+		}
+		return intValues.get(rowIndex);
+	}
+
+	public int getDictionarySize() {
+		return decoded == null ? 0 : decoded.length;
+	}
+
+	public String getDictionaryValue(int dictionaryIndex) {
+		String value = decoded[dictionaryIndex];
+
+		if (value == null) {
+			int from = dictionaryOffsets.get(dictionaryIndex);
+			int to = dictionaryOffsets.get(dictionaryIndex + 1);
+
+			byte[] bytes = new byte[to - from];
+			dictionaryBytes.get(from, bytes);
+			value = new String(bytes, StandardCharsets.UTF_8);
+
+			decoded[dictionaryIndex] = value;
+		}
+
+		return value;
+	}
+
+	/**
+	 * 
+	 * @param rowIndex
+	 * @return the value at given row, or null if absent.
+	 */
+	public Object get(int rowIndex) {
+		if (!isPresent(rowIndex)) {
+			return null;
+		}
+
+		return switch (type) {
+		case INT -> intValues.get(rowIndex);
+		case LONG -> longValues.get(rowIndex);
+		case DOUBLE -> doubleValues.get(rowIndex);
+		case STRING -> getDictionaryValue(intValues.get(rowIndex));
+		};
+	}
+
+	@Override
+	public String toString() {
+		return "SnapshotColumn(name=%s, type=%s)".formatted(name, type);
+	}
+}
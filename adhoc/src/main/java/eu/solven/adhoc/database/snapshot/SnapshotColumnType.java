@@ -0,0 +1,101 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database.snapshot;
+
+import eu.solven.pepper.core.PepperLogHelper;
+
+/**
+ * The types of columns supported by a snapshot. Each column has a single type: mixed-type columns are rejected when
+ * writing the snapshot.
+ * 
+ * @author Benoit Lacelle
+ *
+ */
+public enum SnapshotColumnType {
+	/**
+	 * {@link Integer} values, stored as 4-bytes ints.
+	 */
+	INT(Integer.BYTES),
+	/**
+	 * {@link Long} (or other integral) values, stored as 8-bytes longs.
+	 */
+	LONG(Long.BYTES),
+	/**
+	 * {@link Double} (or {@link Float}) values, stored as 8-bytes doubles.
+	 */
+	DOUBLE(Double.BYTES),
+	/**
+	 * {@link CharSequence} values, stored as 4-bytes indexes into a dictionary of UTF-8 Strings.
+	 */
+	STRING(Integer.BYTES);
+
+	final int bytesPerRow;
+
+	SnapshotColumnType(int bytesPerRow) {
+		this.bytesPerRow = bytesPerRow;
+	}
+
+	public int getBytesPerRow() {
+		return bytesPerRow;
+	}
+
+	/**
+	 * 
+	 * @param value
+	 *            a not-null value
+	 * @return the {@link SnapshotColumnType} able to store given value.
+	 */
+	public static SnapshotColumnType of(Object value) {
+		if (value instanceof Integer) {
+			return INT;
+		} else if (value instanceof Long || value instanceof Short || value instanceof Byte) {
+			return LONG;
+		} else if (value instanceof Double || value instanceof Float) {
+			return DOUBLE;
+		} else if (value instanceof CharSequence) {
+			return STRING;
+		} else {
+			throw new IllegalArgumentException(
+					"Not managed by snapshots (only int, long, double and String values are): %s"
+							.formatted(PepperLogHelper.getObjectAndClass(value)));
+		}
+	}
+
+	/**
+	 * 
+	 * @param left
+	 * @param right
+	 * @return the {@link SnapshotColumnType} able to store values of both types.
+	 */
+	public static SnapshotColumnType merge(SnapshotColumnType left, SnapshotColumnType right) {
+		if (left == null) {
+			return right;
+		} else if (right == null || left == right) {
+			return left;
+		} else if (left == INT && right == LONG || left == LONG && right == INT) {
+			return LONG;
+		} else {
+			throw new IllegalArgumentException("Mixed-type columns are not supported: %s and %s".formatted(left, right));
+		}
+	}
+}
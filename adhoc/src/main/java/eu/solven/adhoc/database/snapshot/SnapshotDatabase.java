@@ -0,0 +1,339 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database.snapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import eu.solven.adhoc.aggregations.IOperatorsFactory;
+import eu.solven.adhoc.aggregations.StandardOperatorsFactory;
+import eu.solven.adhoc.aggregations.sum.CountAggregator;
+import eu.solven.adhoc.database.AdhocTranscodingHelper;
+import eu.solven.adhoc.database.AggregatedColumnType;
+import eu.solven.adhoc.database.IAdhocDatabaseTranscoder;
+import eu.solven.adhoc.database.IAdhocDatabaseWrapper;
+import eu.solven.adhoc.database.IdentityTranscoder;
+import eu.solven.adhoc.database.InMemoryDatabase;
+import eu.solven.adhoc.database.TranscodingContext;
+import eu.solven.adhoc.execute.FilterCompiler;
+import eu.solven.adhoc.execute.IIntColumnAccessor;
+import eu.solven.adhoc.query.DatabaseQuery;
+import eu.solven.adhoc.slice.AdhocSliceAsMap;
+import eu.solven.adhoc.storage.AggregatingMeasurators;
+import eu.solven.adhoc.storage.AsObjectValueConsumer;
+import eu.solven.adhoc.transformers.Aggregator;
+import lombok.Builder;
+import lombok.Builder.Default;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * An {@link IAdhocDatabaseWrapper} over a {@link SnapshotTable}. It behaves like an {@link InMemoryDatabase}, but the
+ * rows are read from the memory-mapped snapshot instead of being deserialized in the heap.
+ * 
+ * Rows are filtered by their index, and pre-aggregated per slice while reading primitive values from the mapped
+ * columns: the output rows are pre-aggregated rows, keyed by {@link Aggregator} names. If the {@link DatabaseQuery}
+ * can not be pre-aggregated (see {@link InMemoryDatabase#isPreAggregable(DatabaseQuery)}), each matching row is
+ * materialized as a {@link Map}.
+ * 
+ * @author Benoit Lacelle
+ *
+ */
+@Slf4j
+@Builder
+public class SnapshotDatabase implements IAdhocDatabaseWrapper {
+
+	@Default
+	@NonNull
+	@Getter
+	final IAdhocDatabaseTranscoder transcoder = new IdentityTranscoder();
+
+	@NonNull
+	@Getter
+	final SnapshotTable table;
+
+	/**
+	 * Used to pre-aggregate the rows.
+	 */
+	@NonNull
+	@Default
+	final IOperatorsFactory operatorsFactory = new StandardOperatorsFactory();
+
+	@Override
+	public Stream<Map<String, ?>> openDbStream(DatabaseQuery dbQuery) {
+		TranscodingContext transcodingContext = TranscodingContext.builder().transcoder(transcoder).build();
+
+		// Compiled once for all rows, with columns resolved once
+		IntPredicate filter = FilterCompiler.compileIndexed(dbQuery.getFilter(), column -> {
+			SnapshotColumn snapshotColumn = table.getColumn(transcodingContext.underlying(column));
+
+			if (snapshotColumn == null) {
+				return ABSENT;
+			} else {
+				return new SnapshotColumnAccessor(snapshotColumn);
+			}
+		});
+
+		if (InMemoryDatabase.isPreAggregable(dbQuery)) {
+			return openPreAggregatedDbStream(dbQuery, transcodingContext, filter);
+		} else {
+			return openRowsDbStream(dbQuery, transcodingContext, filter);
+		}
+	}
+
+	protected Stream<Map<String, ?>> openPreAggregatedDbStream(DatabaseQuery dbQuery,
+			TranscodingContext transcodingContext,
+			IntPredicate filter) {
+		List<String> groupedByColumns = List.copyOf(dbQuery.getGroupBy().getGroupedByColumns());
+		SnapshotColumn[] groupByColumns = new SnapshotColumn[groupedByColumns.size()];
+		for (int i = 0; i < groupByColumns.length; i++) {
+			groupByColumns[i] = table.getColumn(transcodingContext.underlying(groupedByColumns.get(i)));
+
+			if (groupByColumns[i] == null) {
+				// Consistent with AdhocQueryEngine: rows lacking a groupBy coordinate are excluded
+				log.debug("dbQuery={} groups by {} which is missing from {}", dbQuery, groupedByColumns.get(i), table);
+				return Stream.empty();
+			}
+		}
+
+		List<Aggregator> aggregators = List.copyOf(dbQuery.getAggregators());
+		SnapshotColumn[] aggregatedColumns = new SnapshotColumn[aggregators.size()];
+		for (int i = 0; i < aggregatedColumns.length; i++) {
+			String column = aggregators.get(i).getColumnName();
+			if (!CountAggregator.isAsterisk(column)) {
+				// null if the column is missing from the snapshot
+				aggregatedColumns[i] = table.getColumn(transcodingContext.underlying(column));
+			}
+		}
+
+		AggregatingMeasurators<AdhocSliceAsMap> aggregates = new AggregatingMeasurators<>(operatorsFactory);
+
+		// The slices are indexed by their coordinates, so that a slice is built once and not once per row
+		Map<List<Object>, AdhocSliceAsMap> coordinatesToSlice = new HashMap<>();
+		List<Object> rowCoordinates = new ArrayList<>(groupByColumns.length);
+
+		int rowCount = table.getRowCount();
+		rowLoop: for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+			if (!filter.test(rowIndex)) {
+				continue;
+			}
+
+			rowCoordinates.clear();
+			for (SnapshotColumn groupByColumn : groupByColumns) {
+				if (!groupByColumn.isPresent(rowIndex)) {
+					// Consistent with AdhocQueryEngine: the input lack a groupBy coordinate: we exclude it
+					continue rowLoop;
+				}
+				rowCoordinates.add(groupByColumn.get(rowIndex));
+			}
+
+			AdhocSliceAsMap slice = coordinatesToSlice.get(rowCoordinates);
+			if (slice == null) {
+				List<Object> coordinates = List.copyOf(rowCoordinates);
+				slice = makeSlice(groupedByColumns, coordinates);
+				coordinatesToSlice.put(coordinates, slice);
+			}
+
+			for (int i = 0; i < aggregatedColumns.length; i++) {
+				contribute(aggregates, aggregators.get(i), aggregatedColumns[i], slice, rowIndex);
+			}
+		}
+
+		// Gather the aggregates of each slice in a single row
+		Map<AdhocSliceAsMap, Map<String, Object>> sliceToRow = new LinkedHashMap<>();
+		aggregates.getAggregatorToStorage().forEach((aggregator, storage) -> {
+			storage.scan(slice -> AsObjectValueConsumer.consumer(o -> {
+				sliceToRow.computeIfAbsent(slice, k -> new HashMap<>(k.getCoordinates())).put(aggregator.getName(), o);
+			}));
+		});
+
+		log.debug("dbQuery={} has been pre-aggregated into {} slices", dbQuery, sliceToRow.size());
+
+		List<Map<String, ?>> preAggregatedRows = new ArrayList<>(sliceToRow.values());
+		return preAggregatedRows.stream();
+	}
+
+	protected AdhocSliceAsMap makeSlice(List<String> groupedByColumns, List<Object> coordinates) {
+		Map<String, Object> columnToCoordinate = new LinkedHashMap<>(groupedByColumns.size());
+		for (int i = 0; i < groupedByColumns.size(); i++) {
+			columnToCoordinate.put(groupedByColumns.get(i), coordinates.get(i));
+		}
+		return AdhocSliceAsMap.fromMap(columnToCoordinate);
+	}
+
+	/**
+	 * Contributes the value of given row, reading numbers as primitives from the mapped column.
+	 * 
+	 * @param aggregates
+	 * @param aggregator
+	 * @param column
+	 *            null for `COUNT(*)`, or if the column is missing from the snapshot
+	 * @param slice
+	 * @param rowIndex
+	 */
+	protected void contribute(AggregatingMeasurators<AdhocSliceAsMap> aggregates,
+			Aggregator aggregator,
+			SnapshotColumn column,
+			AdhocSliceAsMap slice,
+			int rowIndex) {
+		if (column == null) {
+			if (CountAggregator.isAsterisk(aggregator.getColumnName())) {
+				// Each row contributes to `COUNT(*)`
+				aggregates.contributeLong(aggregator, slice, 1L);
+			}
+		} else if (column.isPresent(rowIndex)) {
+			switch (column.getType()) {
+			case INT, LONG -> aggregates.contributeLong(aggregator, slice, column.getLong(rowIndex));
+			case DOUBLE -> aggregates.contributeDouble(aggregator, slice, column.getDouble(rowIndex));
+			case STRING -> aggregates.contribute(aggregator, slice, column.get(rowIndex));
+			}
+		}
+	}
+
+	/**
+	 * Materializes each matching row as a {@link Map}, to be aggregated by the engine.
+	 */
+	protected Stream<Map<String, ?>> openRowsDbStream(DatabaseQuery dbQuery,
+			TranscodingContext transcodingContext,
+			IntPredicate filter) {
+		Set<String> queriedColumns = new HashSet<>();
+		queriedColumns.addAll(dbQuery.getGroupBy().getGroupedByColumns());
+		dbQuery.getAggregators().stream().map(a -> a.getColumnName()).forEach(queriedColumns::add);
+
+		// Resolve the columns once for all rows
+		Set<SnapshotColumn> underlyingColumns = queriedColumns.stream()
+				.map(transcodingContext::underlying)
+				.map(table::getColumn)
+				// A column missing from the snapshot is always absent
+				.filter(c -> c != null)
+				.collect(Collectors.toSet());
+
+		boolean countAsterisk = queriedColumns.contains(CountAggregator.ASTERISK);
+
+		return IntStream.range(0, table.getRowCount()).filter(filter).mapToObj(rowIndex -> {
+			Map<String, Object> withSelectedColumns = new LinkedHashMap<>();
+			for (SnapshotColumn column : underlyingColumns) {
+				if (column.isPresent(rowIndex)) {
+					withSelectedColumns.put(column.getName(), column.get(rowIndex));
+				}
+			}
+			if (countAsterisk) {
+				// Each row contributes to `COUNT(*)`
+				withSelectedColumns.put(CountAggregator.ASTERISK, 1L);
+			}
+
+			return AdhocTranscodingHelper.transcode(transcodingContext, withSelectedColumns);
+		});
+	}
+
+	@Override
+	public Map<String, AggregatedColumnType> getAggregatedColumnTypes(DatabaseQuery dbQuery) {
+		Map<String, AggregatedColumnType> columnToType = new HashMap<>();
+
+		dbQuery.getAggregators().forEach(a -> {
+			SnapshotColumn snapshotColumn = table.getColumn(transcoder.underlying(a.getColumnName()));
+			if (snapshotColumn == null) {
+				return;
+			}
+
+			// Snapshot columns are single-typed
+			AggregatedColumnType columnType = switch (snapshotColumn.getType()) {
+			case INT, LONG -> AggregatedColumnType.LONG;
+			case DOUBLE -> AggregatedColumnType.DOUBLE;
+			// Not a numeric column
+			case STRING -> null;
+			};
+
+			if (columnType != null) {
+				columnToType.put(a.getColumnName(), columnType);
+				// The type of the pre-aggregated column. It may be wrong for some aggregations (e.g. a COUNT over a
+				// DOUBLE column), in which case the value is aggregated as a plain Object
+				columnToType.put(a.getName(), columnType);
+			}
+		});
+
+		return columnToType;
+	}
+
+	/**
+	 * An {@link IIntColumnAccessor} for a column missing from the {@link SnapshotTable}.
+	 */
+	protected static final IIntColumnAccessor ABSENT = new IIntColumnAccessor() {
+
+		@Override
+		public boolean isPresent(int rowIndex) {
+			return false;
+		}
+
+		@Override
+		public Object get(int rowIndex) {
+			return null;
+		}
+	};
+
+	/**
+	 * An {@link IIntColumnAccessor} over the row indexes of a {@link SnapshotColumn}.
+	 */
+	protected static class SnapshotColumnAccessor implements IIntColumnAccessor {
+		final SnapshotColumn column;
+
+		protected SnapshotColumnAccessor(SnapshotColumn column) {
+			this.column = column;
+		}
+
+		@Override
+		public boolean isPresent(int rowIndex) {
+			return column.isPresent(rowIndex);
+		}
+
+		@Override
+		public Object get(int rowIndex) {
+			return column.get(rowIndex);
+		}
+
+		@Override
+		public IntPredicate compileMatcher(Predicate<Object> matcher) {
+			if (column.getType() != SnapshotColumnType.STRING) {
+				return IIntColumnAccessor.super.compileMatcher(matcher);
+			}
+
+			// Each dictionary entry is tested once, instead of once per row
+			boolean[] dictionaryMatches = new boolean[column.getDictionarySize()];
+			for (int i = 0; i < dictionaryMatches.length; i++) {
+				dictionaryMatches[i] = matcher.test(column.getDictionaryValue(i));
+			}
+			return rowIndex -> dictionaryMatches[column.getDictionaryIndex(rowIndex)];
+		}
+	}
+}
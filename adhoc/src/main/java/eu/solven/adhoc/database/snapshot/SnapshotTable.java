@@ -0,0 +1,158 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A table opened from a snapshot written by {@link SnapshotWriter}. Each column region is memory-mapped: opening a
+ * table does not read the rows, and the data lives off-heap (in the OS page-cache).
+ * 
+ * @author Benoit Lacelle
+ *
+ */
+@Slf4j
+public class SnapshotTable {
+	final Path path;
+	final int rowCount;
+	final Map<String, SnapshotColumn> columns;
+
+	protected SnapshotTable(Path path, int rowCount, Map<String, SnapshotColumn> columns) {
+		this.path = path;
+		this.rowCount = rowCount;
+		this.columns = columns;
+	}
+
+	public static SnapshotTable open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer fixedHeader = readFully(channel, 0L, SnapshotWriter.FIXED_HEADER_LENGTH);
+
+			int magic = fixedHeader.getInt();
+			if (magic != SnapshotWriter.MAGIC) {
+				throw new IllegalArgumentException("%s is not a snapshot (magic=%s)".formatted(path, magic));
+			}
+			int version = fixedHeader.getInt();
+			if (version != SnapshotWriter.VERSION) {
+				throw new IllegalArgumentException("%s has an unsupported version=%s".formatted(path, version));
+			}
+			int headerLength = fixedHeader.getInt();
+			int rowCount = fixedHeader.getInt();
+			int columnCount = fixedHeader.getInt();
+
+			ByteBuffer header = readFully(channel,
+					SnapshotWriter.FIXED_HEADER_LENGTH,
+					headerLength - SnapshotWriter.FIXED_HEADER_LENGTH);
+
+			SnapshotColumnType[] types = SnapshotColumnType.values();
+			long presenceLength = Long.BYTES * (long) ((rowCount + Long.SIZE - 1) / Long.SIZE);
+
+			Map<String, SnapshotColumn> columns = new LinkedHashMap<>();
+			for (int i = 0; i < columnCount; i++) {
+				byte[] nameBytes = new byte[header.getInt()];
+				header.get(nameBytes);
+				String name = new String(nameBytes, StandardCharsets.UTF_8);
+				SnapshotColumnType type = types[header.get()];
+
+				long presenceOffset = header.getLong();
+				long valuesOffset = header.getLong();
+				long dictionaryOffset = header.getLong();
+				long dictionaryLength = header.getLong();
+
+				ByteBuffer presence = map(channel, presenceOffset, presenceLength);
+				ByteBuffer values = map(channel, valuesOffset, (long) rowCount * type.getBytesPerRow());
+				ByteBuffer dictionary;
+				if (dictionaryOffset < 0) {
+					dictionary = null;
+				} else {
+					dictionary = map(channel, dictionaryOffset, dictionaryLength);
+				}
+
+				columns.put(name, new SnapshotColumn(name, type, presence, values, dictionary));
+			}
+
+			log.debug("Opened snapshot {} with {} rows and columns={}", path, rowCount, columns.keySet());
+
+			// The mapped regions remain valid after the channel is closed
+			return new SnapshotTable(path, rowCount, Collections.unmodifiableMap(columns));
+		}
+	}
+
+	protected static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position + buffer.position());
+			if (read < 0) {
+				throw new IllegalArgumentException("Unexpected end of snapshot");
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	protected static ByteBuffer map(FileChannel channel, long offset, long length) throws IOException {
+		if (length > SnapshotWriter.MAX_REGION_LENGTH) {
+			// `FileChannel.map` would throw a less explicit exception
+			throw new IllegalArgumentException("A snapshot region is limited to %s bytes. length=%s"
+					.formatted(SnapshotWriter.MAX_REGION_LENGTH, length));
+		}
+		MappedByteBuffer mapped = channel.map(MapMode.READ_ONLY, offset, length);
+		mapped.order(ByteOrder.LITTLE_ENDIAN);
+		return mapped;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public Set<String> getColumnNames() {
+		return columns.keySet();
+	}
+
+	/**
+	 * 
+	 * @param column
+	 * @return the {@link SnapshotColumn}, or null if this table has no such column.
+	 */
+	public SnapshotColumn getColumn(String column) {
+		return columns.get(column);
+	}
+
+	@Override
+	public String toString() {
+		return "SnapshotTable(path=%s, rowCount=%s, columns=%s)".formatted(path, rowCount, columns.keySet());
+	}
+}
@@ -0,0 +1,271 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes a column-oriented snapshot of a table, to be opened by {@link SnapshotTable} without deserializing the rows in
+ * the heap.
+ * 
+ * The layout is (all numbers being little-endian):
+ * <ul>
+ * <li>a header: magic, version, headerLength, rowCount, columnCount</li>
+ * <li>for each column: the UTF-8 name, the {@link SnapshotColumnType}, and the offsets of its regions</li>
+ * <li>for each column, 8-bytes aligned regions: a presence bitmap (1 bit per row), the primitive values (1 slot per
+ * row) and, for {@link SnapshotColumnType#STRING}, a dictionary (entry count, entry offsets, UTF-8 bytes)</li>
+ * </ul>
+ * 
+ * Only int, long, double and String columns are supported (e.g. not {@link java.math.BigDecimal} nor dates). As each
+ * region is mapped with a single {@link FileChannel#map}, a region is limited to {@link #MAX_REGION_LENGTH} bytes.
+ * 
+ * @author Benoit Lacelle
+ *
+ */
+@Slf4j
+public class SnapshotWriter {
+	public static final int MAGIC = 0x41444853;
+	public static final int VERSION = 1;
+
+	// magic, version, headerLength, rowCount, columnCount
+	static final int FIXED_HEADER_LENGTH = 5 * Integer.BYTES;
+
+	// The maximum length of a region, as mapped by a single `FileChannel.map`
+	public static final long MAX_REGION_LENGTH = Integer.MAX_VALUE;
+
+	protected SnapshotWriter() {
+		// hidden
+	}
+
+	/**
+	 * 
+	 * @param path
+	 *            the file to write. It is overwritten if it already exists.
+	 * @param rows
+	 *            the rows to snapshot. A missing key and a null value are both recorded as an absent value.
+	 * @throws IOException
+	 */
+	public static void write(Path path, List<? extends Map<String, ?>> rows) throws IOException {
+		int rowCount = rows.size();
+
+		// First pass: infer the columns and their types
+		Map<String, SnapshotColumnType> columnToType = new LinkedHashMap<>();
+		rows.forEach(row -> row.forEach((column, value) -> {
+			if (value != null) {
+				try {
+					SnapshotColumnType valueType = SnapshotColumnType.of(value);
+					columnToType.put(column, SnapshotColumnType.merge(columnToType.get(column), valueType));
+				} catch (IllegalArgumentException e) {
+					throw new IllegalArgumentException("Issue with column=%s".formatted(column), e);
+				}
+			}
+		}));
+
+		// Second pass: encode each column
+		List<ColumnRegions> columns = new ArrayList<>(columnToType.size());
+		columnToType.forEach((column, type) -> columns.add(encodeColumn(rows, column, type)));
+
+		// Compute the header, then the offsets of each region
+		byte[][] names = new byte[columns.size()][];
+		int headerLength = FIXED_HEADER_LENGTH;
+		for (int i = 0; i < columns.size(); i++) {
+			names[i] = columns.get(i).name.getBytes(StandardCharsets.UTF_8);
+			// nameLength, name, type, presenceOffset, valuesOffset, dictionaryOffset, dictionaryLength
+			headerLength += Integer.BYTES + names[i].length + 1 + 4 * Long.BYTES;
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(headerLength).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC).putInt(VERSION).putInt(headerLength).putInt(rowCount).putInt(columns.size());
+
+		long offset = align(headerLength);
+		for (int i = 0; i < columns.size(); i++) {
+			ColumnRegions column = columns.get(i);
+
+			header.putInt(names[i].length).put(names[i]).put((byte) column.type.ordinal());
+
+			column.presenceOffset = offset;
+			offset = align(offset + column.presence.capacity());
+			column.valuesOffset = offset;
+			offset = align(offset + column.values.capacity());
+
+			if (column.dictionary == null) {
+				header.putLong(column.presenceOffset).putLong(column.valuesOffset).putLong(-1L).putLong(0L);
+			} else {
+				column.dictionaryOffset = offset;
+				offset = align(offset + column.dictionary.capacity());
+				header.putLong(column.presenceOffset)
+						.putLong(column.valuesOffset)
+						.putLong(column.dictionaryOffset)
+						.putLong(column.dictionary.capacity());
+			}
+		}
+		header.flip();
+
+		try (FileChannel channel = FileChannel.open(path,
+				StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeFully(channel, header, 0L);
+
+			for (ColumnRegions column : columns) {
+				writeFully(channel, column.presence, column.presenceOffset);
+				writeFully(channel, column.values, column.valuesOffset);
+				if (column.dictionary != null) {
+					writeFully(channel, column.dictionary, column.dictionaryOffset);
+				}
+			}
+		}
+
+		log.debug("Snapshot of {} rows and {} columns written into {}", rowCount, columns.size(), path);
+	}
+
+	protected static long align(long offset) {
+		return (offset + Long.BYTES - 1) & -Long.BYTES;
+	}
+
+	protected static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		buffer.rewind();
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	protected static ColumnRegions encodeColumn(List<? extends Map<String, ?>> rows,
+			String column,
+			SnapshotColumnType type) {
+		int rowCount = rows.size();
+
+		long[] presence = new long[(rowCount + Long.SIZE - 1) / Long.SIZE];
+		int valuesLength = checkRegionLength(column, "values", (long) rowCount * type.getBytesPerRow());
+		ByteBuffer values = ByteBuffer.allocate(valuesLength).order(ByteOrder.LITTLE_ENDIAN);
+
+		Object2IntMap<String> dictionary = new Object2IntOpenHashMap<>();
+		List<byte[]> dictionaryEntries = new ArrayList<>();
+
+		for (int rowIndex = 0; rowIndex < rowCount; rowIndex++) {
+			Object value = rows.get(rowIndex).get(column);
+			int position = rowIndex * type.getBytesPerRow();
+
+			if (value == null) {
+				// The value slot is left to zero
+				continue;
+			}
+			presence[rowIndex >>> 6] |= 1L << rowIndex;
+
+			switch (type) {
+			case INT -> values.putInt(position, ((Number) value).intValue());
+			case LONG -> values.putLong(position, ((Number) value).longValue());
+			case DOUBLE -> values.putDouble(position, ((Number) value).doubleValue());
+			case STRING -> {
+				String asString = value.toString();
+				int id = dictionary.computeIntIfAbsent(asString, k -> {
+					dictionaryEntries.add(asString.getBytes(StandardCharsets.UTF_8));
+					return dictionaryEntries.size() - 1;
+				});
+				values.putInt(position, id);
+			}
+			default -> throw new UnsupportedOperationException("Not managed: %s".formatted(type));
+			}
+		}
+
+		ColumnRegions regions = new ColumnRegions(column, type);
+
+		regions.presence = ByteBuffer.allocate(presence.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		regions.presence.asLongBuffer().put(presence);
+		regions.values = values;
+
+		if (type == SnapshotColumnType.STRING) {
+			int nbEntries = dictionaryEntries.size();
+			long nbBytes = dictionaryEntries.stream().mapToLong(b -> b.length).sum();
+
+			// entryCount, then (entryCount + 1) offsets, then the UTF-8 bytes
+			int dictionaryLength =
+					checkRegionLength(column, "dictionary", (long) Integer.BYTES * (nbEntries + 2) + nbBytes);
+			ByteBuffer dictionaryBuffer = ByteBuffer.allocate(dictionaryLength).order(ByteOrder.LITTLE_ENDIAN);
+			dictionaryBuffer.putInt(nbEntries);
+			int bytesOffset = 0;
+			for (byte[] entry : dictionaryEntries) {
+				dictionaryBuffer.putInt(bytesOffset);
+				bytesOffset += entry.length;
+			}
+			dictionaryBuffer.putInt(bytesOffset);
+			dictionaryEntries.forEach(dictionaryBuffer::put);
+
+			regions.dictionary = dictionaryBuffer;
+		}
+
+		return regions;
+	}
+
+	/**
+	 * 
+	 * @param column
+	 * @param region
+	 * @param length
+	 * @return the length as an int, if it does not exceed {@link #MAX_REGION_LENGTH}.
+	 */
+	protected static int checkRegionLength(String column, String region, long length) {
+		if (length > MAX_REGION_LENGTH) {
+			throw new IllegalArgumentException(
+					("column=%s has a %s region of %s bytes while a snapshot region is limited to %s bytes."
+							+ " Split the table in multiple snapshots")
+							.formatted(column, region, length, MAX_REGION_LENGTH));
+		}
+		return (int) length;
+	}
+
+	/**
+	 * The encoded regions of a column, before being written.
+	 */
+	protected static class ColumnRegions {
+		final String name;
+		final SnapshotColumnType type;
+
+		ByteBuffer presence;
+		ByteBuffer values;
+		ByteBuffer dictionary;
+
+		long presenceOffset;
+		long valuesOffset;
+		long dictionaryOffset = -1L;
+
+		protected ColumnRegions(String name, SnapshotColumnType type) {
+			this.name = name;
+			this.type = type;
+		}
+	}
+}
@@ -22,15 +22,24 @@
  */
 package eu.solven.adhoc.database.sql;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.jooq.BatchBindStep;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.DataType;
 import org.jooq.Field;
 import org.jooq.GroupField;
 import org.jooq.Name;
@@ -40,13 +49,24 @@ import org.jooq.ResultQuery;
 import org.jooq.SelectFieldOrAsterisk;
 import org.jooq.SelectHavingStep;
 import org.jooq.SortField;
+import org.jooq.Table;
 import org.jooq.conf.ParamType;
 import org.jooq.impl.DSL;
 import org.jooq.impl.DefaultDataType;
+import org.jooq.impl.SQLDataType;
 
+import eu.solven.adhoc.aggregations.IAggregation;
+import eu.solven.adhoc.aggregations.IOperatorsFactory;
+import eu.solven.adhoc.aggregations.StandardOperatorsFactory;
 import eu.solven.adhoc.aggregations.max.MaxAggregator;
+import eu.solven.adhoc.aggregations.max.MinAggregator;
+import eu.solven.adhoc.aggregations.sketch.HllCountDistinctAggregator;
+import eu.solven.adhoc.aggregations.sum.AvgAggregator;
+import eu.solven.adhoc.aggregations.sum.CountAggregator;
+import eu.solven.adhoc.aggregations.sum.ProductAggregator;
 import eu.solven.adhoc.aggregations.sum.SumAggregator;
 import eu.solven.adhoc.api.v1.IAdhocFilter;
+import eu.solven.adhoc.api.v1.IAdhocGroupBy;
 import eu.solven.adhoc.api.v1.filters.IAndFilter;
 import eu.solven.adhoc.api.v1.filters.IColumnFilter;
 import eu.solven.adhoc.api.v1.filters.IOrFilter;
@@ -64,18 +84,27 @@ import eu.solven.adhoc.query.groupby.IAdhocColumn;
 import eu.solven.adhoc.query.groupby.IHasSqlExpression;
 import eu.solven.adhoc.transformers.Aggregator;
 import eu.solven.pepper.core.PepperLogHelper;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * This is especially important to make sure all calls to {@link IAdhocDatabaseTranscoder} relies on a
  * {@link TranscodingContext}
+ * 
+ * IN filters with more than `maxInlinedInSize` operands are not inlined in the SQL: the operands are loaded into a
+ * temporary table, and the filter is expressed as a semi-join. Temporary tables are visible only from the connection
+ * which created them: this requires the {@link DSLContext} to be bound to a single connection (e.g.
+ * {@link DSLSupplier#fromConnection(java.util.function.Supplier)}).
+ * 
+ * The group column of a {@link ManyToManySqlMapping} is resolved by the database: the mapping table is joined when the
+ * group column is grouped-by, else a filter on the group column is turned into a semi-join on the element column (as
+ * an element must contribute once, even if it belongs to multiple matching groups).
  *
  * @author Benoit Lacelle
  */
-@RequiredArgsConstructor
+@AllArgsConstructor
 @Builder
 @Slf4j
 public class AdhocJooqSqlDatabaseStreamOpener implements IAdhocJooqSqlDatabaseStreamOpener {
@@ -88,26 +117,91 @@ public class AdhocJooqSqlDatabaseStreamOpener implements IAdhocJooqSqlDatabaseSt
 	@NonNull
 	DSLContext dslContext;
 
+	/**
+	 * Above this number of operands, an IN filter is pushed through a temporary table. By default, IN filters are
+	 * always inlined.
+	 */
+	@Builder.Default
+	final int maxInlinedInSize = DEFAULT_MAX_INLINED_IN_SIZE;
+
+	/**
+	 * The many-to-many relations which can be resolved by the database.
+	 */
+	@Builder.Default
+	final List<ManyToManySqlMapping> manyToManyMappings = List.of();
+
+	/**
+	 * Used to resolve the custom aggregations which can be expressed in SQL.
+	 * 
+	 * @see IJooqSqlAggregation
+	 */
+	@Builder.Default
+	final IOperatorsFactory operatorsFactory = new StandardOperatorsFactory();
+
+	/**
+	 * If true, `APPROX_COUNT_DISTINCT` is computed by the database (e.g. DuckDB `approx_count_distinct`) for the
+	 * {@link DatabaseQuery} whose aggregates are not merged (see {@link DatabaseQuery#isMergedAggregates()}). Else, the
+	 * distinct values of each slice are returned, to be hashed into a mergeable sketch.
+	 */
+	@Builder.Default
+	final boolean pushDownEstimates = false;
+
+	// The temporary tables created for this query, to be dropped on `.close()`
+	final List<Name> temporaryTables = new ArrayList<>();
+
+	// The group columns resolved by a JOIN for this query. Other group columns are resolved by a semi-join
+	final Set<String> joinedGroupColumns = new HashSet<>();
+
+	public static final int DEFAULT_MAX_INLINED_IN_SIZE = Integer.MAX_VALUE;
+
+	/**
+	 * The suffix of the column holding the `COUNT` of an `AVG` aggregator.
+	 */
+	public static final String AVG_COUNT_SUFFIX = "$count";
+
+	/**
+	 * The column telling the grouping set of a row, when multiple {@link DatabaseQuery} are batched.
+	 */
+	public static final String GROUPING_ID = "$grouping_id";
+
+	/**
+	 * The prefix of the columns aggregated with a filter, when multiple {@link DatabaseQuery} are batched.
+	 */
+	public static final String FILTERED_PREFIX = "$filtered";
+
+	/**
+	 * The prefix of the temporary tables holding the operands of large IN filters. Their names are unique: the SQL
+	 * referring to them is not re-usable.
+	 */
+	public static final String TEMPORARY_TABLE_PREFIX = "adhoc_in_";
+
+	// The number of operands inserted per JDBC batch
+	private static final int BATCH_SIZE = 16 * 1024;
+
+	public AdhocJooqSqlDatabaseStreamOpener(IAdhocDatabaseTranscoder transcoder,
+			String tableName,
+			DSLContext dslContext) {
+		this(transcoder,
+				tableName,
+				dslContext,
+				DEFAULT_MAX_INLINED_IN_SIZE,
+				List.of(),
+				new StandardOperatorsFactory(),
+				false);
+	}
+
 	@Override
 	public ResultQuery<Record> prepareQuery(DatabaseQuery dbQuery) {
-		Collection<Condition> dbConditions = new ArrayList<>();
-
-		dbConditions.add(oneMeasureIsNotNull(dbQuery.getAggregators()));
+		// The table is computed first, as it decides how conditions over group columns are expressed
+		Table<?> table = makeTable(dbQuery);
 
-		IAdhocFilter filter = dbQuery.getFilter();
-		if (!filter.isMatchAll()) {
-			if (filter.isAnd() && filter instanceof IAndFilter andFilter) {
-				andFilter.getOperands().stream().map(this::toCondition).forEach(dbConditions::add);
-			} else {
-				dbConditions.add(toCondition(filter));
-			}
-		}
+		Collection<Condition> dbConditions = makeConditions(dbQuery);
 
-		Collection<SelectFieldOrAsterisk> selectedFields = makeSelectedFields(dbQuery);
+		Collection<SelectFieldOrAsterisk> selectedFields = makeSelectedFields(dbQuery, isEstimated(List.of(dbQuery)));
 		Collection<GroupField> groupFields = makeGroupingFields(dbQuery);
 
 		SelectHavingStep<Record> select =
-				dslContext.select(selectedFields).from(DSL.name(tableName)).where(dbConditions).groupBy(groupFields);
+				dslContext.select(selectedFields).from(table).where(dbConditions).groupBy(groupFields);
 
 		ResultQuery<Record> resultQuery;
 		if (dbQuery.getTopClause().isPresent()) {
@@ -125,9 +219,222 @@ public class AdhocJooqSqlDatabaseStreamOpener implements IAdhocJooqSqlDatabaseSt
 		return resultQuery;
 	}
 
-	protected Collection<SelectFieldOrAsterisk> makeSelectedFields(DatabaseQuery dbQuery) {
+	/**
+	 * Prepares a single SQL query for multiple {@link DatabaseQuery}, differing only by their groupBy: each groupBy is
+	 * a grouping set, and the {@link #GROUPING_ID} column tells the grouping set of each row (see
+	 * {@link #groupingIdToQuery(List)}). This saves a table scan per additional {@link DatabaseQuery}.
+	 * 
+	 * The groupBys must not join a {@link ManyToManySqlMapping}, as the join would fan-out the rows of other grouping
+	 * sets. Their columns must be consistent (i.e. a given name refers to the same column in each groupBy).
+	 * 
+	 * @param dbQueries
+	 *            the {@link DatabaseQuery} with the same filter and aggregators, but different groupBys.
+	 * @return a {@link ResultQuery} with a row per slice per groupBy.
+	 */
+	@Override
+	public ResultQuery<Record> prepareQuery(List<DatabaseQuery> dbQueries) {
+		DatabaseQuery commonQuery = DatabaseQuery.edit(dbQueries.getFirst()).groupBy(IAdhocGroupBy.GRAND_TOTAL).build();
+
+		Table<?> table = makeTable(commonQuery);
+
+		Collection<Condition> dbConditions = makeConditions(commonQuery);
+
+		Collection<SelectFieldOrAsterisk> selectedFields = makeSelectedFields(commonQuery, isEstimated(dbQueries));
+
+		// The groupBy columns are not aliased, so that `GROUPING` refers to the same expressions as `GROUP BY`
+		Collection<IAdhocColumn> groupingColumns = groupingColumns(dbQueries).values();
+		groupingColumns.forEach(column -> selectedFields.add(columnAsField(column)));
+		Field<?>[] groupingFields = groupingColumns.stream().map(this::columnAsUnaliasedField).toArray(Field<?>[]::new);
+		selectedFields.add(DSL.field("grouping({0})", Long.class, DSL.list(groupingFields)).as(GROUPING_ID));
+
+		@SuppressWarnings("unchecked")
+		Collection<? extends Field<?>>[] groupingSets = dbQueries.stream()
+				.map(dbQuery -> dbQuery.getGroupBy()
+						.getNameToColumn()
+						.values()
+						.stream()
+						.map(this::columnAsUnaliasedField)
+						.toList())
+				.toArray(Collection[]::new);
+
+		ResultQuery<Record> resultQuery = dslContext.select(selectedFields)
+				.from(table)
+				.where(dbConditions)
+				.groupBy(DSL.groupingSets(groupingSets));
+
+		if (commonQuery.isExplain() || commonQuery.isDebug()) {
+			log.info("[EXPLAIN] SQL to db: `{}`", resultQuery.getSQL(ParamType.INLINED));
+		}
+
+		return resultQuery;
+	}
+
+	/**
+	 * Prepares a single SQL query for multiple {@link DatabaseQuery}, differing only by their filter and aggregators:
+	 * the rows matching any filter are scanned once, and each aggregator of each {@link DatabaseQuery} aggregates only
+	 * the rows matching its {@link DatabaseQuery} filter, like `SUM(x) FILTER (WHERE ...)`. The aggregated columns are
+	 * named by {@link #filteredAlias(int, String)}.
+	 * 
+	 * The {@link Condition} of each {@link DatabaseQuery} is built once, and used both by the `WHERE` and by the
+	 * aggregators of this {@link DatabaseQuery}: e.g. a large IN is loaded once in a temporary table.
+	 * 
+	 * @param dbQueries
+	 *            the {@link DatabaseQuery} with the same groupBy, but different filters.
+	 * @return a {@link ResultQuery} with a row per slice, and aggregated columns for each {@link DatabaseQuery}.
+	 */
+	@Override
+	public ResultQuery<Record> prepareFilteredQuery(List<DatabaseQuery> dbQueries) {
+		DatabaseQuery commonQuery = DatabaseQuery.edit(dbQueries.getFirst())
+				.filter(IAdhocFilter.MATCH_ALL)
+				.clearAggregators()
+				.aggregators(dbQueries.stream().flatMap(dbQuery -> dbQuery.getAggregators().stream()).toList())
+				.build();
+
+		Table<?> table = makeTable(commonQuery);
+
+		// `noCondition` if the DatabaseQuery is not filtered
+		List<Condition> queryConditions = dbQueries.stream().map(dbQuery -> {
+			IAdhocFilter filter = dbQuery.getFilter();
+			if (filter.isMatchAll()) {
+				return DSL.noCondition();
+			} else {
+				return toCondition(filter);
+			}
+		}).toList();
+
+		Collection<Condition> dbConditions = makeConditions(commonQuery);
+		if (queryConditions.stream().noneMatch(DSL.noCondition()::equals)) {
+			// Scan only the rows matching any filter
+			dbConditions.add(DSL.or(queryConditions));
+		}
+
+		boolean estimated = isEstimated(dbQueries);
+		Collection<SelectFieldOrAsterisk> selectedFields = new ArrayList<>();
+		for (int i = 0; i < dbQueries.size(); i++) {
+			DatabaseQuery dbQuery = dbQueries.get(i);
+			for (Aggregator a : dbQuery.getAggregators()) {
+				String alias = filteredAlias(i, a.getName());
+				selectedFields.addAll(toSqlAggregatedColumns(a, queryConditions.get(i), alias, estimated));
+			}
+		}
+		commonQuery.getGroupBy().getNameToColumn().values().forEach(column -> {
+			selectedFields.add(columnAsField(column));
+		});
+
+		Collection<GroupField> groupFields = makeGroupingFields(commonQuery);
+
+		ResultQuery<Record> resultQuery =
+				dslContext.select(selectedFields).from(table).where(dbConditions).groupBy(groupFields);
+
+		if (commonQuery.isExplain() || commonQuery.isDebug()) {
+			log.info("[EXPLAIN] SQL to db: `{}`", resultQuery.getSQL(ParamType.INLINED));
+		}
+
+		return resultQuery;
+	}
+
+	/**
+	 * 
+	 * @param queryIndex
+	 *            the index of the {@link DatabaseQuery} given to {@link #prepareFilteredQuery(List)}
+	 * @param aggregatorName
+	 * @return the name of the aggregated column
+	 */
+	public static String filteredAlias(int queryIndex, String aggregatorName) {
+		return FILTERED_PREFIX + queryIndex + "$" + aggregatorName;
+	}
+
+	/**
+	 * 
+	 * @param dbQueries
+	 * @return the columns grouped by any of given {@link DatabaseQuery}, in the order of the `GROUPING` arguments.
+	 */
+	public static Map<String, IAdhocColumn> groupingColumns(List<DatabaseQuery> dbQueries) {
+		Map<String, IAdhocColumn> nameToColumn = new LinkedHashMap<>();
+		dbQueries.forEach(dbQuery -> nameToColumn.putAll(dbQuery.getGroupBy().getNameToColumn()));
+		return nameToColumn;
+	}
+
+	/**
+	 * 
+	 * @param dbQueries
+	 * @return the {@link DatabaseQuery} given the value of the {@link #GROUPING_ID} column. `GROUPING` has a bit per
+	 *         argument, the first argument being the most significant bit, which is set if the column is not grouped.
+	 */
+	public static Map<Long, DatabaseQuery> groupingIdToQuery(List<DatabaseQuery> dbQueries) {
+		List<String> groupingColumns = List.copyOf(groupingColumns(dbQueries).keySet());
+
+		Map<Long, DatabaseQuery> groupingIdToQuery = new HashMap<>();
+		dbQueries.forEach(dbQuery -> {
+			Set<String> groupedByColumns = dbQuery.getGroupBy().getGroupedByColumns();
+
+			long groupingId = 0;
+			for (String groupingColumn : groupingColumns) {
+				groupingId <<= 1;
+				if (!groupedByColumns.contains(groupingColumn)) {
+					groupingId |= 1;
+				}
+			}
+
+			groupingIdToQuery.put(groupingId, dbQuery);
+		});
+		return groupingIdToQuery;
+	}
+
+	protected Collection<Condition> makeConditions(DatabaseQuery dbQuery) {
+		Collection<Condition> dbConditions = new ArrayList<>();
+
+		dbConditions.add(oneMeasureIsNotNull(dbQuery.getAggregators()));
+
+		IAdhocFilter filter = dbQuery.getFilter();
+		if (!filter.isMatchAll()) {
+			if (filter.isAnd() && filter instanceof IAndFilter andFilter) {
+				andFilter.getOperands().stream().map(this::toCondition).forEach(dbConditions::add);
+			} else {
+				dbConditions.add(toCondition(filter));
+			}
+		}
+		return dbConditions;
+	}
+
+	protected Table<?> makeTable(DatabaseQuery dbQuery) {
+		Table<?> table = DSL.table(DSL.name(tableName));
+
+		Set<String> groupedByColumns = dbQuery.getGroupBy()
+				.getNameToColumn()
+				.values()
+				.stream()
+				.filter(column -> !(column instanceof IHasSqlExpression))
+				.map(column -> transcoder.underlying(column.getColumn()))
+				.collect(Collectors.toSet());
+
+		for (ManyToManySqlMapping mapping : manyToManyMappings) {
+			if (groupedByColumns.contains(mapping.getGroupColumn())) {
+				// Each element row is fanned-out into one row per group
+				table = table.join(DSL.table(DSL.name(mapping.getTableName())))
+						.using(DSL.field(DSL.name(mapping.getElementColumn())));
+				joinedGroupColumns.add(mapping.getGroupColumn());
+			}
+		}
+
+		return table;
+	}
+
+	/**
+	 * 
+	 * @param dbQueries
+	 *            the {@link DatabaseQuery} expressed by a single SQL query
+	 * @return true if the approximate aggregations are computed by the database, as a final estimate.
+	 */
+	protected boolean isEstimated(List<DatabaseQuery> dbQueries) {
+		return pushDownEstimates && dbQueries.stream().noneMatch(DatabaseQuery::isMergedAggregates);
+	}
+
+	protected Collection<SelectFieldOrAsterisk> makeSelectedFields(DatabaseQuery dbQuery, boolean estimated) {
 		Collection<SelectFieldOrAsterisk> selectedFields = new ArrayList<>();
-		dbQuery.getAggregators().stream().distinct().forEach(a -> selectedFields.add(toSqlAggregatedColumn(a)));
+		dbQuery.getAggregators().stream().distinct().forEach(a -> {
+			selectedFields.addAll(toSqlAggregatedColumns(a, DSL.noCondition(), a.getName(), estimated));
+		});
 
 		dbQuery.getGroupBy().getNameToColumn().values().forEach(column -> {
 			Field<Object> field = columnAsField(column);
@@ -137,6 +444,10 @@ public class AdhocJooqSqlDatabaseStreamOpener implements IAdhocJooqSqlDatabaseSt
 	}
 
 	protected Field<Object> columnAsField(IAdhocColumn column) {
+		return columnAsUnaliasedField(column).as(column.getColumn());
+	}
+
+	protected Field<Object> columnAsUnaliasedField(IAdhocColumn column) {
 		String columnName = column.getColumn();
 		String transcodedName = transcoder.underlying(columnName);
 		Field<Object> field;
@@ -145,9 +456,9 @@ public class AdhocJooqSqlDatabaseStreamOpener implements IAdhocJooqSqlDatabaseSt
 			// TODO How could we transcode column referred by the SQL?
 			// Should we add named columns from transcoder?
 			String sql = hasSql.getSql();
-			field = DSL.field(sql).as(columnName);
+			field = DSL.field(sql);
 		} else {
-			field = DSL.field(DSL.name(transcodedName)).as(columnName);
+			field = DSL.field(DSL.name(transcodedName));
 		}
 		return field;
 	}
@@ -181,24 +492,147 @@ public class AdhocJooqSqlDatabaseStreamOpener implements IAdhocJooqSqlDatabaseSt
 		return columns;
 	}
 
+	/**
+	 * 
+	 * @param a
+	 * @return the SQL fields of given {@link Aggregator}. An `AVG` is selected as a `SUM` and a `COUNT`, as partial
+	 *         averages can not be merged.
+	 */
+	protected List<SelectFieldOrAsterisk> toSqlAggregatedColumns(Aggregator a) {
+		return toSqlAggregatedColumns(a, DSL.noCondition(), a.getName(), false);
+	}
+
+	/**
+	 * 
+	 * @param a
+	 * @param filter
+	 *            only the rows matching this condition are aggregated, like `FILTER (WHERE ...)`.
+	 *            {@link DSL#noCondition()} aggregates all rows.
+	 * @param alias
+	 *            the name of the aggregated column
+	 * @param estimated
+	 *            if true, the approximate aggregations are computed by the database, as a final estimate.
+	 * @return the SQL fields of given {@link Aggregator}.
+	 */
+	protected List<SelectFieldOrAsterisk> toSqlAggregatedColumns(Aggregator a,
+			Condition filter,
+			String alias,
+			boolean estimated) {
+		if (AvgAggregator.KEY.equals(a.getAggregationKey())) {
+			Field<Object> field = filtered(filter, DSL.field(DSL.name(transcoder.underlying(a.getColumnName()))));
+			return List.of(toSqlAggregatedColumn(a, filter, alias, estimated),
+					DSL.count(field).as(DSL.name(alias + AVG_COUNT_SUFFIX)));
+		} else {
+			return List.of(toSqlAggregatedColumn(a, filter, alias, estimated));
+		}
+	}
+
 	protected SelectFieldOrAsterisk toSqlAggregatedColumn(Aggregator a) {
+		return toSqlAggregatedColumn(a, DSL.noCondition(), a.getName(), false);
+	}
+
+	protected SelectFieldOrAsterisk toSqlAggregatedColumn(Aggregator a,
+			Condition filter,
+			String alias,
+			boolean estimated) {
 		String aggregationKey = a.getAggregationKey();
+		Name aggregatorName = DSL.name(alias);
+
+		if (CountAggregator.isAsterisk(a.getColumnName())) {
+			if (!CountAggregator.KEY.equals(aggregationKey)) {
+				throw new UnsupportedOperationException(
+						"Only %s is supported over `%s`. Was: %s".formatted(CountAggregator.KEY,
+								CountAggregator.ASTERISK,
+								aggregationKey));
+			} else if (DSL.noCondition().equals(filter)) {
+				return DSL.count().as(aggregatorName);
+			} else {
+				return DSL.count(filtered(filter, DSL.inline(1))).as(aggregatorName);
+			}
+		}
+
 		String columnName = transcoder.underlying(a.getColumnName());
 		Name namedColumn = DSL.name(columnName);
 
-		if (SumAggregator.KEY.equals(aggregationKey)) {
-			Field<Double> field =
-					DSL.field(namedColumn, DefaultDataType.getDataType(dslContext.dialect(), Double.class));
-			return DSL.sum(field).as(DSL.name(a.getName()));
+		if (SumAggregator.KEY.equals(aggregationKey) || AvgAggregator.KEY.equals(aggregationKey)) {
+			Field<Double> field = filtered(filter, toDoubleField(namedColumn));
+			return DSL.sum(field).as(aggregatorName);
 		} else if (MaxAggregator.KEY.equals(aggregationKey)) {
-			Field<?> field = DSL.field(namedColumn);
-			return DSL.max(field).as(DSL.name(a.getName()));
+			Field<?> field = filtered(filter, DSL.field(namedColumn));
+			return DSL.max(field).as(aggregatorName);
+		} else if (MinAggregator.KEY.equals(aggregationKey)) {
+			Field<?> field = filtered(filter, DSL.field(namedColumn));
+			return DSL.min(field).as(aggregatorName);
+		} else if (CountAggregator.KEY.equals(aggregationKey)) {
+			Field<?> field = filtered(filter, DSL.field(namedColumn));
+			return DSL.count(field).as(aggregatorName);
+		} else if (ProductAggregator.KEY.equals(aggregationKey)) {
+			return toSqlProduct(filtered(filter, toDoubleField(namedColumn))).as(aggregatorName);
+		} else if (HllCountDistinctAggregator.KEY.equals(aggregationKey)) {
+			Field<Object> field = filtered(filter, DSL.field(namedColumn));
+			if (estimated) {
+				// The database returns a final estimate, not a mergeable sketch
+				// https://duckdb.org/docs/sql/functions/aggregates.html#approximate-aggregates
+				return DSL.field("approx_count_distinct({0})", Long.class, field).as(aggregatorName);
+			} else {
+				// The distinct values are hashed into a sketch, which can be merged (e.g. by a Bucketor)
+				// A filtered-out row is aggregated as a null, to be skipped when hashing
+				return DSL.arrayAggDistinct(field).as(aggregatorName);
+			}
 		} else {
+			IAggregation aggregation = operatorsFactory.makeAggregation(aggregationKey);
+			if (aggregation instanceof IJooqSqlAggregation sqlAggregation) {
+				Field<Object> field = filtered(filter, DSL.field(namedColumn));
+				return sqlAggregation.toSqlAggregate(field).as(aggregatorName);
+			}
 			throw new UnsupportedOperationException("SQL does not support aggregationKey=%s".formatted(aggregationKey));
 		}
 	}
 
+	/**
+	 * 
+	 * @param filter
+	 *            {@link DSL#noCondition()} if all rows are aggregated
+	 * @param field
+	 * @return the field, nulled on the rows not matching the filter. As aggregate functions skip nulls, this is
+	 *         equivalent to `FILTER (WHERE ...)`, while being available for any aggregate expression and any dialect.
+	 */
+	protected <T> Field<T> filtered(Condition filter, Field<T> field) {
+		if (DSL.noCondition().equals(filter)) {
+			return field;
+		}
+		return DSL.when(filter, field);
+	}
+
+	protected Field<Double> toDoubleField(Name namedColumn) {
+		return DSL.field(namedColumn, DefaultDataType.getDataType(dslContext.dialect(), Double.class));
+	}
+
+	/**
+	 * SQL has no `PRODUCT` aggregate function: it is computed as `exp(sum(ln(abs(x))))`, negated if there is an odd
+	 * number of negative values, and 0 if there is a zero. This is subject to floating-point rounding.
+	 * 
+	 * @param field
+	 * @return the product of the values of given field.
+	 */
+	protected Field<BigDecimal> toSqlProduct(Field<Double> field) {
+		// `ln(0)` is undefined: zeros are excluded from the logarithms, and handled separately
+		Field<BigDecimal> sumOfLn = DSL.sum(DSL.ln(DSL.abs(DSL.nullif(field, DSL.inline(0D)))));
+		Field<BigDecimal> nbNegatives = DSL.sum(DSL.when(field.lt(0D), DSL.inline(1)).otherwise(DSL.inline(0)));
+		Field<BigDecimal> nbZeros = DSL.sum(DSL.when(field.eq(0D), DSL.inline(1)).otherwise(DSL.inline(0)));
+
+		Field<BigDecimal> sign = DSL.when(nbNegatives.mod(2).eq(BigDecimal.ONE),
+				DSL.inline(BigDecimal.ONE.negate())).otherwise(DSL.inline(BigDecimal.ONE));
+
+		return DSL.when(nbZeros.gt(BigDecimal.ZERO), DSL.inline(BigDecimal.ZERO)).otherwise(DSL.exp(sumOfLn).mul(sign));
+	}
+
 	protected Condition oneMeasureIsNotNull(Set<Aggregator> aggregators) {
+		if (aggregators.stream().anyMatch(a -> CountAggregator.isAsterisk(a.getColumnName()))) {
+			// Each row contributes to `COUNT(*)`
+			return DSL.trueCondition();
+		}
+
 		// We're interested in a row if at least one measure is not null
 		List<Condition> oneNotNullConditions = aggregators.stream()
 				.map(Aggregator::getColumnName)
@@ -242,7 +676,11 @@ public class AdhocJooqSqlDatabaseStreamOpener implements IAdhocJooqSqlDatabaseSt
 				throw new UnsupportedOperationException("There is a IValueMatcher amongst " + operands);
 			}
 
-			condition = DSL.condition(field.in(operands));
+			if (operands.size() > maxInlinedInSize) {
+				condition = toLargeInCondition(field, operands);
+			} else {
+				condition = DSL.condition(field.in(operands));
+			}
 		}
 		case EqualsMatcher equalsMatcher -> condition = DSL.condition(field.eq(equalsMatcher.getOperand()));
 		case LikeMatcher likeMatcher -> condition = DSL.condition(field.like(likeMatcher.getLike()));
@@ -268,7 +706,80 @@ public class AdhocJooqSqlDatabaseStreamOpener implements IAdhocJooqSqlDatabaseSt
 		default -> throw new UnsupportedOperationException(
 				"Not handled: %s".formatted(PepperLogHelper.getObjectAndClass(columnFilter)));
 		}
+
+		Optional<ManyToManySqlMapping> optSemiJoinedMapping = manyToManyMappings.stream()
+				.filter(mapping -> mapping.getGroupColumn().equals(column))
+				.filter(mapping -> !joinedGroupColumns.contains(column))
+				.findFirst();
+		if (optSemiJoinedMapping.isPresent()) {
+			// The group column is not in the table: we accept the elements having at least one matching group
+			ManyToManySqlMapping mapping = optSemiJoinedMapping.get();
+			Field<Object> elementField = DSL.field(DSL.name(mapping.getElementColumn()));
+			condition = elementField.in(DSL.select(elementField)
+					.from(DSL.table(DSL.name(mapping.getTableName())))
+					.where(condition));
+		}
+
 		return condition;
 	}
 
+	/**
+	 * 
+	 * @param field
+	 * @param operands
+	 * @return a semi-join {@link Condition} over a temporary table holding the operands.
+	 */
+	protected Condition toLargeInCondition(Field<Object> field, Set<?> operands) {
+		DataType<?> dataType;
+		if (operands.stream().allMatch(o -> o instanceof Integer || o instanceof Long)) {
+			dataType = SQLDataType.BIGINT;
+		} else if (operands.stream().allMatch(o -> o instanceof CharSequence)) {
+			dataType = SQLDataType.VARCHAR;
+		} else {
+			log.debug("Operands are inlined as they are neither all integers nor all Strings");
+			return DSL.condition(field.in(operands));
+		}
+
+		Name temporaryTable = DSL.name(TEMPORARY_TABLE_PREFIX + UUID.randomUUID().toString().replace('-', '_'));
+		Field<Object> valueField = DSL.field(DSL.name("v"));
+
+		dslContext.createTemporaryTable(temporaryTable).column(valueField.getName(), dataType).execute();
+		temporaryTables.add(temporaryTable);
+
+		// Operands are sent as bind variables, not as SQL text
+		BatchBindStep batch = null;
+		int batchSize = 0;
+		for (Object operand : operands) {
+			if (batch == null) {
+				batch = dslContext
+						.batch(dslContext.insertInto(DSL.table(temporaryTable), valueField).values((Object) null));
+			}
+			if (operand instanceof CharSequence charSequence) {
+				operand = charSequence.toString();
+			}
+			batch.bind(operand);
+			batchSize++;
+
+			if (batchSize >= BATCH_SIZE) {
+				batch.execute();
+				batch = null;
+				batchSize = 0;
+			}
+		}
+		if (batch != null) {
+			batch.execute();
+		}
+
+		log.debug("Loaded {} IN operands into temporary table {}", operands.size(), temporaryTable);
+
+		return field.in(DSL.select(valueField).from(DSL.table(temporaryTable)));
+	}
+
+	@Override
+	public void close() {
+		temporaryTables.forEach(temporaryTable -> {
+			dslContext.dropTableIfExists(temporaryTable).execute();
+		});
+		temporaryTables.clear();
+	}
 }
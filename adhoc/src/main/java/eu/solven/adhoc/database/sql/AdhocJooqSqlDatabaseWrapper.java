@@ -23,34 +23,56 @@
 package eu.solven.adhoc.database.sql;
 
 import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.jooq.DSLContext;
-import org.jooq.Field;
-import org.jooq.Name;
 import org.jooq.Record;
 import org.jooq.ResultQuery;
 import org.jooq.SelectFieldOrAsterisk;
 import org.jooq.conf.ParamType;
 import org.jooq.impl.DSL;
-import org.jooq.impl.DefaultDataType;
 
-import eu.solven.adhoc.aggregations.max.MaxAggregator;
+import eu.solven.adhoc.aggregations.IAccumulatingAggregation;
+import eu.solven.adhoc.aggregations.IOperatorsFactory;
+import eu.solven.adhoc.aggregations.StandardOperatorsFactory;
+import eu.solven.adhoc.aggregations.sketch.HllCountDistinctAggregator;
+import eu.solven.adhoc.aggregations.sketch.PushedDownEstimate;
+import eu.solven.adhoc.aggregations.sum.AvgAggregator;
+import eu.solven.adhoc.aggregations.sum.AvgCarrier;
+import eu.solven.adhoc.aggregations.sum.CountAggregator;
+import eu.solven.adhoc.aggregations.sum.CountCarrier;
 import eu.solven.adhoc.aggregations.sum.SumAggregator;
+import eu.solven.adhoc.api.v1.IAdhocFilter;
+import eu.solven.adhoc.api.v1.IAdhocGroupBy;
 import eu.solven.adhoc.database.AdhocTranscodingHelper;
+import eu.solven.adhoc.database.AggregatedColumnType;
 import eu.solven.adhoc.database.IAdhocDatabaseReverseTranscoder;
 import eu.solven.adhoc.database.IAdhocDatabaseTranscoder;
 import eu.solven.adhoc.database.IAdhocDatabaseWrapper;
 import eu.solven.adhoc.database.IdentityTranscoder;
 import eu.solven.adhoc.database.TranscodingContext;
 import eu.solven.adhoc.query.DatabaseQuery;
+import eu.solven.adhoc.query.groupby.IAdhocColumn;
 import eu.solven.adhoc.transformers.Aggregator;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.Singular;
 import lombok.experimental.SuperBuilder;
 import lombok.extern.slf4j.Slf4j;
 
@@ -74,6 +96,40 @@ public class AdhocJooqSqlDatabaseWrapper implements IAdhocDatabaseWrapper {
 	@NonNull
 	final String tableName;
 
+	/**
+	 * Above this number of operands, an IN filter is pushed through a temporary table.
+	 * 
+	 * @see AdhocJooqSqlDatabaseStreamOpener
+	 */
+	@Builder.Default
+	final int maxInlinedInSize = AdhocJooqSqlDatabaseStreamOpener.DEFAULT_MAX_INLINED_IN_SIZE;
+
+	/**
+	 * The many-to-many relations which can be resolved by the database.
+	 * 
+	 * @see eu.solven.adhoc.aggregations.many_to_many.ManyToManySqlDecomposition
+	 */
+	@Singular
+	final List<ManyToManySqlMapping> manyToManyMappings;
+
+	/**
+	 * Used to resolve the custom aggregations which can be expressed in SQL.
+	 * 
+	 * @see IJooqSqlAggregation
+	 */
+	@Builder.Default
+	@NonNull
+	final IOperatorsFactory operatorsFactory = new StandardOperatorsFactory();
+
+	/**
+	 * Opt-in: if true, `APPROX_COUNT_DISTINCT` is computed by the database for the {@link DatabaseQuery} whose
+	 * aggregates are not merged by the engine. It saves transferring the distinct values of each slice.
+	 * 
+	 * @see AdhocJooqSqlDatabaseStreamOpener#isEstimated(List)
+	 */
+	@Builder.Default
+	final boolean pushDownEstimates = false;
+
 	public DSLContext makeDsl() {
 		return dslSupplier.getDSLContext();
 	}
@@ -83,90 +139,547 @@ public class AdhocJooqSqlDatabaseWrapper implements IAdhocDatabaseWrapper {
 		return AdhocTranscodingHelper.transcode(transcodingContext, underlyingMap);
 	}
 
+	/**
+	 * The SQL query is prepared and executed on the first terminal operation of the returned {@link Stream}. Hence,
+	 * resources like a pooled connection or temporary tables are held only while the {@link Stream} is consumed, and
+	 * not while the other {@link Stream}s of a query are opened.
+	 */
 	@Override
 	public Stream<Map<String, ?>> openDbStream(DatabaseQuery dbQuery) {
+		AtomicReference<Stream<Map<String, ?>>> refOpened = new AtomicReference<>();
+
+		Supplier<Spliterator<Map<String, ?>>> spliteratorSupplier = () -> {
+			Stream<Map<String, ?>> opened = openDbStreamNow(dbQuery);
+			refOpened.set(opened);
+			return opened.spliterator();
+		};
+
+		return StreamSupport.stream(spliteratorSupplier, Spliterator.ORDERED, false).onClose(() -> {
+			Stream<Map<String, ?>> opened = refOpened.getAndSet(null);
+			if (opened != null) {
+				opened.close();
+			}
+		});
+	}
+
+	/**
+	 * 
+	 * @param dbQuery
+	 * @return an opened {@link Stream}, holding its resources (e.g. temporary tables) until closed.
+	 */
+	protected Stream<Map<String, ?>> openDbStreamNow(DatabaseQuery dbQuery) {
 		TranscodingContext transcodingContext = TranscodingContext.builder().transcoder(transcoder).build();
 
 		DSLContext dslContext = makeDsl();
 
 		IAdhocJooqSqlDatabaseStreamOpener streamOpener = makeTranscodedStreamOpener(transcodingContext, dslContext);
 
-		ResultQuery<Record> resultQuery = streamOpener.prepareQuery(dbQuery);
+		Stream<Map<String, ?>> dbStream;
+		try {
+			ResultQuery<Record> resultQuery = streamOpener.prepareQuery(dbQuery);
 
-		if (dbQuery.isExplain() || dbQuery.isDebug()) {
-			log.info("[EXPLAIN] SQL to db: `{}`", resultQuery.getSQL(ParamType.INLINED));
-		}
-		if (dbQuery.isDebug()) {
-			debugResultQuery();
-		}
+			if (dbQuery.isExplain() || dbQuery.isDebug()) {
+				log.info("[EXPLAIN] SQL to db: `{}`", resultQuery.getSQL(ParamType.INLINED));
+			}
+			if (dbQuery.isDebug()) {
+				debugResultQuery(dslContext);
+			}
 
-		Stream<Map<String, ?>> dbStream = toMapStream(resultQuery);
+			dbStream = toMapStream(resultQuery);
+		} catch (RuntimeException e) {
+			streamOpener.close();
+			dslSupplier.release(dslContext);
+			throw e;
+		}
 
 		return dbStream.filter(row -> {
 			// We could have a fallback, to filter manually when it is not doable by the DB (or we do not know how to
 			// build the proper filter)
 			return true;
-		}).<Map<String, ?>>map(notTranscoded -> {
-			Map<String, Object> aggregatorValues = new LinkedHashMap<>();
-			dbQuery.getAggregators().forEach(a -> {
-				String aggregatorName = a.getName();
-				Object aggregatedValue = notTranscoded.remove(aggregatorName);
-				if (aggregatedValue == null) {
-					// SQL groupBy returns `a=null` even if there is not a single matching row
-					notTranscoded.remove(aggregatorName);
-				} else {
-					aggregatorValues.put(aggregatorName, aggregatedValue);
-				}
-			});
-
-			if (aggregatorValues.isEmpty()) {
-				// There is not a single non-null aggregate: discard the whole Map (including groupedBy columns)
-				return Map.of();
+		}).map(notTranscoded -> fromDbRow(dbQuery, transcodingContext, notTranscoded))
+				// Filter-out the groups which does not have a single aggregatedValue
+				.filter(m -> !m.isEmpty())
+				// e.g. drop the temporary tables
+				.onClose(streamOpener::close)
+				// e.g. give back a pooled connection
+				.onClose(() -> dslSupplier.release(dslContext));
+	}
+
+	/**
+	 * The {@link DatabaseQuery} differing only by their groupBy are batched in a single SQL query with `GROUPING SETS`.
+	 * The remaining {@link DatabaseQuery} differing only by their filter (e.g. from `Filtrator`s over the same
+	 * aggregator) are batched in a single SQL query with filtered aggregates. Each batch saves a table scan per
+	 * additional {@link DatabaseQuery}.
+	 * 
+	 * The rows of a batch are routed to the sink of their {@link DatabaseQuery} while the SQL result is streamed: they
+	 * are not collected.
+	 */
+	@Override
+	public void sinkDbStreams(Map<DatabaseQuery, ? extends Consumer<Map<String, ?>>> dbQueryToSink) {
+		Set<DatabaseQuery> notBatched = new LinkedHashSet<>();
+		splitInBatches(dbQueryToSink.keySet()).forEach(batch -> {
+			if (batch.size() == 1) {
+				notBatched.add(batch.getFirst());
+			} else {
+				sinkGroupingSets(batch, dbQueryToSink);
+			}
+		});
+
+		splitInFilteredBatches(notBatched).forEach(batch -> {
+			if (batch.size() == 1) {
+				DatabaseQuery dbQuery = batch.getFirst();
+				sinkDbStream(dbQuery, dbQueryToSink.get(dbQuery));
 			} else {
-				// In case of manual filters, we may have to hide some some columns, needed by the manual filter, but
-				// unexpected by the output stream
+				sinkFiltered(batch, dbQueryToSink);
+			}
+		});
+	}
 
-				// We transcode only groupBy columns, as an aggregator may have a name matching an underlying column
-				Map<String, ?> transcoded = transcodeFromDb(transcodingContext, notTranscoded);
+	/**
+	 * 
+	 * @param dbQuery
+	 *            a {@link DatabaseQuery} which is not batched with other {@link DatabaseQuery}
+	 * @param sink
+	 */
+	protected void sinkDbStream(DatabaseQuery dbQuery, Consumer<Map<String, ?>> sink) {
+		// Closing the stream gives back the connection and drops the temporary tables
+		try (Stream<Map<String, ?>> stream = openDbStream(dbQuery)) {
+			stream.forEach(sink);
+		}
+	}
 
-				// ImmutableMap does not accept null value. How should we handle missing value i ngroupBy, when returned
-				// as null by DB?
-				// return ImmutableMap.<String, Object>builderWithExpectedSize(transcoded.size() +
-				// aggregatorValues.size())
-				// .putAll(transcoded)
-				// .putAll(aggregatorValues)
-				// .build();
+	/**
+	 * Prepares the SQL query of given {@link DatabaseQuery}, and gives it to given {@link Consumer}. Its resources
+	 * (e.g. the pooled connection, the temporary tables) are released once the {@link Consumer} returns.
+	 * 
+	 * @param dbQuery
+	 * @param transcodingContext
+	 * @param resultQueryConsumer
+	 */
+	protected void consumeResultQuery(DatabaseQuery dbQuery,
+			TranscodingContext transcodingContext,
+			Consumer<ResultQuery<Record>> resultQueryConsumer) {
+		DSLContext dslContext = makeDsl();
 
-				Map<String, Object> merged = new LinkedHashMap<>();
+		// e.g. drop the temporary tables
+		try (IAdhocJooqSqlDatabaseStreamOpener streamOpener =
+				makeTranscodedStreamOpener(transcodingContext, dslContext)) {
+			ResultQuery<Record> resultQuery = streamOpener.prepareQuery(dbQuery);
 
-				merged.putAll(transcoded);
-				merged.putAll(aggregatorValues);
-				return merged;
+			if (dbQuery.isDebug()) {
+				debugResultQuery(dslContext);
 			}
-		})
-				// Filter-out the groups which does not have a single aggregatedValue
-				.filter(m -> !m.isEmpty());
+
+			resultQueryConsumer.accept(resultQuery);
+		} finally {
+			// e.g. give back a pooled connection
+			dslSupplier.release(dslContext);
+		}
 	}
 
-	protected void debugResultQuery() {
+	/**
+	 * 
+	 * @param dbQueries
+	 * @return the batches of {@link DatabaseQuery} which can be executed by a single SQL query with filtered
+	 *         aggregates.
+	 */
+	protected Collection<List<DatabaseQuery>> splitInFilteredBatches(Set<DatabaseQuery> dbQueries) {
+		// The key is the DatabaseQuery without its filter and aggregators
+		Map<DatabaseQuery, List<DatabaseQuery>> commonToBatch = new LinkedHashMap<>();
+		List<List<DatabaseQuery>> batches = new ArrayList<>();
+
+		dbQueries.forEach(dbQuery -> {
+			if (dbQuery.getTopClause().isPresent()) {
+				// The limit would apply to the rows of all filters
+				batches.add(List.of(dbQuery));
+			} else {
+				DatabaseQuery common = DatabaseQuery.edit(dbQuery)
+						.filter(IAdhocFilter.MATCH_ALL)
+						.clearAggregators()
+						.build();
+				commonToBatch.computeIfAbsent(common, k -> new ArrayList<>()).add(dbQuery);
+			}
+		});
+
+		batches.addAll(commonToBatch.values());
+
+		return batches;
+	}
+
+	/**
+	 * 
+	 * @param dbQueries
+	 * @return the batches of {@link DatabaseQuery} which can be executed by a single SQL query.
+	 */
+	protected Collection<List<DatabaseQuery>> splitInBatches(Set<DatabaseQuery> dbQueries) {
+		// The key is the DatabaseQuery without its groupBy
+		Map<DatabaseQuery, List<DatabaseQuery>> commonToBatch = new LinkedHashMap<>();
+		List<List<DatabaseQuery>> batches = new ArrayList<>();
+
+		dbQueries.forEach(dbQuery -> {
+			if (isBatchable(dbQuery)) {
+				DatabaseQuery common = DatabaseQuery.edit(dbQuery).groupBy(IAdhocGroupBy.GRAND_TOTAL).build();
+				commonToBatch.computeIfAbsent(common, k -> new ArrayList<>()).add(dbQuery);
+			} else {
+				batches.add(List.of(dbQuery));
+			}
+		});
+
+		commonToBatch.values().forEach(batch -> {
+			if (isConsistentBatch(batch)) {
+				batches.add(batch);
+			} else {
+				batch.forEach(dbQuery -> batches.add(List.of(dbQuery)));
+			}
+		});
+
+		return batches;
+	}
+
+	protected boolean isBatchable(DatabaseQuery dbQuery) {
+		if (dbQuery.getTopClause().isPresent()) {
+			// The limit would apply to the rows of all grouping sets
+			return false;
+		}
+
+		// A joined many-to-many would fan-out the rows of the other grouping sets
+		Set<String> groupColumns =
+				manyToManyMappings.stream().map(ManyToManySqlMapping::getGroupColumn).collect(Collectors.toSet());
+		return dbQuery.getGroupBy()
+				.getGroupedByColumns()
+				.stream()
+				.map(transcoder::underlying)
+				.noneMatch(groupColumns::contains);
+	}
+
+	/**
+	 * 
+	 * @param batch
+	 * @return true if given {@link DatabaseQuery} can be differentiated by the `GROUPING` of their columns.
+	 */
+	protected boolean isConsistentBatch(List<DatabaseQuery> batch) {
+		Map<String, IAdhocColumn> nameToColumn = AdhocJooqSqlDatabaseStreamOpener.groupingColumns(batch);
+
+		if (nameToColumn.size() >= Long.SIZE) {
+			// The grouping id would overflow
+			return false;
+		}
+
+		// A given name must refer to the same column in each groupBy
+		return batch.stream()
+				.flatMap(dbQuery -> dbQuery.getGroupBy().getNameToColumn().entrySet().stream())
+				.allMatch(e -> e.getValue().equals(nameToColumn.get(e.getKey())));
+	}
+
+	/**
+	 * Executes a single SQL query for given {@link DatabaseQuery}, and routes each row to the sink of its
+	 * {@link DatabaseQuery}.
+	 * 
+	 * @param batch
+	 *            {@link DatabaseQuery} differing only by their groupBy
+	 * @param dbQueryToSink
+	 */
+	protected void sinkGroupingSets(List<DatabaseQuery> batch,
+			Map<DatabaseQuery, ? extends Consumer<Map<String, ?>>> dbQueryToSink) {
+		TranscodingContext transcodingContext = TranscodingContext.builder().transcoder(transcoder).build();
+
+		DSLContext dslContext = makeDsl();
+
+		Map<Long, DatabaseQuery> groupingIdToQuery = AdhocJooqSqlDatabaseStreamOpener.groupingIdToQuery(batch);
+		Set<String> groupingColumns = AdhocJooqSqlDatabaseStreamOpener.groupingColumns(batch).keySet();
+
+		// e.g. drop the temporary tables
+		try (IAdhocJooqSqlDatabaseStreamOpener streamOpener =
+				makeTranscodedStreamOpener(transcodingContext, dslContext)) {
+			ResultQuery<Record> resultQuery = streamOpener.prepareQuery(batch);
+
+			if (batch.getFirst().isDebug()) {
+				debugResultQuery(dslContext);
+			}
+
+			try (Stream<Map<String, ?>> dbStream = toMapStream(resultQuery)) {
+				dbStream.forEach(notTranscoded -> {
+					long groupingId = ((Number) notTranscoded.remove(AdhocJooqSqlDatabaseStreamOpener.GROUPING_ID))
+							.longValue();
+					DatabaseQuery dbQuery = groupingIdToQuery.get(groupingId);
+					if (dbQuery == null) {
+						throw new IllegalStateException("Unexpected %s=%s".formatted(
+								AdhocJooqSqlDatabaseStreamOpener.GROUPING_ID,
+								groupingId));
+					}
+
+					// The columns grouped by other grouping sets are returned as null
+					Set<String> groupedByColumns = dbQuery.getGroupBy().getGroupedByColumns();
+					groupingColumns.stream()
+							.filter(column -> !groupedByColumns.contains(column))
+							.forEach(notTranscoded::remove);
+
+					Map<String, ?> row = fromDbRow(dbQuery, transcodingContext, notTranscoded);
+					if (!row.isEmpty()) {
+						dbQueryToSink.get(dbQuery).accept(row);
+					}
+				});
+			}
+		} finally {
+			// e.g. give back a pooled connection
+			dslSupplier.release(dslContext);
+		}
+	}
+
+	/**
+	 * Executes a single SQL query for given {@link DatabaseQuery}, and splits each row into a row per
+	 * {@link DatabaseQuery}, routed to the sink of this {@link DatabaseQuery}. The groupBy being common to the batch,
+	 * the grouped columns are transcoded once per SQL row, and the row of each {@link DatabaseQuery} is re-used from
+	 * one SQL row to the next.
+	 * 
+	 * @param batch
+	 *            {@link DatabaseQuery} differing only by their filter and aggregators
+	 * @param dbQueryToSink
+	 */
+	protected void sinkFiltered(List<DatabaseQuery> batch,
+			Map<DatabaseQuery, ? extends Consumer<Map<String, ?>>> dbQueryToSink) {
+		TranscodingContext transcodingContext = TranscodingContext.builder().transcoder(transcoder).build();
+
+		DSLContext dslContext = makeDsl();
+
+		// e.g. drop the temporary tables
+		try (IAdhocJooqSqlDatabaseStreamOpener streamOpener =
+				makeTranscodedStreamOpener(transcodingContext, dslContext)) {
+			ResultQuery<Record> resultQuery = streamOpener.prepareFilteredQuery(batch);
+
+			if (batch.getFirst().isDebug()) {
+				debugResultQuery(dslContext);
+			}
+
+			Set<String> groupedByColumns = batch.getFirst().getGroupBy().getGroupedByColumns();
+			List<Map<String, Object>> reusedRows =
+					batch.stream().map(dbQuery -> new LinkedHashMap<String, Object>()).toList();
+
+			try (Stream<Map<String, ?>> dbStream = toMapStream(resultQuery)) {
+				dbStream.forEach(notSplit -> {
+					Map<String, Object> notTranscoded = new LinkedHashMap<>();
+					groupedByColumns.forEach(column -> notTranscoded.put(column, notSplit.get(column)));
+					Map<String, ?> transcoded = transcodeFromDb(transcodingContext, notTranscoded);
+
+					for (int i = 0; i < batch.size(); i++) {
+						DatabaseQuery dbQuery = batch.get(i);
+						Map<String, Object> row = reusedRows.get(i);
+						row.clear();
+						row.putAll(transcoded);
+
+						boolean hasAggregate = false;
+						for (Aggregator a : dbQuery.getAggregators()) {
+							String alias = AdhocJooqSqlDatabaseStreamOpener.filteredAlias(i, a.getName());
+							Object aggregatedValue = fromDbAggregate(a, alias, notSplit);
+							if (aggregatedValue != null) {
+								row.put(a.getName(), aggregatedValue);
+								hasAggregate = true;
+							}
+						}
+
+						if (hasAggregate) {
+							dbQueryToSink.get(dbQuery).accept(row);
+						}
+					}
+				});
+			}
+		} finally {
+			// e.g. give back a pooled connection
+			dslSupplier.release(dslContext);
+		}
+	}
+
+	/**
+	 * 
+	 * @param dbQuery
+	 * @param transcodingContext
+	 * @param notTranscoded
+	 *            a row as returned by the database
+	 * @return the row as expected by the engine, or an empty {@link Map} if there is not a single aggregate.
+	 */
+	protected Map<String, ?> fromDbRow(DatabaseQuery dbQuery,
+			IAdhocDatabaseReverseTranscoder transcodingContext,
+			Map<String, ?> notTranscoded) {
+		Map<String, Object> aggregatorValues = new LinkedHashMap<>();
+		dbQuery.getAggregators().forEach(a -> {
+			// SQL groupBy returns `a=null` even if there is not a single matching row
+			Object aggregatedValue = fromDbAggregate(a, notTranscoded);
+			if (aggregatedValue != null) {
+				aggregatorValues.put(a.getName(), aggregatedValue);
+			}
+		});
+
+		if (aggregatorValues.isEmpty()) {
+			// There is not a single non-null aggregate: discard the whole Map (including groupedBy columns)
+			return Map.of();
+		} else {
+			// In case of manual filters, we may have to hide some some columns, needed by the manual filter, but
+			// unexpected by the output stream
+
+			// We transcode only groupBy columns, as an aggregator may have a name matching an underlying column
+			Map<String, ?> transcoded = transcodeFromDb(transcodingContext, notTranscoded);
+
+			// ImmutableMap does not accept null value. How should we handle missing value i ngroupBy, when returned
+			// as null by DB?
+			// return ImmutableMap.<String, Object>builderWithExpectedSize(transcoded.size() +
+			// aggregatorValues.size())
+			// .putAll(transcoded)
+			// .putAll(aggregatorValues)
+			// .build();
+
+			Map<String, Object> merged = new LinkedHashMap<>();
+
+			merged.putAll(transcoded);
+			merged.putAll(aggregatorValues);
+			return merged;
+		}
+	}
+
+	/**
+	 * The types are those of the aggregated SQL expressions, as declared by {@link AdhocJooqSqlDatabaseStreamOpener}.
+	 * e.g. jOOQ types a `SUM` as a {@link java.math.BigDecimal}.
+	 */
+	@Override
+	public Map<String, AggregatedColumnType> getAggregatedColumnTypes(DatabaseQuery dbQuery) {
+		Map<String, AggregatedColumnType> columnToType = new HashMap<>();
+
+		dbQuery.getAggregators().forEach(a -> {
+			if (SumAggregator.KEY.equals(a.getAggregationKey())) {
+				columnToType.put(a.getName(), AggregatedColumnType.DECIMAL);
+			}
+		});
+
+		return columnToType;
+	}
+
+	/**
+	 * 
+	 * @param aggregator
+	 * @param notTranscoded
+	 *            the row as returned by the database. The columns of given {@link Aggregator} are removed from it.
+	 * @return the aggregate as expected by the {@link Aggregator} aggregation, or null if there is no aggregate.
+	 */
+	protected Object fromDbAggregate(Aggregator aggregator, Map<String, ?> notTranscoded) {
+		return fromDbAggregate(aggregator, aggregator.getName(), notTranscoded);
+	}
+
+	/**
+	 * 
+	 * @param aggregator
+	 * @param aggregatorName
+	 *            the name of the column aggregating given {@link Aggregator}, e.g. a
+	 *            {@link AdhocJooqSqlDatabaseStreamOpener#filteredAlias(int, String)}
+	 * @param notTranscoded
+	 *            the row as returned by the database. The columns of given {@link Aggregator} are removed from it.
+	 * @return the aggregate as expected by the {@link Aggregator} aggregation, or null if there is no aggregate.
+	 */
+	protected Object fromDbAggregate(Aggregator aggregator, String aggregatorName, Map<String, ?> notTranscoded) {
+		Object aggregatedValue = notTranscoded.remove(aggregatorName);
+
+		String aggregationKey = aggregator.getAggregationKey();
+		if (AvgAggregator.KEY.equals(aggregationKey)) {
+			// An average is returned as a sum and a count, which can be merged with other partial averages
+			Object count = notTranscoded.remove(aggregatorName + AdhocJooqSqlDatabaseStreamOpener.AVG_COUNT_SUFFIX);
+			if (aggregatedValue == null || count == null || ((Number) count).longValue() == 0) {
+				return null;
+			}
+			return AvgCarrier.of(((Number) aggregatedValue).doubleValue(), ((Number) count).longValue());
+		} else if (aggregatedValue == null) {
+			return null;
+		} else if (CountAggregator.KEY.equals(aggregationKey)) {
+			long count = ((Number) aggregatedValue).longValue();
+			if (count == 0) {
+				// `COUNT` returns 0 over a group with only null values: consistent with other aggregations, the group
+				// is considered empty
+				return null;
+			}
+			// The database count must not be counted as a single raw value
+			return CountCarrier.of(count);
+		} else if (HllCountDistinctAggregator.KEY.equals(aggregationKey)) {
+			if (aggregatedValue instanceof Number estimate) {
+				// The database estimate must not be hashed as a raw value
+				return PushedDownEstimate.of(estimate);
+			} else {
+				return toSketch(aggregationKey, aggregatedValue);
+			}
+		} else {
+			return aggregatedValue;
+		}
+	}
+
+	/**
+	 * 
+	 * @param aggregationKey
+	 * @param distinctValues
+	 *            the distinct values of a slice, as an array or a {@link Collection}. It may include a null.
+	 * @return the sketch of given values, hashed as if they were streamed one by one, or null if there is no value.
+	 */
+	protected Object toSketch(String aggregationKey, Object distinctValues) {
+		Collection<?> values;
+		if (distinctValues instanceof Object[] array) {
+			values = Arrays.asList(array);
+		} else if (distinctValues instanceof Collection<?> collection) {
+			values = collection;
+		} else {
+			throw new IllegalArgumentException(
+					"%s expects the distinct values. Was: %s".formatted(aggregationKey, distinctValues));
+		}
+
+		IAccumulatingAggregation aggregation =
+				(IAccumulatingAggregation) operatorsFactory.makeAggregation(aggregationKey);
+		Object accumulator = aggregation.createAccumulator();
+		boolean isEmpty = true;
+		for (Object value : values) {
+			// A null is returned by a group with only null values, or by a filtered aggregate
+			if (value != null) {
+				accumulator = aggregation.accumulate(accumulator, value);
+				isEmpty = false;
+			}
+		}
+
+		if (isEmpty) {
+			// Consistent with other aggregations, the group is considered empty
+			return null;
+		}
+		return aggregation.finish(accumulator);
+	}
+
+	/**
+	 * 
+	 * @param dslContext
+	 *            the {@link DSLContext} of the current query: checking-out another connection could block on a
+	 *            saturated pool, as the current query holds a connection.
+	 */
+	protected void debugResultQuery(DSLContext dslContext) {
 		// "column_name",
 		// "column_type",
 		// "null",
 		// "key",
 		// "default",
 		// "extra"
-		Map<Object, Object> columnNameToType = makeDsl().fetchStream("DESCRIBE FROM %s".formatted(DSL.name(tableName)))
-				.collect(Collectors.toMap(r -> r.get("column_name"), r -> r.get("column_type")));
+		try (Stream<Record> describe = dslContext.fetchStream("DESCRIBE FROM %s".formatted(DSL.name(tableName)))) {
+			Map<Object, Object> columnNameToType =
+					describe.collect(Collectors.toMap(r -> r.get("column_name"), r -> r.get("column_type")));
 
-		log.info("[DEBUG] {}", columnNameToType);
+			log.info("[DEBUG] {}", columnNameToType);
+		}
 	}
 
 	protected IAdhocJooqSqlDatabaseStreamOpener makeTranscodedStreamOpener(TranscodingContext transcodingContext,
 			DSLContext dslContext) {
+		return makeStreamOpener(transcodingContext, dslContext);
+	}
+
+	protected AdhocJooqSqlDatabaseStreamOpener makeStreamOpener(IAdhocDatabaseTranscoder transcoder,
+			DSLContext dslContext) {
 		return AdhocJooqSqlDatabaseStreamOpener.builder()
-				.transcoder(transcodingContext)
+				.transcoder(transcoder)
 				.tableName(tableName)
 				.dslContext(dslContext)
+				.maxInlinedInSize(maxInlinedInSize)
+				.manyToManyMappings(manyToManyMappings)
+				.operatorsFactory(operatorsFactory)
+				.pushDownEstimates(pushDownEstimates)
 				.build();
 	}
 
@@ -174,20 +687,17 @@ public class AdhocJooqSqlDatabaseWrapper implements IAdhocDatabaseWrapper {
 		return sqlQuery.stream().map(Record::intoMap);
 	}
 
+	/**
+	 * 
+	 * @param a
+	 * @return the SQL expression of given {@link Aggregator}, as built by {@link AdhocJooqSqlDatabaseStreamOpener}.
+	 */
 	protected SelectFieldOrAsterisk toSqlAggregatedColumn(Aggregator a) {
-		String aggregationKey = a.getAggregationKey();
-		String columnName = transcoder.underlying(a.getColumnName());
-		Name namedColumn = DSL.name(columnName);
-
-		if (SumAggregator.KEY.equals(aggregationKey)) {
-			Field<Double> field =
-					DSL.field(namedColumn, DefaultDataType.getDataType(makeDsl().dialect(), Double.class));
-			return DSL.sum(field).as(DSL.name(a.getName()));
-		} else if (MaxAggregator.KEY.equals(aggregationKey)) {
-			Field<?> field = DSL.field(namedColumn);
-			return DSL.max(field).as(DSL.name(a.getName()));
-		} else {
-			throw new UnsupportedOperationException("SQL does not support aggregationKey=%s".formatted(aggregationKey));
+		DSLContext dslContext = makeDsl();
+		try {
+			return makeStreamOpener(transcoder, dslContext).toSqlAggregatedColumn(a);
+		} finally {
+			dslSupplier.release(dslContext);
 		}
 	}
 }
@@ -40,10 +40,38 @@ import lombok.NonNull;
 public interface DSLSupplier {
 	DSLContext getDSLContext();
 
+	/**
+	 * Releases the resources (e.g. a pooled connection) held by a {@link DSLContext} provided by
+	 * {@link #getDSLContext()}. It is to be called once the {@link DSLContext} is not used anymore.
+	 * 
+	 * @param dslContext
+	 */
+	default void release(DSLContext dslContext) {
+		// Nothing to release by default
+	}
+
 	static DSLSupplier fromConnection(Supplier<Connection> connectionSupplier) {
 		return () -> DSL.using(connectionSupplier.get());
 	}
 
+	/**
+	 * 
+	 * @param connectionFactory
+	 * @param sqlDialect
+	 * @param poolSize
+	 *            the maximum number of concurrent connections
+	 * @return a {@link DSLSupplier} enabling concurrent {@link DSLContext}
+	 * @see PooledDSLSupplier
+	 */
+	static PooledDSLSupplier pooled(PooledDSLSupplier.IConnectionFactory connectionFactory,
+			SQLDialect sqlDialect,
+			int poolSize) {
+		return new PooledDSLSupplier(connectionFactory,
+				sqlDialect,
+				poolSize,
+				PooledDSLSupplier.DEFAULT_CHECKOUT_TIMEOUT);
+	}
+
 	static @NonNull DSLSupplier fromDialect(SQLDialect sqlDialect) {
 		return () -> DSL.using(sqlDialect);
 	}
@@ -22,11 +22,39 @@
  */
 package eu.solven.adhoc.database.sql;
 
+import java.util.List;
+
 import org.jooq.Record;
 import org.jooq.ResultQuery;
 
 import eu.solven.adhoc.query.DatabaseQuery;
 
-public interface IAdhocJooqSqlDatabaseStreamOpener {
+public interface IAdhocJooqSqlDatabaseStreamOpener extends AutoCloseable {
 	ResultQuery<Record> prepareQuery(DatabaseQuery dbQuery);
+
+	/**
+	 * 
+	 * @param dbQueries
+	 *            {@link DatabaseQuery} differing only by their groupBy
+	 * @return a single {@link ResultQuery} computing the aggregates of each {@link DatabaseQuery}, as grouping sets.
+	 */
+	ResultQuery<Record> prepareQuery(List<DatabaseQuery> dbQueries);
+
+	/**
+	 * 
+	 * @param dbQueries
+	 *            {@link DatabaseQuery} differing only by their filter and aggregators
+	 * @return a single {@link ResultQuery} computing the aggregates of each {@link DatabaseQuery}, each aggregate being
+	 *         filtered by its {@link DatabaseQuery} filter.
+	 */
+	ResultQuery<Record> prepareFilteredQuery(List<DatabaseQuery> dbQueries);
+
+	/**
+	 * Releases the resources (e.g. temporary tables) created by {@link #prepareQuery(DatabaseQuery)}. It is to be
+	 * called once the {@link ResultQuery} has been consumed.
+	 */
+	@Override
+	default void close() {
+		// Nothing to release by default
+	}
 }
@@ -0,0 +1,45 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database.sql;
+
+import org.jooq.Field;
+
+import eu.solven.adhoc.aggregations.IAggregation;
+
+/**
+ * An {@link IAggregation} which can be computed by a SQL database. The database returns an aggregate per group, which
+ * is then merged by the {@link IAggregation} with other aggregates (e.g. from another database, or another group).
+ * Hence, the SQL aggregate has to be decomposable: e.g. `MEDIAN` can not be pushed this way.
+ * 
+ * @author Benoit Lacelle
+ * @see AdhocJooqSqlDatabaseStreamOpener
+ */
+public interface IJooqSqlAggregation extends IAggregation {
+	/**
+	 * 
+	 * @param column
+	 *            the underlying column to aggregate
+	 * @return the SQL aggregate function over given column.
+	 */
+	Field<?> toSqlAggregate(Field<Object> column);
+}
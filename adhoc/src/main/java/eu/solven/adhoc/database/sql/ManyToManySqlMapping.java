@@ -0,0 +1,51 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database.sql;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * A many-to-many relation stored as a SQL table (or view), with one row per (element, group) membership. It enables
+ * {@link AdhocJooqSqlDatabaseStreamOpener} to resolve the group column inside the database, instead of exploding
+ * element-level rows in the JVM.
+ * 
+ * The element column must have the same name in the mapping table and in the queried table, as they are joined with
+ * `USING`. Columns are expressed as underlying (i.e. transcoded) names.
+ * 
+ * @author Benoit Lacelle
+ * @see eu.solven.adhoc.aggregations.many_to_many.ManyToManySqlDecomposition
+ */
+@Value
+@Builder
+public class ManyToManySqlMapping {
+	@NonNull
+	String tableName;
+
+	@NonNull
+	String elementColumn;
+
+	@NonNull
+	String groupColumn;
+}
@@ -0,0 +1,292 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database.sql;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jooq.ConnectionProvider;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.conf.Settings;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A {@link DSLSupplier} backed by a bounded pool of {@link Connection}, enabling concurrent {@link DSLContext}s (e.g.
+ * concurrent queries, or concurrent {@link eu.solven.adhoc.query.DatabaseQuery}).
+ * 
+ * Each {@link DSLContext} checks out a single {@link Connection} on its first execution, and keeps it until
+ * {@link #release(DSLContext)}: a {@link eu.solven.adhoc.query.DatabaseQuery} relying on temporary tables needs all its
+ * statements to run on the same {@link Connection}.
+ * 
+ * Each {@link Connection} caches its {@link java.sql.PreparedStatement}s (see {@link StatementCachingConnection}): as
+ * values are sent as bind variables, and IN lists are padded, queries with the same shape (groupBy, aggregators, filter
+ * structure) share the same SQL, hence re-use the plan of the database.
+ * 
+ * @author Benoit Lacelle
+ * @see eu.solven.adhoc.database.duckdb.DuckDbHelper#pooledDSLSupplier(org.duckdb.DuckDBConnection, int)
+ */
+@Slf4j
+public class PooledDSLSupplier implements DSLSupplier, AutoCloseable {
+	public static final Duration DEFAULT_CHECKOUT_TIMEOUT = Duration.ofMinutes(1);
+	public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+	/**
+	 * Makes a new {@link Connection}, when the pool has no idle {@link Connection}.
+	 */
+	@FunctionalInterface
+	public interface IConnectionFactory {
+		Connection makeConnection() throws SQLException;
+	}
+
+	final IConnectionFactory connectionFactory;
+	final SQLDialect dialect;
+	final int poolSize;
+	final Duration checkoutTimeout;
+	// 0 disables the cache of PreparedStatements
+	final int statementCacheSize;
+
+	final Semaphore permits;
+	final Deque<Connection> idleConnections = new ConcurrentLinkedDeque<>();
+	volatile boolean closed = false;
+
+	// Metrics
+	final AtomicInteger activeConnections = new AtomicInteger();
+	final LongAdder createdConnections = new LongAdder();
+	final LongAdder checkouts = new LongAdder();
+	final LongAdder totalWaitNanos = new LongAdder();
+	final AtomicLong maxWaitNanos = new AtomicLong();
+	final LongAdder statementCacheHits = new LongAdder();
+	final LongAdder statementCacheMisses = new LongAdder();
+
+	public PooledDSLSupplier(@NonNull IConnectionFactory connectionFactory,
+			@NonNull SQLDialect dialect,
+			int poolSize,
+			@NonNull Duration checkoutTimeout) {
+		this(connectionFactory, dialect, poolSize, checkoutTimeout, DEFAULT_STATEMENT_CACHE_SIZE);
+	}
+
+	public PooledDSLSupplier(@NonNull IConnectionFactory connectionFactory,
+			@NonNull SQLDialect dialect,
+			int poolSize,
+			@NonNull Duration checkoutTimeout,
+			int statementCacheSize) {
+		if (poolSize <= 0) {
+			throw new IllegalArgumentException("poolSize must be positive. Was %s".formatted(poolSize));
+		} else if (statementCacheSize < 0) {
+			throw new IllegalArgumentException(
+					"statementCacheSize must be positive or zero. Was %s".formatted(statementCacheSize));
+		}
+
+		this.connectionFactory = connectionFactory;
+		this.dialect = dialect;
+		this.poolSize = poolSize;
+		this.checkoutTimeout = checkoutTimeout;
+		this.statementCacheSize = statementCacheSize;
+
+		this.permits = new Semaphore(poolSize, true);
+	}
+
+	@Override
+	public DSLContext getDSLContext() {
+		// Padding IN lists (to the next power of 2) prevents each IN cardinality from having its own SQL
+		Settings settings = new Settings().withInListPadding(true);
+		return DSL.using(new LeasedConnectionProvider(), dialect, settings);
+	}
+
+	@Override
+	public void release(DSLContext dslContext) {
+		if (dslContext.configuration().connectionProvider() instanceof LeasedConnectionProvider lease) {
+			lease.giveBack();
+		}
+	}
+
+	protected Connection checkout() {
+		long start = System.nanoTime();
+		try {
+			if (!permits.tryAcquire(checkoutTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+				throw new DataAccessException("No connection available after %s (poolSize=%s active=%s)"
+						.formatted(checkoutTimeout, poolSize, activeConnections.get()));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DataAccessException("Interrupted while waiting for a connection", e);
+		}
+
+		long waitNanos = System.nanoTime() - start;
+		totalWaitNanos.add(waitNanos);
+		maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+		checkouts.increment();
+
+		try {
+			Connection connection = pollIdleConnection();
+			if (connection == null) {
+				connection = makeConnection();
+				createdConnections.increment();
+			}
+			activeConnections.incrementAndGet();
+			return connection;
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw new DataAccessException("Issue opening a connection", e);
+		}
+	}
+
+	protected Connection makeConnection() throws SQLException {
+		Connection connection = connectionFactory.makeConnection();
+		if (statementCacheSize > 0) {
+			connection = new StatementCachingConnection(connection,
+					statementCacheSize,
+					statementCacheHits,
+					statementCacheMisses);
+		}
+		return connection;
+	}
+
+	protected Connection pollIdleConnection() throws SQLException {
+		Connection connection = idleConnections.pollFirst();
+		while (connection != null && connection.isClosed()) {
+			// The connection has been closed while idle: it is discarded
+			connection = idleConnections.pollFirst();
+		}
+		return connection;
+	}
+
+	protected void giveBack(Connection connection) {
+		activeConnections.decrementAndGet();
+		try {
+			if (closed) {
+				connection.close();
+			} else if (!connection.isClosed()) {
+				// LIFO, as the most recently used connection is the most likely to be warm
+				idleConnections.offerFirst(connection);
+			}
+		} catch (SQLException e) {
+			log.warn("Issue giving back a connection. It is discarded", e);
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * 
+	 * @return the number of checked-out {@link Connection}.
+	 */
+	public int getActiveConnections() {
+		return activeConnections.get();
+	}
+
+	public int getIdleConnections() {
+		return idleConnections.size();
+	}
+
+	public long getCreatedConnections() {
+		return createdConnections.sum();
+	}
+
+	public long getCheckouts() {
+		return checkouts.sum();
+	}
+
+	/**
+	 * 
+	 * @return the cumulated time spent waiting for a {@link Connection}, given the pool is bounded.
+	 */
+	public Duration getTotalWait() {
+		return Duration.ofNanos(totalWaitNanos.sum());
+	}
+
+	public Duration getMaxWait() {
+		return Duration.ofNanos(maxWaitNanos.get());
+	}
+
+	/**
+	 * 
+	 * @return the number of SELECT executed through an already prepared statement.
+	 */
+	public long getStatementCacheHits() {
+		return statementCacheHits.sum();
+	}
+
+	public long getStatementCacheMisses() {
+		return statementCacheMisses.sum();
+	}
+
+	/**
+	 * Closes the idle {@link Connection}. The active {@link Connection} are closed when given back.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+
+		Connection connection = idleConnections.pollFirst();
+		while (connection != null) {
+			try {
+				connection.close();
+			} catch (SQLException e) {
+				log.warn("Issue closing a connection", e);
+			}
+			connection = idleConnections.pollFirst();
+		}
+	}
+
+	/**
+	 * Checks out a {@link Connection} on the first execution, and keeps it for the following executions, until
+	 * {@link #giveBack()}.
+	 */
+	protected class LeasedConnectionProvider implements ConnectionProvider {
+		Connection leased;
+
+		@Override
+		public synchronized Connection acquire() {
+			if (leased == null) {
+				leased = checkout();
+			}
+			return leased;
+		}
+
+		@Override
+		public void release(Connection connection) {
+			// The connection is kept until `giveBack`
+		}
+
+		protected synchronized void giveBack() {
+			if (leased != null) {
+				PooledDSLSupplier.this.giveBack(leased);
+				leased = null;
+			}
+		}
+	}
+}
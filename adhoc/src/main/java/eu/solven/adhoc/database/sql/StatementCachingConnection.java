@@ -0,0 +1,202 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jooq.tools.jdbc.DefaultConnection;
+import org.jooq.tools.jdbc.DefaultPreparedStatement;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A {@link Connection} keeping its {@link PreparedStatement} open once closed by the caller, so that a later query with
+ * the same SQL (i.e. the same shape of {@link eu.solven.adhoc.query.DatabaseQuery}, as values are bind variables) is
+ * re-executed without being re-parsed and re-planned by the database.
+ * 
+ * The cache is bounded, and evicts the least recently used statement. Only SELECT statements are cached: DDL and
+ * inserts (e.g. for temporary tables) are not worth caching. Neither are SELECTs over a temporary table.
+ * 
+ * @author Benoit Lacelle
+ * @see PooledDSLSupplier
+ */
+@Slf4j
+public class StatementCachingConnection extends DefaultConnection {
+	final int maxCachedStatements;
+
+	final LongAdder hits;
+	final LongAdder misses;
+
+	// Access-ordered, for LRU eviction
+	final Map<String, CachedPreparedStatement> sqlToStatement = new LinkedHashMap<>(16, 0.75F, true);
+
+	public StatementCachingConnection(Connection delegate, int maxCachedStatements, LongAdder hits, LongAdder misses) {
+		super(delegate);
+
+		if (maxCachedStatements <= 0) {
+			throw new IllegalArgumentException(
+					"maxCachedStatements must be positive. Was %s".formatted(maxCachedStatements));
+		}
+
+		this.maxCachedStatements = maxCachedStatements;
+		this.hits = hits;
+		this.misses = misses;
+	}
+
+	protected boolean isCacheable(String sql) {
+		String prefix = sql.stripLeading().toLowerCase(Locale.ROOT);
+		if (!prefix.startsWith("select") && !prefix.startsWith("with")) {
+			return false;
+		} else if (sql.contains(AdhocJooqSqlDatabaseStreamOpener.TEMPORARY_TABLE_PREFIX)) {
+			// A temporary table has a unique name, and is dropped after the query: its SQL would never be re-used,
+			// while evicting re-usable statements
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql) throws SQLException {
+		if (!isCacheable(sql)) {
+			return super.prepareStatement(sql);
+		}
+
+		synchronized (sqlToStatement) {
+			CachedPreparedStatement cached = sqlToStatement.get(sql);
+			if (cached != null) {
+				if (!cached.inUse) {
+					hits.increment();
+					cached.inUse = true;
+					return cached;
+				} else {
+					// The same SQL is being executed (e.g. its ResultSet is not fully consumed): fallback on a
+					// not-cached statement
+					misses.increment();
+					return super.prepareStatement(sql);
+				}
+			}
+
+			misses.increment();
+			CachedPreparedStatement statement = new CachedPreparedStatement(super.prepareStatement(sql));
+			statement.inUse = true;
+			sqlToStatement.put(sql, statement);
+
+			evictIfNecessary();
+
+			return statement;
+		}
+	}
+
+	protected void evictIfNecessary() {
+		var iterator = sqlToStatement.values().iterator();
+		while (sqlToStatement.size() > maxCachedStatements && iterator.hasNext()) {
+			CachedPreparedStatement eldest = iterator.next();
+			iterator.remove();
+
+			if (eldest.inUse) {
+				// It will be closed once closed by the caller
+				eldest.evicted = true;
+			} else {
+				eldest.closeDelegate();
+			}
+		}
+	}
+
+	public int getCachedStatements() {
+		synchronized (sqlToStatement) {
+			return sqlToStatement.size();
+		}
+	}
+
+	@Override
+	public void close() throws SQLException {
+		List<CachedPreparedStatement> toClose;
+		synchronized (sqlToStatement) {
+			toClose = new ArrayList<>(sqlToStatement.values());
+			sqlToStatement.clear();
+		}
+		toClose.forEach(CachedPreparedStatement::closeDelegate);
+
+		super.close();
+	}
+
+	/**
+	 * A {@link PreparedStatement} which is given back to the cache when closed.
+	 */
+	protected class CachedPreparedStatement extends DefaultPreparedStatement {
+		// Guarded by `sqlToStatement`
+		boolean inUse;
+		boolean evicted;
+
+		public CachedPreparedStatement(PreparedStatement delegate) {
+			super(delegate);
+		}
+
+		@Override
+		public Connection getConnection() {
+			return StatementCachingConnection.this;
+		}
+
+		@Override
+		public boolean isClosed() throws SQLException {
+			synchronized (sqlToStatement) {
+				return !inUse || getDelegate().isClosed();
+			}
+		}
+
+		@Override
+		public void close() throws SQLException {
+			boolean closeDelegate;
+			synchronized (sqlToStatement) {
+				if (!inUse) {
+					return;
+				}
+				inUse = false;
+				closeDelegate = evicted;
+			}
+
+			if (closeDelegate) {
+				closeDelegate();
+			} else {
+				// The bind values of this execution must not leak into the next one
+				getDelegate().clearParameters();
+			}
+		}
+
+		protected void closeDelegate() {
+			try {
+				getDelegate().close();
+			} catch (SQLException e) {
+				log.warn("Issue closing a cached statement", e);
+			}
+		}
+	}
+}
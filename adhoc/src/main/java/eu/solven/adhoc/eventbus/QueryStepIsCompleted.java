@@ -38,6 +38,9 @@ public class QueryStepIsCompleted {
 
 	long nbCells;
 
+	// true if the step is a lazy view, evaluated slice per slice by its consumer
+	boolean lazy;
+
 	@NonNull
 	Object source;
 }
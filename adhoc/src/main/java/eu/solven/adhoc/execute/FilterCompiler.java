@@ -0,0 +1,348 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.execute;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import eu.solven.adhoc.api.v1.IAdhocFilter;
+import eu.solven.adhoc.api.v1.filters.IAndFilter;
+import eu.solven.adhoc.api.v1.filters.IColumnFilter;
+import eu.solven.adhoc.api.v1.filters.INotFilter;
+import eu.solven.adhoc.api.v1.filters.IOrFilter;
+import eu.solven.adhoc.api.v1.pojo.value.EqualsMatcher;
+import eu.solven.adhoc.api.v1.pojo.value.IValueMatcher;
+import eu.solven.adhoc.api.v1.pojo.value.InMatcher;
+import eu.solven.adhoc.api.v1.pojo.value.LikeMatcher;
+import eu.solven.adhoc.api.v1.pojo.value.NotValueFilter;
+import eu.solven.adhoc.api.v1.pojo.value.NullMatcher;
+import eu.solven.adhoc.api.v1.pojo.value.SameMatcher;
+import eu.solven.adhoc.database.IAdhocDatabaseTranscoder;
+import eu.solven.pepper.core.PepperLogHelper;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+/**
+ * Compiles an {@link IAdhocFilter} into a {@link Predicate}, to be applied on many rows. It is equivalent to
+ * {@link FilterHelpers#match(IAdhocDatabaseTranscoder, IAdhocFilter, Map)}, but the filter tree is walked once: columns
+ * are resolved once, LIKE expressions are compiled once, and IN operands are indexed in hash (or primitive) sets.
+ * 
+ * @author Benoit Lacelle
+ * @see FilterHelpers
+ */
+public class FilterCompiler {
+	protected FilterCompiler() {
+		// hidden
+	}
+
+	/**
+	 * 
+	 * @param transcoder
+	 *            used to resolve the underlying column of each filtered column.
+	 * @param filter
+	 * @return a {@link Predicate} over {@link Map} rows, expressed with underlying columns.
+	 */
+	public static Predicate<Map<String, ?>> compile(IAdhocDatabaseTranscoder transcoder, IAdhocFilter filter) {
+		return compile(filter, column -> {
+			String underlyingColumn = transcoder.underlying(column);
+			return new MapColumnAccessor(underlyingColumn);
+		});
+	}
+
+	/**
+	 * 
+	 * @param <R>
+	 *            the type of rows
+	 * @param filter
+	 * @param columnResolver
+	 *            called once per filtered column
+	 * @return a {@link Predicate} over rows
+	 */
+	public static <R> Predicate<R> compile(IAdhocFilter filter, Function<String, IColumnAccessor<R>> columnResolver) {
+		if (filter.isAnd()) {
+			IAndFilter andFilter = (IAndFilter) filter;
+			List<Predicate<R>> operands = compileOperands(andFilter.getOperands(), columnResolver);
+
+			if (operands.isEmpty()) {
+				return row -> true;
+			} else if (operands.size() == 1) {
+				return operands.getFirst();
+			} else {
+				Predicate<R>[] asArray = asArray(operands);
+				return row -> {
+					for (Predicate<R> operand : asArray) {
+						if (!operand.test(row)) {
+							return false;
+						}
+					}
+					return true;
+				};
+			}
+		} else if (filter.isOr()) {
+			IOrFilter orFilter = (IOrFilter) filter;
+			List<Predicate<R>> operands = compileOperands(orFilter.getOperands(), columnResolver);
+
+			if (operands.isEmpty()) {
+				return row -> false;
+			} else if (operands.size() == 1) {
+				return operands.getFirst();
+			} else {
+				Predicate<R>[] asArray = asArray(operands);
+				return row -> {
+					for (Predicate<R> operand : asArray) {
+						if (operand.test(row)) {
+							return true;
+						}
+					}
+					return false;
+				};
+			}
+		} else if (filter.isColumnFilter()) {
+			IColumnFilter columnFilter = (IColumnFilter) filter;
+
+			IColumnAccessor<R> accessor = columnResolver.apply(columnFilter.getColumn());
+			Predicate<Object> matcher = compileMatcher(columnFilter.getValueMatcher());
+
+			if (columnFilter.isNullIfAbsent()) {
+				return row -> matcher.test(accessor.get(row));
+			} else {
+				return row -> {
+					Object value = accessor.get(row);
+
+					if (value == null && !accessor.isPresent(row)) {
+						// Do not treat absent as null, but as missing hence not acceptable
+						return false;
+					}
+
+					return matcher.test(value);
+				};
+			}
+		} else if (filter.isNot()) {
+			INotFilter notFilter = (INotFilter) filter;
+			return compile(notFilter.getNegated(), columnResolver).negate();
+		} else {
+			throw new UnsupportedOperationException(PepperLogHelper.getObjectAndClass(filter).toString());
+		}
+	}
+
+	protected static <R> List<Predicate<R>> compileOperands(List<IAdhocFilter> operands,
+			Function<String, IColumnAccessor<R>> columnResolver) {
+		List<Predicate<R>> compiled = new ArrayList<>(operands.size());
+		operands.forEach(operand -> compiled.add(compile(operand, columnResolver)));
+		return compiled;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <R> Predicate<R>[] asArray(List<Predicate<R>> operands) {
+		return operands.toArray(Predicate[]::new);
+	}
+
+	/**
+	 * Similar to {@link #compile(IAdhocFilter, Function)}, over rows identified by their int index: row indexes are
+	 * never boxed.
+	 * 
+	 * @param filter
+	 * @param columnResolver
+	 *            called once per filtered column
+	 * @return an {@link IntPredicate} over row indexes
+	 */
+	public static IntPredicate compileIndexed(IAdhocFilter filter,
+			Function<String, IIntColumnAccessor> columnResolver) {
+		if (filter.isAnd()) {
+			IAndFilter andFilter = (IAndFilter) filter;
+			IntPredicate[] operands = compileIndexedOperands(andFilter.getOperands(), columnResolver);
+
+			if (operands.length == 0) {
+				return rowIndex -> true;
+			} else if (operands.length == 1) {
+				return operands[0];
+			} else {
+				return rowIndex -> {
+					for (IntPredicate operand : operands) {
+						if (!operand.test(rowIndex)) {
+							return false;
+						}
+					}
+					return true;
+				};
+			}
+		} else if (filter.isOr()) {
+			IOrFilter orFilter = (IOrFilter) filter;
+			IntPredicate[] operands = compileIndexedOperands(orFilter.getOperands(), columnResolver);
+
+			if (operands.length == 0) {
+				return rowIndex -> false;
+			} else if (operands.length == 1) {
+				return operands[0];
+			} else {
+				return rowIndex -> {
+					for (IntPredicate operand : operands) {
+						if (operand.test(rowIndex)) {
+							return true;
+						}
+					}
+					return false;
+				};
+			}
+		} else if (filter.isColumnFilter()) {
+			IColumnFilter columnFilter = (IColumnFilter) filter;
+
+			IIntColumnAccessor accessor = columnResolver.apply(columnFilter.getColumn());
+			Predicate<Object> matcher = compileMatcher(columnFilter.getValueMatcher());
+			IntPredicate presentMatcher = accessor.compileMatcher(matcher);
+
+			if (columnFilter.isNullIfAbsent() && matcher.test(null)) {
+				// An absent value is matched as a null
+				return rowIndex -> !accessor.isPresent(rowIndex) || presentMatcher.test(rowIndex);
+			} else {
+				return rowIndex -> accessor.isPresent(rowIndex) && presentMatcher.test(rowIndex);
+			}
+		} else if (filter.isNot()) {
+			INotFilter notFilter = (INotFilter) filter;
+			return compileIndexed(notFilter.getNegated(), columnResolver).negate();
+		} else {
+			throw new UnsupportedOperationException(PepperLogHelper.getObjectAndClass(filter).toString());
+		}
+	}
+
+	protected static IntPredicate[] compileIndexedOperands(List<IAdhocFilter> operands,
+			Function<String, IIntColumnAccessor> columnResolver) {
+		return operands.stream().map(operand -> compileIndexed(operand, columnResolver)).toArray(IntPredicate[]::new);
+	}
+
+	/**
+	 * 
+	 * @param valueMatcher
+	 * @return a {@link Predicate} equivalent to {@link IValueMatcher#match(Object)}.
+	 */
+	public static Predicate<Object> compileMatcher(IValueMatcher valueMatcher) {
+		if (valueMatcher instanceof EqualsMatcher equalsMatcher) {
+			Object operand = equalsMatcher.getOperand();
+			return operand::equals;
+		} else if (valueMatcher instanceof SameMatcher sameMatcher) {
+			Object operand = sameMatcher.getOperand();
+			return value -> value == operand;
+		} else if (valueMatcher instanceof NullMatcher) {
+			return Objects::isNull;
+		} else if (valueMatcher instanceof LikeMatcher likeMatcher) {
+			Pattern pattern = LikeMatcher.asPattern(likeMatcher.getLike());
+			return value -> {
+				// Consistent with LikeMatcher: `null` is turned into `"null"`
+				CharSequence asCharSequence;
+				if (value instanceof CharSequence cs) {
+					asCharSequence = cs;
+				} else {
+					asCharSequence = String.valueOf(value);
+				}
+				return pattern.matcher(asCharSequence).matches();
+			};
+		} else if (valueMatcher instanceof NotValueFilter notValueFilter) {
+			return compileMatcher(notValueFilter.getNegated()).negate();
+		} else if (valueMatcher instanceof InMatcher inMatcher) {
+			return compileIn(inMatcher.getOperands());
+		} else {
+			// e.g. ComparingMatcher
+			return valueMatcher::match;
+		}
+	}
+
+	protected static Predicate<Object> compileIn(Set<?> operands) {
+		List<Object> plainOperands = new ArrayList<>(operands.size());
+		List<Predicate<Object>> nestedMatchers = new ArrayList<>();
+
+		operands.forEach(operand -> {
+			if (operand instanceof IValueMatcher nestedMatcher) {
+				nestedMatchers.add(compileMatcher(nestedMatcher));
+			} else {
+				plainOperands.add(operand);
+			}
+		});
+
+		Predicate<Object> plainPredicate = compilePlainIn(plainOperands);
+
+		if (nestedMatchers.isEmpty()) {
+			return plainPredicate;
+		} else {
+			return value -> {
+				if (plainPredicate.test(value)) {
+					return true;
+				}
+				for (Predicate<Object> nestedMatcher : nestedMatchers) {
+					if (nestedMatcher.test(value)) {
+						return true;
+					}
+				}
+				return false;
+			};
+		}
+	}
+
+	protected static Predicate<Object> compilePlainIn(List<Object> operands) {
+		if (operands.isEmpty()) {
+			return value -> false;
+		} else if (operands.stream().allMatch(Integer.class::isInstance)) {
+			// `Integer.equals` matches only Integer: the primitive set is equivalent to the original Set
+			IntSet ints = new IntOpenHashSet(operands.size());
+			operands.forEach(operand -> ints.add(((Integer) operand).intValue()));
+			return value -> value instanceof Integer asInt && ints.contains(asInt.intValue());
+		} else if (operands.stream().allMatch(Long.class::isInstance)) {
+			LongSet longs = new LongOpenHashSet(operands.size());
+			operands.forEach(operand -> longs.add(((Long) operand).longValue()));
+			return value -> value instanceof Long asLong && longs.contains(asLong.longValue());
+		} else {
+			Set<Object> asSet = new HashSet<>(operands);
+			return asSet::contains;
+		}
+	}
+
+	/**
+	 * An {@link IColumnAccessor} over {@link Map} rows.
+	 */
+	protected static class MapColumnAccessor implements IColumnAccessor<Map<String, ?>> {
+		final String column;
+
+		protected MapColumnAccessor(String column) {
+			this.column = column;
+		}
+
+		@Override
+		public boolean isPresent(Map<String, ?> row) {
+			return row.containsKey(column);
+		}
+
+		@Override
+		public Object get(Map<String, ?> row) {
+			return row.get(column);
+		}
+	}
+}
@@ -44,10 +44,10 @@ public class FilterHelpers {
 	public static boolean match(IAdhocDatabaseTranscoder transcoder, IAdhocFilter filter, Map<String, ?> input) {
 		if (filter.isAnd()) {
 			IAndFilter andFilter = (IAndFilter) filter;
-			return andFilter.getOperands().stream().allMatch(f -> match(f, input));
+			return andFilter.getOperands().stream().allMatch(f -> match(transcoder, f, input));
 		} else if (filter.isOr()) {
 			IOrFilter orFilter = (IOrFilter) filter;
-			return orFilter.getOperands().stream().anyMatch(f -> match(f, input));
+			return orFilter.getOperands().stream().anyMatch(f -> match(transcoder, f, input));
 		} else if (filter.isColumnFilter()) {
 			IColumnFilter columnFilter = (IColumnFilter) filter;
 
@@ -71,7 +71,7 @@ public class FilterHelpers {
 			return columnFilter.getValueMatcher().match(value);
 		} else if (filter.isNot()) {
 			INotFilter notFilter = (INotFilter) filter;
-			return !match(notFilter.getNegated(), input);
+			return !match(transcoder, notFilter.getNegated(), input);
 		} else {
 			throw new UnsupportedOperationException(PepperLogHelper.getObjectAndClass(filter).toString());
 		}
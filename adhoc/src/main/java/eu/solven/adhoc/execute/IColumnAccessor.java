@@ -0,0 +1,47 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.execute;
+
+/**
+ * Reads a given column from rows. A column is resolved once into an {@link IColumnAccessor} (e.g. through
+ * transcoding, or by looking-up a column index), and the accessor is then applied to many rows.
+ * 
+ * @param <R>
+ *            the type of rows
+ * @author Benoit Lacelle
+ */
+public interface IColumnAccessor<R> {
+	/**
+	 * 
+	 * @param row
+	 * @return true if the row has this column, even if associated to a null value.
+	 */
+	boolean isPresent(R row);
+
+	/**
+	 * 
+	 * @param row
+	 * @return the value of this column in given row, or null.
+	 */
+	Object get(R row);
+}
@@ -0,0 +1,60 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.execute;
+
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Reads a given column from rows identified by their int index, typically in a columnar storage. Contrary to
+ * {@link IColumnAccessor}, row indexes are not boxed, and a present value is never null.
+ * 
+ * @author Benoit Lacelle
+ * @see IColumnAccessor
+ */
+public interface IIntColumnAccessor {
+	/**
+	 * 
+	 * @param rowIndex
+	 * @return true if the row has a (not-null) value for this column.
+	 */
+	boolean isPresent(int rowIndex);
+
+	/**
+	 * 
+	 * @param rowIndex
+	 * @return the value of this column in given row, or null if not present.
+	 */
+	Object get(int rowIndex);
+
+	/**
+	 * Called once per filtered column. The default implementation tests the value of each row, while a
+	 * dictionary-encoded column may test each dictionary entry once.
+	 * 
+	 * @param matcher
+	 * @return an {@link IntPredicate} testing the value of given row, given it is present.
+	 */
+	default IntPredicate compileMatcher(Predicate<Object> matcher) {
+		return rowIndex -> matcher.test(get(rowIndex));
+	}
+}
@@ -73,10 +73,16 @@ public class DatabaseQuery implements IWhereGroupbyAdhocQuery, IHasCustomMarker
 	@Default
 	boolean explain = false;
 
+	// false if the aggregates are not merged by the engine (e.g. by a Bucketor): a final estimate computed by the
+	// database is then a valid aggregate
+	@Default
+	boolean mergedAggregates = true;
+
 	public static DatabaseQueryBuilder edit(DatabaseQuery dq) {
 		return edit((IWhereGroupbyAdhocQuery) dq).aggregators(dq.getAggregators())
 				.debug(dq.isDebug())
-				.explain(dq.isExplain());
+				.explain(dq.isExplain())
+				.mergedAggregates(dq.isMergedAggregates());
 	}
 
 	public static DatabaseQueryBuilder edit(IWhereGroupbyAdhocQuery dq) {
@@ -39,5 +39,11 @@ public enum StandardQueryOptions implements IQueryOption {
 	/**
 	 * Request for an unknown measure will treat it as if it returned only empty values
 	 */
-	UNKNOWN_MEASURES_ARE_EMPTY;
+	UNKNOWN_MEASURES_ARE_EMPTY,
+
+	/**
+	 * The steps iterating over many slices (e.g. Dispatchor and Bucketor) split their slices across a ForkJoinPool. It
+	 * requires the involved operators (e.g. decompositions and combinations) to be thread-safe.
+	 */
+	CONCURRENT;
 }
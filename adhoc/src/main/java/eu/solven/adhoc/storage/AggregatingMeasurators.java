@@ -22,11 +22,13 @@
  */
 package eu.solven.adhoc.storage;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
 
 import eu.solven.adhoc.aggregations.IAggregation;
 import eu.solven.adhoc.aggregations.IOperatorsFactory;
+import eu.solven.adhoc.database.AggregatedColumnType;
 import eu.solven.adhoc.transformers.Aggregator;
 import lombok.Value;
 
@@ -43,15 +45,114 @@ public class AggregatingMeasurators<T> {
 	IOperatorsFactory transformationFactory;
 
 	public void contribute(Aggregator aggregator, T key, Object v) {
-		String aggregationKey = aggregator.getAggregationKey();
-		IAggregation agg = transformationFactory.makeAggregation(aggregationKey);
+		getOrMakeStorage(aggregator).merge(key, v);
+	}
+
+	/**
+	 * Similar to {@link #contribute(Aggregator, Object, Object)}, given the type of the column as resolved by the
+	 * database. Values matching this type are aggregated as primitives, without sniffing their type.
+	 * 
+	 * @param aggregator
+	 * @param key
+	 * @param v
+	 * @param columnType
+	 *            may be null if the type is unknown
+	 */
+	public void contribute(Aggregator aggregator, T key, Object v, AggregatedColumnType columnType) {
+		MultiTypeStorage<T> storage = getOrMakeStorage(aggregator);
 
-		MultiTypeStorage<T> storage = aggregatorToStorage.computeIfAbsent(aggregator,
-				k -> MultiTypeStorage.<T>builder().aggregation(agg).build());
+		if (columnType == null || !storage.isPrimitiveAggregation()) {
+			storage.merge(key, v);
+			return;
+		}
 
+		switch (columnType) {
+		case LONG -> {
+			if (v instanceof Long || v instanceof Integer) {
+				storage.mergeLong(key, ((Number) v).longValue());
+				return;
+			}
+		}
+		case DOUBLE -> {
+			if (v instanceof Double || v instanceof Float) {
+				storage.mergeDouble(key, ((Number) v).doubleValue());
+				return;
+			}
+		}
+		case DECIMAL -> {
+			if (v instanceof BigDecimal decimal) {
+				// Equivalent to `SumAggregator.isLongLike`, without throwing on a fractional part
+				long asLong = decimal.longValue();
+				if (BigDecimal.valueOf(asLong).compareTo(decimal) == 0) {
+					storage.mergeLong(key, asLong);
+				} else {
+					storage.mergeDouble(key, decimal.doubleValue());
+				}
+				return;
+			}
+		}
+		}
+
+		// The value does not match the declared type (e.g. a null, or a DB driver returning another type)
 		storage.merge(key, v);
 	}
 
+	/**
+	 * Similar to {@link #contribute(Aggregator, Object, Object)}, for a primitive long: it is boxed only if the
+	 * aggregation is not primitive.
+	 * 
+	 * @param aggregator
+	 * @param key
+	 * @param v
+	 */
+	public void contributeLong(Aggregator aggregator, T key, long v) {
+		getOrMakeStorage(aggregator).mergeLong(key, v);
+	}
+
+	/**
+	 * Similar to {@link #contribute(Aggregator, Object, Object)}, for a primitive double: it is boxed only if the
+	 * aggregation is not primitive.
+	 * 
+	 * @param aggregator
+	 * @param key
+	 * @param v
+	 */
+	public void contributeDouble(Aggregator aggregator, T key, double v) {
+		getOrMakeStorage(aggregator).mergeDouble(key, v);
+	}
+
+	protected MultiTypeStorage<T> getOrMakeStorage(Aggregator aggregator) {
+		MultiTypeStorage<T> storage = aggregatorToStorage.get(aggregator);
+
+		if (storage == null) {
+			// The aggregation is made once per aggregator, not once per contributed value
+			IAggregation agg = transformationFactory.makeAggregation(aggregator.getAggregationKey());
+			storage = MultiTypeStorage.<T>builder().aggregation(agg).build();
+			aggregatorToStorage.put(aggregator, storage);
+		}
+
+		return storage;
+	}
+
+	/**
+	 * Merge the aggregates of another {@link AggregatingMeasurators} into this one. Typically used to merge partial
+	 * aggregates computed concurrently.
+	 * 
+	 * @param other
+	 */
+	public void mergeAll(AggregatingMeasurators<T> other) {
+		other.getAggregatorToStorage().forEach((aggregator, otherStorage) -> {
+			MultiTypeStorage<T> storage = aggregatorToStorage.get(aggregator);
+
+			if (storage == null) {
+				// Nothing to merge: we can re-use the other storage
+				aggregatorToStorage.put(aggregator, otherStorage);
+			} else {
+				storage.mergeAll(otherStorage);
+			}
+		});
+	}
+
 	public long size(Aggregator aggregator) {
 		MultiTypeStorage<T> storage = aggregatorToStorage.get(aggregator);
 		if (storage == null) {
@@ -30,7 +30,11 @@ import com.google.common.base.MoreObjects;
 import com.google.common.base.MoreObjects.ToStringHelper;
 
 import eu.solven.adhoc.RowScanner;
+import eu.solven.adhoc.aggregations.IAccumulatingAggregation;
 import eu.solven.adhoc.aggregations.IAggregation;
+import eu.solven.adhoc.aggregations.IAggregationCarrier;
+import eu.solven.adhoc.aggregations.max.MaxAggregator;
+import eu.solven.adhoc.aggregations.max.MinAggregator;
 import eu.solven.adhoc.aggregations.sum.SumAggregator;
 import eu.solven.pepper.core.PepperLogHelper;
 import it.unimi.dsi.fastutil.objects.Object2DoubleMap;
@@ -78,6 +82,12 @@ public class MultiTypeStorage<T> {
 	@NonNull
 	final Object2ObjectMap<T, Object> measureToAggregateO = new Object2ObjectOpenHashMap<>();
 
+	// Mutable accumulators, if the aggregation is an IAccumulatingAggregation. They are turned into plain values by
+	// closeAccumulators
+	@Default
+	@NonNull
+	final Object2ObjectMap<T, Object> measureToAccumulator = new Object2ObjectOpenHashMap<>();
+
 	/**
 	 * A put operation
 	 * 
@@ -103,11 +113,22 @@ public class MultiTypeStorage<T> {
 		}
 	}
 
+	public void putLong(T key, long v) {
+		clearKey(key);
+		measureToAggregateL.put(key, v);
+	}
+
+	public void putDouble(T key, double v) {
+		clearKey(key);
+		measureToAggregateD.put(key, v);
+	}
+
 	protected void clearKey(T key) {
 		measureToAggregateL.removeLong(key);
 		measureToAggregateD.removeDouble(key);
 		measureToAggregateS.remove(key);
 		measureToAggregateO.remove(key);
+		measureToAccumulator.remove(key);
 	}
 
 	public void onValue(T key, ValueConsumer consumer) {
@@ -117,11 +138,31 @@ public class MultiTypeStorage<T> {
 			consumer.onDouble(measureToAggregateD.getDouble(key));
 		} else if (measureToAggregateS.containsKey(key)) {
 			consumer.onCharsequence(measureToAggregateS.get(key));
+		} else if (measureToAccumulator.containsKey(key)) {
+			// BEWARE This may be expensive, as the accumulator is not closed
+			Object aggregate = ((IAccumulatingAggregation) aggregation).finish(measureToAccumulator.get(key));
+			onObject(aggregate, consumer);
 		} else {
 			consumer.onObject(measureToAggregateO.get(key));
 		}
 	}
 
+	/**
+	 * Push the value into the consumer, through its most specific method, consistently with
+	 * {@link #put(Object, Object)}.
+	 */
+	protected void onObject(Object v, ValueConsumer consumer) {
+		if (SumAggregator.isLongLike(v)) {
+			consumer.onLong(SumAggregator.asLong(v));
+		} else if (SumAggregator.isDoubleLike(v)) {
+			consumer.onDouble(SumAggregator.asDouble(v));
+		} else if (v instanceof CharSequence) {
+			consumer.onCharsequence(v.toString());
+		} else {
+			consumer.onObject(v);
+		}
+	}
+
 	public void scan(RowScanner<T> rowScanner) {
 		keySet().forEach(key -> {
 			onValue(key, rowScanner.onKey(key));
@@ -135,6 +176,7 @@ public class MultiTypeStorage<T> {
 		size += measureToAggregateD.size();
 		size += measureToAggregateS.size();
 		size += measureToAggregateO.size();
+		size += measureToAccumulator.size();
 
 		return size;
 	}
@@ -163,6 +205,18 @@ public class MultiTypeStorage<T> {
 		//
 		// }
 		// });
+		if (aggregation instanceof IAccumulatingAggregation accumulating) {
+			Object accumulator = measureToAccumulator.get(key);
+			if (accumulator != null) {
+				measureToAccumulator.put(key, accumulating.accumulate(accumulator, v));
+				return;
+			} else if (accumulating.isAccumulated(v)) {
+				accumulator = openAccumulator(accumulating, key);
+				measureToAccumulator.put(key, accumulating.accumulate(accumulator, v));
+				return;
+			}
+		}
+
 		onValue(key, AsObjectValueConsumer.consumer(existingAggregate -> {
 			Object newAggregate = aggregation.aggregate(existingAggregate, v);
 
@@ -191,6 +245,133 @@ public class MultiTypeStorage<T> {
 		// }
 	}
 
+	/**
+	 * 
+	 * @return a new accumulator, initialized with the current aggregate of given key, which is removed.
+	 */
+	protected Object openAccumulator(IAccumulatingAggregation accumulating, T key) {
+		Object accumulator = accumulating.createAccumulator();
+
+		if (containsKey(key)) {
+			Object[] existingAggregate = new Object[1];
+			onValue(key, AsObjectValueConsumer.consumer(o -> existingAggregate[0] = o));
+			clearKey(key);
+
+			accumulator = accumulating.accumulate(accumulator, existingAggregate[0]);
+		}
+
+		return accumulator;
+	}
+
+	/**
+	 * Turns each accumulator into its final aggregate, and each {@link IAggregationCarrier} into its final value. This
+	 * is typically called once this storage is not aggregating anymore.
+	 */
+	public void closeAccumulators() {
+		if (measureToAccumulator.isEmpty()) {
+			return;
+		}
+
+		IAccumulatingAggregation accumulating = (IAccumulatingAggregation) aggregation;
+
+		// Copy as `put` removes the accumulators
+		Object2ObjectMap<T, Object> accumulators = new Object2ObjectOpenHashMap<>(measureToAccumulator);
+		measureToAccumulator.clear();
+
+		accumulators.forEach((key, accumulator) -> {
+			Object aggregate = accumulating.finish(accumulator);
+			if (aggregate instanceof IAggregationCarrier carrier) {
+				aggregate = carrier.getFinalValue();
+			}
+
+			if (aggregate == null) {
+				clearKey(key);
+			} else {
+				put(key, aggregate);
+			}
+		});
+	}
+
+	/**
+	 * Similar to {@link #merge(Object, Object)}, without boxing when the aggregation is known to aggregate longs into
+	 * longs.
+	 * 
+	 * @param key
+	 * @param v
+	 */
+	public void mergeLong(T key, long v) {
+		if (isPrimitiveAggregation() && !measureToAggregateD.containsKey(key)
+				&& !measureToAggregateS.containsKey(key)
+				&& !measureToAggregateO.containsKey(key)
+				&& !measureToAccumulator.containsKey(key)) {
+			if (measureToAggregateL.containsKey(key)) {
+				measureToAggregateL.put(key, aggregation.aggregateLongs(measureToAggregateL.getLong(key), v));
+			} else {
+				measureToAggregateL.put(key, v);
+			}
+		} else {
+			merge(key, v);
+		}
+	}
+
+	/**
+	 * Similar to {@link #merge(Object, Object)}, without boxing when the aggregation is known to aggregate doubles into
+	 * doubles.
+	 * 
+	 * @param key
+	 * @param v
+	 */
+	public void mergeDouble(T key, double v) {
+		if (isPrimitiveAggregation() && !measureToAggregateL.containsKey(key)
+				&& !measureToAggregateS.containsKey(key)
+				&& !measureToAggregateO.containsKey(key)
+				&& !measureToAccumulator.containsKey(key)) {
+			if (measureToAggregateD.containsKey(key)) {
+				measureToAggregateD.put(key, aggregation.aggregateDoubles(measureToAggregateD.getDouble(key), v));
+			} else {
+				measureToAggregateD.put(key, v);
+			}
+		} else {
+			merge(key, v);
+		}
+	}
+
+	/**
+	 * 
+	 * @return true if the aggregation is known to aggregate longs with `aggregateLongs` and doubles with
+	 *         `aggregateDoubles`, and to return a single input as-is.
+	 */
+	protected boolean isPrimitiveAggregation() {
+		// Exact classes, as sub-classes may aggregate differently (e.g. SumElseSetAggregator)
+		Class<? extends IAggregation> aggregationClass = aggregation.getClass();
+		return aggregationClass == SumAggregator.class || aggregationClass == MaxAggregator.class
+				|| aggregationClass == MinAggregator.class;
+	}
+
+	/**
+	 * Merge all the values of another {@link MultiTypeStorage} into this one.
+	 * 
+	 * @param other
+	 */
+	public void mergeAll(MultiTypeStorage<T> other) {
+		other.measureToAggregateL.object2LongEntrySet().forEach(e -> mergeLong(e.getKey(), e.getLongValue()));
+		other.measureToAggregateD.object2DoubleEntrySet().forEach(e -> mergeDouble(e.getKey(), e.getDoubleValue()));
+		other.measureToAggregateS.forEach(this::merge);
+		other.measureToAggregateO.forEach(this::merge);
+
+		if (!other.measureToAccumulator.isEmpty()) {
+			IAccumulatingAggregation accumulating = (IAccumulatingAggregation) aggregation;
+
+			other.measureToAccumulator.forEach((key, otherAccumulator) -> {
+				Object accumulator = measureToAccumulator.get(key);
+				if (accumulator == null) {
+					accumulator = openAccumulator(accumulating, key);
+				}
+				measureToAccumulator.put(key, accumulating.mergeAccumulators(accumulator, otherAccumulator));
+			});
+		}
+	}
+
 	// private void mergeObject(T key, Object v) {
 	// Object valueToStore;
 	//
@@ -253,6 +434,13 @@ public class MultiTypeStorage<T> {
 	// put(key, valueToStore);
 	// }
 
+	public boolean containsKey(T key) {
+		return measureToAggregateL.containsKey(key) || measureToAggregateD.containsKey(key)
+				|| measureToAggregateS.containsKey(key)
+				|| measureToAggregateO.containsKey(key)
+				|| measureToAccumulator.containsKey(key);
+	}
+
 	public Set<T> keySet() {
 		Set<T> keySet = new HashSet<>();
 
@@ -260,6 +448,7 @@ public class MultiTypeStorage<T> {
 		keySet.addAll(measureToAggregateL.keySet());
 		keySet.addAll(measureToAggregateS.keySet());
 		keySet.addAll(measureToAggregateO.keySet());
+		keySet.addAll(measureToAccumulator.keySet());
 
 		return keySet;
 	}
@@ -270,7 +459,8 @@ public class MultiTypeStorage<T> {
 				.add("measureToAggregateD.size()", measureToAggregateD.size())
 				.add("measureToAggregateL.size()", measureToAggregateL.size())
 				.add("measureToAggregateS.size()", measureToAggregateS.size())
-				.add("measureToAggregateO.size()", measureToAggregateO.size());
+				.add("measureToAggregateO.size()", measureToAggregateO.size())
+				.add("measureToAccumulator.size()", measureToAccumulator.size());
 
 		AtomicInteger index = new AtomicInteger();
 		keySet().stream().limit(5).forEach(key -> {
@@ -0,0 +1,184 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.storage;
+
+import java.util.BitSet;
+import java.util.List;
+
+import eu.solven.adhoc.dag.ICoordinatesToValues;
+import eu.solven.adhoc.slice.AdhocSliceAsMap;
+
+/**
+ * A column of primitive values, aligned over a {@link List} of slices. All the present values have the same
+ * {@link PrimitiveColumnType}. A missing value is marked as not present.
+ * 
+ * @author Benoit Lacelle
+ *
+ */
+public class PrimitiveColumn {
+	/**
+	 * The type of the values of a {@link PrimitiveColumn}.
+	 */
+	public enum PrimitiveColumnType {
+		LONG, DOUBLE;
+	}
+
+	final PrimitiveColumnType type;
+	final BitSet present;
+	final long[] longs;
+	final double[] doubles;
+
+	protected PrimitiveColumn(PrimitiveColumnType type, BitSet present, long[] longs, double[] doubles) {
+		this.type = type;
+		this.present = present;
+		this.longs = longs;
+		this.doubles = doubles;
+	}
+
+	public static PrimitiveColumn ofLongs(int size) {
+		return new PrimitiveColumn(PrimitiveColumnType.LONG, new BitSet(size), new long[size], null);
+	}
+
+	public static PrimitiveColumn ofDoubles(int size) {
+		return new PrimitiveColumn(PrimitiveColumnType.DOUBLE, new BitSet(size), null, new double[size]);
+	}
+
+	public PrimitiveColumnType getType() {
+		return type;
+	}
+
+	public boolean isPresent(int row) {
+		return present.get(row);
+	}
+
+	public long getLong(int row) {
+		return longs[row];
+	}
+
+	/**
+	 * 
+	 * @param row
+	 * @return the value as a double, whatever the type of this column.
+	 */
+	public double getDouble(int row) {
+		if (type == PrimitiveColumnType.LONG) {
+			return longs[row];
+		} else {
+			return doubles[row];
+		}
+	}
+
+	public void setLong(int row, long value) {
+		longs[row] = value;
+		present.set(row);
+	}
+
+	public void setDouble(int row, double value) {
+		doubles[row] = value;
+		present.set(row);
+	}
+
+	/**
+	 * 
+	 * @param slices
+	 * @param underlying
+	 * @return a {@link PrimitiveColumn} holding the values of underlying for each slice, or null if the present values
+	 *         are not all longs or all doubles.
+	 */
+	public static PrimitiveColumn read(List<AdhocSliceAsMap> slices, ICoordinatesToValues underlying) {
+		ColumnReader reader = new ColumnReader(slices.size());
+
+		for (int row = 0; row < slices.size(); row++) {
+			reader.row = row;
+			underlying.onValue(slices.get(row), reader);
+
+			if (reader.notPrimitive) {
+				return null;
+			}
+		}
+
+		if (reader.longs != null) {
+			return new PrimitiveColumn(PrimitiveColumnType.LONG, reader.present, reader.longs, null);
+		} else if (reader.doubles != null) {
+			return new PrimitiveColumn(PrimitiveColumnType.DOUBLE, reader.present, null, reader.doubles);
+		} else {
+			// Not a single present value
+			return ofLongs(slices.size());
+		}
+	}
+
+	/**
+	 * A single {@link ValueConsumer} for all rows, not to allocate one per row.
+	 */
+	protected static class ColumnReader implements ValueConsumer {
+		final int size;
+		final BitSet present;
+
+		long[] longs;
+		double[] doubles;
+
+		int row;
+		boolean notPrimitive;
+
+		protected ColumnReader(int size) {
+			this.size = size;
+			this.present = new BitSet(size);
+		}
+
+		@Override
+		public void onLong(long l) {
+			if (doubles != null) {
+				notPrimitive = true;
+				return;
+			} else if (longs == null) {
+				longs = new long[size];
+			}
+			longs[row] = l;
+			present.set(row);
+		}
+
+		@Override
+		public void onDouble(double d) {
+			if (longs != null) {
+				notPrimitive = true;
+				return;
+			} else if (doubles == null) {
+				doubles = new double[size];
+			}
+			doubles[row] = d;
+			present.set(row);
+		}
+
+		@Override
+		public void onCharsequence(CharSequence charSequence) {
+			notPrimitive = true;
+		}
+
+		@Override
+		public void onObject(Object object) {
+			if (object != null) {
+				notPrimitive = true;
+			}
+		}
+	}
+}
@@ -29,7 +29,6 @@ import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
-import eu.solven.adhoc.aggregations.IAggregation;
 import eu.solven.adhoc.aggregations.ICombination;
 import eu.solven.adhoc.aggregations.IOperatorsFactory;
 import eu.solven.adhoc.api.v1.IAdhocGroupBy;
@@ -78,20 +77,25 @@ public class BucketorQueryStep implements IHasUnderlyingQuerySteps {
 			return CoordinatesToValues.empty();
 		}
 
-		IAggregation agg = transformationFactory.makeAggregation(bucketor.getAggregationKey());
-
-		MultiTypeStorage<AdhocSliceAsMap> aggregatingView =
-				MultiTypeStorage.<AdhocSliceAsMap>builder().aggregation(agg).build();
-
 		ICombination combinator =
 				transformationFactory.makeCombination(bucketor.getCombinationKey(), getCombinationOptions());
 
 		List<String> underlyingNames = getUnderlyingNames();
 
-		for (AdhocSliceAsMap rawSlice : UnderlyingQueryStepHelpers.distinctSlices(isDebug(), underlyings)) {
-			AdhocSliceAsMapWithStep slice = AdhocSliceAsMapWithStep.builder().slice(rawSlice).queryStep(step).build();
-			onSlice(underlyings, slice, combinator, underlyingNames, aggregatingView);
-		}
+		MultiTypeStorage<AdhocSliceAsMap> aggregatingView = UnderlyingQueryStepHelpers.aggregateSlices(step,
+				isDebug(),
+				UnderlyingQueryStepHelpers.distinctSlices(isDebug(), underlyings),
+				// One IAggregation per partial storage, as an IAggregation may be stateful (e.g. a dictionary)
+				() -> MultiTypeStorage.<AdhocSliceAsMap>builder()
+						.aggregation(transformationFactory.makeAggregation(bucketor.getAggregationKey()))
+						.build(),
+				(slices, partialView) -> {
+					for (AdhocSliceAsMap rawSlice : slices) {
+						AdhocSliceAsMapWithStep slice =
+								AdhocSliceAsMapWithStep.builder().slice(rawSlice).queryStep(step).build();
+						onSlice(underlyings, slice, combinator, underlyingNames, partialView);
+					}
+				});
 
 		return CoordinatesToValues.builder().storage(aggregatingView).build();
 	}
@@ -22,19 +22,30 @@
  */
 package eu.solven.adhoc.transformers;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
+import com.google.common.collect.ImmutableList;
+
+import eu.solven.adhoc.aggregations.CombinationNullSemantics;
+import eu.solven.adhoc.aggregations.IColumnarCombination;
 import eu.solven.adhoc.aggregations.ICombination;
 import eu.solven.adhoc.aggregations.IOperatorsFactory;
 import eu.solven.adhoc.dag.AdhocQueryStep;
 import eu.solven.adhoc.dag.CoordinatesToValues;
 import eu.solven.adhoc.dag.ICoordinatesToValues;
+import eu.solven.adhoc.dag.ValueMappedCoordinatesToValuesView;
 import eu.solven.adhoc.slice.AdhocSliceAsMap;
 import eu.solven.adhoc.slice.AdhocSliceAsMapWithStep;
 import eu.solven.adhoc.slice.IAdhocSliceWithStep;
 import eu.solven.adhoc.storage.AsObjectValueConsumer;
+import eu.solven.adhoc.storage.PrimitiveColumn;
+import eu.solven.adhoc.storage.PrimitiveColumn.PrimitiveColumnType;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -71,8 +82,21 @@ public class CombinatorQueryStep implements IHasUnderlyingQuerySteps {
 
 		ICombination tranformation = transformationFactory.makeTransformation(combinator);
 
-		boolean debug = combinator.isDebug() || step.isDebug();
-		for (AdhocSliceAsMap rawSlice : UnderlyingQueryStepHelpers.distinctSlices(combinator.isDebug(), underlyings)) {
+		boolean debug = isDebug();
+		Iterable<? extends AdhocSliceAsMap> slices;
+		if (tranformation.getNullSemantics() == CombinationNullSemantics.NULL_IF_ANY_NULL) {
+			// Other slices would be combined into null
+			slices = UnderlyingQueryStepHelpers.intersectionSlices(combinator.isDebug(), underlyings);
+		} else {
+			slices = UnderlyingQueryStepHelpers.distinctSlices(combinator.isDebug(), underlyings);
+		}
+
+		if (!debug && tranformation instanceof IColumnarCombination columnarCombination
+				&& onColumns(underlyings, slices, columnarCombination, output)) {
+			return output;
+		}
+
+		for (AdhocSliceAsMap rawSlice : slices) {
 			AdhocSliceAsMapWithStep slice = AdhocSliceAsMapWithStep.builder().slice(rawSlice).queryStep(step).build();
 			onSlice(underlyings, slice, tranformation, debug, output);
 		}
@@ -80,19 +104,183 @@ public class CombinatorQueryStep implements IHasUnderlyingQuerySteps {
 		return output;
 	}
 
+	/**
+	 * Produces a view computing each value on each read, instead of materializing the output column. This is relevant
+	 * only if each slice is read at most once, typically by a single consumer step.
+	 * 
+	 * @param underlyings
+	 *            a single underlying
+	 * @return a read-only {@link ICoordinatesToValues}, with the same slices as the underlying.
+	 */
+	public ICoordinatesToValues produceLazyOutputColumn(List<? extends ICoordinatesToValues> underlyings) {
+		if (underlyings.size() != 1 || getUnderlyingNames().size() != 1) {
+			throw new IllegalArgumentException("Lazy evaluation requires a single underlying. Got %s"
+					.formatted(getUnderlyingNames()));
+		}
+
+		ICombination tranformation = transformationFactory.makeTransformation(combinator);
+
+		return ValueMappedCoordinatesToValuesView.builder()
+				.underlying(underlyings.getFirst())
+				.sliceValueMapper((rawSlice, underlyingV) -> {
+					AdhocSliceAsMapWithStep slice =
+							AdhocSliceAsMapWithStep.builder().slice(rawSlice).queryStep(step).build();
+					return tranformation.combine(slice, Collections.singletonList(underlyingV));
+				})
+				.build();
+	}
+
+	public boolean isDebug() {
+		return combinator.isDebug() || step.isDebug();
+	}
+
+	/**
+	 * Evaluates multiple {@link CombinatorQueryStep} sharing the same underlying steps. The union of slices and the
+	 * underlying values are computed once for all steps.
+	 * 
+	 * @param nodes
+	 *            steps with the same underlying steps. They are expected not to be in debug mode.
+	 * @param underlyings
+	 * @return the output column of each node, in the same order
+	 */
+	public static List<ICoordinatesToValues> produceFusedOutputColumns(List<CombinatorQueryStep> nodes,
+			List<? extends ICoordinatesToValues> underlyings) {
+		if (underlyings.isEmpty()) {
+			return nodes.stream().<ICoordinatesToValues>map(node -> CoordinatesToValues.empty()).toList();
+		}
+		nodes.forEach(node -> {
+			if (underlyings.size() != node.getUnderlyingNames().size()) {
+				throw new IllegalArgumentException("underlyingNames.size() != underlyings.size()");
+			}
+		});
+
+		List<ICoordinatesToValues> outputs = nodes.stream().map(CombinatorQueryStep::makeCoordinateToValues).toList();
+		List<ICombination> combinations =
+				nodes.stream().map(node -> node.transformationFactory.makeTransformation(node.combinator)).toList();
+
+		List<AdhocSliceAsMap> rows = ImmutableList.copyOf(UnderlyingQueryStepHelpers.distinctSlices(false, underlyings));
+
+		// Indexes of the nodes which could not be combined as columns
+		IntList rowByRow = new IntArrayList();
+		// As in produceOutputColumn, these nodes do not write slices out of the intersection
+		boolean[] nullIfAnyNull = new boolean[nodes.size()];
+		for (int i = 0; i < nodes.size(); i++) {
+			nullIfAnyNull[i] = combinations.get(i).getNullSemantics() == CombinationNullSemantics.NULL_IF_ANY_NULL;
+		}
+
+		List<PrimitiveColumn> columns = null;
+		if (combinations.stream().anyMatch(IColumnarCombination.class::isInstance)) {
+			columns = readColumns(underlyings, rows);
+		}
+		for (int i = 0; i < nodes.size(); i++) {
+			if (columns != null && combinations.get(i) instanceof IColumnarCombination columnarCombination) {
+				PrimitiveColumn combined = columnarCombination.combineColumns(rows.size(), columns);
+				if (combined != null) {
+					writeColumn(rows, combined, !nullIfAnyNull[i], outputs.get(i));
+					continue;
+				}
+			}
+			rowByRow.add(i);
+		}
+
+		if (!rowByRow.isEmpty()) {
+			for (AdhocSliceAsMap rawSlice : rows) {
+				List<Object> underlyingVs = null;
+				boolean isIntersection = true;
+
+				for (int j = 0; j < rowByRow.size(); j++) {
+					int i = rowByRow.getInt(j);
+					AdhocSliceAsMapWithStep slice =
+							AdhocSliceAsMapWithStep.builder().slice(rawSlice).queryStep(nodes.get(i).step).build();
+					if (underlyingVs == null) {
+						underlyingVs = readValues(underlyings, slice);
+						isIntersection = underlyings.stream().allMatch(underlying -> underlying.containsKey(rawSlice));
+					}
+
+					if (nullIfAnyNull[i] && !isIntersection) {
+						continue;
+					}
+
+					Object value = combinations.get(i).combine(slice, underlyingVs);
+					outputs.get(i).put(rawSlice, value);
+				}
+			}
+		}
+
+		return outputs;
+	}
+
+	/**
+	 * Combine all slices at once, given each underlying holds only longs or only doubles.
+	 * 
+	 * @return false if the underlyings can not be combined as columns, in which case output has not been written.
+	 */
+	protected boolean onColumns(List<? extends ICoordinatesToValues> underlyings,
+			Iterable<? extends AdhocSliceAsMap> slices,
+			IColumnarCombination combination,
+			ICoordinatesToValues output) {
+		List<AdhocSliceAsMap> rows = ImmutableList.copyOf(slices);
+
+		List<PrimitiveColumn> columns = readColumns(underlyings, rows);
+		if (columns == null) {
+			return false;
+		}
+
+		PrimitiveColumn combined = combination.combineColumns(rows.size(), columns);
+		if (combined == null) {
+			return false;
+		}
+
+		writeColumn(rows, combined, true, output);
+
+		return true;
+	}
+
+	/**
+	 * @return a {@link PrimitiveColumn} per underlying, or null if any underlying is not primitive.
+	 */
+	protected static List<PrimitiveColumn> readColumns(List<? extends ICoordinatesToValues> underlyings,
+			List<AdhocSliceAsMap> rows) {
+		List<PrimitiveColumn> columns = new ArrayList<>(underlyings.size());
+		for (ICoordinatesToValues underlying : underlyings) {
+			PrimitiveColumn column = PrimitiveColumn.read(rows, underlying);
+			if (column == null) {
+				return null;
+			}
+			columns.add(column);
+		}
+		return columns;
+	}
+
+	/**
+	 * @param putNulls
+	 *            if false, the rows without a combined value are not written at all.
+	 */
+	protected static void writeColumn(List<AdhocSliceAsMap> rows,
+			PrimitiveColumn combined,
+			boolean putNulls,
+			ICoordinatesToValues output) {
+		boolean isLong = combined.getType() == PrimitiveColumnType.LONG;
+		for (int row = 0; row < rows.size(); row++) {
+			AdhocSliceAsMap slice = rows.get(row);
+			if (!combined.isPresent(row)) {
+				if (putNulls) {
+					output.put(slice, null);
+				}
+			} else if (isLong) {
+				output.putLong(slice, combined.getLong(row));
+			} else {
+				output.putDouble(slice, combined.getDouble(row));
+			}
+		}
+	}
+
 	protected void onSlice(List<? extends ICoordinatesToValues> underlyings,
 			IAdhocSliceWithStep slice,
 			ICombination combination,
 			boolean debug,
 			ICoordinatesToValues output) {
-		List<Object> underlyingVs = underlyings.stream().map(storage -> {
-			AtomicReference<Object> refV = new AtomicReference<>();
-			AsObjectValueConsumer consumer = AsObjectValueConsumer.consumer(refV::set);
-
-			storage.onValue(slice, consumer);
-
-			return refV.get();
-		}).collect(Collectors.toList());
+		List<Object> underlyingVs = readValues(underlyings, slice);
 
 		Object value = combination.combine(slice, underlyingVs);
 
@@ -103,6 +291,18 @@ public class CombinatorQueryStep implements IHasUnderlyingQuerySteps {
 		output.put(slice.getAdhocSliceAsMap(), value);
 	}
 
+	protected static List<Object> readValues(List<? extends ICoordinatesToValues> underlyings,
+			IAdhocSliceWithStep slice) {
+		return underlyings.stream().map(storage -> {
+			AtomicReference<Object> refV = new AtomicReference<>();
+			AsObjectValueConsumer consumer = AsObjectValueConsumer.consumer(refV::set);
+
+			storage.onValue(slice, consumer);
+
+			return refV.get();
+		}).collect(Collectors.toList());
+	}
+
 	protected ICoordinatesToValues makeCoordinateToValues() {
 		return CoordinatesToValues.builder().build();
 	}
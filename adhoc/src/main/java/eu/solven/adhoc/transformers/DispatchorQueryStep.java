@@ -30,8 +30,11 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
-import eu.solven.adhoc.aggregations.IAggregation;
+import com.google.common.collect.Streams;
+
+import eu.solven.adhoc.aggregations.IBulkDecomposition;
 import eu.solven.adhoc.aggregations.IDecomposition;
+import eu.solven.adhoc.aggregations.IDecompositionSink;
 import eu.solven.adhoc.aggregations.IOperatorsFactory;
 import eu.solven.adhoc.api.v1.IAdhocGroupBy;
 import eu.solven.adhoc.api.v1.IWhereGroupbyAdhocQuery;
@@ -40,8 +43,10 @@ import eu.solven.adhoc.dag.CoordinatesToValues;
 import eu.solven.adhoc.dag.ICoordinatesToValues;
 import eu.solven.adhoc.slice.AdhocSliceAsMap;
 import eu.solven.adhoc.slice.AdhocSliceAsMapWithStep;
+import eu.solven.adhoc.slice.IAdhocSliceWithStep;
 import eu.solven.adhoc.storage.AsObjectValueConsumer;
 import eu.solven.adhoc.storage.MultiTypeStorage;
+import eu.solven.adhoc.storage.ValueConsumer;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -88,21 +93,43 @@ public class DispatchorQueryStep implements IHasUnderlyingQuerySteps {
 			throw new IllegalArgumentException("A dispatchor expects a single underlying");
 		}
 
-		IAggregation agg = transformationFactory.makeAggregation(dispatchor.getAggregationKey());
-
-		MultiTypeStorage<AdhocSliceAsMap> aggregatingView =
-				MultiTypeStorage.<AdhocSliceAsMap>builder().aggregation(agg).build();
-
 		IDecomposition decomposition = makeDecomposition();
 
-		int slicesDone = 0;
 		Iterable<? extends AdhocSliceAsMap> distinctSlices =
 				UnderlyingQueryStepHelpers.distinctSlices(isDebug(), underlyings);
-		for (AdhocSliceAsMap coordinates : distinctSlices) {
+
+		MultiTypeStorage<AdhocSliceAsMap> aggregatingView = UnderlyingQueryStepHelpers.aggregateSlices(step,
+				isDebug(),
+				distinctSlices,
+				// One IAggregation per partial storage, as an IAggregation may be stateful (e.g. a dictionary)
+				() -> MultiTypeStorage.<AdhocSliceAsMap>builder()
+						.aggregation(transformationFactory.makeAggregation(dispatchor.getAggregationKey()))
+						.build(),
+				(slices, partialView) -> onSlices(underlyings, slices, decomposition, partialView));
+
+		return CoordinatesToValues.builder().storage(aggregatingView).build();
+	}
+
+	protected void onSlices(List<? extends ICoordinatesToValues> underlyings,
+			Iterable<? extends AdhocSliceAsMap> slices,
+			IDecomposition decomposition,
+			MultiTypeStorage<AdhocSliceAsMap> aggregatingView) {
+		if (decomposition instanceof IBulkDecomposition bulkDecomposition && bulkDecomposition.isBulk(step)
+				&& !isDebug()) {
+			onSlicesBulk(underlyings, slices, bulkDecomposition, aggregatingView);
+			return;
+		}
+
+		// A sink is not thread-safe: there is one sink per (possibly concurrent) call
+		DispatchingSink sink = new DispatchingSink(aggregatingView);
+
+		int slicesDone = 0;
+		for (AdhocSliceAsMap coordinates : slices) {
 			AdhocSliceAsMapWithStep slice =
 					AdhocSliceAsMapWithStep.builder().slice(coordinates).queryStep(step).build();
 
-			onSlice(underlyings, slice, decomposition, aggregatingView);
+			sink.reset(coordinates, slice);
+			onSlice(underlyings, slice, decomposition, sink);
 
 			if (Integer.bitCount(++slicesDone) == 1) {
 				if (true || step.isDebug()) {
@@ -110,8 +137,49 @@ public class DispatchorQueryStep implements IHasUnderlyingQuerySteps {
 				}
 			}
 		}
+	}
 
-		return CoordinatesToValues.builder().storage(aggregatingView).build();
+	protected void onSlicesBulk(List<? extends ICoordinatesToValues> underlyings,
+			Iterable<? extends AdhocSliceAsMap> slices,
+			IBulkDecomposition decomposition,
+			MultiTypeStorage<AdhocSliceAsMap> aggregatingView) {
+		Iterable<AdhocSliceAsMapWithStep> slicesWithStep = () -> Streams.stream(slices)
+				.map(coordinates -> AdhocSliceAsMapWithStep.builder().slice(coordinates).queryStep(step).build())
+				.iterator();
+
+		decomposition.decomposeAll(step,
+				slicesWithStep,
+				slice -> getUnderlyingValue(underlyings, slice),
+				outputCoordinates -> {
+					AdhocSliceAsMap outputCoordinate = AdhocSliceAsMap.fromMap(outputCoordinates);
+					return mergingConsumer(aggregatingView, outputCoordinate);
+				});
+	}
+
+	protected ValueConsumer mergingConsumer(MultiTypeStorage<AdhocSliceAsMap> aggregatingView,
+			AdhocSliceAsMap outputCoordinate) {
+		return new ValueConsumer() {
+
+			@Override
+			public void onLong(long l) {
+				aggregatingView.mergeLong(outputCoordinate, l);
+			}
+
+			@Override
+			public void onDouble(double d) {
+				aggregatingView.mergeDouble(outputCoordinate, d);
+			}
+
+			@Override
+			public void onCharsequence(CharSequence charSequence) {
+				aggregatingView.merge(outputCoordinate, charSequence);
+			}
+
+			@Override
+			public void onObject(Object object) {
+				aggregatingView.merge(outputCoordinate, object);
+			}
+		};
 	}
 
 	protected boolean isDebug() {
@@ -121,7 +189,15 @@ public class DispatchorQueryStep implements IHasUnderlyingQuerySteps {
 	protected void onSlice(List<? extends ICoordinatesToValues> underlyings,
 			AdhocSliceAsMapWithStep slice,
 			IDecomposition decomposition,
-			MultiTypeStorage<AdhocSliceAsMap> aggregatingView) {
+			IDecompositionSink sink) {
+		Object value = getUnderlyingValue(underlyings, slice);
+
+		if (value != null) {
+			decomposition.decompose(slice, value, sink);
+		}
+	}
+
+	protected Object getUnderlyingValue(List<? extends ICoordinatesToValues> underlyings, IAdhocSliceWithStep slice) {
 		List<Object> underlyingVs = underlyings.stream().map(storage -> {
 			AtomicReference<Object> refV = new AtomicReference<>();
 			AsObjectValueConsumer consumer = AsObjectValueConsumer.consumer(refV::set);
@@ -131,34 +207,33 @@ public class DispatchorQueryStep implements IHasUnderlyingQuerySteps {
 			return refV.get();
 		}).toList();
 
-		Object value = underlyingVs.getFirst();
-
-		if (value != null) {
-			Map<Map<String, ?>, Object> decomposed = decomposition.decompose(slice, value);
-
-			Set<Map<String, ?>> outputCoordinatesAlreadyContributed = new HashSet<>();
-
-			decomposed.forEach((fragmentCoordinate, fragmentValue) -> {
-				if (isDebug()) {
-					log.info("[DEBUG] Contribute {} into {}", fragmentValue, fragmentCoordinate);
-				}
-
-				Map<String, ?> outputCoordinate = queryGroupBy(step.getGroupBy(), slice, fragmentCoordinate);
+		return underlyingVs.getFirst();
+	}
 
-				if (outputCoordinatesAlreadyContributed.add(outputCoordinate)) {
-					AdhocSliceAsMap coordinateAsSlice = AdhocSliceAsMap.fromMap(outputCoordinate);
-					aggregatingView.merge(coordinateAsSlice, fragmentValue);
+	/**
+	 * 
+	 * @param queryGroupBy
+	 * @param sliceAsMap
+	 *            the input slice
+	 * @param slice
+	 *            the input slice, with its step
+	 * @param fragmentCoordinate
+	 * @return the output coordinate. It is the input slice if it is already expressed at the requested level.
+	 */
+	protected AdhocSliceAsMap queryGroupBy(@NonNull IAdhocGroupBy queryGroupBy,
+			AdhocSliceAsMap sliceAsMap,
+			AdhocSliceAsMapWithStep slice,
+			Map<String, ?> fragmentCoordinate) {
+		Set<String> groupedByColumns = queryGroupBy.getGroupedByColumns();
+		Set<String> sliceColumns = sliceAsMap.getColumns();
 
-					if (isDebug()) {
-						aggregatingView.onValue(coordinateAsSlice, AsObjectValueConsumer.consumer(o -> {
-							log.info("[DEBUG] slice={} has been merged into agg={}", fragmentCoordinate, o);
-						}));
-					}
-				} else {
-					log.debug("slice={} has already contributed into {}", slice, outputCoordinate);
-				}
-			});
+		if (fragmentCoordinate.isEmpty() && sliceColumns.size() == groupedByColumns.size()
+				&& sliceColumns.containsAll(groupedByColumns)) {
+			// The projection would be an identity: skip the intermediate Map
+			return sliceAsMap;
 		}
+
+		return AdhocSliceAsMap.fromMap(queryGroupBy(queryGroupBy, slice, fragmentCoordinate));
 	}
 
 	protected Map<String, ?> queryGroupBy(@NonNull IAdhocGroupBy queryGroupBy,
@@ -184,4 +259,102 @@ public class DispatchorQueryStep implements IHasUnderlyingQuerySteps {
 
 		return queryCoordinates;
 	}
+
+	/**
+	 * Aggregates the fragments of the current slice into the output storage. An output coordinate receives at most one
+	 * contribution per input slice (e.g. a many-to-many element contributing into multiple groups which are projected
+	 * into the same output coordinate).
+	 */
+	protected class DispatchingSink implements IDecompositionSink {
+		final MultiTypeStorage<AdhocSliceAsMap> aggregatingView;
+
+		AdhocSliceAsMap sliceAsMap;
+		AdhocSliceAsMapWithStep slice;
+
+		// Most slices are decomposed into a single output coordinate: the Set is allocated only on the second one
+		AdhocSliceAsMap firstOutputCoordinate;
+		Set<AdhocSliceAsMap> outputCoordinatesAlreadyContributed;
+
+		protected DispatchingSink(MultiTypeStorage<AdhocSliceAsMap> aggregatingView) {
+			this.aggregatingView = aggregatingView;
+		}
+
+		protected void reset(AdhocSliceAsMap sliceAsMap, AdhocSliceAsMapWithStep slice) {
+			this.sliceAsMap = sliceAsMap;
+			this.slice = slice;
+
+			this.firstOutputCoordinate = null;
+			this.outputCoordinatesAlreadyContributed = null;
+		}
+
+		/**
+		 * 
+		 * @param fragmentCoordinate
+		 * @return the output coordinate, or null if it has already been contributed by current slice.
+		 */
+		protected AdhocSliceAsMap acceptOutputCoordinate(Map<String, ?> fragmentCoordinate) {
+			AdhocSliceAsMap outputCoordinate = queryGroupBy(step.getGroupBy(), sliceAsMap, slice, fragmentCoordinate);
+
+			if (firstOutputCoordinate == null) {
+				firstOutputCoordinate = outputCoordinate;
+				return outputCoordinate;
+			}
+
+			if (outputCoordinatesAlreadyContributed == null) {
+				outputCoordinatesAlreadyContributed = new HashSet<>();
+				outputCoordinatesAlreadyContributed.add(firstOutputCoordinate);
+			}
+
+			if (outputCoordinatesAlreadyContributed.add(outputCoordinate)) {
+				return outputCoordinate;
+			} else {
+				log.debug("slice={} has already contributed into {}", slice, outputCoordinate);
+				return null;
+			}
+		}
+
+		@Override
+		public void onObject(Map<String, ?> fragmentCoordinate, Object value) {
+			AdhocSliceAsMap outputCoordinate = acceptOutputCoordinate(fragmentCoordinate);
+			if (outputCoordinate != null) {
+				if (isDebug()) {
+					log.info("[DEBUG] Contribute {} into {}", value, fragmentCoordinate);
+				}
+				aggregatingView.merge(outputCoordinate, value);
+				afterMerge(fragmentCoordinate, outputCoordinate);
+			}
+		}
+
+		@Override
+		public void onLong(Map<String, ?> fragmentCoordinate, long value) {
+			AdhocSliceAsMap outputCoordinate = acceptOutputCoordinate(fragmentCoordinate);
+			if (outputCoordinate != null) {
+				if (isDebug()) {
+					log.info("[DEBUG] Contribute {} into {}", value, fragmentCoordinate);
+				}
+				aggregatingView.mergeLong(outputCoordinate, value);
+				afterMerge(fragmentCoordinate, outputCoordinate);
+			}
+		}
+
+		@Override
+		public void onDouble(Map<String, ?> fragmentCoordinate, double value) {
+			AdhocSliceAsMap outputCoordinate = acceptOutputCoordinate(fragmentCoordinate);
+			if (outputCoordinate != null) {
+				if (isDebug()) {
+					log.info("[DEBUG] Contribute {} into {}", value, fragmentCoordinate);
+				}
+				aggregatingView.mergeDouble(outputCoordinate, value);
+				afterMerge(fragmentCoordinate, outputCoordinate);
+			}
+		}
+
+		protected void afterMerge(Map<String, ?> fragmentCoordinate, AdhocSliceAsMap outputCoordinate) {
+			if (isDebug()) {
+				aggregatingView.onValue(outputCoordinate, AsObjectValueConsumer.consumer(o -> {
+					log.info("[DEBUG] slice={} has been merged into agg={}", fragmentCoordinate, o);
+				}));
+			}
+		}
+	}
 }
@@ -24,15 +24,14 @@ package eu.solven.adhoc.transformers;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
 
 import eu.solven.adhoc.aggregations.IOperatorsFactory;
 import eu.solven.adhoc.api.v1.pojo.AndFilter;
 import eu.solven.adhoc.dag.AdhocQueryStep;
 import eu.solven.adhoc.dag.CoordinatesToValues;
 import eu.solven.adhoc.dag.ICoordinatesToValues;
+import eu.solven.adhoc.dag.IdentityCoordinatesToValuesView;
 import eu.solven.adhoc.slice.AdhocSliceAsMap;
-import eu.solven.adhoc.slice.AdhocSliceAsMapWithStep;
 import eu.solven.adhoc.storage.AsObjectValueConsumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -67,35 +66,18 @@ public class FiltratorQueryStep implements IHasUnderlyingQuerySteps {
 			throw new IllegalArgumentException("underlyings.size() != 1");
 		}
 
-		ICoordinatesToValues output = makeCoordinateToValues();
+		ICoordinatesToValues underlying = underlyings.getFirst();
 
 		boolean debug = filtrator.isDebug() || step.isDebug();
-		for (AdhocSliceAsMap coordinate : UnderlyingQueryStepHelpers.distinctSlices(debug, underlyings)) {
-			AdhocSliceAsMapWithStep slice = AdhocSliceAsMapWithStep.builder().slice(coordinate).queryStep(step).build();
-
-			List<Object> underlyingVs = underlyings.stream().map(storage -> {
-				AtomicReference<Object> refV = new AtomicReference<>();
-				AsObjectValueConsumer consumer = AsObjectValueConsumer.consumer(o -> {
-					refV.set(o);
-				});
-
-				storage.onValue(slice, consumer);
-
-				if (debug) {
-					log.info("[DEBUG] Write {} in {} for m={}", refV.get(), coordinate, filtrator.getName());
-				}
-
-				return refV.get();
-			}).toList();
-
-			Object value = underlyingVs.getFirst();
-			output.put(coordinate, value);
+		if (debug) {
+			for (AdhocSliceAsMap coordinate : UnderlyingQueryStepHelpers.distinctSlices(debug, underlyings)) {
+				underlying.onValue(coordinate, AsObjectValueConsumer.consumer(o -> {
+					log.info("[DEBUG] Write {} in {} for m={}", o, coordinate, filtrator.getName());
+				}));
+			}
 		}
 
-		return output;
-	}
-
-	protected ICoordinatesToValues makeCoordinateToValues() {
-		return CoordinatesToValues.builder().build();
+		// The filter has been applied on the underlying step: the values are returned as-is, without a copy
+		return IdentityCoordinatesToValuesView.of(underlying);
 	}
 }
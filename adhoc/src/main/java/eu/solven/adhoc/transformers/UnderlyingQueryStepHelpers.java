@@ -27,12 +27,28 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import com.google.common.collect.ImmutableList;
 
 import eu.solven.adhoc.coordinate.MapComparators;
+import eu.solven.adhoc.dag.AdhocQueryStep;
 import eu.solven.adhoc.dag.ICoordinatesToValues;
 import eu.solven.adhoc.slice.AdhocSliceAsMap;
+import eu.solven.adhoc.storage.MultiTypeStorage;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 public class UnderlyingQueryStepHelpers {
+	/**
+	 * The default number of slices processed by a single task, when a step is evaluated concurrently.
+	 * 
+	 * @see AdhocQueryStep#getChunkSize()
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 16 * 1024;
+
 	protected UnderlyingQueryStepHelpers() {
 		// hidden
 	}
@@ -60,4 +76,138 @@ public class UnderlyingQueryStepHelpers {
 
 		return keySet;
 	}
+
+	/**
+	 * @param debug
+	 *            if true, the output set is ordered. This can be quite slow on large sets.
+	 * @param underlyings
+	 * @return the intersection-Set of slices, iterating the smallest underlying.
+	 */
+	public static Iterable<? extends AdhocSliceAsMap> intersectionSlices(boolean debug,
+			List<? extends ICoordinatesToValues> underlyings) {
+		if (underlyings.isEmpty()) {
+			return Set.of();
+		}
+
+		ICoordinatesToValues smallest =
+				underlyings.stream().min(Comparator.comparingLong(ICoordinatesToValues::size)).get();
+
+		Set<AdhocSliceAsMap> keySet;
+		if (debug) {
+			// Enforce an iteration order for debugging-purposes
+			keySet = new TreeSet<>(
+					Comparator.comparing(simpleSlice -> simpleSlice.getCoordinates(), MapComparators.mapComparator()));
+		} else {
+			keySet = new HashSet<>();
+		}
+
+		for (AdhocSliceAsMap slice : smallest.keySet()) {
+			if (underlyings.stream().allMatch(underlying -> underlying == smallest || underlying.containsKey(slice))) {
+				keySet.add(slice);
+			}
+		}
+
+		return keySet;
+	}
+
+	/**
+	 * Aggregates the slices into a {@link MultiTypeStorage}. If the step is concurrent, the slices are split in chunks
+	 * of {@link AdhocQueryStep#getChunkSize()} slices, aggregated by {@link AdhocQueryStep#getForkJoinPool()}, each
+	 * chunk into its own partial storage, and the partials are merged with the storage
+	 * {@link eu.solven.adhoc.aggregations.IAggregation}.
+	 * 
+	 * @param step
+	 * @param debug
+	 *            if true, the slices are processed sequentially, to keep their iteration order.
+	 * @param slices
+	 * @param storageFactory
+	 *            provides an empty storage, for each chunk
+	 * @param sliceAggregator
+	 *            aggregates the given slices into given storage
+	 * @return the aggregated storage, with its accumulators closed
+	 */
+	public static <T> MultiTypeStorage<T> aggregateSlices(AdhocQueryStep step,
+			boolean debug,
+			Iterable<? extends T> slices,
+			Supplier<MultiTypeStorage<T>> storageFactory,
+			BiConsumer<Iterable<? extends T>, MultiTypeStorage<T>> sliceAggregator) {
+		MultiTypeStorage<T> storage = aggregateSlicesOpen(step, debug, slices, storageFactory, sliceAggregator);
+		storage.closeAccumulators();
+		return storage;
+	}
+
+	protected static <T> MultiTypeStorage<T> aggregateSlicesOpen(AdhocQueryStep step,
+			boolean debug,
+			Iterable<? extends T> slices,
+			Supplier<MultiTypeStorage<T>> storageFactory,
+			BiConsumer<Iterable<? extends T>, MultiTypeStorage<T>> sliceAggregator) {
+		if (!step.isConcurrent() || debug) {
+			MultiTypeStorage<T> storage = storageFactory.get();
+			sliceAggregator.accept(slices, storage);
+			return storage;
+		}
+
+		// A List enables splitting the slices without copying them
+		List<? extends T> slicesAsList = ImmutableList.copyOf(slices);
+		int chunkSize = step.getChunkSize();
+		if (slicesAsList.size() <= chunkSize) {
+			MultiTypeStorage<T> storage = storageFactory.get();
+			sliceAggregator.accept(slicesAsList, storage);
+			return storage;
+		}
+
+		log.debug("Aggregating concurrently {} slices for step={}", slicesAsList.size(), step);
+
+		ChunkTask<T> rootTask =
+				new ChunkTask<>(slicesAsList, chunkSize, 0, slicesAsList.size(), storageFactory, sliceAggregator);
+		return step.getForkJoinPool().invoke(rootTask);
+	}
+
+	/**
+	 * Splits the slices in halves, down to `chunkSize` slices, and merges the partial storages.
+	 */
+	protected static class ChunkTask<T> extends RecursiveTask<MultiTypeStorage<T>> {
+		private static final long serialVersionUID = 1L;
+
+		final List<? extends T> slices;
+		final int chunkSize;
+		final int from;
+		final int to;
+		final Supplier<MultiTypeStorage<T>> storageFactory;
+		final BiConsumer<Iterable<? extends T>, MultiTypeStorage<T>> sliceAggregator;
+
+		protected ChunkTask(List<? extends T> slices,
+				int chunkSize,
+				int from,
+				int to,
+				Supplier<MultiTypeStorage<T>> storageFactory,
+				BiConsumer<Iterable<? extends T>, MultiTypeStorage<T>> sliceAggregator) {
+			this.slices = slices;
+			this.chunkSize = chunkSize;
+			this.from = from;
+			this.to = to;
+			this.storageFactory = storageFactory;
+			this.sliceAggregator = sliceAggregator;
+		}
+
+		@Override
+		protected MultiTypeStorage<T> compute() {
+			if (to - from <= chunkSize) {
+				MultiTypeStorage<T> partial = storageFactory.get();
+				sliceAggregator.accept(slices.subList(from, to), partial);
+				return partial;
+			}
+
+			int middle = (from + to) >>> 1;
+			ChunkTask<T> left = new ChunkTask<>(slices, chunkSize, from, middle, storageFactory, sliceAggregator);
+			ChunkTask<T> right = new ChunkTask<>(slices, chunkSize, middle, to, storageFactory, sliceAggregator);
+
+			right.fork();
+			MultiTypeStorage<T> leftPartial = left.compute();
+			MultiTypeStorage<T> rightPartial = right.join();
+
+			leftPartial.mergeAll(rightPartial);
+			return leftPartial;
+		}
+	}
 }
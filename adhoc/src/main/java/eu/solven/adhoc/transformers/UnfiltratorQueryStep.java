@@ -31,6 +31,7 @@ import eu.solven.adhoc.api.v1.pojo.AndFilter;
 import eu.solven.adhoc.api.v1.pojo.ColumnFilter;
 import eu.solven.adhoc.dag.AdhocQueryStep;
 import eu.solven.adhoc.dag.ICoordinatesToValues;
+import eu.solven.adhoc.dag.IdentityCoordinatesToValuesView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -84,6 +85,7 @@ public class UnfiltratorQueryStep implements IHasUnderlyingQuerySteps {
 			throw new IllegalArgumentException("underlyings.size() != 1");
 		}
 
-		return underlyings.getFirst();
+		// Share the underlying storage, preventing this step output to be edited
+		return IdentityCoordinatesToValuesView.of(underlyings.getFirst());
 	}
 }
@@ -22,9 +22,18 @@
  */
 package eu.solven.adhoc.dag;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
 import org.greenrobot.eventbus.EventBus;
 
+import eu.solven.adhoc.database.IAdhocDatabaseWrapper;
 import eu.solven.adhoc.eventbus.AdhocEventsToSfl4j;
+import eu.solven.adhoc.query.DatabaseQuery;
 
 /**
  * Commons patterns used in Adhoc unit-tests
@@ -44,4 +53,27 @@ public class AdhocTestHelper {
 
 		return eventBus;
 	}
+
+	/**
+	 * 
+	 * @param db
+	 * @param dbQueries
+	 * @return the rows of each {@link DatabaseQuery}, as sunk by {@link IAdhocDatabaseWrapper#sinkDbStreams(Map)}
+	 */
+	public static Map<DatabaseQuery, List<Map<String, ?>>> sinkToLists(IAdhocDatabaseWrapper db,
+			Set<DatabaseQuery> dbQueries) {
+		Map<DatabaseQuery, List<Map<String, ?>>> dbQueryToRows = new LinkedHashMap<>();
+		Map<DatabaseQuery, Consumer<Map<String, ?>>> dbQueryToSink = new LinkedHashMap<>();
+
+		dbQueries.forEach(dbQuery -> {
+			List<Map<String, ?>> rows = new ArrayList<>();
+			dbQueryToRows.put(dbQuery, rows);
+			// The database may re-use the row
+			dbQueryToSink.put(dbQuery, row -> rows.add(new LinkedHashMap<>(row)));
+		});
+
+		db.sinkDbStreams(dbQueryToSink);
+
+		return dbQueryToRows;
+	}
 }
@@ -0,0 +1,115 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.dag;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import eu.solven.adhoc.slice.AdhocSliceAsMap;
+import eu.solven.adhoc.storage.AsObjectValueConsumer;
+
+public class TestCoordinatesToValuesViews {
+	final AdhocSliceAsMap a1 = AdhocSliceAsMap.fromMap(Map.of("a", "a1"));
+	final AdhocSliceAsMap a2 = AdhocSliceAsMap.fromMap(Map.of("a", "a2"));
+
+	final CoordinatesToValues underlying = CoordinatesToValues.builder().build();
+
+	{
+		underlying.put(a1, 123);
+		underlying.put(a2, "foo");
+	}
+
+	private Object getValue(ICoordinatesToValues storage, AdhocSliceAsMap slice) {
+		Object[] value = new Object[1];
+		storage.onValue(slice, AsObjectValueConsumer.consumer(o -> value[0] = o));
+		return value[0];
+	}
+
+	private Map<Map<String, ?>, Object> scan(ICoordinatesToValues storage) {
+		Map<Map<String, ?>, Object> sliceToValue = new HashMap<>();
+		storage.scan(coordinates -> AsObjectValueConsumer
+				.consumer(o -> sliceToValue.put(coordinates.getCoordinates(), o)));
+		return sliceToValue;
+	}
+
+	@Test
+	public void testIdentity() {
+		ICoordinatesToValues view = IdentityCoordinatesToValuesView.of(underlying);
+
+		Assertions.assertThat(view.keySet()).containsExactlyInAnyOrder(a1, a2);
+		Assertions.assertThat(getValue(view, a1)).isEqualTo(123L);
+		Assertions.assertThat(scan(view)).hasSize(2).containsEntry(Map.of("a", "a2"), "foo");
+
+		Assertions.assertThatThrownBy(() -> view.put(a1, 234)).isInstanceOf(UnsupportedOperationException.class);
+		Assertions.assertThatThrownBy(() -> view.putLong(a1, 234)).isInstanceOf(UnsupportedOperationException.class);
+
+		// The view reflects the underlying
+		underlying.put(a1, 345);
+		Assertions.assertThat(getValue(view, a1)).isEqualTo(345L);
+	}
+
+	@Test
+	public void testValueMapped() {
+		ICoordinatesToValues view = ValueMappedCoordinatesToValuesView.builder()
+				.underlying(underlying)
+				.valueMapper(o -> o instanceof Long l ? l * 2 : o + "_bar")
+				.build();
+
+		Assertions.assertThat(view.keySet()).containsExactlyInAnyOrder(a1, a2);
+		Assertions.assertThat(getValue(view, a1)).isEqualTo(246L);
+		Assertions.assertThat(getValue(view, a2)).isEqualTo("foo_bar");
+		// The mapper is not called on missing slices
+		Assertions.assertThat(view.containsKey(AdhocSliceAsMap.fromMap(Map.of("a", "a3")))).isFalse();
+		Assertions.assertThat(getValue(view, AdhocSliceAsMap.fromMap(Map.of("a", "a3")))).isNull();
+		Assertions.assertThat(scan(view))
+				.hasSize(2)
+				.containsEntry(Map.of("a", "a1"), 246L)
+				.containsEntry(Map.of("a", "a2"), "foo_bar");
+
+		Assertions.assertThatThrownBy(() -> view.put(a1, 234)).isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	public void testKeyProjected() {
+		ICoordinatesToValues view = KeyProjectedCoordinatesToValuesView.builder()
+				.underlying(underlying)
+				.fromUnderlying(slice -> AdhocSliceAsMap.fromMap(Map.of("b", slice.getCoordinates().get("a"))))
+				.toUnderlying(slice -> AdhocSliceAsMap.fromMap(Map.of("a", slice.getCoordinates().get("b"))))
+				.build();
+
+		AdhocSliceAsMap b1 = AdhocSliceAsMap.fromMap(Map.of("b", "a1"));
+
+		Assertions.assertThat(view.keySet())
+				.hasSize(2)
+				.contains(b1)
+				.containsExactlyInAnyOrder(b1, AdhocSliceAsMap.fromMap(Map.of("b", "a2")));
+		Assertions.assertThat(view.keySet().contains(a1)).isFalse();
+		Assertions.assertThat(getValue(view, b1)).isEqualTo(123L);
+		Assertions.assertThat(scan(view)).hasSize(2).containsEntry(Map.of("b", "a2"), "foo");
+
+		Assertions.assertThatThrownBy(() -> view.put(b1, 234)).isInstanceOf(UnsupportedOperationException.class);
+	}
+}
@@ -0,0 +1,153 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eu.solven.adhoc.ADagTest;
+import eu.solven.adhoc.ITabularView;
+import eu.solven.adhoc.MapBasedTabularView;
+import eu.solven.adhoc.aggregations.max.MaxAggregator;
+import eu.solven.adhoc.aggregations.max.MinAggregator;
+import eu.solven.adhoc.aggregations.sum.AvgAggregator;
+import eu.solven.adhoc.aggregations.sum.CountAggregator;
+import eu.solven.adhoc.aggregations.sum.SumAggregator;
+import eu.solven.adhoc.query.AdhocQuery;
+import eu.solven.adhoc.query.DatabaseQuery;
+import eu.solven.adhoc.query.groupby.GroupByColumns;
+import eu.solven.adhoc.transformers.Aggregator;
+
+public class TestInMemoryDatabase_Parallel extends ADagTest {
+	public final InMemoryDatabase parallelRows = InMemoryDatabase.builder().parallel(true).morselSize(7).build();
+
+	@Override
+	@BeforeEach
+	public void feedDb() {
+		for (int i = 0; i < 1000; i++) {
+			Map<String, ?> row = Map.of("c", "v" + (i % 3), "d", "d" + (i % 5), "k1", i, "k2", 1.5D * i);
+
+			rows.add(row);
+			parallelRows.add(row);
+		}
+
+		amb.addMeasure(Aggregator.builder().name("k1").aggregationKey(SumAggregator.KEY).build());
+		amb.addMeasure(Aggregator.builder().name("k2").aggregationKey(SumAggregator.KEY).build());
+		amb.addMeasure(
+				Aggregator.builder().name("k1.max").columnName("k1").aggregationKey(MaxAggregator.KEY).build());
+	}
+
+	@Test
+	public void testPreAggregatedRows() {
+		DatabaseQuery dbQuery = DatabaseQuery.builder()
+				.aggregators(Set.of(Aggregator.builder().name("k1").build()))
+				.groupBy(GroupByColumns.named("c"))
+				.build();
+
+		List<Map<String, ?>> output = parallelRows.openDbStream(dbQuery).collect(Collectors.toList());
+
+		Assertions.assertThat(output)
+				.hasSize(3)
+				.contains(Map.of("c", "v0", "k1", 166_833L),
+						Map.of("c", "v1", "k1", 166_167L),
+						Map.of("c", "v2", "k1", 166_500L));
+	}
+
+	@Test
+	public void testSameAsSequential() {
+		AdhocQuery query = AdhocQuery.builder()
+				.measure("k1", "k2", "k1.max")
+				.groupByAlso("c", "d")
+				.andFilter("c", Set.of("v0", "v2"))
+				.build();
+
+		ITabularView sequential = aqe.execute(query, rows);
+		ITabularView parallel = aqe.execute(query, parallelRows);
+
+		Assertions.assertThat(MapBasedTabularView.load(parallel).getCoordinatesToValues())
+				.hasSize(10)
+				.isEqualTo(MapBasedTabularView.load(sequential).getCoordinatesToValues());
+	}
+
+	@Test
+	public void testSameAsSequential_decomposable() {
+		amb.addMeasure(
+				Aggregator.builder().name("k1.min").columnName("k1").aggregationKey(MinAggregator.KEY).build());
+		amb.addMeasure(
+				Aggregator.builder().name("k1.count").columnName("k1").aggregationKey(CountAggregator.KEY).build());
+		amb.addMeasure(Aggregator.builder()
+				.name("count(*)")
+				.columnName(CountAggregator.ASTERISK)
+				.aggregationKey(CountAggregator.KEY)
+				.build());
+		amb.addMeasure(Aggregator.builder().name("k2.avg").columnName("k2").aggregationKey(AvgAggregator.KEY).build());
+
+		AdhocQuery query =
+				AdhocQuery.builder().measure("k1.min", "k1.count", "count(*)", "k2.avg").groupByAlso("c").build();
+
+		ITabularView sequential = aqe.execute(query, rows);
+		ITabularView parallel = aqe.execute(query, parallelRows);
+
+		// Partial counts and averages are merged across morsels
+		Assertions.assertThat(MapBasedTabularView.load(parallel).getCoordinatesToValues())
+				.hasSize(3)
+				.containsEntry(Map.of("c", "v0"),
+						Map.of("k1.min", 0L, "k1.count", 334L, "count(*)", 334L, "k2.avg", 749.25D))
+				.isEqualTo(MapBasedTabularView.load(sequential).getCoordinatesToValues());
+	}
+
+	@Test
+	public void testSameAsSequential_countNamedLikeItsColumn() {
+		// A pre-aggregated COUNT would be counted as a single raw value
+		amb.addMeasure(Aggregator.builder().name("d").columnName("d").aggregationKey(CountAggregator.KEY).build());
+
+		AdhocQuery query = AdhocQuery.builder().measure("d").groupByAlso("c").build();
+
+		ITabularView sequential = aqe.execute(query, rows);
+		ITabularView parallel = aqe.execute(query, parallelRows);
+
+		Assertions.assertThat(MapBasedTabularView.load(parallel).getCoordinatesToValues())
+				.hasSize(3)
+				.containsEntry(Map.of("c", "v0"), Map.of("d", 334L))
+				.isEqualTo(MapBasedTabularView.load(sequential).getCoordinatesToValues());
+	}
+
+	@Test
+	public void testSmallTable_notParallel() {
+		InMemoryDatabase smallRows = InMemoryDatabase.builder().parallel(true).build();
+		smallRows.add(Map.of("c", "v0", "k1", 123));
+		smallRows.add(Map.of("c", "v0", "k1", 234));
+
+		DatabaseQuery dbQuery =
+				DatabaseQuery.builder().aggregators(Set.of(Aggregator.builder().name("k1").build())).build();
+
+		// Below the morsel size, rows are returned raw
+		Assertions.assertThat(smallRows.openDbStream(dbQuery).collect(Collectors.toList())).hasSize(2);
+	}
+}
@@ -30,8 +30,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.apache.datasketches.hll.HllSketch;
 import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
 import org.jooq.DSLContext;
 import org.jooq.exception.DataAccessException;
 import org.jooq.impl.DSL;
@@ -41,7 +44,17 @@ import org.junit.jupiter.api.Test;
 import eu.solven.adhoc.IAdhocTestConstants;
 import eu.solven.adhoc.ITabularView;
 import eu.solven.adhoc.MapBasedTabularView;
+import eu.solven.adhoc.aggregations.max.MaxAggregator;
+import eu.solven.adhoc.aggregations.max.MaxCombination;
+import eu.solven.adhoc.aggregations.max.MinAggregator;
+import eu.solven.adhoc.aggregations.sketch.HllCountDistinctAggregator;
+import eu.solven.adhoc.aggregations.sketch.PushedDownEstimate;
+import eu.solven.adhoc.aggregations.sketch.SketchEstimateCombination;
+import eu.solven.adhoc.aggregations.sum.AvgAggregator;
+import eu.solven.adhoc.aggregations.sum.CountAggregator;
+import eu.solven.adhoc.aggregations.sum.ProductAggregator;
 import eu.solven.adhoc.aggregations.sum.SumAggregator;
+import eu.solven.adhoc.api.v1.pojo.AndFilter;
 import eu.solven.adhoc.api.v1.pojo.ColumnFilter;
 import eu.solven.adhoc.api.v1.pojo.value.LikeMatcher;
 import eu.solven.adhoc.dag.AdhocMeasureBag;
@@ -54,6 +67,9 @@ import eu.solven.adhoc.query.DatabaseQuery;
 import eu.solven.adhoc.query.groupby.GroupByColumns;
 import eu.solven.adhoc.slice.AdhocSliceAsMap;
 import eu.solven.adhoc.transformers.Aggregator;
+import eu.solven.adhoc.transformers.Bucketor;
+import eu.solven.adhoc.transformers.Combinator;
+import eu.solven.adhoc.transformers.Filtrator;
 
 public class TestDatabaseQuery_DuckDb implements IAdhocTestConstants {
 
@@ -173,6 +189,46 @@ public class TestDatabaseQuery_DuckDb implements IAdhocTestConstants {
 		Assertions.assertThat(dbStream).contains(Map.of("k1", BigDecimal.valueOf(0D + 123 + 345))).hasSize(1);
 	}
 
+	@Test
+	public void testReturn_filterIn_temporaryTable() {
+		dsl.createTableIfNotExists(tableName)
+				.column("a", SQLDataType.VARCHAR)
+				.column("b", SQLDataType.INTEGER)
+				.column("k1", SQLDataType.DOUBLE)
+				.execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("b"), DSL.field("k1"))
+				.values("a1", 1, 123)
+				.execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("b"), DSL.field("k1"))
+				.values("a2", 2, 234)
+				.execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("b"), DSL.field("k1"))
+				.values("a3", 3, 345)
+				.execute();
+
+		// Any IN with more than 1 operand goes through a temporary table
+		AdhocJooqSqlDatabaseWrapper jooqDbTmpIn = AdhocJooqSqlDatabaseWrapper.builder()
+				.dslSupplier(DSLSupplier.fromConnection(() -> dbConn))
+				.tableName(tableName)
+				.maxInlinedInSize(1)
+				.build();
+
+		DatabaseQuery filteredQuery = DatabaseQuery.edit(qK1)
+				.filter(AndFilter.and(ColumnFilter.isIn("a", "a1", "a2", "a3"), ColumnFilter.isIn("b", 1, 3)))
+				.explain(true)
+				.build();
+		try (Stream<Map<String, ?>> dbStream = jooqDbTmpIn.openDbStream(filteredQuery)) {
+			Assertions.assertThat(dbStream.toList())
+					.contains(Map.of("k1", BigDecimal.valueOf(0D + 123 + 345)))
+					.hasSize(1);
+		}
+
+		// The temporary tables are dropped when the stream is closed
+		Object nbTemporaryTables =
+				dsl.fetchValue("SELECT COUNT(*) FROM duckdb_tables() WHERE table_name LIKE 'adhoc_in_%'");
+		Assertions.assertThat(((Number) nbTemporaryTables).longValue()).isEqualTo(0L);
+	}
+
 	@Test
 	public void testReturn_nullableColumn_groupBy() {
 		dsl.createTableIfNotExists(tableName)
@@ -398,4 +454,297 @@ public class TestDatabaseQuery_DuckDb implements IAdhocTestConstants {
 		Assertions.assertThat(mapBased.getCoordinatesToValues())
 				.containsEntry(Map.of(), Map.of(k1Sum.getName(), 0L + 123 + 345));
 	}
+
+	Aggregator players = Aggregator.builder()
+			.name("players")
+			.columnName("player")
+			.aggregationKey(HllCountDistinctAggregator.KEY)
+			.build();
+
+	private void feedPlayers() {
+		dsl.createTableIfNotExists(tableName)
+				.column("a", SQLDataType.VARCHAR)
+				.column("player", SQLDataType.VARCHAR)
+				.execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("player")).values("a1", "u1").execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("player")).values("a1", "u2").execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("player")).values("a1", "u1").execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("player")).values("a2", "u3").execute();
+	}
+
+	private AdhocMeasureBag makePlayersMeasures() {
+		AdhocMeasureBag measureBag = AdhocMeasureBag.builder().build();
+		measureBag.addMeasure(players);
+		measureBag.addMeasure(Combinator.builder()
+				.name("distinctPlayers")
+				.underlyings(List.of("players"))
+				.combinationKey(SketchEstimateCombination.KEY)
+				.build());
+
+		// The Bucketor merges the sketches of each bucket: a player present in multiple buckets is counted once
+		measureBag.addMeasure(Bucketor.builder()
+				.name("playersByA")
+				.underlyings(List.of("players"))
+				.groupBy(GroupByColumns.named("a"))
+				.combinationKey(MaxCombination.KEY)
+				.aggregationKey(HllCountDistinctAggregator.KEY)
+				.build());
+		measureBag.addMeasure(Combinator.builder()
+				.name("distinctPlayersByA")
+				.underlyings(List.of("playersByA"))
+				.combinationKey(SketchEstimateCombination.KEY)
+				.build());
+		return measureBag;
+	}
+
+	@Test
+	public void testApproxCountDistinct() {
+		feedPlayers();
+
+		AdhocMeasureBag measureBag = makePlayersMeasures();
+		AdhocQueryEngine aqe =
+				AdhocQueryEngine.builder().eventBus(AdhocTestHelper.eventBus()).measureBag(measureBag).build();
+
+		ITabularView result =
+				aqe.execute(AdhocQuery.builder().measure("distinctPlayers").groupByAlso("a").build(), jooqDb);
+		MapBasedTabularView mapBased = MapBasedTabularView.load(result);
+
+		Assertions.assertThat(mapBased.getCoordinatesToValues())
+				.hasSize(2)
+				.containsEntry(Map.of("a", "a1"), Map.of("distinctPlayers", 2L))
+				.containsEntry(Map.of("a", "a2"), Map.of("distinctPlayers", 1L));
+	}
+
+	@Test
+	public void testApproxCountDistinct_bucketor() {
+		feedPlayers();
+		// `u2` is in both buckets
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("player")).values("a2", "u2").execute();
+
+		AdhocMeasureBag measureBag = makePlayersMeasures();
+		AdhocQueryEngine aqe =
+				AdhocQueryEngine.builder().eventBus(AdhocTestHelper.eventBus()).measureBag(measureBag).build();
+
+		AdhocQuery query = AdhocQuery.builder().measure("distinctPlayersByA").build();
+
+		// The distinct values are hashed into mergeable sketches, even if estimates could be pushed down
+		AdhocJooqSqlDatabaseWrapper pushingDownDb = AdhocJooqSqlDatabaseWrapper.builder()
+				.dslSupplier(DSLSupplier.fromConnection(() -> dbConn))
+				.tableName(tableName)
+				.pushDownEstimates(true)
+				.build();
+		for (AdhocJooqSqlDatabaseWrapper db : List.of(jooqDb, pushingDownDb)) {
+			MapBasedTabularView mapBased = MapBasedTabularView.load(aqe.execute(query, db));
+
+			Assertions.assertThat(mapBased.getCoordinatesToValues())
+					.hasSize(1)
+					.containsEntry(Map.of(), Map.of("distinctPlayersByA", 3L));
+		}
+	}
+
+	@Test
+	public void testApproxCountDistinct_pushDownEstimates() {
+		feedPlayers();
+
+		AdhocJooqSqlDatabaseWrapper pushingDownDb = AdhocJooqSqlDatabaseWrapper.builder()
+				.dslSupplier(DSLSupplier.fromConnection(() -> dbConn))
+				.tableName(tableName)
+				.pushDownEstimates(true)
+				.build();
+
+		DatabaseQuery merged = DatabaseQuery.builder().aggregator(players).groupBy(GroupByColumns.named("a")).build();
+		DatabaseQuery notMerged = DatabaseQuery.edit(merged).mergedAggregates(false).build();
+
+		// By default, the distinct values are returned, and hashed into a sketch
+		Assertions.assertThat(jooqDb.openDbStream(notMerged).toList())
+				.hasSize(2)
+				.allSatisfy(row -> Assertions.assertThat(row.get("players")).isInstanceOf(HllSketch.class));
+		Assertions.assertThat(pushingDownDb.openDbStream(merged).toList())
+				.hasSize(2)
+				.allSatisfy(row -> Assertions.assertThat(row.get("players")).isInstanceOf(HllSketch.class));
+
+		// The estimate is computed by the database only if opted-in, for aggregates which are not merged
+		Assertions.assertThat(pushingDownDb.openDbStream(notMerged).toList())
+				.hasSize(2)
+				.contains(Map.of("a", "a1", "players", PushedDownEstimate.of(2L)))
+				.contains(Map.of("a", "a2", "players", PushedDownEstimate.of(1L)));
+
+		// The queried aggregator is read by a Combinator, which does not merge aggregates
+		AdhocMeasureBag measureBag = makePlayersMeasures();
+		AdhocQueryEngine aqe =
+				AdhocQueryEngine.builder().eventBus(AdhocTestHelper.eventBus()).measureBag(measureBag).build();
+		ITabularView result =
+				aqe.execute(AdhocQuery.builder().measure("distinctPlayers").groupByAlso("a").build(), pushingDownDb);
+
+		Assertions.assertThat(MapBasedTabularView.load(result).getCoordinatesToValues())
+				.hasSize(2)
+				.containsEntry(Map.of("a", "a1"), Map.of("distinctPlayers", 2L))
+				.containsEntry(Map.of("a", "a2"), Map.of("distinctPlayers", 1L));
+	}
+
+	@Test
+	public void testMinCountAvgProduct_pushedDown() {
+		dsl.createTableIfNotExists(tableName)
+				.column("a", SQLDataType.VARCHAR)
+				.column("k1", SQLDataType.INTEGER)
+				.execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("k1")).values("a1", 2).execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("k1")).values("a1", -3).execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("k1")).values("a1", null).execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("k1")).values("a2", 0).execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("k1")).values("a2", 5).execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("k1")).values("a3", null).execute();
+
+		AdhocMeasureBag measureBag = AdhocMeasureBag.builder().build();
+		measureBag.addMeasure(
+				Aggregator.builder().name("k1.min").columnName("k1").aggregationKey(MinAggregator.KEY).build());
+		measureBag.addMeasure(
+				Aggregator.builder().name("k1.count").columnName("k1").aggregationKey(CountAggregator.KEY).build());
+		measureBag.addMeasure(Aggregator.builder()
+				.name("count(*)")
+				.columnName(CountAggregator.ASTERISK)
+				.aggregationKey(CountAggregator.KEY)
+				.build());
+		measureBag.addMeasure(
+				Aggregator.builder().name("k1.avg").columnName("k1").aggregationKey(AvgAggregator.KEY).build());
+		measureBag.addMeasure(
+				Aggregator.builder().name("k1.product").columnName("k1").aggregationKey(ProductAggregator.KEY).build());
+
+		AdhocQueryEngine aqe =
+				AdhocQueryEngine.builder().eventBus(AdhocTestHelper.eventBus()).measureBag(measureBag).build();
+
+		ITabularView result = aqe.execute(AdhocQuery.builder()
+				.measure("k1.min", "k1.count", "count(*)", "k1.avg", "k1.product")
+				.groupByAlso("a")
+				.build(), jooqDb);
+		Map<Map<String, ?>, Map<String, ?>> coordinatesToValues =
+				MapBasedTabularView.load(result).getCoordinatesToValues();
+
+		Assertions.assertThat(coordinatesToValues).hasSize(3);
+
+		Map<String, ?> a1 = coordinatesToValues.get(Map.of("a", "a1"));
+		Assertions.assertThat(a1.get("k1.min")).isEqualTo(-3L);
+		Assertions.assertThat(a1.get("k1.count")).isEqualTo(2L);
+		Assertions.assertThat(a1.get("count(*)")).isEqualTo(3L);
+		Assertions.assertThat(a1.get("k1.avg")).isEqualTo(-0.5D);
+		// `PRODUCT` is computed with logarithms
+		Assertions.assertThat(((Number) a1.get("k1.product")).doubleValue()).isCloseTo(-6D, Offset.offset(0.0001D));
+
+		Map<String, ?> a2 = coordinatesToValues.get(Map.of("a", "a2"));
+		Assertions.assertThat(a2.get("k1.min")).isEqualTo(0L);
+		Assertions.assertThat(a2.get("k1.avg")).isEqualTo(2.5D);
+		Assertions.assertThat(((Number) a2.get("k1.product")).doubleValue()).isEqualTo(0D);
+
+		// Only null values: only `COUNT(*)` has a value
+		Assertions.assertThat(coordinatesToValues.get(Map.of("a", "a3"))).isEqualTo(Map.of("count(*)", 1L));
+	}
+
+	@Test
+	public void testGroupingSets_sameAsOneQueryPerGroupBy() {
+		dsl.createTableIfNotExists(tableName)
+				.column("a", SQLDataType.VARCHAR)
+				.column("b", SQLDataType.VARCHAR)
+				.column("k1", SQLDataType.DOUBLE)
+				.execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("b"), DSL.field("k1"))
+				.values("a1", "b1", 123)
+				.execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("b"), DSL.field("k1"))
+				.values("a1", "b2", 234)
+				.execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("k1")).values("a2", 345).execute();
+
+		DatabaseQuery byA = DatabaseQuery.edit(qK1).groupBy(GroupByColumns.named("a")).build();
+		DatabaseQuery byB = DatabaseQuery.edit(qK1).groupBy(GroupByColumns.named("b")).build();
+		DatabaseQuery byAB = DatabaseQuery.edit(qK1).groupBy(GroupByColumns.named("a", "b")).build();
+
+		Set<DatabaseQuery> dbQueries = Set.of(qK1, byA, byB, byAB);
+
+		Map<DatabaseQuery, List<Map<String, ?>>> batched = AdhocTestHelper.sinkToLists(jooqDb, dbQueries);
+
+		Assertions.assertThat(batched).hasSize(4);
+		dbQueries.forEach(dbQuery -> {
+			Assertions.assertThat(batched.get(dbQuery))
+					.containsExactlyInAnyOrderElementsOf(jooqDb.openDbStream(dbQuery).toList());
+		});
+
+		// The row with a null `b` is kept, as it is not to be confused with the rows where `b` is not grouped by
+		Assertions.assertThat(batched.get(byB))
+				.contains(Map.of("b", "b1", "k1", BigDecimal.valueOf(0D + 123)))
+				.hasSize(3);
+	}
+
+	@Test
+	public void testFilteredAggregates_sameAsOneQueryPerFilter() {
+		dsl.createTableIfNotExists(tableName)
+				.column("country", SQLDataType.VARCHAR)
+				.column("b", SQLDataType.VARCHAR)
+				.column("k1", SQLDataType.DOUBLE)
+				.execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("country"), DSL.field("b"), DSL.field("k1"))
+				.values("FR", "b1", 123)
+				.execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("country"), DSL.field("b"), DSL.field("k1"))
+				.values("FR", "b2", 234)
+				.execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("country"), DSL.field("b"), DSL.field("k1"))
+				.values("DE", "b1", 345)
+				.execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("country"), DSL.field("b"), DSL.field("k1"))
+				.values("US", "b2", 456)
+				.execute();
+
+		DatabaseQuery byB = DatabaseQuery.edit(qK1).groupBy(GroupByColumns.named("b")).build();
+		DatabaseQuery fr = DatabaseQuery.edit(byB).filter(ColumnFilter.isEqualTo("country", "FR")).build();
+		DatabaseQuery de = DatabaseQuery.edit(byB).filter(ColumnFilter.isEqualTo("country", "DE")).build();
+		Aggregator k1Max = Aggregator.builder().name("k1.max").columnName("k1").aggregationKey(MaxAggregator.KEY).build();
+		DatabaseQuery deMax = DatabaseQuery.edit(de).clearAggregators().aggregator(k1Max).build();
+
+		Set<DatabaseQuery> dbQueries = Set.of(fr, de, deMax);
+
+		Map<DatabaseQuery, List<Map<String, ?>>> batched = AdhocTestHelper.sinkToLists(jooqDb, dbQueries);
+
+		Assertions.assertThat(batched).hasSize(3);
+		dbQueries.forEach(dbQuery -> {
+			Assertions.assertThat(batched.get(dbQuery))
+					.containsExactlyInAnyOrderElementsOf(jooqDb.openDbStream(dbQuery).toList());
+		});
+
+		// `b2` has no `DE` row
+		Assertions.assertThat(batched.get(de)).containsExactly(Map.of("b", "b1", "k1", BigDecimal.valueOf(0D + 345)));
+	}
+
+	@Test
+	public void testFiltrators_filteredAggregates() {
+		dsl.createTableIfNotExists(tableName)
+				.column("country", SQLDataType.VARCHAR)
+				.column("k1", SQLDataType.DOUBLE)
+				.execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("country"), DSL.field("k1")).values("FR", 123).execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("country"), DSL.field("k1")).values("DE", 234).execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field("country"), DSL.field("k1")).values("US", 345).execute();
+
+		AdhocMeasureBag measureBag = AdhocMeasureBag.builder().build();
+		measureBag.addMeasure(k1Sum);
+		measureBag.addMeasure(Filtrator.builder()
+				.name("k1.FR")
+				.underlying(k1Sum.getName())
+				.filter(ColumnFilter.isEqualTo("country", "FR"))
+				.build());
+		measureBag.addMeasure(Filtrator.builder()
+				.name("k1.DE")
+				.underlying(k1Sum.getName())
+				.filter(ColumnFilter.isEqualTo("country", "DE"))
+				.build());
+
+		AdhocQueryEngine aqe =
+				AdhocQueryEngine.builder().eventBus(AdhocTestHelper.eventBus()).measureBag(measureBag).build();
+
+		ITabularView result = aqe.execute(AdhocQuery.builder().measure("k1", "k1.FR", "k1.DE").build(), jooqDb);
+		MapBasedTabularView mapBased = MapBasedTabularView.load(result);
+
+		Assertions.assertThat(mapBased.getCoordinatesToValues())
+				.hasSize(1)
+				.containsEntry(Map.of(), Map.of("k1", 0L + 123 + 234 + 345, "k1.FR", 0L + 123, "k1.DE", 0L + 234));
+	}
 }
@@ -0,0 +1,210 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database.duckdb;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.assertj.core.api.Assertions;
+import org.jooq.DSLContext;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.junit.jupiter.api.Test;
+
+import eu.solven.adhoc.IAdhocTestConstants;
+import eu.solven.adhoc.ITabularView;
+import eu.solven.adhoc.MapBasedTabularView;
+import eu.solven.adhoc.aggregations.StandardOperatorsFactory;
+import eu.solven.adhoc.aggregations.max.MaxAggregator;
+import eu.solven.adhoc.api.v1.pojo.ColumnFilter;
+import eu.solven.adhoc.dag.AdhocMeasureBag;
+import eu.solven.adhoc.dag.AdhocQueryEngine;
+import eu.solven.adhoc.dag.AdhocTestHelper;
+import eu.solven.adhoc.database.IAggregatesSink;
+import eu.solven.adhoc.database.sql.AdhocJooqSqlDatabaseWrapper;
+import eu.solven.adhoc.database.sql.DSLSupplier;
+import eu.solven.adhoc.query.AdhocQuery;
+import eu.solven.adhoc.query.DatabaseQuery;
+import eu.solven.adhoc.query.groupby.GroupByColumns;
+import eu.solven.adhoc.slice.AdhocSliceAsMap;
+import eu.solven.adhoc.storage.AggregatingMeasurators;
+import eu.solven.adhoc.storage.AsObjectValueConsumer;
+import eu.solven.adhoc.transformers.Aggregator;
+
+public class TestDatabaseQuery_DuckDb_Arrow implements IAdhocTestConstants {
+
+	static {
+		// https://stackoverflow.com/questions/28272284/how-to-disable-jooqs-self-ad-message-in-3-4
+		System.setProperty("org.jooq.no-logo", "true");
+	}
+
+	String tableName = "someTableName";
+
+	private Connection makeFreshInMemoryDb() {
+		try {
+			return DriverManager.getConnection("jdbc:duckdb:");
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	Connection dbConn = makeFreshInMemoryDb();
+	AdhocDuckDbArrowDatabaseWrapper arrowDb = AdhocDuckDbArrowDatabaseWrapper.builder()
+			.dslSupplier(DSLSupplier.fromConnection(() -> dbConn))
+			.tableName(tableName)
+			// Small batches, to check rows are read across batches
+			.batchSize(2)
+			.build();
+	AdhocJooqSqlDatabaseWrapper jooqDb = AdhocJooqSqlDatabaseWrapper.builder()
+			.dslSupplier(DSLSupplier.fromConnection(() -> dbConn))
+			.tableName(tableName)
+			.build();
+
+	DSLContext dsl = jooqDb.makeDsl();
+
+	private void feedDb() {
+		dsl.createTableIfNotExists(tableName)
+				.column("a", SQLDataType.VARCHAR)
+				.column("b", SQLDataType.VARCHAR)
+				.column("k1", SQLDataType.BIGINT)
+				.execute();
+		for (int i = 0; i < 10; i++) {
+			dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("b"), DSL.field("k1"))
+					.values("a" + (i % 3), "b" + (i % 2), i)
+					.execute();
+		}
+		dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("k1")).values("a0", 10).execute();
+	}
+
+	@Test
+	public void testTableDoesNotExists() {
+		DatabaseQuery dbQuery = DatabaseQuery.builder().aggregator(k1Sum).build();
+
+		Assertions.assertThatThrownBy(() -> arrowDb.openDbStream(dbQuery).toList())
+				.isInstanceOf(DataAccessException.class);
+	}
+
+	@Test
+	public void testSameRowsAsJooq() {
+		feedDb();
+
+		DatabaseQuery dbQuery = DatabaseQuery.builder()
+				.aggregator(k1Sum)
+				.groupBy(GroupByColumns.named("a", "b"))
+				.filter(ColumnFilter.isEqualTo("b", "b1"))
+				.build();
+
+		List<Map<String, ?>> rows = arrowDb.openDbStream(dbQuery).toList();
+
+		Assertions.assertThat(rows)
+				.hasSize(3)
+				.containsExactlyInAnyOrderElementsOf(jooqDb.openDbStream(dbQuery).toList());
+
+		// VARCHAR are read as String
+		Assertions.assertThat(rows).allSatisfy(row -> Assertions.assertThat(row.get("a")).isInstanceOf(String.class));
+	}
+
+	@Test
+	public void testSameViewAsJooq() {
+		feedDb();
+
+		AdhocMeasureBag measureBag = AdhocMeasureBag.builder().build();
+		measureBag.addMeasure(k1Sum);
+		measureBag.addMeasure(filterK1onA1);
+
+		AdhocQueryEngine aqe =
+				AdhocQueryEngine.builder().eventBus(AdhocTestHelper.eventBus()).measureBag(measureBag).build();
+
+		AdhocQuery query =
+				AdhocQuery.builder().measure(k1Sum.getName(), filterK1onA1.getName()).groupByAlso("b").build();
+
+		ITabularView arrowView = aqe.execute(query, arrowDb);
+		ITabularView jooqView = aqe.execute(query, jooqDb);
+
+		Assertions.assertThat(MapBasedTabularView.load(arrowView).getCoordinatesToValues())
+				.hasSize(2)
+				.containsEntry(Map.of("b", "b0"),
+						Map.of(k1Sum.getName(), 0L + 2 + 4 + 6 + 8, filterK1onA1.getName(), 0L + 4))
+				.isEqualTo(MapBasedTabularView.load(jooqView).getCoordinatesToValues());
+	}
+
+	@Test
+	public void testGroupingSets() {
+		feedDb();
+
+		DatabaseQuery byA = DatabaseQuery.builder().aggregator(k1Sum).groupBy(GroupByColumns.named("a")).build();
+		DatabaseQuery byB = DatabaseQuery.builder().aggregator(k1Sum).groupBy(GroupByColumns.named("b")).build();
+
+		AdhocTestHelper.sinkToLists(arrowDb, Set.of(byA, byB)).forEach((dbQuery, rows) -> {
+			Assertions.assertThat(rows).containsExactlyInAnyOrderElementsOf(jooqDb.openDbStream(dbQuery).toList());
+		});
+	}
+
+	@Test
+	public void testColumnar_noRow() {
+		feedDb();
+
+		Aggregator k1Max =
+				Aggregator.builder().name("k1Max").columnName("k1").aggregationKey(MaxAggregator.KEY).build();
+		DatabaseQuery dbQuery =
+				DatabaseQuery.builder().aggregator(k1Sum).aggregator(k1Max).groupBy(GroupByColumns.named("a")).build();
+
+		AggregatingMeasurators<AdhocSliceAsMap> aggregates =
+				new AggregatingMeasurators<>(new StandardOperatorsFactory());
+		IAggregatesSink sink = new IAggregatesSink() {
+			@Override
+			public void accept(Map<String, ?> row) {
+				throw new AssertionError("The vectors should be contributed without rows");
+			}
+
+			@Override
+			public AggregatingMeasurators<AdhocSliceAsMap> getAggregates() {
+				return aggregates;
+			}
+		};
+		arrowDb.sinkDbStreams(Map.of(dbQuery, sink));
+
+		Map<Map<String, ?>, Map<String, Object>> sliceToValues = new HashMap<>();
+		aggregates.getAggregatorToStorage().forEach((aggregator, storage) -> {
+			storage.scan(slice -> AsObjectValueConsumer.consumer(o -> sliceToValues
+					.computeIfAbsent(slice.getCoordinates(), k -> new HashMap<>())
+					.put(aggregator.getName(), o)));
+		});
+
+		Assertions.assertThat(sliceToValues)
+				.hasSize(3)
+				.containsEntry(Map.of("a", "a0"), Map.of(k1Sum.getName(), 0L + 3 + 6 + 9 + 10, "k1Max", 10L))
+				.containsEntry(Map.of("a", "a1"), Map.of(k1Sum.getName(), 0L + 1 + 4 + 7, "k1Max", 7L))
+				.containsEntry(Map.of("a", "a2"), Map.of(k1Sum.getName(), 0L + 2 + 5 + 8, "k1Max", 8L));
+
+		// The buffers of each query are released into the shared allocator
+		Assertions.assertThat(arrowDb.allocator.getChildAllocators()).isEmpty();
+		Assertions.assertThat(arrowDb.allocator.getAllocatedMemory()).isZero();
+	}
+}
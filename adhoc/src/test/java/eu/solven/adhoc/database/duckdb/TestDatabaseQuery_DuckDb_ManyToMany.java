@@ -0,0 +1,191 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database.duckdb;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Set;
+
+import org.assertj.core.api.Assertions;
+import org.jooq.DSLContext;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import eu.solven.adhoc.IAdhocTestConstants;
+import eu.solven.adhoc.ITabularView;
+import eu.solven.adhoc.MapBasedTabularView;
+import eu.solven.adhoc.aggregations.many_to_many.ManyToManyDecomposition;
+import eu.solven.adhoc.aggregations.many_to_many.ManyToManySqlDecomposition;
+import eu.solven.adhoc.dag.AdhocMeasureBag;
+import eu.solven.adhoc.dag.AdhocQueryEngine;
+import eu.solven.adhoc.dag.AdhocTestHelper;
+import eu.solven.adhoc.database.sql.AdhocJooqSqlDatabaseWrapper;
+import eu.solven.adhoc.database.sql.DSLSupplier;
+import eu.solven.adhoc.database.sql.ManyToManySqlMapping;
+import eu.solven.adhoc.query.AdhocQuery;
+import eu.solven.adhoc.transformers.Dispatchor;
+
+public class TestDatabaseQuery_DuckDb_ManyToMany implements IAdhocTestConstants {
+
+	static {
+		// https://stackoverflow.com/questions/28272284/how-to-disable-jooqs-self-ad-message-in-3-4
+		System.setProperty("org.jooq.no-logo", "true");
+	}
+
+	String tableName = "someTableName";
+	String mappingTableName = "someMappingTableName";
+
+	final String dispatchedMeasure = "k1.dispatched";
+
+	final String cElement = "country";
+	final String cGroup = "country_groups";
+
+	private Connection makeFreshInMemoryDb() {
+		try {
+			return DriverManager.getConnection("jdbc:duckdb:");
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	Connection dbConn = makeFreshInMemoryDb();
+	AdhocJooqSqlDatabaseWrapper jooqDb = AdhocJooqSqlDatabaseWrapper.builder()
+			.dslSupplier(DSLSupplier.fromConnection(() -> dbConn))
+			.tableName(tableName)
+			.manyToManyMapping(ManyToManySqlMapping.builder()
+					.tableName(mappingTableName)
+					.elementColumn(cElement)
+					.groupColumn(cGroup)
+					.build())
+			.build();
+
+	DSLContext dsl = jooqDb.makeDsl();
+
+	AdhocMeasureBag measureBag = AdhocMeasureBag.builder().build();
+	AdhocQueryEngine aqe =
+			AdhocQueryEngine.builder().eventBus(AdhocTestHelper.eventBus()).measureBag(measureBag).build();
+
+	@BeforeEach
+	public void feedDb() {
+		dsl.createTableIfNotExists(tableName)
+				.column(cElement, SQLDataType.VARCHAR)
+				.column("k1", SQLDataType.INTEGER)
+				.execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field(cElement), DSL.field("k1")).values("FR", 123).execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field(cElement), DSL.field("k1")).values("CH", 234).execute();
+		dsl.insertInto(DSL.table(tableName), DSL.field(cElement), DSL.field("k1")).values("ZW", 345).execute();
+
+		dsl.createTableIfNotExists(mappingTableName)
+				.column(cElement, SQLDataType.VARCHAR)
+				.column(cGroup, SQLDataType.VARCHAR)
+				.execute();
+		dsl.insertInto(DSL.table(mappingTableName), DSL.field(cElement), DSL.field(cGroup))
+				.values("FR", "G8")
+				.values("FR", "G20")
+				.values("CH", "G20")
+				.execute();
+
+		measureBag.addMeasure(Dispatchor.builder()
+				.name(dispatchedMeasure)
+				.underlying("k1")
+				.decompositionKey(ManyToManySqlDecomposition.class.getName())
+				.decompositionOptions(ImmutableMap.<String, Object>builder()
+						.put(ManyToManyDecomposition.K_INPUT, cElement)
+						.put(ManyToManyDecomposition.K_OUTPUT, cGroup)
+						.build())
+				.build());
+		measureBag.addMeasure(k1Sum);
+	}
+
+	@Test
+	public void testGrandTotal() {
+		ITabularView output = aqe.execute(AdhocQuery.builder().measure(dispatchedMeasure).build(), jooqDb);
+
+		Assertions.assertThat(MapBasedTabularView.load(output).getCoordinatesToValues())
+				.hasSize(1)
+				.containsEntry(Map.of(), Map.of(dispatchedMeasure, 0L + 123 + 234 + 345));
+	}
+
+	@Test
+	public void test_GroupByGroup_noFilter() {
+		ITabularView output =
+				aqe.execute(AdhocQuery.builder().measure(dispatchedMeasure).groupByAlso(cGroup).build(), jooqDb);
+
+		Assertions.assertThat(MapBasedTabularView.load(output).getCoordinatesToValues())
+				.hasSize(2)
+				.containsEntry(Map.of(cGroup, "G8"), Map.of(dispatchedMeasure, 0L + 123))
+				.containsEntry(Map.of(cGroup, "G20"), Map.of(dispatchedMeasure, 0L + 123 + 234));
+	}
+
+	@Test
+	public void test_GroupByGroup_FilterOneGroup() {
+		ITabularView output = aqe.execute(
+				AdhocQuery.builder().measure(dispatchedMeasure).groupByAlso(cGroup).andFilter(cGroup, "G8").build(),
+				jooqDb);
+
+		Assertions.assertThat(MapBasedTabularView.load(output).getCoordinatesToValues())
+				.hasSize(1)
+				.containsEntry(Map.of(cGroup, "G8"), Map.of(dispatchedMeasure, 0L + 123));
+	}
+
+	@Test
+	public void test_GroupByGroup_FilterOneElement() {
+		ITabularView output = aqe.execute(
+				AdhocQuery.builder().measure(dispatchedMeasure).groupByAlso(cGroup).andFilter(cElement, "FR").build(),
+				jooqDb);
+
+		Assertions.assertThat(MapBasedTabularView.load(output).getCoordinatesToValues())
+				.hasSize(2)
+				.containsEntry(Map.of(cGroup, "G8"), Map.of(dispatchedMeasure, 0L + 123))
+				.containsEntry(Map.of(cGroup, "G20"), Map.of(dispatchedMeasure, 0L + 123));
+	}
+
+	@Test
+	public void test_NoGroupBy_FilterMultipleGroups() {
+		// FR is in both groups: it must contribute once
+		ITabularView output = aqe.execute(
+				AdhocQuery.builder().measure(dispatchedMeasure).andFilter(cGroup, Set.of("G8", "G20")).build(),
+				jooqDb);
+
+		Assertions.assertThat(MapBasedTabularView.load(output).getCoordinatesToValues())
+				.hasSize(1)
+				.containsEntry(Map.of(), Map.of(dispatchedMeasure, 0L + 123 + 234));
+	}
+
+	@Test
+	public void test_GroupByElement_FilterOneGroup() {
+		ITabularView output = aqe.execute(
+				AdhocQuery.builder().measure(dispatchedMeasure).groupByAlso(cElement).andFilter(cGroup, "G8").build(),
+				jooqDb);
+
+		Assertions.assertThat(MapBasedTabularView.load(output).getCoordinatesToValues())
+				.hasSize(1)
+				.containsEntry(Map.of(cElement, "FR"), Map.of(dispatchedMeasure, 0L + 123));
+	}
+}
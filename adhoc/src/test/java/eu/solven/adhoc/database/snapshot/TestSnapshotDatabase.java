@@ -0,0 +1,242 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database.snapshot;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eu.solven.adhoc.ADagTest;
+import eu.solven.adhoc.ITabularView;
+import eu.solven.adhoc.MapBasedTabularView;
+import eu.solven.adhoc.aggregations.max.MaxAggregator;
+import eu.solven.adhoc.aggregations.max.MinAggregator;
+import eu.solven.adhoc.aggregations.sum.AvgAggregator;
+import eu.solven.adhoc.aggregations.sum.CountAggregator;
+import eu.solven.adhoc.aggregations.sum.SumAggregator;
+import eu.solven.adhoc.database.AggregatedColumnType;
+import eu.solven.adhoc.query.AdhocQuery;
+import eu.solven.adhoc.query.DatabaseQuery;
+import eu.solven.adhoc.query.groupby.GroupByColumns;
+import eu.solven.adhoc.transformers.Aggregator;
+
+public class TestSnapshotDatabase extends ADagTest {
+	List<Map<String, ?>> snapshotRows = new ArrayList<>();
+	Path tmpSnapshotPath;
+
+	@Override
+	@BeforeEach
+	public void feedDb() {
+		for (int i = 0; i < 100; i++) {
+			Map<String, Object> row = new HashMap<>();
+			row.put("c", "v" + (i % 3));
+			row.put("d", i % 4);
+			if (i % 5 != 0) {
+				row.put("k1", (long) i);
+			}
+			row.put("k2", 0.5D * i);
+
+			snapshotRows.add(row);
+		}
+		snapshotRows.add(Map.of("c", "\u00E9t\u00E9", "k1", 123L));
+
+		snapshotRows.forEach(rows::add);
+
+		amb.addMeasure(Aggregator.builder().name("k1").aggregationKey(SumAggregator.KEY).build());
+		amb.addMeasure(Aggregator.builder().name("k2").aggregationKey(SumAggregator.KEY).build());
+	}
+
+	@BeforeEach
+	public void initSnapshotFile() throws IOException {
+		tmpSnapshotPath = Files.createTempFile(this.getClass().getSimpleName(), ".snapshot");
+	}
+
+	@AfterEach
+	public void afterEach() throws IOException {
+		if (Files.exists(tmpSnapshotPath)) {
+			// Remove temporary files
+			Files.delete(tmpSnapshotPath);
+		}
+	}
+
+	@Test
+	public void testColumns() throws IOException {
+		SnapshotWriter.write(tmpSnapshotPath,
+				List.of(Map.of("c", "v1", "k1", 123), Map.of("c", "v2"), Map.of("c", "v1", "k1", 234)));
+
+		SnapshotTable table = SnapshotTable.open(tmpSnapshotPath);
+
+		Assertions.assertThat(table.getRowCount()).isEqualTo(3);
+		Assertions.assertThat(table.getColumnNames()).containsExactlyInAnyOrder("c", "k1");
+
+		SnapshotColumn c = table.getColumn("c");
+		Assertions.assertThat(c.getType()).isEqualTo(SnapshotColumnType.STRING);
+		Assertions.assertThat(c.getDictionarySize()).isEqualTo(2);
+		Assertions.assertThat(c.get(2)).isEqualTo("v1");
+
+		SnapshotColumn k1 = table.getColumn("k1");
+		Assertions.assertThat(k1.getType()).isEqualTo(SnapshotColumnType.INT);
+		Assertions.assertThat(k1.get(0)).isEqualTo(123);
+		Assertions.assertThat(k1.isPresent(1)).isFalse();
+		Assertions.assertThat(k1.get(1)).isNull();
+		Assertions.assertThat(k1.getLong(2)).isEqualTo(234L);
+	}
+
+	@Test
+	public void testAggregatedColumnTypes() throws IOException {
+		SnapshotWriter.write(tmpSnapshotPath, snapshotRows);
+
+		SnapshotDatabase snapshotDb = SnapshotDatabase.builder().table(SnapshotTable.open(tmpSnapshotPath)).build();
+
+		Aggregator cMax = Aggregator.builder().name("cMax").columnName("c").aggregationKey(MaxAggregator.KEY).build();
+		DatabaseQuery dbQuery = DatabaseQuery.builder()
+				.aggregator(Aggregator.builder().name("k1").aggregationKey(SumAggregator.KEY).build())
+				.aggregator(Aggregator.builder().name("k2").aggregationKey(SumAggregator.KEY).build())
+				.aggregator(cMax)
+				.build();
+
+		Assertions.assertThat(snapshotDb.getAggregatedColumnTypes(dbQuery))
+				.containsEntry("k1", AggregatedColumnType.LONG)
+				.containsEntry("k2", AggregatedColumnType.DOUBLE)
+				.hasSize(2);
+	}
+
+	@Test
+	public void testMixedTypes() {
+		Assertions
+				.assertThatThrownBy(() -> SnapshotWriter.write(tmpSnapshotPath,
+						List.of(Map.of("k1", 123), Map.of("k1", "someString"))))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("k1");
+	}
+
+	@Test
+	public void testUnsupportedType() {
+		Assertions
+				.assertThatThrownBy(() -> SnapshotWriter.write(tmpSnapshotPath,
+						List.of(Map.of("k1", 123), Map.of("k1", BigDecimal.ONE))))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("k1")
+				.hasStackTraceContaining("BigDecimal");
+	}
+
+	@Test
+	public void testTooLargeRegion() {
+		Assertions.assertThat(SnapshotWriter.checkRegionLength("k1", "values", Integer.MAX_VALUE))
+				.isEqualTo(Integer.MAX_VALUE);
+
+		Assertions.assertThatThrownBy(() -> SnapshotWriter.checkRegionLength("k1", "values", 1L + Integer.MAX_VALUE))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("column=k1");
+	}
+
+	@Test
+	public void testNotASnapshot() throws IOException {
+		Files.writeString(tmpSnapshotPath, "Not a snapshot at all");
+
+		Assertions.assertThatThrownBy(() -> SnapshotTable.open(tmpSnapshotPath))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testSameAsInMemory() throws IOException {
+		SnapshotWriter.write(tmpSnapshotPath, snapshotRows);
+
+		SnapshotDatabase snapshotDb = SnapshotDatabase.builder().table(SnapshotTable.open(tmpSnapshotPath)).build();
+
+		AdhocQuery query = AdhocQuery.builder().measure("k1", "k2").groupByAlso("c", "d").andFilter("d", 2).build();
+
+		ITabularView fromSnapshot = aqe.execute(query, snapshotDb);
+		ITabularView fromMemory = aqe.execute(query, rows);
+
+		Assertions.assertThat(MapBasedTabularView.load(fromSnapshot).getCoordinatesToValues())
+				.hasSize(3)
+				.isEqualTo(MapBasedTabularView.load(fromMemory).getCoordinatesToValues());
+	}
+
+	@Test
+	public void testPreAggregatedRows() throws IOException {
+		SnapshotWriter.write(tmpSnapshotPath, snapshotRows);
+
+		SnapshotDatabase snapshotDb = SnapshotDatabase.builder().table(SnapshotTable.open(tmpSnapshotPath)).build();
+
+		DatabaseQuery dbQuery = DatabaseQuery.builder()
+				.aggregators(Set.of(Aggregator.builder().name("k1").build()))
+				.groupBy(GroupByColumns.named("c"))
+				.build();
+
+		List<Map<String, ?>> output = snapshotDb.openDbStream(dbQuery).collect(Collectors.toList());
+
+		// One row per slice, instead of one row per snapshot row
+		Assertions.assertThat(output)
+				.hasSize(4)
+				.contains(Map.of("c", "v0", "k1", 1368L),
+						Map.of("c", "v1", "k1", 1332L),
+						Map.of("c", "v2", "k1", 1300L),
+						Map.of("c", "\u00E9t\u00E9", "k1", 123L));
+	}
+
+	@Test
+	public void testSameAsInMemory_decomposable() throws IOException {
+		SnapshotWriter.write(tmpSnapshotPath, snapshotRows);
+
+		SnapshotDatabase snapshotDb = SnapshotDatabase.builder().table(SnapshotTable.open(tmpSnapshotPath)).build();
+
+		amb.addMeasure(
+				Aggregator.builder().name("k1.min").columnName("k1").aggregationKey(MinAggregator.KEY).build());
+		amb.addMeasure(
+				Aggregator.builder().name("k1.count").columnName("k1").aggregationKey(CountAggregator.KEY).build());
+		amb.addMeasure(Aggregator.builder()
+				.name("count(*)")
+				.columnName(CountAggregator.ASTERISK)
+				.aggregationKey(CountAggregator.KEY)
+				.build());
+		amb.addMeasure(Aggregator.builder().name("k2.avg").columnName("k2").aggregationKey(AvgAggregator.KEY).build());
+
+		// The filter over the dictionary-encoded column is evaluated once per dictionary entry
+		AdhocQuery query = AdhocQuery.builder()
+				.measure("k1.min", "k1.count", "count(*)", "k2.avg")
+				.groupByAlso("d")
+				.andFilter("c", Set.of("v0", "\u00E9t\u00E9"))
+				.build();
+
+		ITabularView fromSnapshot = aqe.execute(query, snapshotDb);
+		ITabularView fromMemory = aqe.execute(query, rows);
+
+		Assertions.assertThat(MapBasedTabularView.load(fromSnapshot).getCoordinatesToValues())
+				.hasSize(4)
+				.isEqualTo(MapBasedTabularView.load(fromMemory).getCoordinatesToValues());
+	}
+}
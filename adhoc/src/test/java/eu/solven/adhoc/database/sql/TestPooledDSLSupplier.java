@@ -0,0 +1,435 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.database.sql;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.assertj.core.api.Assertions;
+import org.duckdb.DuckDBConnection;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.jooq.SQLDialect;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+import org.jooq.impl.SQLDataType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import eu.solven.adhoc.IAdhocTestConstants;
+import eu.solven.adhoc.api.v1.pojo.ColumnFilter;
+import eu.solven.adhoc.database.IdentityTranscoder;
+import eu.solven.adhoc.database.duckdb.DuckDbHelper;
+import eu.solven.adhoc.query.DatabaseQuery;
+import eu.solven.adhoc.query.groupby.GroupByColumns;
+
+public class TestPooledDSLSupplier implements IAdhocTestConstants {
+
+	static {
+		// https://stackoverflow.com/questions/28272284/how-to-disable-jooqs-self-ad-message-in-3-4
+		System.setProperty("org.jooq.no-logo", "true");
+	}
+
+	String tableName = "someTableName";
+
+	DuckDBConnection rootConnection = makeFreshInMemoryDb();
+	PooledDSLSupplier pool = DuckDbHelper.pooledDSLSupplier(rootConnection, 2);
+
+	private DuckDBConnection makeFreshInMemoryDb() {
+		try {
+			return (DuckDBConnection) DriverManager.getConnection("jdbc:duckdb:");
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@AfterEach
+	public void closeDb() throws SQLException {
+		pool.close();
+		rootConnection.close();
+	}
+
+	private void feedDb() {
+		DSLContext dsl = pool.getDSLContext();
+		try {
+			dsl.createTableIfNotExists(tableName)
+					.column("a", SQLDataType.VARCHAR)
+					.column("k1", SQLDataType.DOUBLE)
+					.execute();
+			for (int i = 0; i < 100; i++) {
+				dsl.insertInto(DSL.table(tableName), DSL.field("a"), DSL.field("k1"))
+						.values("a" + (i % 10), i)
+						.execute();
+			}
+		} finally {
+			pool.release(dsl);
+		}
+	}
+
+	@Test
+	public void testConnectionIsKeptUntilRelease() {
+		DSLContext dsl = pool.getDSLContext();
+
+		// The connection is checked-out lazily
+		Assertions.assertThat(pool.getActiveConnections()).isEqualTo(0);
+
+		dsl.fetch("SELECT 1");
+		dsl.fetch("SELECT 2");
+		Assertions.assertThat(pool.getActiveConnections()).isEqualTo(1);
+		Assertions.assertThat(pool.getCheckouts()).isEqualTo(1);
+
+		pool.release(dsl);
+		Assertions.assertThat(pool.getActiveConnections()).isEqualTo(0);
+		Assertions.assertThat(pool.getIdleConnections()).isEqualTo(1);
+
+		// Releasing twice is a no-op
+		pool.release(dsl);
+		Assertions.assertThat(pool.getIdleConnections()).isEqualTo(1);
+	}
+
+	@Test
+	public void testTimeout() throws SQLException {
+		try (PooledDSLSupplier smallPool =
+				new PooledDSLSupplier(rootConnection::duplicate, SQLDialect.DUCKDB, 1, Duration.ofMillis(10))) {
+			DSLContext first = smallPool.getDSLContext();
+			first.fetch("SELECT 1");
+
+			DSLContext second = smallPool.getDSLContext();
+			Assertions.assertThatThrownBy(() -> second.fetch("SELECT 1"))
+					.isInstanceOf(DataAccessException.class)
+					.hasMessageContaining("No connection available");
+
+			smallPool.release(first);
+			Assertions.assertThat(second.fetch("SELECT 1")).hasSize(1);
+			smallPool.release(second);
+
+			Assertions.assertThat(smallPool.getCreatedConnections()).isEqualTo(1);
+			Assertions.assertThat(smallPool.getCheckouts()).isEqualTo(2);
+		}
+	}
+
+	@Test
+	public void testConcurrentDatabaseQueries() throws Exception {
+		feedDb();
+
+		AdhocJooqSqlDatabaseWrapper jooqDb =
+				AdhocJooqSqlDatabaseWrapper.builder().dslSupplier(pool).tableName(tableName).build();
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<List<Map<String, ?>>>> futures = IntStream.range(0, 16).mapToObj(i -> {
+				DatabaseQuery dbQuery = DatabaseQuery.builder()
+						.aggregator(k1Sum)
+						.groupBy(GroupByColumns.named("a"))
+						.filter(ColumnFilter.isEqualTo("a", "a" + (i % 10)))
+						.build();
+				return executor.submit(() -> {
+					try (var stream = jooqDb.openDbStream(dbQuery)) {
+						return stream.toList();
+					}
+				});
+			}).toList();
+
+			for (Future<List<Map<String, ?>>> future : futures) {
+				Assertions.assertThat(future.get()).hasSize(1);
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		// Each connection has been given back
+		Assertions.assertThat(pool.getActiveConnections()).isEqualTo(0);
+		Assertions.assertThat(pool.getCreatedConnections()).isLessThanOrEqualTo(2);
+		Assertions.assertThat(pool.getCheckouts()).isEqualTo(1 + 16);
+	}
+
+	// The debug DESCRIBE must run on the connection of the query: a pool of size 1 would not provide a second one
+	@Test
+	public void testDebug_singleConnection() throws SQLException {
+		feedDb();
+
+		try (PooledDSLSupplier smallPool =
+				new PooledDSLSupplier(rootConnection::duplicate, SQLDialect.DUCKDB, 1, Duration.ofMillis(10))) {
+			AdhocJooqSqlDatabaseWrapper jooqDb = AdhocJooqSqlDatabaseWrapper.builder()
+					.dslSupplier(smallPool)
+					.tableName(tableName)
+					.maxInlinedInSize(0)
+					.build();
+
+			DatabaseQuery dbQuery = DatabaseQuery.builder()
+					.aggregator(k1Sum)
+					.filter(ColumnFilter.isIn("a", "a1", "a2"))
+					.debug(true)
+					.build();
+
+			try (var stream = jooqDb.openDbStream(dbQuery)) {
+				Assertions.assertThat(stream.toList()).hasSize(1);
+			}
+
+			Assertions.assertThat(smallPool.getActiveConnections()).isEqualTo(0);
+			Assertions.assertThat(smallPool.getCreatedConnections()).isEqualTo(1);
+		}
+	}
+
+	@Test
+	public void testTemporaryTable_sameConnection() {
+		feedDb();
+
+		// Any IN filter is pushed through a temporary table, which is visible only by its connection
+		AdhocJooqSqlDatabaseWrapper jooqDb = AdhocJooqSqlDatabaseWrapper.builder()
+				.dslSupplier(pool)
+				.tableName(tableName)
+				.maxInlinedInSize(0)
+				.build();
+
+		DatabaseQuery dbQuery = DatabaseQuery.builder()
+				.aggregator(k1Sum)
+				.filter(ColumnFilter.isIn("a", "a1", "a2"))
+				.build();
+
+		try (var stream = jooqDb.openDbStream(dbQuery)) {
+			Assertions.assertThat(stream.toList()).hasSize(1);
+		}
+
+		Assertions.assertThat(pool.getActiveConnections()).isEqualTo(0);
+	}
+
+	// Each DatabaseQuery needs a connection for its temporary table: the streams must not hold a connection before
+	// being consumed, else the second stream would wait for the first one to be closed.
+	@Test
+	public void testTemporaryTables_moreQueriesThanPoolSize() {
+		feedDb();
+
+		try (PooledDSLSupplier smallPool =
+				new PooledDSLSupplier(rootConnection::duplicate, SQLDialect.DUCKDB, 1, Duration.ofSeconds(1))) {
+			AdhocJooqSqlDatabaseWrapper jooqDb = AdhocJooqSqlDatabaseWrapper.builder()
+					.dslSupplier(smallPool)
+					.tableName(tableName)
+					.maxInlinedInSize(1)
+					.build();
+
+			// Different groupBys and filters: the queries are not batched
+			DatabaseQuery byA = DatabaseQuery.builder()
+					.aggregator(k1Sum)
+					.groupBy(GroupByColumns.named("a"))
+					.filter(ColumnFilter.isIn("a", "a1", "a2"))
+					.build();
+			DatabaseQuery grandTotal =
+					DatabaseQuery.builder().aggregator(k1Sum).filter(ColumnFilter.isIn("a", "a3", "a4", "a5")).build();
+
+			Map<DatabaseQuery, Stream<Map<String, ?>>> dbQueryToStream =
+					jooqDb.openDbStreams(new LinkedHashSet<>(List.of(byA, grandTotal)));
+			Assertions.assertThat(smallPool.getActiveConnections()).isEqualTo(0);
+
+			// Consumed one after the other, like by the AdhocQueryEngine
+			Map<DatabaseQuery, List<Map<String, ?>>> dbQueryToRows = new LinkedHashMap<>();
+			dbQueryToStream.forEach((dbQuery, stream) -> {
+				try (stream) {
+					dbQueryToRows.put(dbQuery, stream.toList());
+				}
+			});
+
+			Assertions.assertThat(dbQueryToRows.get(byA)).hasSize(2);
+			Assertions.assertThat(dbQueryToRows.get(grandTotal)).hasSize(1);
+
+			Assertions.assertThat(smallPool.getActiveConnections()).isEqualTo(0);
+			Assertions.assertThat(smallPool.getCreatedConnections()).isEqualTo(1);
+		}
+	}
+
+	// The rows of a GROUPING SETS query are routed to their DatabaseQuery while the SQL result is streamed
+	@Test
+	public void testGroupingSets_sinkWhileStreaming() {
+		feedDb();
+
+		AdhocJooqSqlDatabaseWrapper jooqDb =
+				AdhocJooqSqlDatabaseWrapper.builder().dslSupplier(pool).tableName(tableName).build();
+
+		DatabaseQuery byA = DatabaseQuery.builder().aggregator(k1Sum).groupBy(GroupByColumns.named("a")).build();
+		DatabaseQuery grandTotal = DatabaseQuery.builder().aggregator(k1Sum).build();
+
+		Map<DatabaseQuery, List<Integer>> dbQueryToActiveConnections = new LinkedHashMap<>();
+		Map<DatabaseQuery, Consumer<Map<String, ?>>> dbQueryToSink = new LinkedHashMap<>();
+		List.of(byA, grandTotal).forEach(dbQuery -> {
+			List<Integer> activeConnections = new ArrayList<>();
+			dbQueryToActiveConnections.put(dbQuery, activeConnections);
+			dbQueryToSink.put(dbQuery, row -> activeConnections.add(pool.getActiveConnections()));
+		});
+
+		jooqDb.sinkDbStreams(dbQueryToSink);
+
+		// Each row is sunk while the connection is still held by the SQL query, hence before the next row is read
+		Assertions.assertThat(dbQueryToActiveConnections.get(byA)).hasSize(10).containsOnly(1);
+		Assertions.assertThat(dbQueryToActiveConnections.get(grandTotal)).hasSize(1).containsOnly(1);
+		// A single SQL query
+		Assertions.assertThat(pool.getCheckouts()).isEqualTo(1 + 1);
+		Assertions.assertThat(pool.getActiveConnections()).isEqualTo(0);
+	}
+
+	// The Condition of each DatabaseQuery is used by the WHERE and by its aggregators: a large IN is loaded once
+	@Test
+	public void testFilteredAggregates_temporaryTablePerFilter() {
+		feedDb();
+
+		DatabaseQuery a1a2 =
+				DatabaseQuery.builder().aggregator(k1Sum).filter(ColumnFilter.isIn("a", "a1", "a2")).build();
+		DatabaseQuery a3a4 =
+				DatabaseQuery.builder().aggregator(k1Sum).filter(ColumnFilter.isIn("a", "a3", "a4")).build();
+
+		DSLContext dsl = pool.getDSLContext();
+		try (AdhocJooqSqlDatabaseStreamOpener streamOpener = AdhocJooqSqlDatabaseStreamOpener.builder()
+				.transcoder(new IdentityTranscoder())
+				.tableName(tableName)
+				.dslContext(dsl)
+				.maxInlinedInSize(0)
+				.build()) {
+			List<Record> rows = streamOpener.prepareFilteredQuery(List.of(a1a2, a3a4)).fetch();
+
+			Assertions.assertThat(streamOpener.temporaryTables).hasSize(2);
+			Assertions.assertThat(rows).hasSize(1);
+			// a1 and a2 rows are `i=1,2,11,12,...`
+			Assertions.assertThat(((Number) rows.getFirst()
+					.get(AdhocJooqSqlDatabaseStreamOpener.filteredAlias(0, k1Sum.getName()))).doubleValue())
+					.isEqualTo(IntStream.range(0, 100).filter(i -> i % 10 == 1 || i % 10 == 2).sum());
+		} finally {
+			pool.release(dsl);
+		}
+	}
+
+	@Test
+	public void testStatementCache_sameShapeDifferentValues() {
+		feedDb();
+
+		AdhocJooqSqlDatabaseWrapper jooqDb =
+				AdhocJooqSqlDatabaseWrapper.builder().dslSupplier(pool).tableName(tableName).build();
+
+		long hitsBefore = pool.getStatementCacheHits();
+
+		// Same shape (groupBy, aggregators, filter structure), different values
+		List<List<Map<String, ?>>> results = IntStream.range(0, 3).mapToObj(i -> {
+			DatabaseQuery dbQuery = DatabaseQuery.builder()
+					.aggregator(k1Sum)
+					.groupBy(GroupByColumns.named("a"))
+					.filter(ColumnFilter.isEqualTo("a", "a" + i))
+					.build();
+			try (var stream = jooqDb.openDbStream(dbQuery)) {
+				return stream.toList();
+			}
+		}).toList();
+
+		// The values are bound: each query returns its own rows
+		for (int i = 0; i < 3; i++) {
+			Assertions.assertThat(results.get(i)).hasSize(1);
+			Assertions.assertThat(results.get(i).getFirst().get("a")).isEqualTo("a" + i);
+		}
+
+		// Queries are sequential: the same connection, hence its prepared statement, is re-used
+		Assertions.assertThat(pool.getStatementCacheHits() - hitsBefore).isEqualTo(2);
+	}
+
+	@Test
+	public void testStatementCache_inListPadding() {
+		feedDb();
+
+		AdhocJooqSqlDatabaseWrapper jooqDb =
+				AdhocJooqSqlDatabaseWrapper.builder().dslSupplier(pool).tableName(tableName).build();
+
+		long hitsBefore = pool.getStatementCacheHits();
+
+		// 3 and 4 operands are both padded to 4 bind variables
+		List<List<Map<String, ?>>> results = List.of(List.of("a1", "a2", "a3"), List.of("a4", "a5", "a6", "a7"))
+				.stream()
+				.map(operands -> {
+					DatabaseQuery dbQuery = DatabaseQuery.builder()
+							.aggregator(k1Sum)
+							.groupBy(GroupByColumns.named("a"))
+							.filter(ColumnFilter.isIn("a", operands))
+							.build();
+					try (var stream = jooqDb.openDbStream(dbQuery)) {
+						return stream.toList();
+					}
+				})
+				.toList();
+
+		Assertions.assertThat(results.get(0)).hasSize(3);
+		Assertions.assertThat(results.get(1)).hasSize(4);
+
+		Assertions.assertThat(pool.getStatementCacheHits() - hitsBefore).isEqualTo(1);
+	}
+
+	// A temporary table has a unique name: the SQL semi-joining it must not take a slot of the cache
+	@Test
+	public void testStatementCache_temporaryTable() {
+		feedDb();
+
+		AdhocJooqSqlDatabaseWrapper jooqDb = AdhocJooqSqlDatabaseWrapper.builder()
+				.dslSupplier(pool)
+				.tableName(tableName)
+				.maxInlinedInSize(0)
+				.build();
+
+		long hitsBefore = pool.getStatementCacheHits();
+		long missesBefore = pool.getStatementCacheMisses();
+
+		for (int i = 0; i < 2; i++) {
+			DatabaseQuery dbQuery = DatabaseQuery.builder()
+					.aggregator(k1Sum)
+					.groupBy(GroupByColumns.named("a"))
+					.filter(ColumnFilter.isIn("a", "a1", "a2"))
+					.build();
+			try (var stream = jooqDb.openDbStream(dbQuery)) {
+				Assertions.assertThat(stream.toList()).hasSize(2);
+			}
+		}
+
+		Assertions.assertThat(pool.getStatementCacheHits()).isEqualTo(hitsBefore);
+		Assertions.assertThat(pool.getStatementCacheMisses()).isEqualTo(missesBefore);
+	}
+
+	@Test
+	public void testStatementCache_disabled() throws SQLException {
+		try (PooledDSLSupplier noCachePool =
+				new PooledDSLSupplier(rootConnection::duplicate, SQLDialect.DUCKDB, 1, Duration.ofMinutes(1), 0)) {
+			for (int i = 0; i < 2; i++) {
+				DSLContext dsl = noCachePool.getDSLContext();
+				Assertions.assertThat(dsl.fetch("SELECT ?", i)).hasSize(1);
+				noCachePool.release(dsl);
+			}
+
+			Assertions.assertThat(noCachePool.getStatementCacheHits()).isEqualTo(0);
+			Assertions.assertThat(noCachePool.getStatementCacheMisses()).isEqualTo(0);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.eventbus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.greenrobot.eventbus.Subscribe;
+
+/**
+ * Records the {@link QueryStepIsEvaluating} and {@link QueryStepIsCompleted} events, to check how the steps have been
+ * evaluated.
+ */
+public class QueryStepEventsRecorder {
+	final List<Object> events = new ArrayList<>();
+
+	@Subscribe
+	public void onQueryStepIsEvaluating(QueryStepIsEvaluating event) {
+		events.add(event);
+	}
+
+	@Subscribe
+	public void onQueryStepIsCompleted(QueryStepIsCompleted event) {
+		events.add(event);
+	}
+
+	/**
+	 * 
+	 * @return `evaluating:<measure>` and `completed:<measure>`, in the order of the events.
+	 */
+	public List<String> getStepEvents() {
+		return events.stream().map(event -> {
+			if (event instanceof QueryStepIsEvaluating evaluating) {
+				return "evaluating:" + evaluating.getQueryStep().getMeasure().getName();
+			} else {
+				return "completed:" + ((QueryStepIsCompleted) event).getQuerystep().getMeasure().getName();
+			}
+		}).toList();
+	}
+
+	public List<QueryStepIsCompleted> getCompleted() {
+		return events.stream()
+				.filter(QueryStepIsCompleted.class::isInstance)
+				.map(QueryStepIsCompleted.class::cast)
+				.toList();
+	}
+
+	public void clear() {
+		events.clear();
+	}
+}
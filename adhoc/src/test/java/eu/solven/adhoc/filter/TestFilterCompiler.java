@@ -0,0 +1,135 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.filter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import eu.solven.adhoc.api.v1.IAdhocFilter;
+import eu.solven.adhoc.api.v1.pojo.AndFilter;
+import eu.solven.adhoc.api.v1.pojo.ColumnFilter;
+import eu.solven.adhoc.api.v1.pojo.NotFilter;
+import eu.solven.adhoc.api.v1.pojo.OrFilter;
+import eu.solven.adhoc.api.v1.pojo.value.LikeMatcher;
+import eu.solven.adhoc.api.v1.pojo.value.NullMatcher;
+import eu.solven.adhoc.database.IdentityTranscoder;
+import eu.solven.adhoc.database.PrefixTranscoder;
+import eu.solven.adhoc.execute.FilterCompiler;
+import eu.solven.adhoc.execute.FilterHelpers;
+
+public class TestFilterCompiler {
+	private Predicate<Map<String, ?>> compile(IAdhocFilter filter) {
+		return FilterCompiler.compile(new IdentityTranscoder(), filter);
+	}
+
+	@Test
+	public void testMatchAllNone() {
+		Assertions.assertThat(compile(IAdhocFilter.MATCH_ALL).test(Map.of())).isTrue();
+		Assertions.assertThat(compile(IAdhocFilter.MATCH_NONE).test(Map.of())).isFalse();
+	}
+
+	@Test
+	public void testIn() {
+		Predicate<Map<String, ?>> inV1OrV2 =
+				compile(ColumnFilter.builder().column("c").matching(Set.of("v1", "v2")).build());
+
+		Assertions.assertThat(inV1OrV2.test(Map.of())).isFalse();
+		Assertions.assertThat(inV1OrV2.test(Map.of("c", "v3"))).isFalse();
+		Assertions.assertThat(inV1OrV2.test(Map.of("c", "v1"))).isTrue();
+	}
+
+	@Test
+	public void testIn_primitives() {
+		Predicate<Map<String, ?>> inInts = compile(ColumnFilter.builder().column("c").matching(Set.of(1, 2)).build());
+
+		Assertions.assertThat(inInts.test(Map.of("c", 1))).isTrue();
+		Assertions.assertThat(inInts.test(Map.of("c", 3))).isFalse();
+		// Consistent with `Set.contains`: an Integer does not equal a Long
+		Assertions.assertThat(inInts.test(Map.of("c", 1L))).isFalse();
+
+		Predicate<Map<String, ?>> inLongs =
+				compile(ColumnFilter.builder().column("c").matching(Set.of(1L, 2L)).build());
+		Assertions.assertThat(inLongs.test(Map.of("c", 2L))).isTrue();
+		Assertions.assertThat(inLongs.test(Map.of("c", 2))).isFalse();
+	}
+
+	@Test
+	public void testIn_nestedMatcher() {
+		Predicate<Map<String, ?>> inV1OrNull =
+				compile(ColumnFilter.builder().column("c").matching(Set.of("v1", NullMatcher.matchNull())).build());
+
+		Assertions.assertThat(inV1OrNull.test(Map.of())).isTrue();
+		Assertions.assertThat(inV1OrNull.test(Map.of("c", "v1"))).isTrue();
+		Assertions.assertThat(inV1OrNull.test(Map.of("c", "v2"))).isFalse();
+	}
+
+	@Test
+	public void testLike() {
+		Predicate<Map<String, ?>> startsWithV1 = compile(
+				ColumnFilter.builder().column("c").valueMatcher(LikeMatcher.builder().like("v1%").build()).build());
+
+		Assertions.assertThat(startsWithV1.test(Map.of())).isFalse();
+		Assertions.assertThat(startsWithV1.test(Map.of("c", "V1_s"))).isTrue();
+		Assertions.assertThat(startsWithV1.test(Map.of("c", "p_v1"))).isFalse();
+	}
+
+	@Test
+	public void testNotNullIfAbsent() {
+		ColumnFilter isNull = ColumnFilter.builder().column("c").matchNull().nullIfAbsent(false).build();
+
+		Map<String, Object> withNull = new HashMap<>();
+		withNull.put("c", null);
+
+		Assertions.assertThat(compile(isNull).test(Map.of())).isFalse();
+		Assertions.assertThat(compile(isNull).test(withNull)).isTrue();
+	}
+
+	@Test
+	public void testNestedWithTranscoding() {
+		IAdhocFilter filter = AndFilter.and(ColumnFilter.isEqualTo("a", "a1"),
+				OrFilter.or(ColumnFilter.isEqualTo("b", "b1"),
+						NotFilter.builder().negated(ColumnFilter.isEqualTo("c", "c1")).build()));
+
+		PrefixTranscoder transcoder = PrefixTranscoder.builder().prefix("p_").build();
+		Predicate<Map<String, ?>> compiled = FilterCompiler.compile(transcoder, filter);
+
+		for (Map<String, ?> row : Set.of(Map.of("p_a", "a1", "p_b", "b1", "p_c", "c1"),
+				Map.of("p_a", "a1", "p_b", "b2", "p_c", "c1"),
+				Map.of("p_a", "a1", "p_b", "b2", "p_c", "c2"),
+				Map.of("p_a", "a2", "p_b", "b1"))) {
+			// The compiled predicate is consistent with FilterHelpers
+			Assertions.assertThat(compiled.test(row))
+					.as("row=%s", row)
+					.isEqualTo(FilterHelpers.match(transcoder, filter, row));
+		}
+
+		Assertions.assertThat(compiled.test(Map.of("p_a", "a1", "p_b", "b1"))).isTrue();
+		Assertions.assertThat(compiled.test(Map.of("p_a", "a1", "p_b", "b2", "p_c", "c1"))).isFalse();
+		Assertions.assertThat(compiled.test(Map.of("p_a", "a1", "p_b", "b2", "p_c", "c2"))).isTrue();
+	}
+}
@@ -0,0 +1,160 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.measure;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eu.solven.adhoc.ADagTest;
+import eu.solven.adhoc.MapBasedTabularView;
+import eu.solven.adhoc.aggregations.DivideCombination;
+import eu.solven.adhoc.aggregations.max.MaxCombination;
+import eu.solven.adhoc.aggregations.sum.SumAggregator;
+import eu.solven.adhoc.aggregations.sum.SumCombination;
+import eu.solven.adhoc.query.AdhocQuery;
+import eu.solven.adhoc.storage.PrimitiveColumn;
+import eu.solven.adhoc.storage.PrimitiveColumn.PrimitiveColumnType;
+import eu.solven.adhoc.transformers.Aggregator;
+import eu.solven.adhoc.transformers.Combinator;
+
+/**
+ * Checks {@link eu.solven.adhoc.aggregations.IColumnarCombination} produces the same results as combining slices one
+ * by one (which is enforced in debug mode).
+ */
+public class TestAggregations_Columnar extends ADagTest {
+	@Override
+	@BeforeEach
+	public void feedDb() {
+		rows.add(Map.of("a", "a1", "k1", 123, "k2", 234, "k3", 1.5D));
+		rows.add(Map.of("a", "a1", "k1", 345));
+		rows.add(Map.of("a", "a2", "k2", 456));
+		rows.add(Map.of("a", "a3", "k1", 567, "k3", 2.25D));
+
+		amb.addMeasure(Aggregator.builder().name("k1").aggregationKey(SumAggregator.KEY).build());
+		amb.addMeasure(Aggregator.builder().name("k2").aggregationKey(SumAggregator.KEY).build());
+		amb.addMeasure(Aggregator.builder().name("k3").aggregationKey(SumAggregator.KEY).build());
+	}
+
+	private MapBasedTabularView executeBoth(String measure) {
+		MapBasedTabularView columnar = MapBasedTabularView
+				.load(aqe.execute(AdhocQuery.builder().measure(measure).groupByAlso("a").build(), rows));
+		MapBasedTabularView rowByRow = MapBasedTabularView
+				.load(aqe.execute(AdhocQuery.builder().measure(measure).groupByAlso("a").debug(true).build(), rows));
+
+		Assertions.assertThat(columnar.getCoordinatesToValues()).isEqualTo(rowByRow.getCoordinatesToValues());
+
+		return columnar;
+	}
+
+	@Test
+	public void testSum_longs() {
+		amb.addMeasure(Combinator.builder()
+				.name("sumK1K2")
+				.underlyings(Arrays.asList("k1", "k2"))
+				.combinationKey(SumCombination.KEY)
+				.build());
+
+		MapBasedTabularView output = executeBoth("sumK1K2");
+
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(3)
+				.containsEntry(Map.of("a", "a1"), Map.of("sumK1K2", 0L + 123 + 345 + 234))
+				.containsEntry(Map.of("a", "a2"), Map.of("sumK1K2", 0L + 456))
+				.containsEntry(Map.of("a", "a3"), Map.of("sumK1K2", 0L + 567));
+	}
+
+	@Test
+	public void testMax_longs() {
+		amb.addMeasure(Combinator.builder()
+				.name("maxK1K2")
+				.underlyings(Arrays.asList("k1", "k2"))
+				.combinationKey(MaxCombination.KEY)
+				.build());
+
+		MapBasedTabularView output = executeBoth("maxK1K2");
+
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(3)
+				.containsEntry(Map.of("a", "a1"), Map.of("maxK1K2", 0L + 123 + 345))
+				.containsEntry(Map.of("a", "a2"), Map.of("maxK1K2", 0L + 456))
+				.containsEntry(Map.of("a", "a3"), Map.of("maxK1K2", 0L + 567));
+	}
+
+	@Test
+	public void testDivide_mixedTypes() {
+		amb.addMeasure(Combinator.builder()
+				.name("k2OverK3")
+				.underlyings(Arrays.asList("k2", "k3"))
+				.combinationKey(DivideCombination.KEY)
+				.build());
+
+		MapBasedTabularView output = executeBoth("k2OverK3");
+
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(3)
+				.containsEntry(Map.of("a", "a1"), Map.of("k2OverK3", 234D / 1.5D))
+				.containsEntry(Map.of("a", "a2"), Map.of("k2OverK3", Double.NaN))
+				.containsEntry(Map.of("a", "a3"), Map.of("k2OverK3", Double.NaN));
+	}
+
+	@Test
+	public void testSum_mixedTypes() {
+		// Mixed long and double columns: falls back on the row-by-row combination
+		amb.addMeasure(Combinator.builder()
+				.name("sumK1K3")
+				.underlyings(Arrays.asList("k1", "k3"))
+				.combinationKey(SumCombination.KEY)
+				.build());
+
+		MapBasedTabularView output = executeBoth("sumK1K3");
+
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(2)
+				.containsEntry(Map.of("a", "a1"), Map.of("sumK1K3", 123D + 345 + 1.5D))
+				.containsEntry(Map.of("a", "a3"), Map.of("sumK1K3", 567D + 2.25D));
+	}
+
+	@Test
+	public void testCombineColumns_absentRows() {
+		PrimitiveColumn left = PrimitiveColumn.ofDoubles(3);
+		left.setDouble(0, 1.5D);
+		PrimitiveColumn right = PrimitiveColumn.ofDoubles(3);
+		right.setDouble(0, 2.5D);
+		right.setDouble(1, 3.5D);
+
+		PrimitiveColumn sum = new SumCombination().combineColumns(3, List.of(left, right));
+
+		Assertions.assertThat(sum.getType()).isEqualTo(PrimitiveColumnType.DOUBLE);
+		Assertions.assertThat(sum.getDouble(0)).isEqualTo(4D);
+		Assertions.assertThat(sum.getDouble(1)).isEqualTo(3.5D);
+		Assertions.assertThat(sum.isPresent(2)).isFalse();
+
+		PrimitiveColumn longs = PrimitiveColumn.ofLongs(3);
+		Assertions.assertThat(new SumCombination().combineColumns(3, List.of(left, longs))).isNull();
+	}
+}
@@ -0,0 +1,195 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.measure;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eu.solven.adhoc.ADagTest;
+import eu.solven.adhoc.IAdhocTestConstants;
+import eu.solven.adhoc.MapBasedTabularView;
+import eu.solven.adhoc.dag.AdhocQueryEngine;
+import eu.solven.adhoc.aggregations.collection.CardinalityCombination;
+import eu.solven.adhoc.aggregations.collection.CountDistinctAggregator;
+import eu.solven.adhoc.aggregations.max.MaxCombination;
+import eu.solven.adhoc.aggregations.sum.SumAggregator;
+import eu.solven.adhoc.query.AdhocQuery;
+import eu.solven.adhoc.query.StandardQueryOptions;
+import eu.solven.adhoc.query.groupby.GroupByColumns;
+import eu.solven.adhoc.transformers.Aggregator;
+import eu.solven.adhoc.transformers.Bucketor;
+import eu.solven.adhoc.transformers.Combinator;
+import eu.solven.adhoc.transformers.UnderlyingQueryStepHelpers;
+
+/**
+ * Checks {@link StandardQueryOptions#CONCURRENT} produces the same results as the sequential evaluation, given enough
+ * slices to be split in multiple chunks.
+ */
+public class TestAggregations_Concurrent extends ADagTest implements IAdhocTestConstants {
+	final int nbRows = 3 * UnderlyingQueryStepHelpers.DEFAULT_CHUNK_SIZE + 123;
+
+	@Override
+	@BeforeEach
+	public void feedDb() {
+		for (int i = 0; i < nbRows; i++) {
+			rows.add(Map.of("a", "a" + (i % 7), "b", i, "percent", i % 101, "k1", i, "k2", 3 * (i % 5)));
+		}
+
+		amb.addMeasure(k1Sum);
+		amb.addMeasure(Aggregator.builder().name("k2").aggregationKey(SumAggregator.KEY).build());
+	}
+
+	private MapBasedTabularView executeBoth(AdhocQuery query) {
+		MapBasedTabularView sequential = MapBasedTabularView.load(aqe.execute(query, rows));
+		MapBasedTabularView concurrent =
+				MapBasedTabularView.load(aqe.execute(query, Set.of(StandardQueryOptions.CONCURRENT), rows));
+
+		Assertions.assertThat(concurrent.getCoordinatesToValues()).isEqualTo(sequential.getCoordinatesToValues());
+
+		return concurrent;
+	}
+
+	@Test
+	public void testBucketor() {
+		amb.addMeasure(Bucketor.builder()
+				.name("maxK1K2ByB")
+				.underlyings(Arrays.asList("k1", "k2"))
+				.groupBy(GroupByColumns.named("b"))
+				.combinationKey(MaxCombination.KEY)
+				.aggregationKey(SumAggregator.KEY)
+				.build());
+
+		MapBasedTabularView output = executeBoth(AdhocQuery.builder().measure("maxK1K2ByB").build());
+
+		long expected = 0;
+		for (int i = 0; i < nbRows; i++) {
+			expected += Math.max(i, 3 * (i % 5));
+		}
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(1)
+				.containsEntry(Map.of(), Map.of("maxK1K2ByB", expected));
+	}
+
+	@Test
+	public void testBucketor_groupByA() {
+		amb.addMeasure(Bucketor.builder()
+				.name("maxK1K2ByB")
+				.underlyings(Arrays.asList("k1", "k2"))
+				.groupBy(GroupByColumns.named("b"))
+				.combinationKey(MaxCombination.KEY)
+				.aggregationKey(SumAggregator.KEY)
+				.build());
+
+		MapBasedTabularView output =
+				executeBoth(AdhocQuery.builder().measure("maxK1K2ByB").groupByAlso("a").build());
+
+		Assertions.assertThat(output.getCoordinatesToValues()).hasSize(7);
+	}
+
+	@Test
+	public void testDispatchor() {
+		amb.addMeasure(dispatchFrom0To100);
+
+		MapBasedTabularView output = executeBoth(
+				AdhocQuery.builder().measure(dispatchFrom0To100.getName()).groupByAlso("0_or_100", "b").build());
+
+		// Each row is dispatched into 0 and/or 100
+		Assertions.assertThat(output.getCoordinatesToValues()).hasSizeGreaterThan(nbRows);
+	}
+
+	// Each chunk of slices appends raw values into the dictionary of its own CountDistinctAggregator
+	@Test
+	public void testBucketor_countDistinct() {
+		amb.addMeasure(Bucketor.builder()
+				.name("distinctK1ByB")
+				.underlyings(Arrays.asList("k1"))
+				.groupBy(GroupByColumns.named("b"))
+				.combinationKey(MaxCombination.KEY)
+				.aggregationKey(CountDistinctAggregator.KEY)
+				.build());
+		amb.addMeasure(Combinator.builder()
+				.name("countDistinctK1")
+				.underlyings(Arrays.asList("distinctK1ByB"))
+				.combinationKey(CardinalityCombination.KEY)
+				.build());
+
+		MapBasedTabularView output = executeBoth(AdhocQuery.builder().measure("countDistinctK1").build());
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(1)
+				.containsEntry(Map.of(), Map.of("countDistinctK1", (long) nbRows));
+
+		MapBasedTabularView outputByA =
+				executeBoth(AdhocQuery.builder().measure("countDistinctK1").groupByAlso("a").build());
+		Assertions.assertThat(outputByA.getCoordinatesToValues()).hasSize(7);
+		for (int a = 0; a < 7; a++) {
+			long expected = (nbRows - a + 6) / 7;
+			Assertions.assertThat(outputByA.getCoordinatesToValues())
+					.containsEntry(Map.of("a", "a" + a), Map.of("countDistinctK1", expected));
+		}
+	}
+
+	@Test
+	public void testBucketor_customPoolAndChunkSize() {
+		amb.addMeasure(Bucketor.builder()
+				.name("maxK1K2ByB")
+				.underlyings(Arrays.asList("k1", "k2"))
+				.groupBy(GroupByColumns.named("b"))
+				.combinationKey(MaxCombination.KEY)
+				.aggregationKey(SumAggregator.KEY)
+				.build());
+
+		AtomicInteger nbWorkers = new AtomicInteger();
+		ForkJoinPool pool = new ForkJoinPool(2, p -> {
+			nbWorkers.incrementAndGet();
+			return ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+		}, null, false);
+		try {
+			AdhocQueryEngine customAqe = AdhocQueryEngine.builder()
+					.eventBus(eventBus)
+					.measureBag(amb)
+					.forkJoinPool(pool)
+					.chunkSize(7)
+					.build();
+
+			AdhocQuery query = AdhocQuery.builder().measure("maxK1K2ByB").groupByAlso("a").build();
+			MapBasedTabularView sequential = MapBasedTabularView.load(aqe.execute(query, rows));
+			MapBasedTabularView concurrent = MapBasedTabularView
+					.load(customAqe.execute(query, Set.of(StandardQueryOptions.CONCURRENT), rows));
+
+			Assertions.assertThat(concurrent.getCoordinatesToValues())
+					.hasSize(7)
+					.isEqualTo(sequential.getCoordinatesToValues());
+			// The chunks have been evaluated by the engine pool, not by the common pool
+			Assertions.assertThat(nbWorkers.get()).isPositive();
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,142 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.measure;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eu.solven.adhoc.ADagTest;
+import eu.solven.adhoc.MapBasedTabularView;
+import eu.solven.adhoc.aggregations.collection.CardinalityCombination;
+import eu.solven.adhoc.aggregations.collection.CountDistinctAggregator;
+import eu.solven.adhoc.aggregations.collection.DistinctIds;
+import eu.solven.adhoc.aggregations.max.MaxCombination;
+import eu.solven.adhoc.query.AdhocQuery;
+import eu.solven.adhoc.query.groupby.GroupByColumns;
+import eu.solven.adhoc.transformers.Aggregator;
+import eu.solven.adhoc.transformers.Bucketor;
+import eu.solven.adhoc.transformers.Combinator;
+
+public class TestAggregations_CountDistinct extends ADagTest {
+	@Override
+	@BeforeEach
+	public void feedDb() {
+		rows.add(Map.of("a", "a1", "user", "u1"));
+		rows.add(Map.of("a", "a1", "user", "u2"));
+		rows.add(Map.of("a", "a1", "user", "u1"));
+		rows.add(Map.of("a", "a2", "user", "u2"));
+		rows.add(Map.of("a", "a2", "user", 3));
+		rows.add(Map.of("a", "a3", "user", 3L));
+
+		amb.addMeasure(Aggregator.builder()
+				.name("users")
+				.columnName("user")
+				.aggregationKey(CountDistinctAggregator.KEY)
+				.build());
+		amb.addMeasure(Combinator.builder()
+				.name("distinctUsers")
+				.underlyings(Arrays.asList("users"))
+				.combinationKey(CardinalityCombination.KEY)
+				.build());
+	}
+
+	@Test
+	public void testCountDistinct() {
+		MapBasedTabularView output =
+				MapBasedTabularView.load(aqe.execute(AdhocQuery.builder().measure("distinctUsers").build(), rows));
+
+		// `3` and `3L` are the same value
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(1)
+				.containsEntry(Map.of(), Map.of("distinctUsers", 3L));
+	}
+
+	@Test
+	public void testCountDistinct_groupBy() {
+		MapBasedTabularView output = MapBasedTabularView
+				.load(aqe.execute(AdhocQuery.builder().measure("distinctUsers").groupByAlso("a").build(), rows));
+
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(3)
+				.containsEntry(Map.of("a", "a1"), Map.of("distinctUsers", 2L))
+				.containsEntry(Map.of("a", "a2"), Map.of("distinctUsers", 2L))
+				.containsEntry(Map.of("a", "a3"), Map.of("distinctUsers", 1L));
+	}
+
+	// The Bucketor ORs the bitmaps of each bucket: a user present in multiple buckets is counted once
+	@Test
+	public void testCountDistinct_bucketor() {
+		amb.addMeasure(Bucketor.builder()
+				.name("usersByA")
+				.underlyings(Arrays.asList("users"))
+				.groupBy(GroupByColumns.named("a"))
+				.combinationKey(MaxCombination.KEY)
+				.aggregationKey(CountDistinctAggregator.KEY)
+				.build());
+		amb.addMeasure(Combinator.builder()
+				.name("distinctUsersByA")
+				.underlyings(Arrays.asList("usersByA"))
+				.combinationKey(CardinalityCombination.KEY)
+				.build());
+
+		MapBasedTabularView output =
+				MapBasedTabularView.load(aqe.execute(AdhocQuery.builder().measure("distinctUsersByA").build(), rows));
+
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(1)
+				.containsEntry(Map.of(), Map.of("distinctUsersByA", 3L));
+	}
+
+	@Test
+	public void testMerge_sameDictionary() {
+		CountDistinctAggregator agg = new CountDistinctAggregator();
+
+		DistinctIds left = (DistinctIds) agg.aggregate("u1", "u2");
+		DistinctIds right = (DistinctIds) agg.aggregate("u2", "u3");
+		Assertions.assertThat(right.getDictionary()).isSameAs(left.getDictionary());
+
+		DistinctIds merged = (DistinctIds) agg.aggregate(left, right);
+		Assertions.assertThat(merged.getCardinality()).isEqualTo(3L);
+		Assertions.assertThat(merged.toValues()).containsExactly("u1", "u2", "u3");
+	}
+
+	// e.g. partial aggregates computed concurrently, each with its own dictionary
+	@Test
+	public void testMerge_differentDictionaries() {
+		DistinctIds left = (DistinctIds) new CountDistinctAggregator().aggregate("u1", "u2");
+		DistinctIds right = (DistinctIds) new CountDistinctAggregator().aggregate("u3", "u2");
+		Assertions.assertThat(right.getDictionary()).isNotSameAs(left.getDictionary());
+
+		CountDistinctAggregator agg = new CountDistinctAggregator();
+		Object accumulator = agg.accumulate(agg.createAccumulator(), left);
+		accumulator = agg.accumulate(accumulator, right);
+		DistinctIds merged = (DistinctIds) agg.finish(accumulator);
+
+		Assertions.assertThat(merged.getDictionary()).isSameAs(left.getDictionary());
+		Assertions.assertThat(merged.toValues()).containsExactlyInAnyOrder("u1", "u2", "u3");
+	}
+}
@@ -139,4 +139,27 @@ public class TestAggregations_ExpressionTransformation extends ADagTest {
 				.hasSize(1)
 				.containsEntry(Collections.emptyMap(), Map.of("sumK1K2", 123L));
 	}
+
+	@Test
+	public void testCombination_reusedAcrossSlices() {
+		ExpressionCombination combination = new ExpressionCombination("k1 * k2", Arrays.asList("k1", "k2"));
+
+		Assertions.assertThat(((Number) combination.combine(Arrays.asList(2, 3))).longValue()).isEqualTo(6L);
+		Assertions.assertThat(((Number) combination.combine(Arrays.asList(5, 7))).longValue()).isEqualTo(35L);
+	}
+
+	// A missing value must not be read from the previous evaluation
+	@Test
+	public void testCombination_missingValue() {
+		ExpressionCombination combination = new ExpressionCombination("k2", Arrays.asList("k1", "k2"));
+
+		Assertions.assertThat(((Number) combination.combine(Arrays.asList(2, 3))).longValue()).isEqualTo(3L);
+		Assertions.assertThat(combination.combine(Arrays.asList(5))).isNull();
+	}
+
+	@Test
+	public void testCombination_invalidExpression() {
+		Assertions.assertThatThrownBy(() -> new ExpressionCombination("k1 +", Arrays.asList("k1")))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
 }
@@ -0,0 +1,147 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.measure;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import eu.solven.adhoc.ADagTest;
+import eu.solven.adhoc.MapBasedTabularView;
+import eu.solven.adhoc.aggregations.DivideCombination;
+import eu.solven.adhoc.aggregations.ExpressionCombination;
+import eu.solven.adhoc.aggregations.max.MaxCombination;
+import eu.solven.adhoc.aggregations.sum.SumAggregator;
+import eu.solven.adhoc.aggregations.sum.SumCombination;
+import eu.solven.adhoc.eventbus.QueryStepEventsRecorder;
+import eu.solven.adhoc.query.AdhocQuery;
+import eu.solven.adhoc.transformers.Aggregator;
+import eu.solven.adhoc.transformers.Combinator;
+
+/**
+ * Checks sibling {@link Combinator} over the same underlyings, evaluated in a single pass, produce the same results as
+ * when evaluated independently.
+ */
+public class TestAggregations_FusedCombinators extends ADagTest {
+	@Override
+	@BeforeEach
+	public void feedDb() {
+		rows.add(Map.of("a", "a1", "k1", 123, "k2", 234));
+		rows.add(Map.of("a", "a1", "k1", 345));
+		rows.add(Map.of("a", "a2", "k2", 456));
+		rows.add(Map.of("a", "a3", "k1", 567, "k2", 678));
+
+		amb.addMeasure(Aggregator.builder().name("k1").aggregationKey(SumAggregator.KEY).build());
+		amb.addMeasure(Aggregator.builder().name("k2").aggregationKey(SumAggregator.KEY).build());
+
+		amb.addMeasure(Combinator.builder()
+				.name("sumK1K2")
+				.underlyings(Arrays.asList("k1", "k2"))
+				.combinationKey(SumCombination.KEY)
+				.build());
+		amb.addMeasure(Combinator.builder()
+				.name("maxK1K2")
+				.underlyings(Arrays.asList("k1", "k2"))
+				.combinationKey(MaxCombination.KEY)
+				.build());
+		amb.addMeasure(Combinator.builder()
+				.name("k1OverK2")
+				.underlyings(Arrays.asList("k1", "k2"))
+				.combinationKey(DivideCombination.KEY)
+				.build());
+		amb.addMeasure(Combinator.builder()
+				.name("k1MinusK2")
+				.underlyings(Arrays.asList("k1", "k2"))
+				.combinationKey(ExpressionCombination.KEY)
+				.combinationOptions(ImmutableMap.<String, Object>builder()
+						.put("expression", "IF(k1 == null, 0, k1) - IF(k2 == null, 0, k2)")
+						.build())
+				.build());
+		// Same underlyings in a different order: not a sibling
+		amb.addMeasure(Combinator.builder()
+				.name("k2OverK1")
+				.underlyings(Arrays.asList("k2", "k1"))
+				.combinationKey(DivideCombination.KEY)
+				.build());
+	}
+
+	@Test
+	public void testFused_sameAsIndependent() {
+		String[] measures = { "sumK1K2", "maxK1K2", "k1OverK2", "k1MinusK2", "k2OverK1" };
+
+		QueryStepEventsRecorder recorder = new QueryStepEventsRecorder();
+		eventBus.register(recorder);
+		MapBasedTabularView fused = MapBasedTabularView.load(aqe.execute(
+				AdhocQuery.builder().measures(Arrays.asList(measures)).groupByAlso("a").build(),
+				rows));
+		eventBus.unregister(recorder);
+
+		List<String> stepEvents = recorder.getStepEvents();
+		List<String> siblings = List.of("sumK1K2", "maxK1K2", "k1OverK2", "k1MinusK2");
+		siblings.forEach(sibling -> Assertions.assertThat(stepEvents)
+				.contains("evaluating:" + sibling)
+				.containsOnlyOnce("completed:" + sibling));
+
+		// The siblings are evaluated in a single pass: each of them is evaluating before any of them is completed
+		int lastEvaluating = siblings.stream().mapToInt(m -> stepEvents.indexOf("evaluating:" + m)).max().getAsInt();
+		int firstCompleted = siblings.stream().mapToInt(m -> stepEvents.indexOf("completed:" + m)).min().getAsInt();
+		Assertions.assertThat(lastEvaluating).isLessThan(firstCompleted);
+
+		// k2OverK1 has its underlyings in a different order: it is evaluated on its own
+		int k2OverK1Evaluating = stepEvents.indexOf("evaluating:k2OverK1");
+		Assertions.assertThat(k2OverK1Evaluating).isNotNegative();
+		Assertions.assertThat(stepEvents.get(k2OverK1Evaluating + 1)).isEqualTo("completed:k2OverK1");
+
+		Map<Map<String, ?>, Map<String, Object>> independent = new HashMap<>();
+		for (String measure : measures) {
+			MapBasedTabularView view = MapBasedTabularView
+					.load(aqe.execute(AdhocQuery.builder().measure(measure).groupByAlso("a").build(), rows));
+			view.getCoordinatesToValues()
+					.forEach((slice, values) -> independent.computeIfAbsent(slice, k -> new HashMap<>())
+							.putAll(values));
+		}
+
+		Assertions.assertThat(fused.getCoordinatesToValues()).isEqualTo(independent);
+
+		Assertions.assertThat(fused.getCoordinatesToValues())
+				.hasSize(3)
+				.containsEntry(Map.of("a", "a1"),
+						Map.of("sumK1K2",
+								0L + 123 + 345 + 234,
+								"maxK1K2",
+								0L + 123 + 345,
+								"k1OverK2",
+								(123D + 345) / 234,
+								"k1MinusK2",
+								0L + 123 + 345 - 234,
+								"k2OverK1",
+								234D / (123 + 345)));
+	}
+}
@@ -0,0 +1,159 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.measure;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+
+import eu.solven.adhoc.ADagTest;
+import eu.solven.adhoc.IAdhocTestConstants;
+import eu.solven.adhoc.MapBasedTabularView;
+import eu.solven.adhoc.aggregations.ExpressionCombination;
+import eu.solven.adhoc.aggregations.sum.SumAggregator;
+import eu.solven.adhoc.aggregations.sum.SumCombination;
+import eu.solven.adhoc.eventbus.QueryStepEventsRecorder;
+import eu.solven.adhoc.eventbus.QueryStepIsCompleted;
+import eu.solven.adhoc.query.AdhocQuery;
+import eu.solven.adhoc.query.StandardQueryOptions;
+import eu.solven.adhoc.transformers.Aggregator;
+import eu.solven.adhoc.transformers.Combinator;
+
+/**
+ * Checks a chain of single-consumer steps, evaluated lazily, produces the same results as when each step is
+ * materialized.
+ */
+public class TestAggregations_LazyCombinators extends ADagTest implements IAdhocTestConstants {
+	final QueryStepEventsRecorder recorder = new QueryStepEventsRecorder();
+
+	@Override
+	@BeforeEach
+	public void feedDb() {
+		eventBus.register(recorder);
+
+		rows.add(Map.of("a", "a1", "k1", 123, "k2", 234));
+		rows.add(Map.of("a", "a1", "k1", 345));
+		rows.add(Map.of("a", "a2", "k2", 456));
+		rows.add(Map.of("a", "a3", "k1", 567, "k2", 678));
+
+		amb.addMeasure(k1Sum);
+		amb.addMeasure(Aggregator.builder().name("k2").aggregationKey(SumAggregator.KEY).build());
+
+		// k1 -> filterK1onA1 -> k1x2 -> k1x6 -> k1x6PlusK2
+		amb.addMeasure(filterK1onA1);
+		amb.addMeasure(Combinator.builder()
+				.name("k1x2")
+				.underlyings(Arrays.asList(filterK1onA1.getName()))
+				.combinationKey(ExpressionCombination.KEY)
+				.combinationOptions(ImmutableMap.<String, Object>builder()
+						.put("expression", filterK1onA1.getName() + " * 2")
+						.build())
+				.build());
+		amb.addMeasure(Combinator.builder()
+				.name("k1x6")
+				.underlyings(Arrays.asList("k1x2"))
+				.combinationKey(ExpressionCombination.KEY)
+				.combinationOptions(ImmutableMap.<String, Object>builder().put("expression", "k1x2 * 3").build())
+				.build());
+		amb.addMeasure(Combinator.builder()
+				.name("k1x6PlusK2")
+				.underlyings(Arrays.asList("k1x6", "k2"))
+				.combinationKey(SumCombination.KEY)
+				.build());
+	}
+
+	/**
+	 * 
+	 * @return for each completed {@link Combinator} step, true if it has been evaluated as a lazy view.
+	 */
+	private Map<String, Boolean> measureToLazy() {
+		return recorder.getCompleted()
+				.stream()
+				.filter(completed -> completed.getQuerystep().getMeasure() instanceof Combinator)
+				.collect(Collectors.toMap(completed -> completed.getQuerystep().getMeasure().getName(),
+						QueryStepIsCompleted::isLazy));
+	}
+
+	@Test
+	public void testLazyChain() {
+		MapBasedTabularView lazy = MapBasedTabularView
+				.load(aqe.execute(AdhocQuery.builder().measure("k1x6PlusK2").groupByAlso("a").build(), rows));
+
+		Assertions.assertThat(lazy.getCoordinatesToValues())
+				.hasSize(3)
+				.containsEntry(Map.of("a", "a1"), Map.of("k1x6PlusK2", 0L + (123 + 345) * 6 + 234))
+				.containsEntry(Map.of("a", "a2"), Map.of("k1x6PlusK2", 0L + 456))
+				.containsEntry(Map.of("a", "a3"), Map.of("k1x6PlusK2", 0L + 678));
+
+		// The single-consumer single-underlying steps are lazy views, read by the queried step
+		Assertions.assertThat(measureToLazy())
+				.containsEntry("k1x2", true)
+				.containsEntry("k1x6", true)
+				.containsEntry("k1x6PlusK2", false);
+
+		// Returning the underlying measures materializes each step
+		recorder.clear();
+		MapBasedTabularView materialized = MapBasedTabularView.load(
+				aqe.execute(AdhocQuery.builder().measure("k1x6PlusK2").groupByAlso("a").build(),
+						Set.of(StandardQueryOptions.RETURN_UNDERLYING_MEASURES),
+						rows));
+
+		Map<String, ?> a1Values = materialized.getCoordinatesToValues().get(Map.of("a", "a1"));
+		Assertions.assertThat(a1Values.get("k1x2")).isEqualTo(0L + (123 + 345) * 2);
+		Assertions.assertThat(a1Values.get("k1x6")).isEqualTo(0L + (123 + 345) * 6);
+		Assertions.assertThat(measureToLazy())
+				.containsEntry("k1x2", false)
+				.containsEntry("k1x6", false)
+				.containsEntry("k1x6PlusK2", false);
+
+		lazy.getCoordinatesToValues().forEach((slice, values) -> {
+			Assertions.assertThat(materialized.getCoordinatesToValues().get(slice).get("k1x6PlusK2"))
+					.isEqualTo(values.get("k1x6PlusK2"));
+		});
+	}
+
+	@Test
+	public void testIntermediateIsQueried() {
+		// k1x2 is queried: it is materialized, while k1x6 is still lazy
+		MapBasedTabularView output = MapBasedTabularView
+				.load(aqe.execute(AdhocQuery.builder().measure("k1x2", "k1x6PlusK2").groupByAlso("a").build(), rows));
+
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(3)
+				.containsEntry(Map.of("a", "a1"),
+						Map.of("k1x2", 0L + (123 + 345) * 2, "k1x6PlusK2", 0L + (123 + 345) * 6 + 234))
+				.containsEntry(Map.of("a", "a2"), Map.of("k1x6PlusK2", 0L + 456));
+
+		Assertions.assertThat(measureToLazy())
+				.containsEntry("k1x2", false)
+				.containsEntry("k1x6", true)
+				.containsEntry("k1x6PlusK2", false);
+	}
+}
@@ -0,0 +1,114 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.measure;
+
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eu.solven.adhoc.ADagTest;
+import eu.solven.adhoc.MapBasedTabularView;
+import eu.solven.adhoc.aggregations.max.MinAggregator;
+import eu.solven.adhoc.aggregations.sum.AvgAggregator;
+import eu.solven.adhoc.aggregations.sum.AvgCarrier;
+import eu.solven.adhoc.aggregations.sum.CountAggregator;
+import eu.solven.adhoc.aggregations.sum.CountCarrier;
+import eu.solven.adhoc.aggregations.sum.ProductAggregator;
+import eu.solven.adhoc.query.AdhocQuery;
+import eu.solven.adhoc.transformers.Aggregator;
+
+public class TestAggregations_MinCountAvgProduct extends ADagTest {
+	@Override
+	@BeforeEach
+	public void feedDb() {
+		rows.add(Map.of("a", "a1", "k1", 123));
+		rows.add(Map.of("a", "a1", "k1", 234, "k2", 3));
+		rows.add(Map.of("a", "a2", "k1", -2, "k2", 5));
+		rows.add(Map.of("a", "a2"));
+
+		amb.addMeasure(Aggregator.builder().name("k1.min").columnName("k1").aggregationKey(MinAggregator.KEY).build());
+		amb.addMeasure(
+				Aggregator.builder().name("k1.count").columnName("k1").aggregationKey(CountAggregator.KEY).build());
+		amb.addMeasure(Aggregator.builder()
+				.name("count(*)")
+				.columnName(CountAggregator.ASTERISK)
+				.aggregationKey(CountAggregator.KEY)
+				.build());
+		amb.addMeasure(Aggregator.builder().name("k1.avg").columnName("k1").aggregationKey(AvgAggregator.KEY).build());
+		amb.addMeasure(
+				Aggregator.builder().name("k1.product").columnName("k1").aggregationKey(ProductAggregator.KEY).build());
+	}
+
+	@Test
+	public void testGrandTotal() {
+		MapBasedTabularView output = MapBasedTabularView.load(aqe.execute(
+				AdhocQuery.builder().measure("k1.min", "k1.count", "count(*)", "k1.avg", "k1.product").build(),
+				rows));
+
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(1)
+				.containsEntry(Map.of(),
+						Map.of("k1.min",
+								-2L,
+								"k1.count",
+								3L,
+								"count(*)",
+								4L,
+								"k1.avg",
+								(123D + 234 - 2) / 3,
+								"k1.product",
+								123L * 234 * -2));
+	}
+
+	@Test
+	public void testGroupBy() {
+		AdhocQuery query = AdhocQuery.builder().measure("k1.count", "count(*)", "k1.avg").groupByAlso("a").build();
+		MapBasedTabularView output = MapBasedTabularView.load(aqe.execute(query, rows));
+
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(2)
+				.containsEntry(Map.of("a", "a1"), Map.of("k1.count", 2L, "count(*)", 2L, "k1.avg", (123D + 234) / 2))
+				.containsEntry(Map.of("a", "a2"), Map.of("k1.count", 1L, "count(*)", 2L, "k1.avg", -2D));
+	}
+
+	@Test
+	public void testCount_mergeCarriers() {
+		CountAggregator count = new CountAggregator();
+
+		// A raw value counts as 1, while a carrier adds its count
+		Assertions.assertThat(count.aggregate("someValue", CountCarrier.of(3))).isEqualTo(CountCarrier.of(4));
+		Assertions.assertThat(count.aggregate(CountCarrier.of(2), CountCarrier.of(3))).isEqualTo(CountCarrier.of(5));
+	}
+
+	@Test
+	public void testAvg_mergeCarriers() {
+		AvgAggregator avg = new AvgAggregator();
+
+		// Averaging partial averages would give 3.5
+		Object merged = avg.aggregate(AvgCarrier.of(3, 3), AvgCarrier.of(6, 1));
+		Assertions.assertThat(merged).isEqualTo(AvgCarrier.of(9, 4));
+		Assertions.assertThat(((AvgCarrier) merged).getFinalValue()).isEqualTo(2.25D);
+	}
+}
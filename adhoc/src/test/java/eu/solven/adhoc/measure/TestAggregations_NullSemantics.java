@@ -0,0 +1,120 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.measure;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eu.solven.adhoc.ADagTest;
+import eu.solven.adhoc.IAdhocTestConstants;
+import eu.solven.adhoc.MapBasedTabularView;
+import eu.solven.adhoc.aggregations.CombinationNullSemantics;
+import eu.solven.adhoc.aggregations.sum.ProductCombination;
+import eu.solven.adhoc.aggregations.sum.SumAggregator;
+import eu.solven.adhoc.aggregations.sum.SumCombination;
+import eu.solven.adhoc.dag.CoordinatesToValues;
+import eu.solven.adhoc.query.AdhocQuery;
+import eu.solven.adhoc.slice.AdhocSliceAsMap;
+import eu.solven.adhoc.transformers.Aggregator;
+import eu.solven.adhoc.transformers.Combinator;
+import eu.solven.adhoc.transformers.UnderlyingQueryStepHelpers;
+
+/**
+ * Checks {@link CombinationNullSemantics#NULL_IF_ANY_NULL} combinations are evaluated on the intersection of slices.
+ */
+public class TestAggregations_NullSemantics extends ADagTest implements IAdhocTestConstants {
+	@Override
+	@BeforeEach
+	public void feedDb() {
+		rows.add(Map.of("a", "a1", "k1", 123, "k2", 234));
+		rows.add(Map.of("a", "a1", "k1", 345));
+		rows.add(Map.of("a", "a2", "k2", 456));
+		rows.add(Map.of("a", "a3", "k1", 567, "k2", 678));
+		rows.add(Map.of("a", "a4", "k1", 789));
+
+		amb.addMeasure(k1Sum);
+		amb.addMeasure(Aggregator.builder().name("k2").aggregationKey(SumAggregator.KEY).build());
+
+		amb.addMeasure(Combinator.builder()
+				.name("k1TimesK2")
+				.underlyings(Arrays.asList("k1", "k2"))
+				.combinationKey(ProductCombination.KEY)
+				.build());
+		amb.addMeasure(Combinator.builder()
+				.name("sumK1K2")
+				.underlyings(Arrays.asList("k1", "k2"))
+				.combinationKey(SumCombination.KEY)
+				.build());
+	}
+
+	@Test
+	public void testProduct_intersection() {
+		MapBasedTabularView output = MapBasedTabularView
+				.load(aqe.execute(AdhocQuery.builder().measure("k1TimesK2").groupByAlso("a").build(), rows));
+
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(2)
+				.containsEntry(Map.of("a", "a1"), Map.of("k1TimesK2", (123L + 345) * 234))
+				.containsEntry(Map.of("a", "a3"), Map.of("k1TimesK2", 567L * 678));
+	}
+
+	@Test
+	public void testProduct_fusedWithSum() {
+		MapBasedTabularView output = MapBasedTabularView.load(
+				aqe.execute(AdhocQuery.builder().measure("k1TimesK2", "sumK1K2").groupByAlso("a").build(), rows));
+
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(4)
+				.containsEntry(Map.of("a", "a1"),
+						Map.of("k1TimesK2", (123L + 345) * 234, "sumK1K2", 123L + 345 + 234))
+				.containsEntry(Map.of("a", "a2"), Map.of("sumK1K2", 456L))
+				.containsEntry(Map.of("a", "a3"), Map.of("k1TimesK2", 567L * 678, "sumK1K2", 567L + 678))
+				.containsEntry(Map.of("a", "a4"), Map.of("sumK1K2", 789L));
+	}
+
+	@Test
+	public void testIntersectionSlices() {
+		AdhocSliceAsMap a1 = AdhocSliceAsMap.fromMap(Map.of("a", "a1"));
+		AdhocSliceAsMap a2 = AdhocSliceAsMap.fromMap(Map.of("a", "a2"));
+		AdhocSliceAsMap a3 = AdhocSliceAsMap.fromMap(Map.of("a", "a3"));
+
+		CoordinatesToValues left = CoordinatesToValues.builder().build();
+		left.put(a1, 1);
+		left.put(a2, 2);
+		left.put(a3, 3);
+		CoordinatesToValues right = CoordinatesToValues.builder().build();
+		right.put(a2, 2);
+		right.put(a3, 3);
+
+		Assertions.assertThat(UnderlyingQueryStepHelpers.intersectionSlices(false, List.of(left, right)))
+				.containsExactlyInAnyOrder(a2, a3);
+		Assertions.assertThat(UnderlyingQueryStepHelpers.intersectionSlices(true, List.of(left, right)))
+				.containsExactly(a2, a3);
+		Assertions.assertThat(UnderlyingQueryStepHelpers.intersectionSlices(false, List.of())).isEmpty();
+	}
+}
@@ -0,0 +1,166 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.measure;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.datasketches.hll.HllSketch;
+import org.assertj.core.api.Assertions;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import eu.solven.adhoc.ADagTest;
+import eu.solven.adhoc.MapBasedTabularView;
+import eu.solven.adhoc.aggregations.max.MaxCombination;
+import eu.solven.adhoc.aggregations.sketch.HllCountDistinctAggregator;
+import eu.solven.adhoc.aggregations.sketch.KllQuantileAggregator;
+import eu.solven.adhoc.aggregations.sketch.PushedDownEstimate;
+import eu.solven.adhoc.aggregations.sketch.SketchEstimateCombination;
+import eu.solven.adhoc.query.AdhocQuery;
+import eu.solven.adhoc.query.groupby.GroupByColumns;
+import eu.solven.adhoc.transformers.Aggregator;
+import eu.solven.adhoc.transformers.Bucketor;
+import eu.solven.adhoc.transformers.Combinator;
+
+public class TestAggregations_Sketches extends ADagTest {
+	@Override
+	@BeforeEach
+	public void feedDb() {
+		rows.add(Map.of("a", "a1", "user", "u1", "amount", 10));
+		rows.add(Map.of("a", "a1", "user", "u2", "amount", 20));
+		rows.add(Map.of("a", "a1", "user", "u1", "amount", 30));
+		rows.add(Map.of("a", "a2", "user", "u2", "amount", 40));
+		rows.add(Map.of("a", "a2", "user", "u3", "amount", 50));
+
+		amb.addMeasure(Aggregator.builder()
+				.name("users")
+				.columnName("user")
+				.aggregationKey(HllCountDistinctAggregator.KEY)
+				.build());
+		amb.addMeasure(Aggregator.builder()
+				.name("amounts")
+				.columnName("amount")
+				.aggregationKey(KllQuantileAggregator.KEY)
+				.build());
+
+		amb.addMeasure(Combinator.builder()
+				.name("distinctUsers")
+				.underlyings(Arrays.asList("users"))
+				.combinationKey(SketchEstimateCombination.KEY)
+				.build());
+		amb.addMeasure(Combinator.builder()
+				.name("medianAmount")
+				.underlyings(Arrays.asList("amounts"))
+				.combinationKey(SketchEstimateCombination.KEY)
+				.build());
+		amb.addMeasure(Combinator.builder()
+				.name("maxAmount")
+				.underlyings(Arrays.asList("amounts"))
+				.combinationKey(SketchEstimateCombination.KEY)
+				.combinationOptions(Map.of(SketchEstimateCombination.K_QUANTILE, 1D))
+				.build());
+	}
+
+	@Test
+	public void testCountDistinct() {
+		MapBasedTabularView output =
+				MapBasedTabularView.load(aqe.execute(AdhocQuery.builder().measure("distinctUsers").build(), rows));
+
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(1)
+				.containsEntry(Map.of(), Map.of("distinctUsers", 3L));
+	}
+
+	@Test
+	public void testCountDistinct_groupBy() {
+		MapBasedTabularView output = MapBasedTabularView
+				.load(aqe.execute(AdhocQuery.builder().measure("distinctUsers").groupByAlso("a").build(), rows));
+
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(2)
+				.containsEntry(Map.of("a", "a1"), Map.of("distinctUsers", 2L))
+				.containsEntry(Map.of("a", "a2"), Map.of("distinctUsers", 2L));
+	}
+
+	// The Bucketor merges the sketches of each bucket: a user present in multiple buckets is counted once
+	@Test
+	public void testCountDistinct_bucketor() {
+		amb.addMeasure(Bucketor.builder()
+				.name("usersByA")
+				.underlyings(Arrays.asList("users"))
+				.groupBy(GroupByColumns.named("a"))
+				.combinationKey(MaxCombination.KEY)
+				.aggregationKey(HllCountDistinctAggregator.KEY)
+				.build());
+		amb.addMeasure(Combinator.builder()
+				.name("distinctUsersByA")
+				.underlyings(Arrays.asList("usersByA"))
+				.combinationKey(SketchEstimateCombination.KEY)
+				.build());
+
+		MapBasedTabularView output =
+				MapBasedTabularView.load(aqe.execute(AdhocQuery.builder().measure("distinctUsersByA").build(), rows));
+
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(1)
+				.containsEntry(Map.of(), Map.of("distinctUsersByA", 3L));
+	}
+
+	@Test
+	public void testQuantiles() {
+		MapBasedTabularView output = MapBasedTabularView.load(
+				aqe.execute(AdhocQuery.builder().measure("medianAmount", "maxAmount").groupByAlso("a").build(), rows));
+
+		Assertions.assertThat(output.getCoordinatesToValues())
+				.hasSize(2)
+				.containsEntry(Map.of("a", "a1"), Map.of("medianAmount", 20D, "maxAmount", 30D))
+				.containsEntry(Map.of("a", "a2"), Map.of("medianAmount", 40D, "maxAmount", 50D));
+	}
+
+	@Test
+	public void testHll_mergeSketches() {
+		HllCountDistinctAggregator agg = new HllCountDistinctAggregator();
+
+		Object left = agg.aggregate("u1", "u2");
+		Object right = agg.aggregate("u2", 3L);
+
+		Assertions.assertThat(agg.aggregate(left, right))
+				.isInstanceOfSatisfying(HllSketch.class,
+						hll -> Assertions.assertThat(hll.getEstimate()).isCloseTo(3D, Offset.offset(0.01D)));
+	}
+
+	@Test
+	public void testHll_pushedDownEstimate() {
+		HllCountDistinctAggregator agg = new HllCountDistinctAggregator();
+		PushedDownEstimate estimate = PushedDownEstimate.of(123L);
+
+		Assertions.assertThat(agg.aggregate(null, estimate)).isEqualTo(estimate);
+		Assertions.assertThat(new SketchEstimateCombination().combine(Arrays.asList(estimate))).isEqualTo(123L);
+
+		// An estimate computed by the database is not mergeable
+		Assertions.assertThatThrownBy(() -> agg.aggregate(estimate, PushedDownEstimate.of(234L)))
+				.isInstanceOf(UnsupportedOperationException.class);
+	}
+}
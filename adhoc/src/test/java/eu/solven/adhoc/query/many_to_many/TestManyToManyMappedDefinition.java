@@ -0,0 +1,154 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.query.many_to_many;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSetMultimap;
+
+import eu.solven.adhoc.ADagTest;
+import eu.solven.adhoc.IAdhocTestConstants;
+import eu.solven.adhoc.ITabularView;
+import eu.solven.adhoc.MapBasedTabularView;
+import eu.solven.adhoc.aggregations.IDecomposition;
+import eu.solven.adhoc.aggregations.StandardOperatorsFactory;
+import eu.solven.adhoc.aggregations.many_to_many.ManyToManyDecomposition;
+import eu.solven.adhoc.aggregations.many_to_many.ManyToManyMappedDefinition;
+import eu.solven.adhoc.aggregations.many_to_many.ManyToManyMappedWriter;
+import eu.solven.adhoc.dag.AdhocQueryEngine;
+import eu.solven.adhoc.query.AdhocQuery;
+import eu.solven.adhoc.transformers.Dispatchor;
+
+public class TestManyToManyMappedDefinition extends ADagTest implements IAdhocTestConstants {
+	final String dispatchedMeasure = "k1.dispatched";
+
+	final String cElement = "country";
+	final String cGroup = "country_groups";
+
+	Path tmpPath;
+
+	@Override
+	@BeforeEach
+	public void feedDb() {
+		rows.add(Map.of("l", "A", cElement, "FR", "k1", 123));
+		rows.add(Map.of("l", "A", cElement, "CH", "k1", 234));
+		rows.add(Map.of("l", "A", cElement, "ZW", "k1", 345));
+	}
+
+	@BeforeEach
+	public void writeDefinition() throws IOException {
+		tmpPath = Files.createTempFile(this.getClass().getSimpleName(), ".m2m");
+
+		ManyToManyMappedWriter.write(tmpPath,
+				ImmutableSetMultimap.<String, String>builder()
+						.put("FR", "G8")
+						.put("FR", "G20")
+						.put("CH", "G20")
+						.put("CH", "EFTA")
+						// Not sorted by String.compareTo, as UTF-8 bytes and UTF-16 chars are not ordered the same way
+						.put("\uFB01", "\uD83D\uDE00")
+						.put("\uD83D\uDE00", "\uFB01")
+						.build());
+	}
+
+	@AfterEach
+	public void afterEach() throws IOException {
+		if (Files.exists(tmpPath)) {
+			// Remove temporary files
+			Files.delete(tmpPath);
+		}
+	}
+
+	@Test
+	public void testLookups() throws IOException {
+		ManyToManyMappedDefinition definition = ManyToManyMappedDefinition.open(tmpPath);
+
+		Assertions.assertThat(definition.getGroups("FR")).containsExactlyInAnyOrder("G8", "G20");
+		Assertions.assertThat(definition.getGroups("CH")).containsExactlyInAnyOrder("G20", "EFTA");
+		Assertions.assertThat(definition.getGroups("ZW")).isEmpty();
+		Assertions.assertThat(definition.getGroups(123)).isEmpty();
+
+		Assertions.assertThat(definition.getGroups("\uFB01")).containsExactly("\uD83D\uDE00");
+		Assertions.assertThat(definition.getGroups("\uD83D\uDE00")).containsExactly("\uFB01");
+
+		Assertions.assertThat(definition.getElementsMatchingGroups(group -> "G20".equals(group)))
+				.containsExactlyInAnyOrder("FR", "CH");
+		Assertions.assertThat(definition.getElementsMatchingGroups(group -> Set.of("G8", "EFTA").contains(group)))
+				.containsExactlyInAnyOrder("FR", "CH");
+		Assertions.assertThat(definition.getElementsMatchingGroups(group -> false)).isEmpty();
+
+		Assertions.assertThat(definition.getMatchingGroups(group -> group.toString().startsWith("G")))
+				.containsExactlyInAnyOrder("G8", "G20");
+	}
+
+	@Test
+	public void test_GroupByGroup() throws IOException {
+		ManyToManyMappedDefinition definition = ManyToManyMappedDefinition.open(tmpPath);
+
+		AdhocQueryEngine aqe = AdhocQueryEngine.builder()
+				.eventBus(eventBus)
+				.measureBag(amb)
+				.operatorsFactory(new StandardOperatorsFactory() {
+					@Override
+					public IDecomposition makeDecomposition(String key, Map<String, ?> options) {
+						if (ManyToManyDecomposition.KEY.equals(key)) {
+							return new ManyToManyDecomposition(options, definition);
+						}
+						return super.makeDecomposition(key, options);
+					}
+				})
+				.build();
+
+		amb.addMeasure(Dispatchor.builder()
+				.name(dispatchedMeasure)
+				.underlying("k1")
+				.decompositionKey(ManyToManyDecomposition.KEY)
+				.decompositionOptions(ImmutableMap.<String, Object>builder()
+						.put(ManyToManyDecomposition.K_INPUT, cElement)
+						.put(ManyToManyDecomposition.K_OUTPUT, cGroup)
+						.build())
+				.build());
+		amb.addMeasure(k1Sum);
+
+		ITabularView output =
+				aqe.execute(AdhocQuery.builder().measure(dispatchedMeasure).groupByAlso(cGroup).build(), rows);
+
+		MapBasedTabularView mapBased = MapBasedTabularView.load(output);
+
+		Assertions.assertThat(mapBased.getCoordinatesToValues())
+				.hasSize(3)
+				.containsEntry(Map.of(cGroup, "G8"), Map.of(dispatchedMeasure, 0L + 123))
+				.containsEntry(Map.of(cGroup, "G20"), Map.of(dispatchedMeasure, 0L + 123 + 234))
+				.containsEntry(Map.of(cGroup, "EFTA"), Map.of(dispatchedMeasure, 0L + 234));
+	}
+}
@@ -0,0 +1,126 @@
+/**
+ * The MIT License
+ * Copyright (c) 2024 Benoit Chatain Lacelle - SOLVEN
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package eu.solven.adhoc.storage;
+
+import java.math.BigDecimal;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import eu.solven.adhoc.aggregations.StandardOperatorsFactory;
+import eu.solven.adhoc.aggregations.collection.CountDistinctAggregator;
+import eu.solven.adhoc.aggregations.collection.DistinctIds;
+import eu.solven.adhoc.aggregations.sum.SumAggregator;
+import eu.solven.adhoc.database.AggregatedColumnType;
+import eu.solven.adhoc.transformers.Aggregator;
+
+public class TestAggregatingMeasurators {
+	AggregatingMeasurators<String> measurators = new AggregatingMeasurators<>(new StandardOperatorsFactory());
+
+	Aggregator k1Sum = Aggregator.builder().name("k1").aggregationKey(SumAggregator.KEY).build();
+
+	private Object getValue(Aggregator aggregator, String key) {
+		Object[] value = new Object[1];
+		measurators.getAggregatorToStorage()
+				.get(aggregator)
+				.onValue(key, AsObjectValueConsumer.consumer(o -> value[0] = o));
+		return value[0];
+	}
+
+	@Test
+	public void testTyped_long() {
+		measurators.contribute(k1Sum, "a", 123, AggregatedColumnType.LONG);
+		measurators.contribute(k1Sum, "a", 234L, AggregatedColumnType.LONG);
+
+		MultiTypeStorage<String> storage = measurators.getAggregatorToStorage().get(k1Sum);
+		Assertions.assertThat(storage.measureToAggregateL.getLong("a")).isEqualTo(123L + 234);
+	}
+
+	@Test
+	public void testTyped_double() {
+		measurators.contribute(k1Sum, "a", 1.5D, AggregatedColumnType.DOUBLE);
+		measurators.contribute(k1Sum, "a", 2.5F, AggregatedColumnType.DOUBLE);
+
+		MultiTypeStorage<String> storage = measurators.getAggregatorToStorage().get(k1Sum);
+		Assertions.assertThat(storage.measureToAggregateD.getDouble("a")).isEqualTo(4D);
+	}
+
+	// Decimals are decoded as they would be by `SumAggregator.isLongLike`
+	@Test
+	public void testTyped_decimal() {
+		measurators.contribute(k1Sum, "long", new BigDecimal("123.0"), AggregatedColumnType.DECIMAL);
+		measurators.contribute(k1Sum, "long", BigDecimal.valueOf(234), AggregatedColumnType.DECIMAL);
+
+		measurators.contribute(k1Sum, "double", new BigDecimal("1.5"), AggregatedColumnType.DECIMAL);
+		measurators.contribute(k1Sum, "double", BigDecimal.valueOf(2), AggregatedColumnType.DECIMAL);
+
+		measurators.contribute(k1Sum, "huge", new BigDecimal("1e30"), AggregatedColumnType.DECIMAL);
+
+		Assertions.assertThat(getValue(k1Sum, "long")).isEqualTo(123L + 234);
+		Assertions.assertThat(getValue(k1Sum, "double")).isEqualTo(3.5D);
+		Assertions.assertThat(getValue(k1Sum, "huge")).isEqualTo(1e30D);
+	}
+
+	@Test
+	public void testTyped_sameAsUntyped() {
+		AggregatingMeasurators<String> untyped = new AggregatingMeasurators<>(new StandardOperatorsFactory());
+
+		Object[] values = { 123, new BigDecimal("1.5"), 234L, new BigDecimal("345") };
+		for (Object value : values) {
+			measurators.contribute(k1Sum, "a", value, AggregatedColumnType.DECIMAL);
+			untyped.contribute(k1Sum, "a", value);
+		}
+
+		Object[] untypedValue = new Object[1];
+		untyped.getAggregatorToStorage()
+				.get(k1Sum)
+				.onValue("a", AsObjectValueConsumer.consumer(o -> untypedValue[0] = o));
+
+		Assertions.assertThat(getValue(k1Sum, "a")).isEqualTo(untypedValue[0]).isEqualTo(123 + 1.5D + 234 + 345);
+	}
+
+	// The declared type is a hint: a value of another type is aggregated as if it was not typed
+	@Test
+	public void testTyped_mismatchingValue() {
+		measurators.contribute(k1Sum, "a", 123L, AggregatedColumnType.DOUBLE);
+		measurators.contribute(k1Sum, "a", "someString", AggregatedColumnType.LONG);
+
+		Assertions.assertThat(getValue(k1Sum, "a")).isEqualTo(123L + "someString");
+	}
+
+	// Typing is ignored by non-primitive aggregations, which receive the raw value
+	@Test
+	public void testTyped_notPrimitiveAggregation() {
+		Aggregator countDistinct =
+				Aggregator.builder().name("k1").aggregationKey(CountDistinctAggregator.KEY).build();
+
+		measurators.contribute(countDistinct, "a", BigDecimal.valueOf(123), AggregatedColumnType.DECIMAL);
+		measurators.contribute(countDistinct, "a", new BigDecimal("1.5"), AggregatedColumnType.DECIMAL);
+		measurators.getAggregatorToStorage().get(countDistinct).closeAccumulators();
+
+		Assertions.assertThat(getValue(countDistinct, "a"))
+				.isInstanceOfSatisfying(DistinctIds.class,
+						distinctIds -> Assertions.assertThat(distinctIds.toValues())
+								.containsExactly(123L, new BigDecimal("1.5")));
+	}
+}
@@ -22,11 +22,17 @@
  */
 package eu.solven.adhoc.storage;
 
+import java.util.Set;
+
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableSet;
+
 import eu.solven.adhoc.aggregations.IAggregation;
+import eu.solven.adhoc.aggregations.collection.UnionSetAggregator;
 import eu.solven.adhoc.aggregations.sum.SumAggregator;
+import eu.solven.adhoc.aggregations.sum.SumElseSetAggregator;
 
 public class TestMultiTypeStorage {
 	IAggregation sum = new SumAggregator();
@@ -73,4 +79,133 @@ public class TestMultiTypeStorage {
 			Assertions.assertThat(o).isEqualTo("123234");
 		}));
 	}
+
+	@Test
+	public void testMergeLong() {
+		storage.mergeLong("k1", 123);
+		storage.mergeLong("k1", 234L);
+
+		storage.onValue("k1", AsObjectValueConsumer.consumer(o -> {
+			Assertions.assertThat(o).isEqualTo(357L);
+		}));
+	}
+
+	@Test
+	public void testMergeLongAndDouble() {
+		storage.mergeLong("k1", 123);
+		storage.mergeDouble("k1", 234.5D);
+		storage.mergeLong("k1", 345);
+
+		storage.onValue("k1", AsObjectValueConsumer.consumer(o -> {
+			Assertions.assertThat(o).isEqualTo(702.5D);
+		}));
+	}
+
+	@Test
+	public void testMergeDoubleAndString() {
+		storage.merge("k1", "123");
+		storage.mergeDouble("k1", 234.5D);
+
+		storage.onValue("k1", AsObjectValueConsumer.consumer(o -> {
+			Assertions.assertThat(o).isEqualTo("123234.5");
+		}));
+	}
+
+	@Test
+	public void testMergeLong_notPrimitiveAggregation() {
+		// A custom aggregation is not assumed to aggregate longs as longs
+		MultiTypeStorage<String> customStorage = MultiTypeStorage.<String>builder().aggregation(new SumAggregator() {
+			@Override
+			public long aggregateLongs(long left, long right) {
+				throw new UnsupportedOperationException();
+			}
+
+			@Override
+			public Object aggregate(Object l, Object r) {
+				if (l == null) {
+					return r;
+				}
+				return l + "-" + r;
+			}
+		}).build();
+
+		customStorage.mergeLong("k1", 123);
+		customStorage.mergeLong("k1", 234L);
+
+		customStorage.onValue("k1", AsObjectValueConsumer.consumer(o -> {
+			Assertions.assertThat(o).isEqualTo("123-234");
+		}));
+	}
+
+	@Test
+	public void testAccumulate_strings() {
+		storage.merge("k1", 12);
+		for (int i = 0; i < 100; i++) {
+			storage.merge("k1", "a");
+		}
+		storage.merge("k1", 3);
+
+		String expected = "12" + "a".repeat(100) + "3";
+		// Readable before being closed
+		storage.onValue("k1", AsObjectValueConsumer.consumer(o -> Assertions.assertThat(o).isEqualTo(expected)));
+
+		storage.closeAccumulators();
+		Assertions.assertThat(storage.measureToAccumulator).isEmpty();
+		storage.onValue("k1", AsObjectValueConsumer.consumer(o -> Assertions.assertThat(o).isEqualTo(expected)));
+	}
+
+	@Test
+	public void testAccumulate_unionSet() {
+		MultiTypeStorage<String> setStorage =
+				MultiTypeStorage.<String>builder().aggregation(new UnionSetAggregator<>()).build();
+
+		for (int i = 0; i < 100; i++) {
+			setStorage.merge("k1", Set.of(i % 10));
+		}
+		setStorage.closeAccumulators();
+
+		setStorage.onValue("k1", AsObjectValueConsumer.consumer(o -> {
+			Assertions.assertThat(o)
+					.isInstanceOf(ImmutableSet.class)
+					.isEqualTo(ImmutableSet.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+		}));
+	}
+
+	@Test
+	public void testAccumulate_sumElseSet() {
+		MultiTypeStorage<String> errorStorage =
+				MultiTypeStorage.<String>builder().aggregation(new SumElseSetAggregator()).build();
+
+		errorStorage.merge("k1", 123);
+		errorStorage.merge("k1", "error1");
+		errorStorage.merge("k1", 234);
+		errorStorage.merge("k1", Set.of("error2"));
+		errorStorage.merge("k2", 345);
+		errorStorage.closeAccumulators();
+
+		errorStorage.onValue("k1", AsObjectValueConsumer.consumer(o -> {
+			Assertions.assertThat(o).isEqualTo(Set.of("error1", "error2"));
+		}));
+		errorStorage.onValue("k2", AsObjectValueConsumer.consumer(o -> {
+			Assertions.assertThat(o).isEqualTo(345L);
+		}));
+	}
+
+	@Test
+	public void testAccumulate_mergeAll() {
+		MultiTypeStorage<String> other = MultiTypeStorage.<String>builder().aggregation(sum).build();
+
+		storage.merge("k1", "a");
+		storage.merge("k2", 1);
+		other.merge("k1", "b");
+		other.merge("k2", "c");
+		other.merge("k3", "d");
+
+		storage.mergeAll(other);
+		storage.closeAccumulators();
+
+		storage.onValue("k1", AsObjectValueConsumer.consumer(o -> Assertions.assertThat(o).isEqualTo("ab")));
+		storage.onValue("k2", AsObjectValueConsumer.consumer(o -> Assertions.assertThat(o).isEqualTo("1c")));
+		storage.onValue("k3", AsObjectValueConsumer.consumer(o -> Assertions.assertThat(o).isEqualTo("d")));
+	}
 }